@@ -0,0 +1,39 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration externalisée de l'import d'activités (CSV, exports ERP)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.activity-import")
+@Data
+public class ActivityImportConfig {
+
+    /**
+     * Nombre d'écritures validées par transaction lors d'un import
+     */
+    private int chunkSize = 500;
+
+    /**
+     * Intervalle de report en base des compteurs d'utilisation des règles de mapping (ms)
+     */
+    private long usageFlushIntervalMs = 30_000;
+
+    /**
+     * Nombre de premières lignes affichées en prévisualisation
+     */
+    private int previewRows = 50;
+
+    /**
+     * Taille de l'échantillon aléatoire (reste du fichier) utilisé pour les statistiques de prévisualisation
+     */
+    private int previewSampleSize = 1000;
+
+    /**
+     * Durée de validité d'un jeton de prévisualisation (minutes)
+     */
+    private long previewTokenTtlMinutes = 30;
+}
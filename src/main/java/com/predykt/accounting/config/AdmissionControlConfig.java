@@ -0,0 +1,114 @@
+package com.predykt.accounting.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Contrôle d'admission des opérations coûteuses (@HeavyOperation)
+ *
+ * - Seau à jetons par tenant et par classe d'opération (rafale puis débit par minute), au-delà: 429
+ * - Nombre borné d'opérations coûteuses simultanées, file d'attente équitable entre tenants
+ *   (coût de la classe divisé par le poids du tenant), au-delà de l'attente maximale: 503
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.admission")
+@Data
+public class AdmissionControlConfig {
+
+    /**
+     * Classe d'opération coûteuse et sa politique par défaut
+     */
+    public enum EndpointClass {
+        MATCHING(10, 20, 5),
+        EXPORT(20, 30, 3),
+        REPORT(30, 60, 2),
+        DASHBOARD(60, 120, 1),
+        METRICS(60, 120, 1);
+
+        private final ClassPolicy defaults;
+
+        EndpointClass(int bucketCapacity, int refillPerMinute, int cost) {
+            this.defaults = new ClassPolicy(bucketCapacity, refillPerMinute, cost);
+        }
+    }
+
+    /**
+     * Activer le contrôle d'admission
+     */
+    private boolean enabled = true;
+
+    /**
+     * Opérations coûteuses exécutées simultanément (toutes classes et tenants confondus)
+     */
+    private int maxConcurrent = 16;
+
+    /**
+     * Requêtes en attente au maximum, au-delà: 503 immédiat
+     * Une requête en file immobilise son thread Tomcat: sur threads de plateforme, la file est en outre
+     * bornée au quart de server.tomcat.threads.max pour laisser les autres endpoints servis.
+     */
+    private int maxQueueDepth = 32;
+
+    /**
+     * Attente maximale dans la file (ms)
+     */
+    private long queueTimeoutMs = 10_000;
+
+    /**
+     * Surcharges par classe (champs absents: valeurs par défaut de la classe)
+     */
+    private Map<EndpointClass, ClassPolicy> classes = new EnumMap<>(EndpointClass.class);
+
+    /**
+     * Poids des tenants dans la file équitable (clé company-X, tenant-X ou cabinet-X, défaut 1)
+     */
+    private Map<String, Double> tenantWeights = new HashMap<>();
+
+    /**
+     * Politique effective d'une classe
+     */
+    public ClassPolicy policyFor(EndpointClass endpointClass) {
+        ClassPolicy defaults = endpointClass.defaults;
+        ClassPolicy override = classes.get(endpointClass);
+        if (override == null) {
+            return defaults;
+        }
+        return new ClassPolicy(
+            override.getBucketCapacity() != null ? override.getBucketCapacity() : defaults.getBucketCapacity(),
+            override.getRefillPerMinute() != null ? override.getRefillPerMinute() : defaults.getRefillPerMinute(),
+            override.getCost() != null ? override.getCost() : defaults.getCost());
+    }
+
+    public double weightOf(String tenantKey) {
+        Double weight = tenantWeights.get(tenantKey);
+        return weight != null && weight > 0 ? weight : 1.0;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ClassPolicy {
+
+        /**
+         * Jetons disponibles en rafale
+         */
+        private Integer bucketCapacity;
+
+        /**
+         * Jetons rendus par minute
+         */
+        private Integer refillPerMinute;
+
+        /**
+         * Coût relatif dans la file équitable
+         */
+        private Integer cost;
+    }
+}
@@ -0,0 +1,109 @@
+package com.predykt.accounting.config;
+
+import com.predykt.accounting.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Contrôle d'admission des endpoints @HeavyOperation (voir HeavyOperationScheduler)
+ *
+ * Tenant retenu pour l'équité: tenant ou cabinet (modes DEDICATED/CABINET), sinon l'entreprise de
+ * l'utilisateur authentifié (un cabinet qui travaille sur 200 dossiers reste un seul tenant),
+ * à défaut l'entreprise de l'URL.
+ * Refus: 429 (débit du tenant dépassé) ou 503 (file pleine, attente trop longue), avec Retry-After.
+ */
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String ADMITTED_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".admitted";
+
+    private final HeavyOperationScheduler scheduler;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!scheduler.isEnabled() || !(handler instanceof HandlerMethod handlerMethod)
+                || request.getAttribute(ADMITTED_ATTRIBUTE) != null) {
+            return true;
+        }
+        HeavyOperation heavyOperation = findAnnotation(handlerMethod);
+        if (heavyOperation == null) {
+            return true;
+        }
+
+        HeavyOperationScheduler.Outcome outcome;
+        try {
+            outcome = scheduler.admit(tenantKey(request), heavyOperation.value());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return false;
+        }
+
+        switch (outcome) {
+            case ADMITTED -> {
+                request.setAttribute(ADMITTED_ATTRIBUTE, heavyOperation.value());
+                return true;
+            }
+            case RATE_LIMITED -> {
+                response.setStatus(429);
+                response.setHeader("Retry-After", "30");
+                return false;
+            }
+            default -> {
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                response.setHeader("Retry-After", "10");
+                return false;
+            }
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (request.isAsyncStarted()) {
+            return; // Place libérée à la fin du traitement asynchrone (exports en flux)
+        }
+        Object admitted = request.getAttribute(ADMITTED_ATTRIBUTE);
+        if (admitted instanceof AdmissionControlConfig.EndpointClass endpointClass) {
+            request.removeAttribute(ADMITTED_ATTRIBUTE);
+            scheduler.release(endpointClass);
+        }
+    }
+
+    private static HeavyOperation findAnnotation(HandlerMethod handlerMethod) {
+        HeavyOperation annotation = handlerMethod.getMethodAnnotation(HeavyOperation.class);
+        return annotation != null
+            ? annotation
+            : AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), HeavyOperation.class);
+    }
+
+    private static String tenantKey(HttpServletRequest request) {
+        if (TenantContextHolder.hasContext()) {
+            TenantContextHolder.TenantContext context = TenantContextHolder.getContext();
+            if (context.getMode() != TenantContextHolder.TenantMode.SHARED) {
+                return TenantConcurrencyLimiter.currentTenantKey();
+            }
+        }
+
+        if (request.getAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE) instanceof Claims claims
+                && claims.get("companyId") instanceof Number companyId) {
+            return "company-" + companyId.longValue();
+        }
+
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("companyId") != null) {
+            return "company-" + variables.get("companyId");
+        }
+        return "anonymous";
+    }
+}
@@ -4,8 +4,11 @@
 package com.predykt.accounting.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
@@ -14,6 +17,12 @@ import java.util.concurrent.Executor;
 
 /**
  * Configuration pour l'exécution asynchrone
+ *
+ * - Par défaut : pool de threads borné
+ * - spring.threads.virtual.enabled=true (Java 21+) : requêtes Tomcat et tâches @Async sur threads virtuels,
+ *   bornées par les limites globale et par tenant de predykt.concurrency
+ *
+ * Dans les deux cas, le contexte tenant et le contexte de sécurité sont propagés explicitement aux tâches.
  */
 @Configuration
 @EnableAsync
@@ -22,7 +31,8 @@ import java.util.concurrent.Executor;
 public class AsyncConfig {
     
     @Bean(name = "taskExecutor")
-    public Executor taskExecutor() {
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Executor taskExecutor(TenantConcurrencyLimiter concurrencyLimiter) {
         log.info("🔧 Configuration du ThreadPoolTaskExecutor pour tâches asynchrones");
         
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -30,9 +40,44 @@ public class AsyncConfig {
         executor.setMaxPoolSize(10);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("predykt-async-");
+        executor.setTaskDecorator(new TenantContextTaskDecorator(concurrencyLimiter, false));
+        executor.initialize();
+        
+        return executor;
+    }
+    
+    @Bean(name = "taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Executor virtualThreadTaskExecutor(TenantConcurrencyLimiter concurrencyLimiter,
+                                              TenantConcurrencyConfig concurrencyConfig) {
+        log.info("🔧 Configuration des threads virtuels pour tâches asynchrones (max {} simultanées, {} par tenant)",
+                 concurrencyConfig.getMaxAsyncTasks(), concurrencyConfig.getMaxAsyncTasksPerTenant());
+        
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("predykt-vasync-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyConfig.getMaxAsyncTasks());
+        executor.setTaskDecorator(new TenantContextTaskDecorator(concurrencyLimiter, true));
+        
+        return executor;
+    }
+    
+    /**
+     * Imports démarrés pendant un envoi fractionné (ChunkedUploadService)
+     * Chaque import occupe son thread jusqu'à la fin de l'envoi: pool dédié, borné et sans file
+     * (un refus reporte l'import à la fin de l'envoi). Le contexte est posé par le service.
+     */
+    @Bean(name = "uploadImportExecutor")
+    public Executor uploadImportExecutor(ChunkedUploadConfig uploadConfig) {
+        int poolSize = Math.max(1, uploadConfig.getMaxEarlyImports());
+        log.info("🔧 Configuration du pool d'imports pendant l'envoi ({} simultanés)", poolSize);
+        
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("upload-import-");
         executor.initialize();
         
         return executor;
     }
 }
-
@@ -0,0 +1,30 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration externalisée de l'import des relevés bancaires
+ * Taille des lots de lecture/écriture et profondeur du pipeline parsing → insertion
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.bank-import")
+@Data
+public class BankImportConfig {
+
+    /**
+     * Nombre de transactions lues avant contrôle des doublons et insertion
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Nombre de lignes envoyées par lot JDBC
+     */
+    private int batchSize = 500;
+
+    /**
+     * Nombre de lots parsés pouvant attendre l'insertion
+     */
+    private int queueCapacity = 4;
+}
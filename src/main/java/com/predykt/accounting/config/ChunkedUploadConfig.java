@@ -0,0 +1,50 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration externalisée des envois fractionnés (relevés bancaires, activités)
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.upload")
+@Data
+public class ChunkedUploadConfig {
+
+    /**
+     * Répertoire local de préparation des fichiers en cours d'envoi
+     */
+    private String stagingDir = System.getProperty("java.io.tmpdir") + "/predykt-uploads";
+
+    /**
+     * Taille maximale d'un fragment (octets)
+     */
+    private long maxChunkSize = 8L * 1024 * 1024;
+
+    /**
+     * Taille maximale d'un fichier (octets)
+     */
+    private long maxFileSize = 2L * 1024 * 1024 * 1024;
+
+    /**
+     * Durée de vie d'un envoi inactif avant suppression (heures)
+     */
+    private long sessionTtlHours = 24;
+
+    /**
+     * Démarrer l'import pendant l'envoi lorsque l'empreinte est annoncée au départ
+     * La transaction d'import (et sa connexion) reste alors ouverte jusqu'à la fin de l'envoi.
+     */
+    private boolean streamWhileUploading = false;
+
+    /**
+     * Imports démarrés pendant l'envoi simultanés (au-delà, le fichier est importé à la fin de l'envoi)
+     */
+    private int maxEarlyImports = 4;
+
+    /**
+     * Attente maximale d'un fragment par l'import démarré pendant l'envoi (secondes)
+     */
+    private long chunkWaitTimeoutSeconds = 300;
+}
@@ -0,0 +1,37 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration externalisée du traitement par lot des dotations aux amortissements
+ * Permet d'ajuster la taille des lots et le parallélisme sans recompiler
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.depreciation.batch")
+@Data
+public class DepreciationBatchConfig {
+
+    /**
+     * Nombre d'écritures envoyées par lot JDBC
+     */
+    private int batchSize = 500;
+
+    /**
+     * Nombre de tranches calculées en parallèle sur taskExecutor (0 = nombre de processeurs disponibles)
+     */
+    private int parallelism = 0;
+
+    /**
+     * Fréquence du suivi de progression (en nombre d'immobilisations traitées)
+     */
+    private int progressInterval = 1000;
+
+    /**
+     * Parallélisme effectif
+     */
+    public int getEffectiveParallelism() {
+        return parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+}
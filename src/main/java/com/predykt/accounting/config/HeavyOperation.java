@@ -0,0 +1,19 @@
+package com.predykt.accounting.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marque un endpoint (ou tous les endpoints d'un contrôleur) comme opération coûteuse,
+ * soumise au contrôle d'admission par tenant (AdmissionControlInterceptor)
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface HeavyOperation {
+
+    AdmissionControlConfig.EndpointClass value();
+}
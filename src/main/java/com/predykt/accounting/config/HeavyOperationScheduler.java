@@ -0,0 +1,308 @@
+package com.predykt.accounting.config;
+
+import com.predykt.accounting.config.AdmissionControlConfig.EndpointClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Admission des opérations coûteuses
+ *
+ * - Seau à jetons par (tenant, classe): limite le débit d'un tenant sans pénaliser les autres
+ * - Places d'exécution globales attribuées par file équitable pondérée (start-time fair queueing):
+ *   chaque requête reçoit une étiquette de départ max(temps virtuel, fin de la précédente du tenant)
+ *   et avance la fin du tenant de coût / poids; la plus petite étiquette est servie en premier.
+ *   Un tenant qui soumet 200 exports ne fait attendre chaque autre tenant que d'une requête.
+ * - Une requête en file attend sur son thread de requête: sur threads de plateforme, la file est bornée
+ *   au quart des threads Tomcat (503 au-delà) pour ne pas priver les endpoints interactifs de workers
+ * - Métriques: predykt.admission.queue.depth, predykt.admission.running (classe),
+ *   predykt.admission.wait (classe), predykt.admission.rejected (classe, raison)
+ */
+@Component
+@Slf4j
+public class HeavyOperationScheduler {
+
+    /**
+     * Résultat de l'admission
+     */
+    public enum Outcome {
+        ADMITTED,
+        RATE_LIMITED,
+        QUEUE_FULL,
+        TIMEOUT
+    }
+
+    private final AdmissionControlConfig config;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Requêtes en file au maximum quelle que soit la configuration (threads de requête immobilisés)
+     */
+    private final int maxParkedRequests;
+
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final PriorityQueue<Waiter> queue = new PriorityQueue<>(
+        Comparator.comparingDouble(Waiter::startTag).thenComparingLong(Waiter::sequence));
+    private final Map<String, Double> lastFinishTags = new HashMap<>();
+    private double virtualTime;
+    private long sequence;
+    private int running;
+
+    private final Map<EndpointClass, AtomicInteger> runningByClass = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, AtomicInteger> queuedByClass = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, Timer> waitTimers = new EnumMap<>(EndpointClass.class);
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+
+    public HeavyOperationScheduler(AdmissionControlConfig config, MeterRegistry meterRegistry,
+                                   @Value("${server.tomcat.threads.max:200}") int workerThreads,
+                                   @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.config = config;
+        this.meterRegistry = meterRegistry;
+        this.maxParkedRequests = virtualThreads ? Integer.MAX_VALUE : Math.max(0, workerThreads / 4);
+        if (config.getMaxQueueDepth() > maxParkedRequests) {
+            log.warn("predykt.admission.max-queue-depth={} ramené à {} (quart des {} threads Tomcat)",
+                     config.getMaxQueueDepth(), maxParkedRequests, workerThreads);
+        }
+
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String tag = endpointClass.name().toLowerCase();
+            AtomicInteger runningCount = new AtomicInteger();
+            AtomicInteger queuedCount = new AtomicInteger();
+            runningByClass.put(endpointClass, runningCount);
+            queuedByClass.put(endpointClass, queuedCount);
+
+            Gauge.builder("predykt.admission.running", runningCount, AtomicInteger::get)
+                .tag("class", tag)
+                .description("Opérations coûteuses en cours")
+                .register(meterRegistry);
+            Gauge.builder("predykt.admission.queue.depth", queuedCount, AtomicInteger::get)
+                .tag("class", tag)
+                .description("Opérations coûteuses en attente")
+                .register(meterRegistry);
+            waitTimers.put(endpointClass, Timer.builder("predykt.admission.wait")
+                .tag("class", tag)
+                .description("Attente avant exécution d'une opération coûteuse")
+                .register(meterRegistry));
+        }
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Demande l'exécution d'une opération coûteuse pour un tenant
+     * En cas d'admission, release() doit être appelé à la fin de l'opération
+     */
+    public Outcome admit(String tenantKey, EndpointClass endpointClass) throws InterruptedException {
+        if (!bucket(tenantKey, endpointClass).tryConsume()) {
+            return reject(endpointClass, Outcome.RATE_LIMITED);
+        }
+
+        long start = System.nanoTime();
+        Waiter waiter;
+        lock.lock();
+        try {
+            if (running < config.getMaxConcurrent() && queue.isEmpty()) {
+                // Le temps virtuel suit aussi les requêtes servies sans attente (comme dispatch()):
+                // une place libre utilisée par un seul tenant ne lui est pas décomptée plus tard
+                virtualTime = Math.max(virtualTime, startTag(tenantKey, endpointClass));
+                start(endpointClass);
+                waitTimers.get(endpointClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return Outcome.ADMITTED;
+            }
+            if (queue.size() >= Math.min(config.getMaxQueueDepth(), maxParkedRequests)) {
+                return reject(endpointClass, Outcome.QUEUE_FULL);
+            }
+            waiter = new Waiter(endpointClass, startTag(tenantKey, endpointClass), sequence++);
+            queue.add(waiter);
+            queuedByClass.get(endpointClass).incrementAndGet();
+        } finally {
+            lock.unlock();
+        }
+
+        boolean admitted;
+        try {
+            admitted = waiter.latch.await(config.getQueueTimeoutMs(), TimeUnit.MILLISECONDS) || abandon(waiter);
+        } catch (InterruptedException e) {
+            if (abandon(waiter)) {
+                release(endpointClass);
+            }
+            throw e;
+        }
+
+        waitTimers.get(endpointClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!admitted) {
+            log.warn("⏳ Opération {} du tenant {} non admise après {} ms d'attente",
+                     endpointClass, tenantKey, config.getQueueTimeoutMs());
+            return reject(endpointClass, Outcome.TIMEOUT);
+        }
+        return Outcome.ADMITTED;
+    }
+
+    /**
+     * Fin d'une opération admise: la place passe à la requête suivante de la file équitable
+     */
+    public void release(EndpointClass endpointClass) {
+        lock.lock();
+        try {
+            running--;
+            runningByClass.get(endpointClass).decrementAndGet();
+            dispatch();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Requêtes en attente (supervision)
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void dispatch() {
+        while (running < config.getMaxConcurrent() && !queue.isEmpty()) {
+            Waiter next = queue.poll();
+            queuedByClass.get(next.endpointClass).decrementAndGet();
+            virtualTime = Math.max(virtualTime, next.startTag);
+            next.granted = true;
+            start(next.endpointClass);
+            next.latch.countDown();
+        }
+    }
+
+    /**
+     * Attente abandonnée (délai, interruption): retirée de la file, sauf si la place vient d'être attribuée
+     *
+     * @return true si la place a été attribuée entre-temps
+     */
+    private boolean abandon(Waiter waiter) {
+        lock.lock();
+        try {
+            if (waiter.granted) {
+                return true;
+            }
+            if (queue.remove(waiter)) {
+                queuedByClass.get(waiter.endpointClass).decrementAndGet();
+            }
+            return false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void start(EndpointClass endpointClass) {
+        running++;
+        runningByClass.get(endpointClass).incrementAndGet();
+    }
+
+    /**
+     * Étiquette de départ de la requête et avancement de la fin du tenant (sous verrou)
+     */
+    private double startTag(String tenantKey, EndpointClass endpointClass) {
+        double startTag = Math.max(virtualTime, lastFinishTags.getOrDefault(tenantKey, 0.0));
+        double cost = config.policyFor(endpointClass).getCost();
+        lastFinishTags.put(tenantKey, startTag + cost / config.weightOf(tenantKey));
+
+        // Les tenants revenus au temps virtuel n'ont plus d'avance à mémoriser
+        if (lastFinishTags.size() > 10_000) {
+            lastFinishTags.values().removeIf(finish -> finish <= virtualTime);
+        }
+        return startTag;
+    }
+
+    private TokenBucket bucket(String tenantKey, EndpointClass endpointClass) {
+        return buckets.computeIfAbsent(tenantKey + "|" + endpointClass, key -> {
+            AdmissionControlConfig.ClassPolicy policy = config.policyFor(endpointClass);
+            return new TokenBucket(policy.getBucketCapacity(), policy.getRefillPerMinute());
+        });
+    }
+
+    private Outcome reject(EndpointClass endpointClass, Outcome outcome) {
+        rejections.computeIfAbsent(endpointClass + "|" + outcome, key ->
+            Counter.builder("predykt.admission.rejected")
+                .tag("class", endpointClass.name().toLowerCase())
+                .tag("reason", outcome.name().toLowerCase())
+                .description("Opérations coûteuses refusées")
+                .register(meterRegistry))
+            .increment();
+        return outcome;
+    }
+
+    /**
+     * Requête en attente d'une place
+     */
+    private static final class Waiter {
+
+        private final EndpointClass endpointClass;
+        private final double startTag;
+        private final long sequence;
+        private final CountDownLatch latch = new CountDownLatch(1);
+        private boolean granted;
+
+        private Waiter(EndpointClass endpointClass, double startTag, long sequence) {
+            this.endpointClass = endpointClass;
+            this.startTag = startTag;
+            this.sequence = sequence;
+        }
+
+        double startTag() {
+            return startTag;
+        }
+
+        long sequence() {
+            return sequence;
+        }
+    }
+
+    /**
+     * Seau à jetons (rafale de capacity, refillPerMinute jetons rendus par minute)
+     */
+    private static final class TokenBucket {
+
+        private final double capacity;
+        private final double refillPerNano;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+
+        private TokenBucket(int capacity, int refillPerMinute) {
+            this.capacity = Math.max(1, capacity);
+            this.refillPerNano = Math.max(0, refillPerMinute) / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = this.capacity;
+        }
+
+        synchronized boolean tryConsume() {
+            long now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - refilledAt) * refillPerNano);
+            refilledAt = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens -= 1;
+            return true;
+        }
+    }
+}
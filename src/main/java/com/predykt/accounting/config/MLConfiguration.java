@@ -33,12 +33,13 @@ public class MLConfiguration {
      * ThreadPool pour entra\u00eenements ML asynchrones
      */
     @Bean(name = "mlTrainingExecutor")
-    public Executor mlTrainingExecutor() {
+    public Executor mlTrainingExecutor(TenantConcurrencyLimiter concurrencyLimiter) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(2);
         executor.setMaxPoolSize(4);
         executor.setQueueCapacity(100);
         executor.setThreadNamePrefix("ml-training-");
+        executor.setTaskDecorator(new TenantContextTaskDecorator(concurrencyLimiter, false));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(60);
         executor.initialize();
@@ -51,12 +52,13 @@ public class MLConfiguration {
      * ThreadPool pour pr\u00e9dictions ML en batch
      */
     @Bean(name = "mlPredictionExecutor")
-    public Executor mlPredictionExecutor() {
+    public Executor mlPredictionExecutor(TenantConcurrencyLimiter concurrencyLimiter) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(4);
         executor.setMaxPoolSize(8);
         executor.setQueueCapacity(500);
         executor.setThreadNamePrefix("ml-predict-");
+        executor.setTaskDecorator(new TenantContextTaskDecorator(concurrencyLimiter, false));
         executor.setWaitForTasksToCompleteOnShutdown(true);
         executor.setAwaitTerminationSeconds(30);
         executor.initialize();
@@ -65,27 +67,6 @@ public class MLConfiguration {
         return executor;
     }
 
-    /**
-     * Configuration du cache Redis pour mod\u00e8les ML
-     */
-    @Bean
-    public org.springframework.cache.CacheManager cacheManager(
-        org.springframework.data.redis.connection.RedisConnectionFactory connectionFactory
-    ) {
-        org.springframework.data.redis.cache.RedisCacheConfiguration config =
-            org.springframework.data.redis.cache.RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(java.time.Duration.ofHours(24))  // Cache 24h
-                .disableCachingNullValues()
-                .serializeValuesWith(
-                    org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair
-                        .fromSerializer(new org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer())
-                );
-
-        return org.springframework.data.redis.cache.RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
-            .build();
-    }
-
     /**
      * Param\u00e8tres ML (injectables)
      */
@@ -2,7 +2,9 @@ package com.predykt.accounting.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
@@ -37,6 +39,20 @@ public class MultiTenantConfiguration implements WebMvcConfigurer {
     @Value("${spring.datasource.password}")
     private String dbPassword;
     
+    private final TenantPoolConfig tenantPoolConfig;
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final TenantConcurrencyInterceptor tenantConcurrencyInterceptor;
+    private final AdmissionControlInterceptor admissionControlInterceptor;
+    
+    public MultiTenantConfiguration(TenantPoolConfig tenantPoolConfig, ObjectProvider<MeterRegistry> meterRegistry,
+                                    TenantConcurrencyInterceptor tenantConcurrencyInterceptor,
+                                    AdmissionControlInterceptor admissionControlInterceptor) {
+        this.tenantPoolConfig = tenantPoolConfig;
+        this.meterRegistry = meterRegistry;
+        this.tenantConcurrencyInterceptor = tenantConcurrencyInterceptor;
+        this.admissionControlInterceptor = admissionControlInterceptor;
+    }
+    
     /**
      * Enregistre l'intercepteur tenant
      */
@@ -46,6 +62,15 @@ public class MultiTenantConfiguration implements WebMvcConfigurer {
         registry.addInterceptor(tenantInterceptor())
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/**", "/health/**", "/actuator/**");
+        
+        // Après la résolution du tenant: places d'exécution par tenant
+        registry.addInterceptor(tenantConcurrencyInterceptor)
+                .addPathPatterns("/api/**")
+                .excludePathPatterns("/api/auth/**", "/health/**", "/actuator/**");
+        
+        // Contrôle d'admission des endpoints @HeavyOperation (chemins relatifs au context-path)
+        registry.addInterceptor(admissionControlInterceptor)
+                .addPathPatterns("/**");
     }
     
     @Bean
@@ -98,11 +123,14 @@ public class MultiTenantConfiguration implements WebMvcConfigurer {
         
         MultiTenantDataSourceRouter router = new MultiTenantDataSourceRouter(
             tenantMode,
-            defaultDataSource()
+            defaultDataSource(),
+            tenantPoolConfig,
+            meterRegistry.getIfAvailable()
         );
         
         // En mode SHARED, on utilise uniquement la DataSource par défaut
-        // En mode DEDICATED/CABINET, d'autres DataSource seront ajoutées dynamiquement
+        // En mode DEDICATED/CABINET, d'autres DataSource seront enregistrées dynamiquement
+        // (pools ouverts à la première utilisation, dans le budget de predykt.tenant.pools)
         
         return router;
     }
@@ -2,42 +2,89 @@ package com.predykt.accounting.config;
 
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
-import org.springframework.stereotype.Component;
 
 import javax.sql.DataSource;
-import java.util.HashMap;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Router de DataSource multi-tenant
  * Route vers la bonne base de données selon le contexte tenant
- * 
+ *
  * MODE SHARED : 1 seule BDD partagée
  * MODE DEDICATED : N BDD (1 par tenant)
  * MODE CABINET : N BDD (1 par cabinet)
+ *
+ * Gouvernance des pools (TenantPoolConfig) :
+ * - addDataSource enregistre la configuration, le pool est créé à la première utilisation (minIdle 0)
+ * - Budget global de connexions : les pools inactifs les plus anciens sont fermés pour faire de la place
+ * - Pools sans activité fermés périodiquement (TenantPoolMaintenance), recréés au besoin
+ * - Routage sans verrou global (ConcurrentHashMap), métriques Hikari par pool
  */
 @Slf4j
 public class MultiTenantDataSourceRouter extends AbstractRoutingDataSource {
-    
-    private final Map<Object, Object> dataSources = new HashMap<>();
+
+    private static final String DEFAULT_KEY = "default";
+
+    private final DataSource defaultDataSource;
     private final String tenantMode;
-    
+    private final TenantPoolConfig poolConfig;
+    private final MeterRegistry meterRegistry;
+
+    /** Configurations enregistrées (clé tenant-X / cabinet-X) */
+    private final Map<String, DataSourceConfig> registrations = new ConcurrentHashMap<>();
+
+    /** Pools ouverts */
+    private final Map<String, TenantPool> pools = new ConcurrentHashMap<>();
+
+    /** Somme des tailles maximales des pools ouverts */
+    private final AtomicInteger allocatedConnections = new AtomicInteger();
+
     public MultiTenantDataSourceRouter(
             @Value("${predykt.tenant.mode:SHARED}") String tenantMode,
-            DataSource defaultDataSource) {
-        
+            DataSource defaultDataSource,
+            TenantPoolConfig poolConfig,
+            MeterRegistry meterRegistry) {
+
         this.tenantMode = tenantMode;
-        
+        this.defaultDataSource = defaultDataSource;
+        this.poolConfig = poolConfig;
+        this.meterRegistry = meterRegistry;
+
         // DataSource par défaut (utilisée en mode SHARED ou si routing échoue)
         setDefaultTargetDataSource(defaultDataSource);
-        dataSources.put("default", defaultDataSource);
-        
-        log.info("🔧 MultiTenantDataSourceRouter initialisé en mode: {}", tenantMode);
+        setTargetDataSources(Map.of(DEFAULT_KEY, defaultDataSource));
+
+        if (meterRegistry != null) {
+            Gauge.builder("predykt.tenant.pools.open", pools, Map::size)
+                .description("Pools de connexions tenants ouverts")
+                .register(meterRegistry);
+            Gauge.builder("predykt.tenant.pools.allocated.connections", allocatedConnections, AtomicInteger::get)
+                .description("Connexions réservées par les pools ouverts")
+                .register(meterRegistry);
+            Gauge.builder("predykt.tenant.pools.budget.connections", poolConfig, TenantPoolConfig::getMaxTotalConnections)
+                .description("Budget global de connexions des pools tenants")
+                .register(meterRegistry);
+        }
+
+        log.info("🔧 MultiTenantDataSourceRouter initialisé en mode: {} (budget {} connexions)",
+                 tenantMode, poolConfig.getMaxTotalConnections());
     }
-    
+
     /**
      * Détermine quelle DataSource utiliser pour la requête actuelle
      */
@@ -45,73 +92,244 @@ public class MultiTenantDataSourceRouter extends AbstractRoutingDataSource {
     protected Object determineCurrentLookupKey() {
         if (!TenantContextHolder.hasContext()) {
             log.debug("⚠️ Pas de contexte tenant - Utilisation DataSource par défaut");
-            return "default";
+            return DEFAULT_KEY;
         }
-        
+
+        String dataSourceKey = currentDataSourceKey();
+
+        log.debug("🔍 Routing vers DataSource: {}", dataSourceKey);
+
+        return dataSourceKey;
+    }
+
+    /**
+     * Clé de la base du contexte tenant courant (default, tenant-X ou cabinet-X)
+     * Sert aussi à partitionner les caches liés à une base (cache de second niveau Hibernate)
+     */
+    public static String currentDataSourceKey() {
+        if (!TenantContextHolder.hasContext()) {
+            return DEFAULT_KEY;
+        }
+
         TenantContextHolder.TenantContext context = TenantContextHolder.getContext();
-        
-        String dataSourceKey = switch (context.getMode()) {
-            case SHARED -> "default"; // Toujours la même BDD en mode partagé
+
+        return switch (context.getMode()) {
+            case SHARED -> DEFAULT_KEY; // Toujours la même BDD en mode partagé
             case DEDICATED -> "tenant-" + context.getTenantId();
             case CABINET -> "cabinet-" + context.getCabinetId();
         };
-        
-        log.debug("🔍 Routing vers DataSource: {}", dataSourceKey);
-        
-        return dataSourceKey;
     }
-    
+
+    /**
+     * Pool du tenant courant, créé à la première utilisation
+     * Clé inconnue : DataSource par défaut (comme le repli du routing standard)
+     */
+    @Override
+    protected DataSource determineTargetDataSource() {
+        Object key = determineCurrentLookupKey();
+        if (DEFAULT_KEY.equals(key)) {
+            return defaultDataSource;
+        }
+
+        TenantPool pool = pools.get(key);
+        if (pool == null) {
+            DataSourceConfig config = registrations.get(key);
+            if (config == null) {
+                return defaultDataSource;
+            }
+            pool = openPool((String) key, config);
+            if (pool == null) {
+                return defaultDataSource;
+            }
+        }
+        pool.touch();
+        return pool.dataSource();
+    }
+
+    /**
+     * Un pool fermé (inactif) entre le routage et l'obtention de la connexion est rouvert une fois
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection();
+        } catch (SQLException e) {
+            if (target instanceof HikariDataSource hikari && hikari.isClosed()) {
+                return determineTargetDataSource().getConnection();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        DataSource target = determineTargetDataSource();
+        try {
+            return target.getConnection(username, password);
+        } catch (SQLException e) {
+            if (target instanceof HikariDataSource hikari && hikari.isClosed()) {
+                return determineTargetDataSource().getConnection(username, password);
+            }
+            throw e;
+        }
+    }
+
     /**
      * Enregistre une nouvelle DataSource pour un tenant/cabinet
      * Utilisé en mode DEDICATED ou CABINET lors de l'ajout d'un nouveau client
+     * Aucune connexion n'est ouverte avant la première requête du tenant
      */
-    public synchronized void addDataSource(String key, DataSourceConfig config) {
-        if (dataSources.containsKey(key)) {
+    public void addDataSource(String key, DataSourceConfig config) {
+        if (DEFAULT_KEY.equals(key) || registrations.putIfAbsent(key, config) != null) {
             log.warn("⚠️ DataSource {} existe déjà - Ignoré", key);
             return;
         }
-        
-        log.info("➕ Ajout DataSource: {} -> {}:{}/{}", 
+
+        log.info("✅ DataSource {} enregistrée -> {}:{}/{} (pool créé à la première utilisation)",
                  key, config.getHost(), config.getPort(), config.getDatabase());
-        
-        HikariDataSource dataSource = createDataSource(config);
-        dataSources.put(key, dataSource);
-        
-        // Mettre à jour le routing
-        setTargetDataSources(dataSources);
-        afterPropertiesSet();
-        
-        log.info("✅ DataSource {} ajoutée avec succès", key);
-    }
-    
+    }
+
     /**
      * Retire une DataSource (lors de la suppression d'un tenant)
      */
-    public synchronized void removeDataSource(String key) {
-        if (!dataSources.containsKey(key) || "default".equals(key)) {
+    public void removeDataSource(String key) {
+        DataSourceConfig config = DEFAULT_KEY.equals(key) ? null : registrations.remove(key);
+        if (config == null) {
             log.warn("⚠️ Impossible de retirer DataSource {}", key);
             return;
         }
-        
+
         log.info("➖ Suppression DataSource: {}", key);
-        
-        Object dataSource = dataSources.remove(key);
-        if (dataSource instanceof HikariDataSource hikari) {
-            hikari.close();
-        }
-        
-        setTargetDataSources(dataSources);
-        afterPropertiesSet();
-        
+
+        synchronized (config) {
+            TenantPool pool = pools.remove(key);
+            if (pool != null) {
+                closePool(key, pool);
+            }
+        }
+
         log.info("✅ DataSource {} supprimée", key);
     }
-    
+
+    /**
+     * Ferme les pools sans activité depuis idleEvictionMinutes et sans connexion en cours
+     *
+     * @return Nombre de pools fermés
+     */
+    public int evictIdlePools() {
+        long threshold = System.currentTimeMillis() - Duration.ofMinutes(poolConfig.getIdleEvictionMinutes()).toMillis();
+        int evicted = 0;
+        for (Map.Entry<String, TenantPool> entry : pools.entrySet()) {
+            TenantPool pool = entry.getValue();
+            if (pool.lastUsedAt() < threshold && pool.isIdle() && evict(entry.getKey(), pool, threshold)) {
+                evicted++;
+            }
+        }
+        if (evicted > 0) {
+            log.info("🧹 {} pool(s) tenant inactif(s) fermé(s), {} ouvert(s), {}/{} connexions réservées",
+                     evicted, pools.size(), allocatedConnections.get(), poolConfig.getMaxTotalConnections());
+        }
+        return evicted;
+    }
+
+    /**
+     * Pools ouverts et leur utilisation (supervision)
+     */
+    public List<PoolUsage> getPoolUsage() {
+        List<PoolUsage> usage = new ArrayList<>(pools.size());
+        pools.forEach((key, pool) -> {
+            HikariPoolMXBean bean = pool.dataSource().getHikariPoolMXBean();
+            usage.add(new PoolUsage(key, pool.maxPoolSize(),
+                bean != null ? bean.getActiveConnections() : 0,
+                bean != null ? bean.getIdleConnections() : 0,
+                bean != null ? bean.getThreadsAwaitingConnection() : 0,
+                pool.lastUsedAt()));
+        });
+        return usage;
+    }
+
+    /**
+     * Création d'un pool: un seul à la fois par clé (verrou sur la configuration du tenant)
+     */
+    private TenantPool openPool(String key, DataSourceConfig config) {
+        synchronized (config) {
+            TenantPool existing = pools.get(key);
+            if (existing != null || registrations.get(key) != config) {
+                return existing; // null si la DataSource a été retirée entre-temps
+            }
+
+            int maxPoolSize = config.getMaxPoolSize();
+            reserve(key, maxPoolSize);
+            try {
+                TenantPool pool = new TenantPool(createDataSource(key, config), maxPoolSize);
+                pools.put(key, pool);
+                log.info("➕ Pool {} ouvert ({} connexions max), {}/{} connexions réservées",
+                         key, maxPoolSize, allocatedConnections.get(), poolConfig.getMaxTotalConnections());
+                return pool;
+            } catch (RuntimeException e) {
+                allocatedConnections.addAndGet(-maxPoolSize);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Réserve des connexions dans le budget global, en fermant au besoin les pools inactifs les plus anciens
+     */
+    private void reserve(String key, int connections) {
+        while (true) {
+            int allocated = allocatedConnections.get();
+            if (allocated + connections <= poolConfig.getMaxTotalConnections()) {
+                if (allocatedConnections.compareAndSet(allocated, allocated + connections)) {
+                    return;
+                }
+                continue;
+            }
+            if (!evictLeastRecentlyUsed()) {
+                throw new CannotGetJdbcConnectionException(String.format(
+                    "Budget de connexions atteint (%d/%d) : pool %s non ouvert",
+                    allocated, poolConfig.getMaxTotalConnections(), key));
+            }
+        }
+    }
+
+    private boolean evictLeastRecentlyUsed() {
+        return pools.entrySet().stream()
+            .filter(entry -> entry.getValue().isIdle())
+            .min(Comparator.comparingLong(entry -> entry.getValue().lastUsedAt()))
+            .map(entry -> evict(entry.getKey(), entry.getValue(), entry.getValue().lastUsedAt() + 1))
+            .orElse(false);
+    }
+
+    /**
+     * Retire le pool s'il n'a pas été utilisé depuis le seuil, puis le ferme
+     */
+    private boolean evict(String key, TenantPool pool, long threshold) {
+        if (!pools.remove(key, pool)) {
+            return false;
+        }
+        // Utilisé entre la sélection et le retrait: remis en place
+        if (pool.lastUsedAt() >= threshold) {
+            pools.putIfAbsent(key, pool);
+            return false;
+        }
+        closePool(key, pool);
+        return true;
+    }
+
+    private void closePool(String key, TenantPool pool) {
+        allocatedConnections.addAndGet(-pool.maxPoolSize());
+        pool.dataSource().close();
+        log.debug("Pool {} fermé", key);
+    }
+
     /**
      * Crée une DataSource Hikari
      */
-    private HikariDataSource createDataSource(DataSourceConfig config) {
+    private HikariDataSource createDataSource(String key, DataSourceConfig config) {
         HikariConfig hikariConfig = new HikariConfig();
-        
+
         hikariConfig.setJdbcUrl(String.format(
             "jdbc:postgresql://%s:%d/%s",
             config.getHost(),
@@ -121,24 +339,72 @@ public class MultiTenantDataSourceRouter extends AbstractRoutingDataSource {
         hikariConfig.setUsername(config.getUsername());
         hikariConfig.setPassword(config.getPassword());
         hikariConfig.setDriverClassName("org.postgresql.Driver");
-        
-        // Pool configuration
+
+        // Pool configuration (aucune connexion tenue au repos)
         hikariConfig.setMaximumPoolSize(config.getMaxPoolSize());
-        hikariConfig.setMinimumIdle(config.getMinIdle());
-        hikariConfig.setConnectionTimeout(30000);
-        hikariConfig.setIdleTimeout(600000);
+        int minIdle = config.getMinIdle() != null ? config.getMinIdle() : poolConfig.getMinIdle();
+        hikariConfig.setMinimumIdle(Math.min(minIdle, config.getMaxPoolSize()));
+        hikariConfig.setConnectionTimeout(poolConfig.getConnectionTimeoutMs());
+        hikariConfig.setIdleTimeout(poolConfig.getIdleTimeoutMs());
         hikariConfig.setMaxLifetime(1800000);
-        
+
         // Performance
         hikariConfig.addDataSourceProperty("cachePrepStmts", "true");
         hikariConfig.addDataSourceProperty("prepStmtCacheSize", "250");
         hikariConfig.addDataSourceProperty("prepStmtCacheSqlLimit", "2048");
-        
-        hikariConfig.setPoolName("HikariPool-" + config.getDatabase());
-        
+
+        hikariConfig.setPoolName("HikariPool-" + key);
+
+        // Métriques par pool (hikaricp.connections.*, tag pool)
+        if (meterRegistry != null) {
+            hikariConfig.setMetricRegistry(meterRegistry);
+        }
+
         return new HikariDataSource(hikariConfig);
     }
-    
+
+    /**
+     * Pool ouvert et date de dernière utilisation
+     */
+    private static final class TenantPool {
+
+        private final HikariDataSource dataSource;
+        private final int maxPoolSize;
+        private volatile long lastUsedAt = System.currentTimeMillis();
+
+        private TenantPool(HikariDataSource dataSource, int maxPoolSize) {
+            this.dataSource = dataSource;
+            this.maxPoolSize = maxPoolSize;
+        }
+
+        HikariDataSource dataSource() {
+            return dataSource;
+        }
+
+        int maxPoolSize() {
+            return maxPoolSize;
+        }
+
+        long lastUsedAt() {
+            return lastUsedAt;
+        }
+
+        void touch() {
+            lastUsedAt = System.currentTimeMillis();
+        }
+
+        boolean isIdle() {
+            HikariPoolMXBean bean = dataSource.getHikariPoolMXBean();
+            return bean == null || (bean.getActiveConnections() == 0 && bean.getThreadsAwaitingConnection() == 0);
+        }
+    }
+
+    /**
+     * Utilisation d'un pool tenant
+     */
+    public record PoolUsage(String key, int maxPoolSize, int activeConnections, int idleConnections,
+                            int threadsAwaitingConnection, long lastUsedAt) {}
+
     /**
      * Configuration DataSource
      */
@@ -152,11 +418,11 @@ public class MultiTenantDataSourceRouter extends AbstractRoutingDataSource {
         private String database;
         private String username;
         private String password;
-        
+
         @lombok.Builder.Default
         private Integer maxPoolSize = 10;
-        
-        @lombok.Builder.Default
-        private Integer minIdle = 5;
+
+        /** Connexions minimales inactives (null: predykt.tenant.pools.min-idle) */
+        private Integer minIdle;
     }
-}
\ No newline at end of file
+}
@@ -1,7 +1,7 @@
 package com.predykt.accounting.config;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
@@ -9,40 +9,82 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 
+/**
+ * Caches applicatifs: L1 local (Caffeine) devant L2 Redis, politiques par cache dans predykt.cache
+ */
 @Configuration
 @EnableCaching
 public class RedisConfig {
-    
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     StringRedisTemplate redisTemplate,
+                                     TwoTierCacheConfig cacheConfig,
+                                     MeterRegistry meterRegistry) {
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        cacheConfig.getCaches().keySet().forEach(name ->
+            cacheConfigurations.put(name, redisCacheConfiguration(cacheConfig.policyFor(name))));
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
+            .cacheDefaults(redisCacheConfiguration(cacheConfig.getDefaults()))
+            .withInitialCacheConfigurations(cacheConfigurations)
+            .build();
+        redisCacheManager.afterPropertiesSet();
+
+        return new TwoTierCacheManager(cacheConfig, redisCacheManager, redisTemplate, meterRegistry);
+    }
+
+    /**
+     * Invalidations des caches L1 diffusées par les autres instances
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.registerModule(new JavaTimeModule());
-        
-        GenericJackson2JsonRedisSerializer serializer = 
-            new GenericJackson2JsonRedisSerializer(objectMapper);
-        
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-            .entryTtl(Duration.ofHours(1))
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                           CacheManager cacheManager,
+                                                                           TwoTierCacheConfig cacheConfig) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        if (cacheManager instanceof TwoTierCacheManager twoTierCacheManager) {
+            container.addMessageListener(
+                (message, pattern) -> twoTierCacheManager.onInvalidationMessage(
+                    new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(cacheConfig.getInvalidationChannel()));
+        }
+        return container;
+    }
+
+    private RedisCacheConfiguration redisCacheConfiguration(TwoTierCacheConfig.CachePolicy policy) {
+        return RedisCacheConfiguration.defaultCacheConfig()
+            .entryTtl(Duration.ofSeconds(policy.getL2TtlSeconds()))
             .serializeKeysWith(
                 RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer())
             )
             .serializeValuesWith(
-                RedisSerializationContext.SerializationPair.fromSerializer(serializer)
+                RedisSerializationContext.SerializationPair.fromSerializer(valueSerializer(policy.getSerializer()))
             )
             .disableCachingNullValues();
-        
-        return RedisCacheManager.builder(connectionFactory)
-            .cacheDefaults(config)
-            .withCacheConfiguration("chartOfAccounts", 
-                config.entryTtl(Duration.ofHours(24)))
-            .withCacheConfiguration("companyData", 
-                config.entryTtl(Duration.ofHours(12)))
-            .build();
     }
-}
\ No newline at end of file
+
+    private RedisSerializer<Object> valueSerializer(TwoTierCacheConfig.Serializer serializer) {
+        if (serializer == TwoTierCacheConfig.Serializer.JDK) {
+            return new JdkSerializationRedisSerializer();
+        }
+        // Typage par défaut conservé: les valeurs sont relues dans leur classe d'origine
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer();
+        jsonSerializer.configure(objectMapper -> objectMapper.registerModule(new JavaTimeModule()));
+        return jsonSerializer;
+    }
+}
@@ -0,0 +1,103 @@
+package com.predykt.accounting.config;
+
+import com.predykt.accounting.util.TransactionalEviction;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Cache de second niveau des données de référence (TenantAwareRegionFactory)
+ *
+ * Rôles et permissions n'y figurent pas: le cache est local à chaque instance et une modification
+ * faite sur une autre instance n'y serait vue qu'à expiration, alors que les autorisations
+ * (AuthorizationSnapshotCache) sont reconstruites depuis ces entités.
+ *
+ * - Régions: une par entité de référence, une de requêtes par entité ("...queries")
+ *   sauf pour les règles mises à jour en continu (RecoverabilityRule, ActivityMappingRule)
+ * - Les écritures passant par Hibernate invalident d'elles-mêmes entités et requêtes;
+ *   les écritures JDBC directes doivent appeler evict() ou evictEntities() (immédiatement et après commit)
+ * - Métriques Caffeine par région: cache.gets (hit/miss), cache.puts, cache.evictions, cache.size
+ *   avec cache.manager=hibernate
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ReferenceDataCache {
+
+    public static final String COMPANY = "reference.company";
+    public static final String TAX_CONFIGURATION = "reference.tax-configuration";
+    public static final String RECOVERABILITY_RULE = "reference.recoverability-rule";
+    public static final String ACTIVITY_MAPPING_RULE = "reference.activity-mapping-rule";
+    public static final String VAT_PRORATA = "reference.vat-prorata";
+
+    public static final String TAX_CONFIGURATION_QUERIES = TAX_CONFIGURATION + ".queries";
+    public static final String VAT_PRORATA_QUERIES = VAT_PRORATA + ".queries";
+
+    /**
+     * Régions de requêtes, créées au démarrage pour être instrumentées
+     */
+    private static final List<String> QUERY_REGIONS = List.of(
+        TAX_CONFIGURATION_QUERIES, VAT_PRORATA_QUERIES);
+
+    private final EntityManagerFactory entityManagerFactory;
+    private final MeterRegistry meterRegistry;
+
+    @PostConstruct
+    void bindMetrics() {
+        CacheImplementor cache = cache();
+        if (!(cache.getRegionFactory() instanceof TenantAwareRegionFactory regionFactory)) {
+            log.info("Cache de second niveau Hibernate inactif ou non partitionné: métriques non exposées");
+            return;
+        }
+
+        QUERY_REGIONS.forEach(cache::getQueryResultsCache);
+        regionFactory.getRegionCaches().forEach((regionName, regionCache) ->
+            CaffeineCacheMetrics.monitor(meterRegistry, regionCache, regionName, Tags.of("cache.manager", "hibernate")));
+
+        log.info("🗄️ Cache de second niveau Hibernate: {} région(s) instrumentée(s)", regionFactory.getRegionCaches().size());
+    }
+
+    /**
+     * Invalide les entités d'un type et leurs requêtes, toutes bases confondues
+     * (immédiatement et après commit, pour ne pas garder une lecture concurrente de l'ancien état)
+     */
+    public void evict(Class<?> entityClass, String queryRegion) {
+        TransactionalEviction.evictNowAndAfterCompletion(() -> {
+            CacheImplementor cache = cache();
+            cache.evictEntityData(entityClass);
+            if (queryRegion != null) {
+                cache.evictQueryRegion(queryRegion);
+            }
+        });
+        log.debug("Cache de second niveau invalidé: {}", entityClass.getSimpleName());
+    }
+
+    /**
+     * Invalide quelques entités d'un type, dans la partition de la base du tenant courant
+     * (immédiatement et après commit, à appeler dans le contexte du tenant qui a écrit)
+     */
+    public void evictEntities(Class<?> entityClass, Collection<?> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        TransactionalEviction.evictNowAndAfterCompletion(() -> {
+            CacheImplementor cache = cache();
+            ids.forEach(id -> cache.evictEntityData(entityClass, id));
+        });
+        log.debug("Cache de second niveau invalidé: {} {}", ids.size(), entityClass.getSimpleName());
+    }
+
+    private CacheImplementor cache() {
+        return entityManagerFactory.unwrap(SessionFactoryImplementor.class).getCache();
+    }
+}
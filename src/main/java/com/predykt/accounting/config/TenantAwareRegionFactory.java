@@ -0,0 +1,169 @@
+package com.predykt.accounting.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.SimpleTimestamper;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache de second niveau Hibernate en mémoire locale (Caffeine), partitionné par base de tenant
+ *
+ * Une seule SessionFactory sert toutes les bases (MultiTenantDataSourceRouter): deux tenants
+ * DEDICATED ou CABINET peuvent avoir la même entité sous le même identifiant. Chaque clé
+ * (entité, collection, requête, horodatage de table) est donc préfixée par la clé de la base courante,
+ * la même que celle du routage des connexions.
+ *
+ * - Entités et collections: max-entries par région, expiration ttl-seconds après écriture
+ * - Requêtes: expiration query-ttl-seconds (plus courte que celle des entités)
+ * - Horodatages de tables: ni borne ni expiration (un horodatage perdu rendrait valides des requêtes périmées)
+ *
+ * Réglages lus dans les propriétés Hibernate (spring.jpa.properties): predykt.l2-cache.*
+ * Régions exposées pour les métriques et les invalidations (ReferenceDataCache).
+ */
+public class TenantAwareRegionFactory extends RegionFactoryTemplate {
+
+    public static final String MAX_ENTRIES = "predykt.l2-cache.max-entries";
+    public static final String TTL_SECONDS = "predykt.l2-cache.ttl-seconds";
+    public static final String QUERY_TTL_SECONDS = "predykt.l2-cache.query-ttl-seconds";
+
+    private final Map<String, Cache<TenantCacheKey, Object>> regions = new ConcurrentHashMap<>();
+
+    private long maxEntries = 10_000;
+    private Duration ttl = Duration.ofHours(1);
+    private Duration queryTtl = Duration.ofMinutes(10);
+
+    /**
+     * Caches des régions créées, par nom de région
+     */
+    public Map<String, Cache<TenantCacheKey, Object>> getRegionCaches() {
+        return Collections.unmodifiableMap(regions);
+    }
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        maxEntries = longSetting(configValues, MAX_ENTRIES, maxEntries);
+        ttl = Duration.ofSeconds(longSetting(configValues, TTL_SECONDS, ttl.toSeconds()));
+        queryTtl = Duration.ofSeconds(longSetting(configValues, QUERY_TTL_SECONDS, queryTtl.toSeconds()));
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        regions.values().forEach(Cache::invalidateAll);
+        regions.clear();
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return AccessType.READ_WRITE;
+    }
+
+    @Override
+    public long nextTimestamp() {
+        return SimpleTimestamper.next();
+    }
+
+    @Override
+    public long getTimeout() {
+        return SimpleTimestamper.timeOut();
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return storage(regionConfig.getRegionName(), Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl));
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return storage(regionName, Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(queryTtl));
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return storage(regionName, Caffeine.newBuilder());
+    }
+
+    private TenantPartitionedStorage storage(String regionName, Caffeine<Object, Object> builder) {
+        Cache<TenantCacheKey, Object> cache = regions.computeIfAbsent(regionName,
+            name -> builder.recordStats().build());
+        return new TenantPartitionedStorage(cache);
+    }
+
+    private static long longSetting(Map<?, ?> configValues, String name, long defaultValue) {
+        Object value = configValues.get(name);
+        return value != null ? Long.parseLong(value.toString().trim()) : defaultValue;
+    }
+
+    /**
+     * Clé d'une entrée: base du tenant + clé Hibernate
+     */
+    public record TenantCacheKey(String dataSourceKey, Object key) {
+
+        static TenantCacheKey current(Object key) {
+            return new TenantCacheKey(MultiTenantDataSourceRouter.currentDataSourceKey(), key);
+        }
+    }
+
+    /**
+     * Accès à une région, limité à la partition de la base courante
+     * Les invalidations de région entière (evictData()) portent sur toutes les bases.
+     */
+    private static final class TenantPartitionedStorage implements DomainDataStorageAccess {
+
+        private final Cache<TenantCacheKey, Object> cache;
+
+        private TenantPartitionedStorage(Cache<TenantCacheKey, Object> cache) {
+            this.cache = cache;
+        }
+
+        @Override
+        public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+            return cache.getIfPresent(TenantCacheKey.current(key));
+        }
+
+        @Override
+        public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+            cache.put(TenantCacheKey.current(key), value);
+        }
+
+        @Override
+        public boolean contains(Object key) {
+            return cache.asMap().containsKey(TenantCacheKey.current(key));
+        }
+
+        @Override
+        public void evictData() {
+            cache.invalidateAll();
+        }
+
+        @Override
+        public void evictData(Object key) {
+            cache.invalidate(TenantCacheKey.current(key));
+        }
+
+        @Override
+        public void release() {
+            cache.invalidateAll();
+        }
+    }
+}
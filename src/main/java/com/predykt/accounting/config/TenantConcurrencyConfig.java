@@ -0,0 +1,45 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Limites de concurrence par tenant (requêtes HTTP et tâches asynchrones)
+ * Empêchent un tenant ou un cabinet d'occuper seul les threads et le pool de connexions
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.concurrency")
+@Data
+public class TenantConcurrencyConfig {
+
+    /**
+     * Activer les limites par tenant
+     */
+    private boolean enabled = true;
+
+    /**
+     * Requêtes HTTP simultanées par tenant (entreprise en mode SHARED, tenant ou cabinet sinon)
+     */
+    private int maxRequestsPerTenant = 50;
+
+    /**
+     * Tâches asynchrones simultanées par tenant (mode threads virtuels)
+     */
+    private int maxAsyncTasksPerTenant = 20;
+
+    /**
+     * Attente maximale d'une place pour une requête HTTP (ms), au-delà: 503
+     */
+    private long requestAcquireTimeoutMs = 10_000;
+
+    /**
+     * Attente maximale d'une place pour une tâche asynchrone (ms), au-delà: tâche rejetée
+     */
+    private long asyncAcquireTimeoutMs = 60_000;
+
+    /**
+     * Tâches asynchrones simultanées toutes tenants confondus (mode threads virtuels)
+     */
+    private int maxAsyncTasks = 1000;
+}
@@ -0,0 +1,59 @@
+package com.predykt.accounting.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Limite les requêtes simultanées par tenant (après TenantInterceptor)
+ *
+ * Au-delà de la limite, la requête attend une place puis reçoit 503 (Retry-After) si le délai est dépassé.
+ * Une requête asynchrone garde sa place jusqu'à la fin du traitement asynchrone.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantConcurrencyInterceptor implements AsyncHandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = TenantConcurrencyInterceptor.class.getName() + ".permit";
+
+    private final TenantConcurrencyLimiter limiter;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!limiter.isEnabled() || request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true; // Désactivé, ou place déjà réservée (redispatch asynchrone)
+        }
+
+        TenantConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.acquire(TenantConcurrencyLimiter.currentTenantKey(), TenantConcurrencyLimiter.Kind.REQUEST);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return false;
+        }
+
+        if (permit == null) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", "5");
+            return false;
+        }
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+                                Object handler, Exception ex) {
+        if (request.isAsyncStarted()) {
+            return; // Libérée à la fin du traitement asynchrone
+        }
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof TenantConcurrencyLimiter.Permit tenantPermit) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            tenantPermit.close();
+        }
+    }
+}
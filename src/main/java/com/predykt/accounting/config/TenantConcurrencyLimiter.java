@@ -0,0 +1,118 @@
+package com.predykt.accounting.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Places d'exécution par tenant (sémaphores équitables, un par tenant et par type d'exécution)
+ *
+ * Clé du tenant: entreprise en mode SHARED, tenant en mode DEDICATED, cabinet en mode CABINET
+ * (même découpage que le routage des DataSource)
+ */
+@Component
+@Slf4j
+public class TenantConcurrencyLimiter {
+
+    /**
+     * Type d'exécution limité
+     */
+    public enum Kind {
+        REQUEST,
+        ASYNC
+    }
+
+    private final TenantConcurrencyConfig config;
+    private final Map<String, Semaphore> requestPermits = new ConcurrentHashMap<>();
+    private final Map<String, Semaphore> asyncPermits = new ConcurrentHashMap<>();
+    private final Counter rejectedRequests;
+    private final Counter rejectedTasks;
+
+    public TenantConcurrencyLimiter(TenantConcurrencyConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.rejectedRequests = rejectedCounter(meterRegistry, Kind.REQUEST);
+        this.rejectedTasks = rejectedCounter(meterRegistry, Kind.ASYNC);
+    }
+
+    public boolean isEnabled() {
+        return config.isEnabled();
+    }
+
+    /**
+     * Clé du tenant courant, null hors contexte (aucune limite)
+     */
+    public static String currentTenantKey() {
+        if (!TenantContextHolder.hasContext()) {
+            return null;
+        }
+        TenantContextHolder.TenantContext context = TenantContextHolder.getContext();
+        return switch (context.getMode()) {
+            case SHARED -> context.getCompanyId() != null ? "company-" + context.getCompanyId() : null;
+            case DEDICATED -> "tenant-" + context.getTenantId();
+            case CABINET -> "cabinet-" + context.getCabinetId();
+        };
+    }
+
+    /**
+     * Réserve une place pour le tenant, en attendant au plus le délai configuré
+     *
+     * @return Place à libérer (close), null si le délai est écoulé
+     */
+    public Permit acquire(String tenantKey, Kind kind) throws InterruptedException {
+        if (!config.isEnabled() || tenantKey == null) {
+            return Permit.NONE;
+        }
+        Semaphore semaphore = semaphore(tenantKey, kind);
+        long timeoutMs = kind == Kind.REQUEST ? config.getRequestAcquireTimeoutMs() : config.getAsyncAcquireTimeoutMs();
+        if (!semaphore.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+            (kind == Kind.REQUEST ? rejectedRequests : rejectedTasks).increment();
+            log.warn("⏳ Limite de concurrence atteinte pour {} ({}), attente {} ms dépassée", tenantKey, kind, timeoutMs);
+            return null;
+        }
+        return new Permit(semaphore);
+    }
+
+    private Semaphore semaphore(String tenantKey, Kind kind) {
+        if (kind == Kind.REQUEST) {
+            return requestPermits.computeIfAbsent(tenantKey,
+                key -> new Semaphore(Math.max(1, config.getMaxRequestsPerTenant()), true));
+        }
+        return asyncPermits.computeIfAbsent(tenantKey,
+            key -> new Semaphore(Math.max(1, config.getMaxAsyncTasksPerTenant()), true));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, Kind kind) {
+        return Counter.builder("predykt.concurrency.rejected")
+            .tag("kind", kind.name().toLowerCase())
+            .description("Exécutions refusées faute de place pour le tenant")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Place réservée (libérée une seule fois)
+     */
+    public static final class Permit implements AutoCloseable {
+
+        static final Permit NONE = new Permit(null);
+
+        private Semaphore semaphore;
+
+        private Permit(Semaphore semaphore) {
+            this.semaphore = semaphore;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (semaphore != null) {
+                semaphore.release();
+                semaphore = null;
+            }
+        }
+    }
+}
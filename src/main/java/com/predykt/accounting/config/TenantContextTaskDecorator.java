@@ -0,0 +1,84 @@
+package com.predykt.accounting.config;
+
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Propagation explicite du contexte tenant et du contexte de sécurité vers les tâches asynchrones
+ *
+ * Le contexte est capturé à la soumission, posé sur le thread d'exécution puis restauré: un thread
+ * de pool (ou virtuel) ne garde jamais le contexte hérité d'une autre requête.
+ * Avec limitPerTenant, la tâche attend une place du tenant avant de s'exécuter (threads virtuels).
+ */
+public class TenantContextTaskDecorator implements TaskDecorator {
+
+    private final TenantConcurrencyLimiter limiter;
+    private final boolean limitPerTenant;
+
+    public TenantContextTaskDecorator(TenantConcurrencyLimiter limiter, boolean limitPerTenant) {
+        this.limiter = limiter;
+        this.limitPerTenant = limitPerTenant;
+    }
+
+    @Override
+    public Runnable decorate(Runnable task) {
+        TenantContextHolder.TenantContext tenantContext =
+            TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+        SecurityContext securityContext = copy(SecurityContextHolder.getContext());
+        String tenantKey = limitPerTenant ? TenantConcurrencyLimiter.currentTenantKey() : null;
+
+        return () -> {
+            TenantContextHolder.TenantContext previousTenant =
+                TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+            SecurityContext previousSecurity = SecurityContextHolder.getContext();
+            try {
+                if (tenantContext != null) {
+                    TenantContextHolder.setContext(tenantContext);
+                } else {
+                    TenantContextHolder.clear();
+                }
+                SecurityContextHolder.setContext(securityContext);
+
+                if (tenantKey == null) {
+                    task.run();
+                } else {
+                    runWithPermit(task, tenantKey);
+                }
+            } finally {
+                if (previousTenant != null) {
+                    TenantContextHolder.setContext(previousTenant);
+                } else {
+                    TenantContextHolder.clear();
+                }
+                SecurityContextHolder.setContext(previousSecurity);
+            }
+        };
+    }
+
+    private void runWithPermit(Runnable task, String tenantKey) {
+        TenantConcurrencyLimiter.Permit permit;
+        try {
+            permit = limiter.acquire(tenantKey, TenantConcurrencyLimiter.Kind.ASYNC);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Tâche asynchrone interrompue en attente d'une place pour " + tenantKey, e);
+        }
+        if (permit == null) {
+            throw new RejectedExecutionException("Trop de tâches asynchrones en cours pour " + tenantKey);
+        }
+        try (permit) {
+            task.run();
+        }
+    }
+
+    private static SecurityContext copy(SecurityContext source) {
+        SecurityContext context = SecurityContextHolder.createEmptyContext();
+        if (source != null) {
+            context.setAuthentication(source.getAuthentication());
+        }
+        return context;
+    }
+}
@@ -1,6 +1,7 @@
 package com.predykt.accounting.config;
 
 import com.predykt.accounting.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -66,14 +67,8 @@ public class TenantInterceptor implements HandlerInterceptor {
      * MODE SHARED : Extraire tenant depuis JWT
      */
     private TenantContextHolder.TenantContext resolveSharedTenant(HttpServletRequest request) {
-        // Extraire le token JWT
-        String jwt = extractJwtFromRequest(request);
-        
-        Long companyId = null;
-        if (jwt != null && jwtTokenProvider.validateToken(jwt)) {
-            // Extraire company_id depuis le JWT
-            companyId = (Long) jwtTokenProvider.getClaim(jwt, "companyId");
-        }
+        // Extraire company_id depuis le JWT
+        Long companyId = extractCompanyId(request);
         
         // Si pas de JWT (endpoints publics), on laisse null
         // Le service métier gérera l'erreur si company_id est requis
@@ -97,12 +92,7 @@ public class TenantInterceptor implements HandlerInterceptor {
         
         // En mode dédié, le tenant est fixe (1 entreprise = 1 instance)
         // Le company_id peut être extrait du JWT si besoin
-        String jwt = extractJwtFromRequest(request);
-        Long companyId = null;
-        
-        if (jwt != null && jwtTokenProvider.validateToken(jwt)) {
-            companyId = (Long) jwtTokenProvider.getClaim(jwt, "companyId");
-        }
+        Long companyId = extractCompanyId(request);
         
         return TenantContextHolder.TenantContext.builder()
             .mode(TenantContextHolder.TenantMode.DEDICATED)
@@ -124,12 +114,7 @@ public class TenantInterceptor implements HandlerInterceptor {
         Long cabinetId = Long.parseLong(configuredCabinetId);
         
         // Extraire company_id depuis JWT (dossier client)
-        String jwt = extractJwtFromRequest(request);
-        Long companyId = null;
-        
-        if (jwt != null && jwtTokenProvider.validateToken(jwt)) {
-            companyId = (Long) jwtTokenProvider.getClaim(jwt, "companyId");
-        }
+        Long companyId = extractCompanyId(request);
         
         return TenantContextHolder.TenantContext.builder()
             .mode(TenantContextHolder.TenantMode.CABINET)
@@ -141,6 +126,27 @@ public class TenantInterceptor implements HandlerInterceptor {
             .build();
     }
     
+    /**
+     * Extraire company_id des claims déjà validés par JwtAuthenticationFilter,
+     * le token n'étant parsé ici que si le filtre ne s'est pas appliqué
+     */
+    private Long extractCompanyId(HttpServletRequest request) {
+        Claims claims = (Claims) request.getAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE);
+        if (claims == null) {
+            String jwt = extractJwtFromRequest(request);
+            if (jwt == null) {
+                return null;
+            }
+            claims = jwtTokenProvider.parseClaims(jwt);
+            if (claims == null) {
+                return null;
+            }
+        }
+        
+        Object companyId = claims.get("companyId");
+        return companyId instanceof Number number ? number.longValue() : null;
+    }
+    
     /**
      * Extraire le JWT depuis le header Authorization
      */
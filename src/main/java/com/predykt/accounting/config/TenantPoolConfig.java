@@ -0,0 +1,45 @@
+package com.predykt.accounting.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Gouvernance des pools de connexions des tenants et cabinets (modes DEDICATED et CABINET)
+ * Le pool par défaut (base partagée) n'entre pas dans le budget
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.tenant.pools")
+@Data
+public class TenantPoolConfig {
+
+    /**
+     * Budget global de connexions (somme des tailles maximales des pools ouverts)
+     */
+    private int maxTotalConnections = 200;
+
+    /**
+     * Connexions minimales inactives par pool (0: aucune connexion tenue pour un tenant inactif)
+     */
+    private int minIdle = 0;
+
+    /**
+     * Fermeture d'une connexion inactive (ms)
+     */
+    private long idleTimeoutMs = 120_000;
+
+    /**
+     * Attente maximale d'une connexion (ms)
+     */
+    private long connectionTimeoutMs = 30_000;
+
+    /**
+     * Fermeture d'un pool sans activité depuis cette durée (minutes)
+     */
+    private long idleEvictionMinutes = 30;
+
+    /**
+     * Fréquence de la recherche des pools inactifs (ms)
+     */
+    private long evictionIntervalMs = 60_000;
+}
@@ -0,0 +1,31 @@
+package com.predykt.accounting.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Fermeture périodique des pools de connexions des tenants inactifs (voir MultiTenantDataSourceRouter)
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TenantPoolMaintenance {
+
+    private final ObjectProvider<MultiTenantDataSourceRouter> router;
+
+    @Scheduled(fixedDelayString = "${predykt.tenant.pools.eviction-interval-ms:60000}")
+    public void evictIdlePools() {
+        MultiTenantDataSourceRouter dataSourceRouter = router.getIfUnique();
+        if (dataSourceRouter == null) {
+            return;
+        }
+        try {
+            dataSourceRouter.evictIdlePools();
+        } catch (RuntimeException e) {
+            log.warn("Fermeture des pools tenants inactifs impossible: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.predykt.accounting.config;
+
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
+import com.predykt.accounting.security.TokenRevocationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Synchronisation des révocations de tokens et des invalidations d'autorisations entre instances (Redis pub/sub)
+ * Activée par predykt.security.revocation.redis-sync=true
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "predykt.security.revocation", name = "redis-sync", havingValue = "true")
+public class TokenRevocationSyncConfig {
+
+    @Bean
+    public RedisMessageListenerContainer tokenRevocationListenerContainer(
+            RedisConnectionFactory connectionFactory,
+            TokenRevocationRegistry revocationRegistry,
+            AuthorizationSnapshotCache authorizationCache,
+            @Value("${predykt.security.revocation.channel:predykt:jwt-revocations}") String channel,
+            @Value("${predykt.security.authorization-cache.channel:predykt:authorization-invalidations}")
+            String authorizationChannel) {
+
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+            (message, pattern) -> revocationRegistry.onRemoteRevocation(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(channel));
+        container.addMessageListener(
+            (message, pattern) -> authorizationCache.onRemoteInvalidation(
+                new String(message.getBody(), StandardCharsets.UTF_8)),
+            new ChannelTopic(authorizationChannel));
+        return container;
+    }
+}
@@ -0,0 +1,226 @@
+package com.predykt.accounting.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Cache à deux niveaux: L1 en mémoire locale (Caffeine, borné) devant L2 Redis (partagé)
+ *
+ * - Lecture: L1, puis L2 (la valeur trouvée alimente L1), puis chargement (écrit dans L1 et L2)
+ * - Écriture et suppression: L1 et L2, puis diffusion aux autres instances qui suppriment leur L1
+ * - Une panne de Redis dégrade le cache en L1 seul, sans faire échouer l'appel
+ * - Valeurs null non mises en cache
+ */
+@Slf4j
+public class TwoTierCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<String, Object> l1;
+    private final org.springframework.cache.Cache l2;
+    private final BiConsumer<String, Object> invalidationPublisher;
+    private final Metrics metrics;
+
+    /**
+     * @param l2 Cache Redis, null si le cache est local uniquement
+     * @param invalidationPublisher Diffusion d'une suppression (nom du cache, clé; null = tout le cache)
+     */
+    public TwoTierCache(String name, Cache<String, Object> l1, org.springframework.cache.Cache l2,
+                        BiConsumer<String, Object> invalidationPublisher, Metrics metrics) {
+        this.name = name;
+        this.l1 = l1;
+        this.l2 = l2;
+        this.invalidationPublisher = invalidationPublisher;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return l1;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        Object value = l1.getIfPresent(l1Key(key));
+        if (value != null) {
+            metrics.l1Hits().increment();
+            return new SimpleValueWrapper(value);
+        }
+        metrics.l1Misses().increment();
+
+        value = getFromL2(key);
+        if (value != null) {
+            l1.put(l1Key(key), value);
+            return new SimpleValueWrapper(value);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                "Valeur en cache de type " + value.getClass().getName() + " au lieu de " + type.getName());
+        }
+        return (T) value;
+    }
+
+    /**
+     * Chargement à la demande: un seul chargement par clé même sous accès concurrents (Caffeine)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = l1Key(key);
+        Object cached = l1.getIfPresent(localKey);
+        if (cached != null) {
+            metrics.l1Hits().increment();
+            return (T) cached;
+        }
+        metrics.l1Misses().increment();
+
+        try {
+            return (T) l1.get(localKey, k -> {
+                Object value = getFromL2(key);
+                if (value != null) {
+                    return value;
+                }
+                value = load(valueLoader);
+                if (value != null) {
+                    putToL2(key, value);
+                }
+                return value;
+            });
+        } catch (LoaderException e) {
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        putToL2(key, value);
+        l1.put(l1Key(key), value);
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void evict(Object key) {
+        if (l2 != null) {
+            try {
+                l2.evict(key);
+            } catch (RuntimeException e) {
+                log.warn("Cache {}: suppression Redis impossible ({})", name, e.getMessage());
+            }
+        }
+        l1.invalidate(l1Key(key));
+        invalidationPublisher.accept(name, key);
+    }
+
+    @Override
+    public void clear() {
+        if (l2 != null) {
+            try {
+                l2.clear();
+            } catch (RuntimeException e) {
+                log.warn("Cache {}: vidage Redis impossible ({})", name, e.getMessage());
+            }
+        }
+        l1.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * Suppression demandée par une autre instance: L1 uniquement (L2 déjà à jour)
+     *
+     * @param key Clé sous forme textuelle, null pour tout le cache
+     */
+    void invalidateLocal(String key) {
+        if (key == null) {
+            l1.invalidateAll();
+        } else {
+            l1.invalidate(key);
+        }
+    }
+
+    long localSize() {
+        return l1.estimatedSize();
+    }
+
+    private Object getFromL2(Object key) {
+        if (l2 == null) {
+            return null;
+        }
+        try {
+            ValueWrapper wrapper = l2.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                metrics.l2Hits().increment();
+                return wrapper.get();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Cache {}: lecture Redis impossible ({})", name, e.getMessage());
+        }
+        metrics.l2Misses().increment();
+        return null;
+    }
+
+    private void putToL2(Object key, Object value) {
+        if (l2 == null) {
+            return;
+        }
+        try {
+            l2.put(key, value);
+        } catch (RuntimeException e) {
+            log.warn("Cache {}: écriture Redis impossible ({})", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Clé L1 sous forme textuelle, identique à celle diffusée aux autres instances
+     */
+    private static String l1Key(Object key) {
+        return key instanceof String text ? text : String.valueOf(key);
+    }
+
+    private Object load(Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        try {
+            return valueLoader.call();
+        } catch (Exception e) {
+            throw new LoaderException(e);
+        } finally {
+            metrics.loads().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Compteurs Micrometer d'un cache
+     */
+    public record Metrics(Counter l1Hits, Counter l1Misses, Counter l2Hits, Counter l2Misses, Timer loads) {}
+
+    /**
+     * Transporte l'exception du chargement hors de la fonction Caffeine
+     */
+    private static final class LoaderException extends RuntimeException {
+        LoaderException(Throwable cause) {
+            super(cause);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.predykt.accounting.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Configuration externalisée du cache à deux niveaux (L1 local Caffeine, L2 Redis)
+ *
+ * Les valeurs par défaut s'appliquent à tout cache; chaque cache peut les surcharger
+ * dans predykt.cache.caches.&lt;nom&gt;.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "predykt.cache")
+@Data
+public class TwoTierCacheConfig {
+
+    /**
+     * Canal Redis de diffusion des invalidations entre instances
+     */
+    private String invalidationChannel = "predykt:cache-invalidations";
+
+    /**
+     * Politique par défaut
+     */
+    private CachePolicy defaults = new CachePolicy(10_000L, 600L, 3600L, true, Serializer.JSON);
+
+    /**
+     * Politiques par cache (surcharges des valeurs par défaut)
+     */
+    private Map<String, CachePolicy> caches = new HashMap<>();
+
+    /**
+     * Politique effective d'un cache: valeurs par défaut complétées par ses surcharges
+     */
+    public CachePolicy policyFor(String cacheName) {
+        CachePolicy override = caches.getOrDefault(cacheName, new CachePolicy());
+        return new CachePolicy(
+            override.getL1MaxSize() != null ? override.getL1MaxSize() : defaults.getL1MaxSize(),
+            override.getL1TtlSeconds() != null ? override.getL1TtlSeconds() : defaults.getL1TtlSeconds(),
+            override.getL2TtlSeconds() != null ? override.getL2TtlSeconds() : defaults.getL2TtlSeconds(),
+            override.getL2Enabled() != null ? override.getL2Enabled() : defaults.getL2Enabled(),
+            override.getSerializer() != null ? override.getSerializer() : defaults.getSerializer());
+    }
+
+    /**
+     * Politique d'un cache (champs non renseignés: valeur par défaut)
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CachePolicy {
+
+        /**
+         * Nombre maximal d'entrées en mémoire locale
+         */
+        private Long l1MaxSize;
+
+        /**
+         * Durée de vie en mémoire locale (secondes)
+         */
+        private Long l1TtlSeconds;
+
+        /**
+         * Durée de vie dans Redis (secondes)
+         */
+        private Long l2TtlSeconds;
+
+        /**
+         * Partager le cache entre instances via Redis (sinon cache local seul)
+         */
+        private Boolean l2Enabled;
+
+        /**
+         * Sérialisation des valeurs dans Redis
+         */
+        private Serializer serializer;
+    }
+
+    public enum Serializer {
+        /** JSON typé (GenericJackson2JsonRedisSerializer) */
+        JSON,
+        /** Sérialisation Java (valeurs Serializable) */
+        JDK
+    }
+}
@@ -0,0 +1,126 @@
+package com.predykt.accounting.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gestionnaire des caches à deux niveaux (voir TwoTierCache)
+ *
+ * - Politique par cache (taille et durée de vie L1, durée de vie L2, sérialisation) via TwoTierCacheConfig
+ * - Invalidations diffusées par Redis pub/sub: message "instance|cache|clé" (clé absente: tout le cache),
+ *   les messages émis par l'instance elle-même sont ignorés
+ * - Métriques Micrometer: predykt.cache.gets (cache, tier, result), predykt.cache.load, predykt.cache.size
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager {
+
+    private static final String CLEAR_MARKER = "*";
+
+    private final TwoTierCacheConfig config;
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(TwoTierCacheConfig config, RedisCacheManager redisCacheManager,
+                               StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Message d'invalidation reçu d'une instance
+     */
+    public void onInvalidationMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length < 3 || instanceId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache != null) {
+            cache.invalidateLocal(CLEAR_MARKER.equals(parts[2]) ? null : parts[2]);
+        }
+    }
+
+    private TwoTierCache createCache(String name) {
+        TwoTierCacheConfig.CachePolicy policy = config.policyFor(name);
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> l1 = Caffeine.newBuilder()
+            .maximumSize(policy.getL1MaxSize())
+            .expireAfterWrite(Duration.ofSeconds(policy.getL1TtlSeconds()))
+            .build();
+        Cache l2 = Boolean.TRUE.equals(policy.getL2Enabled()) ? redisCacheManager.getCache(name) : null;
+
+        TwoTierCache cache = new TwoTierCache(name, l1, l2, this::publishInvalidation, metrics(name));
+        Gauge.builder("predykt.cache.size", cache, TwoTierCache::localSize)
+            .tag("cache", name)
+            .description("Entrées en mémoire locale (L1)")
+            .register(meterRegistry);
+
+        log.info("Cache {} initialisé: L1 {} entrées / {} s, L2 {}", name,
+            policy.getL1MaxSize(), policy.getL1TtlSeconds(),
+            l2 != null ? policy.getL2TtlSeconds() + " s (" + policy.getSerializer() + ")" : "désactivé");
+        return cache;
+    }
+
+    private TwoTierCache.Metrics metrics(String name) {
+        return new TwoTierCache.Metrics(
+            getsCounter(name, "l1", "hit"),
+            getsCounter(name, "l1", "miss"),
+            getsCounter(name, "l2", "hit"),
+            getsCounter(name, "l2", "miss"),
+            Timer.builder("predykt.cache.load")
+                .tag("cache", name)
+                .description("Durée de chargement des valeurs absentes des deux niveaux")
+                .register(meterRegistry));
+    }
+
+    private Counter getsCounter(String name, String tier, String result) {
+        return Counter.builder("predykt.cache.gets")
+            .tag("cache", name)
+            .tag("tier", tier)
+            .tag("result", result)
+            .register(meterRegistry);
+    }
+
+    private void publishInvalidation(String cacheName, Object key) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(config.getInvalidationChannel(),
+                instanceId + "|" + cacheName + "|" + (key != null ? String.valueOf(key) : CLEAR_MARKER));
+        } catch (RuntimeException e) {
+            log.warn("Diffusion de l'invalidation du cache {} impossible: {}", cacheName, e.getMessage());
+        }
+    }
+}
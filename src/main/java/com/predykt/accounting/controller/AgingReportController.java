@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.dto.response.AgingReportResponse;
 import com.predykt.accounting.dto.response.ApiResponse;
 import com.predykt.accounting.service.AgingReportService;
@@ -16,6 +18,7 @@ import java.time.LocalDate;
  * Contrôleur REST pour les balances âgées (clients et fournisseurs)
  */
 @RestController
+@HeavyOperation(AdmissionControlConfig.EndpointClass.REPORT)
 @RequestMapping("/companies/{companyId}/reports")
 @RequiredArgsConstructor
 @Tag(name = "Balances Âgées", description = "Rapports de vieillissement des créances et dettes")
@@ -25,13 +28,15 @@ public class AgingReportController {
 
     @GetMapping("/customers-aging")
     @Operation(summary = "Balance âgée des clients",
-               description = "Génère la balance âgée des clients avec analyse par tranches d'âge (0-30j, 30-60j, 60-90j, >90j)")
+               description = "Génère la balance âgée des clients avec analyse par tranches d'âge (0-30j, 30-60j, 60-90j, >90j). " +
+                             "netSettled=true exclut les factures lettrées et leurs règlements")
     public ResponseEntity<ApiResponse<AgingReportResponse>> getCustomersAgingReport(
             @PathVariable Long companyId,
             @RequestParam(defaultValue = "#{T(java.time.LocalDate).now()}")
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(defaultValue = "false") boolean netSettled) {
 
-        AgingReportResponse report = agingReportService.generateCustomersAgingReport(companyId, asOfDate);
+        AgingReportResponse report = agingReportService.generateCustomersAgingReport(companyId, asOfDate, netSettled);
 
         String message = String.format("Balance âgée clients générée: %d client(s) - %s FCFA total",
             report.getSummary().getTotalItems(),
@@ -42,13 +47,15 @@ public class AgingReportController {
 
     @GetMapping("/suppliers-aging")
     @Operation(summary = "Balance âgée des fournisseurs",
-               description = "Génère la balance âgée des fournisseurs avec analyse par tranches d'âge (0-30j, 30-60j, 60-90j, >90j)")
+               description = "Génère la balance âgée des fournisseurs avec analyse par tranches d'âge (0-30j, 30-60j, 60-90j, >90j). " +
+                             "netSettled=true exclut les factures lettrées et leurs règlements")
     public ResponseEntity<ApiResponse<AgingReportResponse>> getSuppliersAgingReport(
             @PathVariable Long companyId,
             @RequestParam(defaultValue = "#{T(java.time.LocalDate).now()}")
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate) {
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate asOfDate,
+            @RequestParam(defaultValue = "false") boolean netSettled) {
 
-        AgingReportResponse report = agingReportService.generateSuppliersAgingReport(companyId, asOfDate);
+        AgingReportResponse report = agingReportService.generateSuppliersAgingReport(companyId, asOfDate, netSettled);
 
         String message = String.format("Balance âgée fournisseurs générée: %d fournisseur(s) - %s FCFA total",
             report.getSummary().getTotalItems(),
@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.domain.entity.*;
 import com.predykt.accounting.domain.enums.SuggestionStatus;
 import com.predykt.accounting.dto.response.ApiResponse;
@@ -207,6 +209,7 @@ public class BankReconciliationController {
     // ========== NOUVEAUX ENDPOINTS : MATCHING AUTOMATIQUE INTELLIGENT ==========
 
     @PostMapping("/{reconciliationId}/auto-match")
+    @HeavyOperation(AdmissionControlConfig.EndpointClass.MATCHING)
     @Operation(summary = "🤖 Matching automatique intelligent",
                description = "Lance l'analyse automatique pour identifier les correspondances entre " +
                    "les transactions bancaires et les écritures comptables. " +
@@ -29,7 +29,7 @@ public class ChartOfAccountsController {
     private final ChartOfAccountsService chartService;
     
     @PostMapping("/initialize")
-    @PreAuthorize("hasAuthority('COMPANY_WRITE')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_WRITE')")
     @Operation(summary = "Initialiser le plan comptable OHADA",
                description = "Charge le plan comptable OHADA par défaut pour l'entreprise")
     public ResponseEntity<ApiResponse<Void>> initializeChartOfAccounts(
@@ -46,7 +46,7 @@ public class ChartOfAccountsController {
     }
     
     @GetMapping
-    @PreAuthorize("hasAuthority('COMPANY_READ')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_READ')")
     @Operation(summary = "Lister tous les comptes actifs",
                description = "Récupère la liste complète des comptes comptables actifs")
     public ResponseEntity<ApiResponse<List<ChartOfAccounts>>> getAllActiveAccounts(
@@ -58,7 +58,7 @@ public class ChartOfAccountsController {
     }
     
     @GetMapping("/{accountNumber}")
-    @PreAuthorize("hasAuthority('COMPANY_READ')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_READ')")
     @Operation(summary = "Obtenir un compte par son numéro",
                description = "Récupère les détails d'un compte comptable spécifique")
     public ResponseEntity<ApiResponse<ChartOfAccounts>> getAccountByNumber(
@@ -72,7 +72,7 @@ public class ChartOfAccountsController {
     }
     
     @GetMapping("/type/{accountType}")
-    @PreAuthorize("hasAuthority('COMPANY_READ')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_READ')")
     @Operation(summary = "Lister les comptes par type",
                description = "Récupère tous les comptes d'un type spécifique (ACTIF, PASSIF, CHARGES, PRODUITS)")
     public ResponseEntity<ApiResponse<List<ChartOfAccounts>>> getAccountsByType(
@@ -85,7 +85,7 @@ public class ChartOfAccountsController {
     }
     
     @PostMapping
-    @PreAuthorize("hasAuthority('COMPANY_WRITE')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_WRITE')")
     @Operation(summary = "Créer un compte personnalisé",
                description = "Ajoute un nouveau compte comptable personnalisé au plan")
     public ResponseEntity<ApiResponse<ChartOfAccounts>> createCustomAccount(
@@ -103,7 +103,7 @@ public class ChartOfAccountsController {
     }
     
     @PutMapping("/{accountId}/activate")
-    @PreAuthorize("hasAuthority('COMPANY_WRITE')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_WRITE')")
     @Operation(summary = "Activer un compte",
                description = "Réactive un compte désactivé")
     public ResponseEntity<ApiResponse<Void>> activateAccount(
@@ -119,7 +119,7 @@ public class ChartOfAccountsController {
     }
     
     @PutMapping("/{accountId}/deactivate")
-    @PreAuthorize("hasAuthority('COMPANY_WRITE')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_WRITE')")
     @Operation(summary = "Désactiver un compte",
                description = "Désactive un compte (soft delete)")
     public ResponseEntity<ApiResponse<Void>> deactivateAccount(
@@ -135,7 +135,7 @@ public class ChartOfAccountsController {
     }
     
     @GetMapping("/search")
-    @PreAuthorize("hasAuthority('COMPANY_READ')")
+    @PreAuthorize("@securityService.hasPermission('COMPANY_READ')")
     @Operation(summary = "Rechercher des comptes",
                description = "Recherche des comptes par numéro ou libellé")
     public ResponseEntity<ApiResponse<List<ChartOfAccounts>>> searchAccounts(
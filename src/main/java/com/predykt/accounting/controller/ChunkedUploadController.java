@@ -0,0 +1,97 @@
+package com.predykt.accounting.controller;
+
+import com.predykt.accounting.dto.request.UploadStartRequest;
+import com.predykt.accounting.dto.response.ApiResponse;
+import com.predykt.accounting.dto.response.UploadStatusResponse;
+import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.service.ChunkedUploadService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/companies/{companyId}/uploads")
+@RequiredArgsConstructor
+@Tag(name = "Envois fractionnés", description = "Envoi reprenable et idempotent des fichiers d'import volumineux")
+public class ChunkedUploadController {
+
+    private final ChunkedUploadService uploadService;
+
+    @PostMapping
+    @Operation(summary = "Ouvrir un envoi fractionné",
+               description = "Déclare le fichier (nature, nom, taille, empreinte SHA-256 optionnelle). " +
+                           "Si l'empreinte correspond à un fichier déjà importé, le statut DUPLICATE est retourné " +
+                           "et aucun envoi n'est nécessaire.")
+    public ResponseEntity<ApiResponse<UploadStatusResponse>> start(
+            @PathVariable Long companyId,
+            @Valid @RequestBody UploadStartRequest request) {
+
+        UploadStatusResponse status = uploadService.start(companyId, request);
+
+        return ResponseEntity
+            .status("DUPLICATE".equals(status.getStatus()) ? HttpStatus.OK : HttpStatus.CREATED)
+            .body(ApiResponse.success(status, status.getMessage()));
+    }
+
+    @PutMapping("/{uploadId}/chunks")
+    @Operation(summary = "Envoyer un fragment",
+               description = "Corps brut (application/octet-stream) écrit à la position offset. " +
+                           "Les fragments peuvent être envoyés dans n'importe quel ordre et renvoyés sans risque. " +
+                           "En-tête X-Chunk-SHA256 optionnel pour vérifier l'intégrité du fragment.")
+    public ResponseEntity<ApiResponse<UploadStatusResponse>> putChunk(
+            @PathVariable Long companyId,
+            @PathVariable String uploadId,
+            @RequestParam long offset,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String chunkSha256,
+            HttpServletRequest request) {
+
+        try (InputStream body = request.getInputStream()) {
+            return ResponseEntity.ok(ApiResponse.success(
+                uploadService.putChunk(companyId, uploadId, offset, body, chunkSha256)));
+        } catch (IOException e) {
+            throw new ImportException("Lecture du fragment impossible: " + e.getMessage(), e);
+        }
+    }
+
+    @GetMapping("/{uploadId}")
+    @Operation(summary = "État d'un envoi",
+               description = "Octets reçus et plages manquantes, pour reprendre un envoi interrompu")
+    public ResponseEntity<ApiResponse<UploadStatusResponse>> status(
+            @PathVariable Long companyId,
+            @PathVariable String uploadId) {
+
+        return ResponseEntity.ok(ApiResponse.success(uploadService.status(companyId, uploadId)));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @Operation(summary = "Terminer un envoi et importer le fichier",
+               description = "Vérifie que tout le fichier a été reçu, puis l'importe (sauf s'il a déjà été importé)")
+    public ResponseEntity<ApiResponse<UploadStatusResponse>> complete(
+            @PathVariable Long companyId,
+            @PathVariable String uploadId) {
+
+        UploadStatusResponse status = uploadService.complete(companyId, uploadId);
+
+        return ResponseEntity
+            .status("COMPLETED".equals(status.getStatus()) ? HttpStatus.CREATED : HttpStatus.OK)
+            .body(ApiResponse.success(status, status.getMessage()));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @Operation(summary = "Abandonner un envoi")
+    public ResponseEntity<ApiResponse<Void>> abort(
+            @PathVariable Long companyId,
+            @PathVariable String uploadId) {
+
+        uploadService.abort(companyId, uploadId);
+        return ResponseEntity.ok(ApiResponse.success(null, "Envoi abandonné"));
+    }
+}
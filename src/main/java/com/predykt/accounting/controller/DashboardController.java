@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.dto.response.ApiResponse;
 import com.predykt.accounting.service.DashboardService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -13,6 +15,7 @@ import java.time.LocalDate;
 import java.util.Map;
 
 @RestController
+@HeavyOperation(AdmissionControlConfig.EndpointClass.DASHBOARD)
 @RequestMapping("/companies/{companyId}/dashboard")
 @RequiredArgsConstructor
 @Tag(name = "Dashboard", description = "Tableaux de bord et KPIs")
@@ -51,17 +51,20 @@ public class DataImportController {
     @Operation(summary = "Importer des activités (nouveau système flexible)",
                description = "Importe des activités avec support de templates personnalisés, formats multiples (CSV, Excel, SAP, etc.) " +
                            "et mapping automatique vers comptes OHADA. " +
+                           "uploadToken (optionnel) réutilise la structure détectée par la prévisualisation. " +
                            "Formats supportés: CSV générique, SAP, QuickBooks, Template personnalisé")
     public ResponseEntity<ApiResponse<ImportResultResponse>> importActivities(
             @PathVariable Long companyId,
             @RequestParam("file") MultipartFile file,
             @RequestParam(required = false) Long templateId,
-            @RequestParam(required = false) String format) {
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String uploadToken) {
 
         ActivityImportRequest request = ActivityImportRequest.builder()
             .templateId(templateId)
             .format(format)
             .preview(false)
+            .uploadToken(uploadToken)
             .build();
 
         ImportResultResponse result = activityImportService.importActivities(companyId, file, request);
@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.service.ExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -16,6 +18,7 @@ import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
 @RestController
+@HeavyOperation(AdmissionControlConfig.EndpointClass.EXPORT)
 @RequestMapping("/companies/{companyId}/exports")
 @RequiredArgsConstructor
 @Tag(name = "Exports", description = "Export de rapports financiers en PDF et Excel")
@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.dto.response.ApiResponse;
 import com.predykt.accounting.dto.response.BalanceSheetResponse;
 import com.predykt.accounting.dto.response.CashFlowStatementResponse;
@@ -17,6 +19,7 @@ import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
 
 @RestController
+@HeavyOperation(AdmissionControlConfig.EndpointClass.REPORT)
 @RequestMapping("/companies/{companyId}/reports")
 @RequiredArgsConstructor
 @Tag(name = "Rapports Financiers", description = "Génération des états financiers")
@@ -1,5 +1,7 @@
 package com.predykt.accounting.controller;
 
+import com.predykt.accounting.config.AdmissionControlConfig;
+import com.predykt.accounting.config.HeavyOperation;
 import com.predykt.accounting.dto.response.ApiResponse;
 import com.predykt.accounting.dto.response.MatchingMetricsResponse;
 import com.predykt.accounting.dto.response.UserProductivityMetricsResponse;
@@ -54,6 +56,7 @@ import java.time.LocalDate;
  */
 @Slf4j
 @RestController
+@HeavyOperation(AdmissionControlConfig.EndpointClass.METRICS)
 @RequestMapping("/companies/{companyId}/reconciliations/metrics")
 @RequiredArgsConstructor
 @Tag(name = "📊 Dashboard de Métriques",
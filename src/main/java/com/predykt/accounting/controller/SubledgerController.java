@@ -1,15 +1,24 @@
 package com.predykt.accounting.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.predykt.accounting.config.TenantContextHolder;
 import com.predykt.accounting.dto.response.ApiResponse;
+import com.predykt.accounting.dto.response.SubledgerPageResponse;
 import com.predykt.accounting.dto.response.SubledgerResponse;
 import com.predykt.accounting.service.SubledgerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 
 /**
@@ -23,6 +32,7 @@ import java.time.LocalDate;
 public class SubledgerController {
 
     private final SubledgerService subledgerService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/customers")
     @Operation(summary = "Grand livre auxiliaire CLIENTS",
@@ -89,4 +99,111 @@ public class SubledgerController {
             String.format("Grand livre fournisseur %s généré: %d écritures",
                 accountNumber, subledger.getNombreEcritures())));
     }
+
+    @GetMapping("/customers/page")
+    @Operation(summary = "Grand livre auxiliaire CLIENTS paginé",
+               description = "Retourne une page de lignes clients (411x) triées par compte, date et id. " +
+                   "Passer le nextCursor reçu pour obtenir la page suivante; le solde cumulé est conservé d'une page à l'autre")
+    public ResponseEntity<ApiResponse<SubledgerPageResponse>> getCustomersSubledgerPage(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        SubledgerPageResponse page = subledgerService.getCustomersSubledgerPage(companyId, startDate, endDate, cursor, size);
+
+        return ResponseEntity.ok(ApiResponse.success(page,
+            String.format("%d ligne(s) clients", page.getLines().size())));
+    }
+
+    @GetMapping("/suppliers/page")
+    @Operation(summary = "Grand livre auxiliaire FOURNISSEURS paginé",
+               description = "Retourne une page de lignes fournisseurs (401x) triées par compte, date et id. " +
+                   "Passer le nextCursor reçu pour obtenir la page suivante; le solde cumulé est conservé d'une page à l'autre")
+    public ResponseEntity<ApiResponse<SubledgerPageResponse>> getSuppliersSubledgerPage(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+
+        SubledgerPageResponse page = subledgerService.getSuppliersSubledgerPage(companyId, startDate, endDate, cursor, size);
+
+        return ResponseEntity.ok(ApiResponse.success(page,
+            String.format("%d ligne(s) fournisseurs", page.getLines().size())));
+    }
+
+    @GetMapping(value = "/customers/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Grand livre auxiliaire CLIENTS en flux",
+               description = "Diffuse toutes les lignes clients (411x) au format NDJSON (une ligne JSON par écriture) sans les charger en mémoire")
+    public ResponseEntity<StreamingResponseBody> streamCustomersSubledger(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return streamSubledger(companyId, "411", startDate, endDate);
+    }
+
+    @GetMapping(value = "/suppliers/stream", produces = "application/x-ndjson")
+    @Operation(summary = "Grand livre auxiliaire FOURNISSEURS en flux",
+               description = "Diffuse toutes les lignes fournisseurs (401x) au format NDJSON (une ligne JSON par écriture) sans les charger en mémoire")
+    public ResponseEntity<StreamingResponseBody> streamSuppliersSubledger(
+            @PathVariable Long companyId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+
+        return streamSubledger(companyId, "401", startDate, endDate);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamSubledger(Long companyId, String accountPrefix,
+                                                                  LocalDate startDate, LocalDate endDate) {
+        // Le corps est écrit sur un thread asynchrone: propager explicitement le contexte tenant
+        TenantContextHolder.TenantContext tenantContext =
+            TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+
+        StreamingResponseBody body = outputStream -> {
+            if (tenantContext != null) {
+                TenantContextHolder.setContext(tenantContext);
+            }
+            try {
+                subledgerService.streamSubledger(companyId, accountPrefix, startDate, endDate, line -> {
+                    try {
+                        objectMapper.writeValue(new NonClosingOutputStream(outputStream), line);
+                        outputStream.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                outputStream.flush();
+            } finally {
+                if (tenantContext != null) {
+                    TenantContextHolder.clear();
+                }
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/x-ndjson"))
+            .body(body);
+    }
+
+    /**
+     * Empêche Jackson de fermer le flux HTTP après chaque ligne
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
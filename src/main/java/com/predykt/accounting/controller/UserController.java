@@ -30,7 +30,7 @@ public class UserController {
     private final UserService userService;
     
     @GetMapping
-    @PreAuthorize("hasAuthority('USERS_MANAGE')")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE')")
     @Operation(summary = "Lister les utilisateurs",
                description = "Récupère tous les utilisateurs de l'entreprise")
     public ResponseEntity<ApiResponse<List<UserResponse>>> getUsers(
@@ -42,7 +42,7 @@ public class UserController {
     }
     
     @GetMapping("/{userId}")
-    @PreAuthorize("hasAuthority('USERS_MANAGE') or #userId == authentication.principal.id")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE') or @securityService.isCurrentUser(#userId)")
     @Operation(summary = "Obtenir un utilisateur",
                description = "Récupère les détails d'un utilisateur spécifique")
     public ResponseEntity<ApiResponse<UserResponse>> getUserById(
@@ -68,7 +68,7 @@ public class UserController {
     }
     
     @PostMapping
-    @PreAuthorize("hasAuthority('USERS_MANAGE')")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE')")
     @Operation(summary = "Créer un utilisateur",
                description = "Ajoute un nouvel utilisateur à l'entreprise")
     public ResponseEntity<ApiResponse<UserResponse>> createUser(
@@ -86,7 +86,7 @@ public class UserController {
     }
     
     @PutMapping("/{userId}")
-    @PreAuthorize("hasAuthority('USERS_MANAGE') or #userId == authentication.principal.id")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE') or @securityService.isCurrentUser(#userId)")
     @Operation(summary = "Mettre à jour un utilisateur",
                description = "Modifie les informations d'un utilisateur")
     public ResponseEntity<ApiResponse<UserResponse>> updateUser(
@@ -103,7 +103,7 @@ public class UserController {
     }
     
     @DeleteMapping("/{userId}")
-    @PreAuthorize("hasAuthority('USERS_MANAGE')")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE')")
     @Operation(summary = "Supprimer un utilisateur",
                description = "Désactive un utilisateur (soft delete)")
     public ResponseEntity<ApiResponse<Void>> deleteUser(
@@ -119,7 +119,7 @@ public class UserController {
     }
     
     @PostMapping("/{userId}/change-password")
-    @PreAuthorize("#userId == authentication.principal.id")
+    @PreAuthorize("@securityService.isCurrentUser(#userId)")
     @Operation(summary = "Changer le mot de passe",
                description = "Permet à un utilisateur de changer son propre mot de passe")
     public ResponseEntity<ApiResponse<Void>> changePassword(
@@ -136,7 +136,7 @@ public class UserController {
     }
     
     @PutMapping("/{userId}/activate")
-    @PreAuthorize("hasAuthority('USERS_MANAGE')")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE')")
     @Operation(summary = "Activer un utilisateur",
                description = "Réactive un utilisateur désactivé")
     public ResponseEntity<ApiResponse<Void>> activateUser(
@@ -152,7 +152,7 @@ public class UserController {
     }
     
     @PutMapping("/{userId}/deactivate")
-    @PreAuthorize("hasAuthority('USERS_MANAGE')")
+    @PreAuthorize("@securityService.hasPermission('USERS_MANAGE')")
     @Operation(summary = "Désactiver un utilisateur",
                description = "Désactive un utilisateur sans le supprimer")
     public ResponseEntity<ApiResponse<Void>> deactivateUser(
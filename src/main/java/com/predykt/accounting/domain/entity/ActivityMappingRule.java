@@ -1,12 +1,15 @@
 package com.predykt.accounting.domain.entity;
 
 import com.predykt.accounting.domain.enums.MatchType;
+import com.predykt.accounting.config.ReferenceDataCache;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
@@ -21,6 +24,8 @@ import java.time.LocalDateTime;
     @Index(name = "idx_mapping_active", columnList = "is_active"),
     @Index(name = "idx_mapping_priority", columnList = "priority DESC")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.ACTIVITY_MAPPING_RULE)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -20,7 +20,8 @@ import java.time.LocalDateTime;
 public class AuditLog {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "audit_logs_id_gen")
+    @SequenceGenerator(name = "audit_logs_id_gen", sequenceName = "audit_logs_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "entity_type", nullable = false, length = 100)
@@ -30,7 +30,8 @@ import java.util.List;
 public class BankReconciliationSuggestion extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_reconciliation_suggestions_id_gen")
+    @SequenceGenerator(name = "bank_reconciliation_suggestions_id_gen", sequenceName = "bank_reconciliation_suggestions_seq", allocationSize = 50)
     private Long id;
 
     @NotNull
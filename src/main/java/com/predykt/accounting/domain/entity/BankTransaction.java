@@ -22,7 +22,8 @@ import java.time.LocalDate;
 public class BankTransaction extends BaseEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bank_transactions_id_gen")
+    @SequenceGenerator(name = "bank_transactions_id_gen", sequenceName = "bank_transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,6 +1,7 @@
 package com.predykt.accounting.domain.entity;
 
 import com.predykt.accounting.domain.enums.AccountType;
+import com.predykt.accounting.domain.listener.ChartOfAccountsChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
@@ -20,6 +21,7 @@ import java.math.BigDecimal;
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
+@EntityListeners(ChartOfAccountsChangeListener.class)
 public class ChartOfAccounts extends BaseEntity {
     
     @Id
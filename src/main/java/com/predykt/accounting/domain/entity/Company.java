@@ -1,16 +1,21 @@
 package com.predykt.accounting.domain.entity;
 
+import com.predykt.accounting.config.ReferenceDataCache;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @Table(name = "companies", indexes = {
     @Index(name = "idx_company_tax_id", columnList = "tax_id"),
     @Index(name = "idx_company_email", columnList = "email")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.COMPANY)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -22,7 +22,8 @@ import java.time.LocalDate;
 public class GeneralLedger extends BaseEntity {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "general_ledger_id_gen")
+    @SequenceGenerator(name = "general_ledger_id_gen", sequenceName = "general_ledger_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,53 @@
+package com.predykt.accounting.domain.entity;
+
+import com.predykt.accounting.domain.enums.UploadKind;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import lombok.*;
+
+/**
+ * Accusé de réception d'un fichier importé
+ * L'empreinte SHA-256 du contenu rend l'import idempotent: un fichier identique
+ * renvoyé pour la même entreprise n'est pas réimporté.
+ */
+@Entity
+@Table(name = "import_file_receipts", indexes = {
+    @Index(name = "idx_receipt_company", columnList = "company_id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_receipt_company_kind_hash", columnNames = {"company_id", "import_kind", "content_hash"})
+})
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ImportFileReceipt extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "company_id", nullable = false)
+    @NotNull
+    private Company company;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "import_kind", nullable = false, length = 30)
+    private UploadKind importKind;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;  // SHA-256 hexadécimal
+
+    @Column(name = "file_name")
+    private String fileName;
+
+    @Column(name = "file_size")
+    private Long fileSize;
+
+    @Column(name = "imported_count")
+    private Integer importedCount;
+
+    @Column(name = "result_message", length = 500)
+    private String resultMessage;
+}
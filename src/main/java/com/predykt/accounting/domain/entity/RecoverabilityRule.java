@@ -1,12 +1,15 @@
 package com.predykt.accounting.domain.entity;
 
 import com.predykt.accounting.domain.enums.VATRecoverableCategory;
+import com.predykt.accounting.config.ReferenceDataCache;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Règle de détection de la récupérabilité de la TVA
@@ -22,6 +25,8 @@ import lombok.*;
     @Index(name = "idx_recov_rule_scope", columnList = "scope_type, scope_id"),
     @Index(name = "idx_recov_rule_company", columnList = "company_id")
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.RECOVERABILITY_RULE)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
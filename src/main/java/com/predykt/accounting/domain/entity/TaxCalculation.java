@@ -28,7 +28,8 @@ import java.time.LocalDate;
 public class TaxCalculation {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tax_calculations_id_gen")
+    @SequenceGenerator(name = "tax_calculations_id_gen", sequenceName = "tax_calculations_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -1,12 +1,15 @@
 package com.predykt.accounting.domain.entity;
 
 import com.predykt.accounting.domain.enums.TaxType;
+import com.predykt.accounting.config.ReferenceDataCache;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.DecimalMax;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 
@@ -22,6 +25,8 @@ import java.math.BigDecimal;
 }, uniqueConstraints = {
     @UniqueConstraint(name = "uk_tax_config_company_type", columnNames = {"company_id", "tax_type"})
 })
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.TAX_CONFIGURATION)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
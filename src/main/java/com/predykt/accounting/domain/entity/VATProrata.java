@@ -1,8 +1,11 @@
 package com.predykt.accounting.domain.entity;
 
+import com.predykt.accounting.config.ReferenceDataCache;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -36,6 +39,8 @@ import java.time.LocalDateTime;
         @Index(name = "idx_vat_prorata_active", columnList = "is_active")
     }
 )
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = ReferenceDataCache.VAT_PRORATA)
 @Data
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
@@ -34,7 +34,8 @@ import java.time.LocalDate;
 public class VATTransaction extends BaseEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "vat_transactions_id_gen")
+    @SequenceGenerator(name = "vat_transactions_id_gen", sequenceName = "vat_transactions_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
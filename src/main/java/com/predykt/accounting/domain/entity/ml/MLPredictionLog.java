@@ -35,7 +35,8 @@ import java.util.Map;
 public class MLPredictionLog {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ml_predictions_log_id_gen")
+    @SequenceGenerator(name = "ml_predictions_log_id_gen", sequenceName = "ml_predictions_log_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
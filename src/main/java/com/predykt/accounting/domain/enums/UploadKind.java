@@ -0,0 +1,19 @@
+package com.predykt.accounting.domain.enums;
+
+/**
+ * Nature d'un fichier reçu par envoi fractionné
+ */
+public enum UploadKind {
+    BANK_STATEMENT("Relevé bancaire"),
+    ACTIVITIES("Activités");
+
+    private final String displayName;
+
+    UploadKind(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
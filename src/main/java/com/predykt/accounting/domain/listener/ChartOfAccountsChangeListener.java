@@ -0,0 +1,51 @@
+package com.predykt.accounting.domain.listener;
+
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
+import com.predykt.accounting.service.mapping.AccountNameIndexCache;
+import com.predykt.accounting.service.mapping.ActivityRuleMatcherCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * Listener JPA du plan comptable: invalide les structures dérivées des comptes
+ * (plan comptable figé, index des libellés, libellés des règles de mapping compilées) de l'entreprise concernée
+ *
+ * Instancié par Hibernate via le conteneur Spring.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+public class ChartOfAccountsChangeListener {
+
+    private final ChartOfAccountsSnapshotCache snapshotCache;
+    private final AccountNameIndexCache accountNameIndexCache;
+    private final ActivityRuleMatcherCache ruleMatcherCache;
+
+    /**
+     * Injection paresseuse: les caches dépendent des repositories, donc de l'EntityManagerFactory
+     */
+    public ChartOfAccountsChangeListener(@Lazy ChartOfAccountsSnapshotCache snapshotCache,
+                                         @Lazy AccountNameIndexCache accountNameIndexCache,
+                                         @Lazy ActivityRuleMatcherCache ruleMatcherCache) {
+        this.snapshotCache = snapshotCache;
+        this.accountNameIndexCache = accountNameIndexCache;
+        this.ruleMatcherCache = ruleMatcherCache;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(ChartOfAccounts account) {
+        if (account.getCompany() == null || account.getCompany().getId() == null) {
+            return;
+        }
+        Long companyId = account.getCompany().getId();
+        snapshotCache.invalidate(companyId);
+        accountNameIndexCache.invalidate(companyId);
+        ruleMatcherCache.invalidate(companyId);
+    }
+}
@@ -0,0 +1,44 @@
+package com.predykt.accounting.dto.request;
+
+import com.predykt.accounting.domain.enums.UploadKind;
+import jakarta.validation.constraints.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Requête d'ouverture d'un envoi fractionné
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadStartRequest {
+
+    @NotNull(message = "La nature du fichier est obligatoire")
+    private UploadKind kind;
+
+    @NotBlank(message = "Le nom du fichier est obligatoire")
+    private String fileName;
+
+    private String contentType;
+
+    @NotNull(message = "La taille du fichier est obligatoire")
+    @Positive(message = "La taille du fichier doit être positive")
+    private Long totalSize;
+
+    /**
+     * Empreinte SHA-256 (hexadécimal) du fichier complet, optionnelle
+     * Si fournie: un fichier déjà importé est détecté dès l'ouverture et l'import démarre pendant l'envoi
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "Empreinte SHA-256 invalide")
+    private String sha256;
+
+    // Options d'import (relevés bancaires)
+    private String bankProvider;
+
+    // Options d'import (activités)
+    private Long templateId;
+    private String format;
+}
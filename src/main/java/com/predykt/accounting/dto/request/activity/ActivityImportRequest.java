@@ -35,4 +35,9 @@ public class ActivityImportRequest {
      */
     @Builder.Default
     private Boolean autoLearnMappings = false;
+
+    /**
+     * Jeton retourné par la prévisualisation (réutilise le format et le template détectés)
+     */
+    private String uploadToken;
 }
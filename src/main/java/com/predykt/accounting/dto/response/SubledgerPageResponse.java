@@ -0,0 +1,60 @@
+package com.predykt.accounting.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page d'un Grand Livre Auxiliaire (Clients ou Fournisseurs)
+ * Pagination par clé (compte, date, id): le curseur transporte le solde cumulé
+ * pour que la page suivante reprenne exactement là où la précédente s'est arrêtée
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubledgerPageResponse {
+
+    private Long companyId;
+    private String subledgerType; // "CLIENTS" ou "FOURNISSEURS"
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private String currency;
+
+    // Lignes de la page, triées par compte, date puis id
+    private List<SubledgerLine> lines;
+
+    // Soldes d'ouverture (avant startDate) des comptes commencés dans cette page
+    private Map<String, BigDecimal> openingBalances;
+
+    // Curseur opaque à renvoyer pour obtenir la page suivante (null si dernière page)
+    private String nextCursor;
+    private Boolean hasMore;
+    private Integer pageSize;
+
+    /**
+     * Ligne du grand livre auxiliaire avec solde cumulé du compte
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubledgerLine {
+        private Long entryId;
+        private String accountNumber;
+        private String tiersName;
+        private LocalDate entryDate;
+        private String reference;
+        private String description;
+        private BigDecimal debitAmount;
+        private BigDecimal creditAmount;
+        private BigDecimal balance; // Solde cumulé du compte après cette écriture
+        private Boolean isLocked;
+    }
+}
@@ -0,0 +1,39 @@
+package com.predykt.accounting.dto.response;
+
+import com.predykt.accounting.domain.enums.UploadKind;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * État d'un envoi fractionné
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadStatusResponse {
+
+    private String uploadId;
+    private UploadKind kind;
+    private String fileName;
+    private Long totalSize;
+    private Long receivedBytes;
+
+    /**
+     * Plages encore manquantes [début, fin[ (à renvoyer pour reprendre l'envoi)
+     */
+    private List<long[]> missingRanges;
+
+    /**
+     * RECEIVING, IMPORTING, COMPLETED, DUPLICATE, FAILED
+     */
+    private String status;
+
+    private String contentHash;
+    private Integer importedCount;
+    private String message;
+}
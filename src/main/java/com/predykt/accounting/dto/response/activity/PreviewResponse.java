@@ -24,4 +24,7 @@ public class PreviewResponse {
     private List<String> globalWarnings;
     private Map<String, Integer> accountDistribution;  // Compte OHADA → nombre de lignes
     private Map<String, Integer> confidenceDistribution; // HIGH/MEDIUM/LOW → count
+    private String uploadToken;                     // À renvoyer lors de l'import confirmé
+    private Integer sampledRows;                    // Lignes analysées pour les statistiques
+    private Boolean estimated;                      // Statistiques extrapolées depuis l'échantillon
 }
@@ -5,9 +5,11 @@ import com.predykt.accounting.domain.entity.ActivityImportTemplate;
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.enums.ImportStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,6 +22,18 @@ public interface ActivityImportHistoryRepository extends JpaRepository<ActivityI
      */
     List<ActivityImportHistory> findByCompanyOrderByCreatedAtDesc(Company company);
 
+    /**
+     * Met à jour la progression d'un import en cours (transaction propre, visible immédiatement)
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE ActivityImportHistory h SET h.totalRows = :processed, h.successCount = :successCount, " +
+           "h.errorCount = :errorCount WHERE h.id = :id")
+    int updateProgress(@Param("id") Long id,
+                       @Param("processed") Integer processed,
+                       @Param("successCount") Integer successCount,
+                       @Param("errorCount") Integer errorCount);
+
     /**
      * Trouve l'historique d'une entreprise pour un template donné
      */
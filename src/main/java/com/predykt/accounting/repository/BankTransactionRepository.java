@@ -12,6 +12,7 @@ import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -71,4 +72,10 @@ public interface BankTransactionRepository extends JpaRepository<BankTransaction
                                          @Param("endDate") LocalDate endDate);
     
     boolean existsByCompanyAndBankReference(Company company, String bankReference);
+
+    // Références déjà importées parmi un lot (détection des doublons en une requête)
+    @Query("SELECT b.bankReference FROM BankTransaction b " +
+           "WHERE b.company = :company AND b.bankReference IN :references")
+    List<String> findExistingBankReferences(@Param("company") Company company,
+                                            @Param("references") Collection<String> references);
 }
\ No newline at end of file
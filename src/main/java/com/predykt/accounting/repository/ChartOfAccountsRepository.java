@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +17,10 @@ public interface ChartOfAccountsRepository extends JpaRepository<ChartOfAccounts
     
     Optional<ChartOfAccounts> findByCompanyAndAccountNumber(Company company, String accountNumber);
     
+    List<ChartOfAccounts> findByCompany(Company company);
+
+    List<ChartOfAccounts> findByCompanyAndAccountNumberIn(Company company, Collection<String> accountNumbers);
+
     List<ChartOfAccounts> findByCompanyAndIsActiveTrue(Company company);
     
     List<ChartOfAccounts> findByCompanyAndAccountType(Company company, AccountType accountType);
@@ -7,12 +7,17 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Long> {
@@ -110,6 +115,162 @@ public interface GeneralLedgerRepository extends JpaRepository<GeneralLedger, Lo
         @Param("asOfDate") LocalDate asOfDate
     );
 
+    // Balance âgée agrégée en base: une ligne par compte, montants ventilés par tranche d'âge
+    // Les bornes de tranches sont calculées côté Java (asOfDate - 30/60/90 jours)
+    // Si netSettled = true, les écritures des pièces lettrées (factures/paiements soldés) sont exclues
+    @Query("SELECT a.accountNumber, a.accountName, MAX(c.name), MAX(s.name), " +
+           "COALESCE(SUM(g.debitAmount), 0), COALESCE(SUM(g.creditAmount), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate >= :limit30 THEN g.debitAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit30 AND g.entryDate >= :limit60 THEN g.debitAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit60 AND g.entryDate >= :limit90 THEN g.debitAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit90 THEN g.debitAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate >= :limit30 THEN g.creditAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit30 AND g.entryDate >= :limit60 THEN g.creditAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit60 AND g.entryDate >= :limit90 THEN g.creditAmount ELSE 0 END), 0), " +
+           "COALESCE(SUM(CASE WHEN g.entryDate < :limit90 THEN g.creditAmount ELSE 0 END), 0), " +
+           "MIN(CASE WHEN g.debitAmount > 0 THEN g.entryDate ELSE NULL END), " +
+           "MIN(CASE WHEN g.creditAmount > 0 THEN g.entryDate ELSE NULL END), " +
+           "SUM(CASE WHEN g.entryDate < :limit30 AND g.debitAmount > 0 THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN g.entryDate < :limit30 AND g.creditAmount > 0 THEN 1 ELSE 0 END) " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "LEFT JOIN g.customer c LEFT JOIN g.supplier s " +
+           "WHERE g.company = :company " +
+           "AND a.accountNumber LIKE CONCAT(:accountPrefix, '%') " +
+           "AND g.entryDate <= :asOfDate " +
+           "AND (:netSettled = false OR g.reference IS NULL OR (" +
+           "  NOT EXISTS (SELECT i.id FROM Invoice i WHERE i.company = :company " +
+           "              AND i.invoiceNumber = g.reference AND i.isReconciled = true) " +
+           "  AND NOT EXISTS (SELECT b.id FROM Bill b WHERE b.company = :company " +
+           "              AND b.billNumber = g.reference AND b.isReconciled = true) " +
+           "  AND NOT EXISTS (SELECT p.id FROM Payment p LEFT JOIN p.invoice pi LEFT JOIN p.bill pb " +
+           "              WHERE p.company = :company AND p.paymentNumber = g.reference " +
+           "              AND (p.isReconciled = true OR pi.isReconciled = true OR pb.isReconciled = true)))) " +
+           "GROUP BY a.accountNumber, a.accountName " +
+           "ORDER BY a.accountNumber")
+    List<Object[]> getAgingBucketsByAccount(
+        @Param("company") Company company,
+        @Param("accountPrefix") String accountPrefix,
+        @Param("asOfDate") LocalDate asOfDate,
+        @Param("limit30") LocalDate limit30,
+        @Param("limit60") LocalDate limit60,
+        @Param("limit90") LocalDate limit90,
+        @Param("netSettled") boolean netSettled
+    );
+
+    // Grand livre auxiliaire paginé par clé (accountNumber, entryDate, id)
+    // Pas de OFFSET: la page suivante repart strictement après la dernière ligne lue
+    @Query("SELECT a.accountNumber, a.accountName, g.id, g.entryDate, g.reference, g.description, " +
+           "g.debitAmount, g.creditAmount, g.isLocked, c.name, s.name " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "LEFT JOIN g.customer c LEFT JOIN g.supplier s " +
+           "WHERE g.company = :company " +
+           "AND a.accountNumber LIKE CONCAT(:accountPrefix, '%') " +
+           "AND g.entryDate BETWEEN :startDate AND :endDate " +
+           "AND (a.accountNumber > :afterAccount " +
+           "     OR (a.accountNumber = :afterAccount AND (g.entryDate > :afterDate " +
+           "         OR (g.entryDate = :afterDate AND g.id > :afterId)))) " +
+           "ORDER BY a.accountNumber, g.entryDate, g.id")
+    List<Object[]> findSubledgerPageAfter(
+        @Param("company") Company company,
+        @Param("accountPrefix") String accountPrefix,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate,
+        @Param("afterAccount") String afterAccount,
+        @Param("afterDate") LocalDate afterDate,
+        @Param("afterId") Long afterId,
+        Pageable pageable
+    );
+
+    // Même parcours ordonné, lu en flux (curseur JDBC) pour l'export ligne à ligne
+    @QueryHints({
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a.accountNumber, a.accountName, g.id, g.entryDate, g.reference, g.description, " +
+           "g.debitAmount, g.creditAmount, g.isLocked, c.name, s.name " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "LEFT JOIN g.customer c LEFT JOIN g.supplier s " +
+           "WHERE g.company = :company " +
+           "AND a.accountNumber LIKE CONCAT(:accountPrefix, '%') " +
+           "AND g.entryDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.accountNumber, g.entryDate, g.id")
+    Stream<Object[]> streamSubledger(
+        @Param("company") Company company,
+        @Param("accountPrefix") String accountPrefix,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    // Soldes d'ouverture (débit - crédit avant startDate) de plusieurs comptes en un seul agrégat
+    @Query("SELECT a.accountNumber, COALESCE(SUM(g.debitAmount), 0) - COALESCE(SUM(g.creditAmount), 0) " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "WHERE g.company = :company " +
+           "AND a.accountNumber IN :accountNumbers " +
+           "AND g.entryDate < :startDate " +
+           "GROUP BY a.accountNumber")
+    List<Object[]> sumOpeningBalancesByAccount(
+        @Param("company") Company company,
+        @Param("accountNumbers") Collection<String> accountNumbers,
+        @Param("startDate") LocalDate startDate
+    );
+
+    // Soldes d'ouverture de tous les comptes d'un préfixe (411, 401) en un seul agrégat
+    @Query("SELECT a.accountNumber, COALESCE(SUM(g.debitAmount), 0) - COALESCE(SUM(g.creditAmount), 0) " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "WHERE g.company = :company " +
+           "AND a.accountNumber LIKE CONCAT(:accountPrefix, '%') " +
+           "AND g.entryDate < :startDate " +
+           "GROUP BY a.accountNumber")
+    List<Object[]> sumOpeningBalancesByAccountPrefix(
+        @Param("company") Company company,
+        @Param("accountPrefix") String accountPrefix,
+        @Param("startDate") LocalDate startDate
+    );
+
+    // Lignes d'un journal auxiliaire en projection (pas d'entités), triées par pièce
+    @QueryHints({
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = org.hibernate.jpa.HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT g.reference, g.entryDate, a.accountNumber, a.accountName, " +
+           "g.debitAmount, g.creditAmount, g.description, g.isLocked " +
+           "FROM GeneralLedger g JOIN g.account a " +
+           "WHERE g.company = :company " +
+           "AND g.journalCode = :journalCode " +
+           "AND g.entryDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY g.reference, g.entryDate, g.id")
+    Stream<Object[]> streamJournalLines(
+        @Param("company") Company company,
+        @Param("journalCode") String journalCode,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    // Totaux d'un journal: nombre de lignes, total débit, total crédit
+    @Query("SELECT COUNT(g), COALESCE(SUM(g.debitAmount), 0), COALESCE(SUM(g.creditAmount), 0) " +
+           "FROM GeneralLedger g " +
+           "WHERE g.company = :company " +
+           "AND g.journalCode = :journalCode " +
+           "AND g.entryDate BETWEEN :startDate AND :endDate")
+    List<Object[]> sumJournalTotals(
+        @Param("company") Company company,
+        @Param("journalCode") String journalCode,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    // Solde (débit - crédit) de tous les comptes d'un préfixe à une date
+    @Query("SELECT COALESCE(SUM(g.debitAmount), 0) - COALESCE(SUM(g.creditAmount), 0) " +
+           "FROM GeneralLedger g " +
+           "WHERE g.company = :company " +
+           "AND g.account.accountNumber LIKE CONCAT(:accountPrefix, '%') " +
+           "AND g.entryDate <= :asOfDate")
+    BigDecimal calculateBalanceByAccountPrefix(
+        @Param("company") Company company,
+        @Param("accountPrefix") String accountPrefix,
+        @Param("asOfDate") LocalDate asOfDate
+    );
+
     // Compter les pièces commençant par un préfixe (pour génération numéro unique)
     Long countByCompanyAndPieceNumberStartingWith(Company company, String pieceNumberPrefix);
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.predykt.accounting.repository;
+
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.domain.entity.ImportFileReceipt;
+import com.predykt.accounting.domain.enums.UploadKind;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ImportFileReceiptRepository extends JpaRepository<ImportFileReceipt, Long> {
+
+    /**
+     * Import déjà réalisé pour ce contenu
+     */
+    Optional<ImportFileReceipt> findByCompanyAndImportKindAndContentHash(Company company, UploadKind importKind,
+                                                                        String contentHash);
+}
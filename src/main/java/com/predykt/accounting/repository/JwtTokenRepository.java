@@ -56,6 +56,23 @@ public interface JwtTokenRepository extends JpaRepository<JwtToken, Long> {
            "FROM JwtToken jt WHERE jt.jti = :jti AND jt.isRevoked = true")
     boolean isTokenRevoked(@Param("jti") String jti);
 
+    /**
+     * JTI et expiration des tokens révoqués non encore expirés (chargement du registre de révocation)
+     */
+    @Query("SELECT jt.jti, jt.expiresAt FROM JwtToken jt " +
+           "WHERE jt.isRevoked = true AND jt.expiresAt > :now")
+    List<Object[]> findRevokedUnexpired(@Param("now") LocalDateTime now);
+
+    /**
+     * JTI et expiration des tokens actifs d'un utilisateur
+     */
+    @Query("SELECT jt.jti, jt.expiresAt FROM JwtToken jt " +
+           "WHERE jt.user.id = :userId AND jt.isRevoked = false AND jt.expiresAt > :now")
+    List<Object[]> findActiveJtisByUserId(
+        @Param("userId") Long userId,
+        @Param("now") LocalDateTime now
+    );
+
     /**
      * Vérifie si un JTI existe
      */
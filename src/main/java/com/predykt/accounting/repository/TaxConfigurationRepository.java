@@ -1,13 +1,18 @@
 package com.predykt.accounting.repository;
 
+import com.predykt.accounting.config.ReferenceDataCache;
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.entity.TaxConfiguration;
 import com.predykt.accounting.domain.enums.TaxType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,10 @@ public interface TaxConfigurationRepository extends JpaRepository<TaxConfigurati
     /**
      * Trouve les configurations actives d'une entreprise
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.TAX_CONFIGURATION_QUERIES)
+    })
     List<TaxConfiguration> findByCompanyAndIsActiveTrue(Company company);
 
     /**
@@ -35,18 +44,30 @@ public interface TaxConfigurationRepository extends JpaRepository<TaxConfigurati
     /**
      * Trouve les taxes applicables aux ventes
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.TAX_CONFIGURATION_QUERIES)
+    })
     @Query("SELECT tc FROM TaxConfiguration tc WHERE tc.company = :company AND tc.isActive = true AND tc.applyToSales = true")
     List<TaxConfiguration> findActiveSalesTaxes(@Param("company") Company company);
 
     /**
      * Trouve les taxes applicables aux achats
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.TAX_CONFIGURATION_QUERIES)
+    })
     @Query("SELECT tc FROM TaxConfiguration tc WHERE tc.company = :company AND tc.isActive = true AND tc.applyToPurchases = true")
     List<TaxConfiguration> findActivePurchaseTaxes(@Param("company") Company company);
 
     /**
      * Trouve les taxes avec calcul automatique activé
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.TAX_CONFIGURATION_QUERIES)
+    })
     @Query("SELECT tc FROM TaxConfiguration tc WHERE tc.company = :company AND tc.isActive = true AND tc.isAutomatic = true")
     List<TaxConfiguration> findAutomaticTaxes(@Param("company") Company company);
 
@@ -1,12 +1,17 @@
 package com.predykt.accounting.repository;
 
+import com.predykt.accounting.config.ReferenceDataCache;
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.entity.VATProrata;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
 
@@ -19,12 +24,20 @@ public interface VATProrataRepository extends JpaRepository<VATProrata, Long> {
     /**
      * Trouve le prorata actif pour une entreprise et une année
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.VAT_PRORATA_QUERIES)
+    })
     @Query("SELECT p FROM VATProrata p WHERE p.company = :company AND p.fiscalYear = :year AND p.isActive = true")
     Optional<VATProrata> findActiveByCompanyAndYear(@Param("company") Company company, @Param("year") Integer year);
 
     /**
      * Trouve le prorata actif pour une entreprise et une année (par ID)
      */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+        @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = ReferenceDataCache.VAT_PRORATA_QUERIES)
+    })
     @Query("SELECT p FROM VATProrata p WHERE p.company.id = :companyId AND p.fiscalYear = :year AND p.isActive = true")
     Optional<VATProrata> findActiveByCompanyIdAndYear(@Param("companyId") Long companyId, @Param("year") Integer year);
 
@@ -0,0 +1,51 @@
+package com.predykt.accounting.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Réservation d'identifiants pour les insertions JDBC par lots
+ *
+ * Suit la même convention que l'optimiseur pooled-lo d'Hibernate sur les séquences
+ * créées par V23 (pas de 50): chaque valeur v renvoyée par nextval réserve le bloc
+ * [v, v + 49]. Les identifiants ainsi obtenus ne peuvent pas entrer en collision
+ * avec ceux attribués par Hibernate.
+ */
+@Component
+@RequiredArgsConstructor
+public class SequenceIdAllocator {
+
+    /**
+     * Pas des séquences pooled-lo (= allocationSize des entités)
+     */
+    public static final int POOL_SIZE = 50;
+
+    private static final String NEXT_BLOCKS_SQL =
+        "SELECT nextval(CAST(? AS regclass)) FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Réserve count identifiants sur la séquence, en ceil(count / 50) appels groupés à nextval
+     */
+    public List<Long> allocate(String sequenceName, int count) {
+        List<Long> ids = new ArrayList<>(count);
+        if (count <= 0) {
+            return ids;
+        }
+
+        int blocks = (count + POOL_SIZE - 1) / POOL_SIZE;
+        List<Long> blockStarts = jdbcTemplate.queryForList(NEXT_BLOCKS_SQL, Long.class, sequenceName, blocks);
+
+        for (Long lo : blockStarts) {
+            for (int i = 0; i < POOL_SIZE && ids.size() < count; i++) {
+                ids.add(lo + i);
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,136 @@
+package com.predykt.accounting.security;
+
+import com.predykt.accounting.domain.entity.User;
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache des utilisateurs authentifiés, indexé par le jti du token
+ *
+ * - Évite userRepository.findByEmail et le parcours rôles/permissions à chaque requête
+ * - Porte les autorisations précalculées (AuthorizationSnapshotCache) qui l'invalide quand elles changent
+ * - Une entrée vit au plus ttl-seconds et jamais au-delà de l'expiration du token
+ * - Borné à max-size entrées: les entrées expirées sont purgées, puis le cache est vidé s'il reste plein
+ * - Invalidé par JwtTokenService lors d'une révocation (token ou utilisateur), et par
+ *   AuthorizationSnapshotCache (diffusé aux autres instances) quand les rôles ou les accès changent
+ *   ou que le compte est désactivé, supprimé ou verrouillé (UserService, AuthenticationService)
+ *
+ * Les tokens sans jti (émis avant son ajout) ne sont pas mis en cache.
+ */
+@Component
+@Slf4j
+public class AuthenticatedPrincipalCache {
+
+    private final Map<String, CachedPrincipal> principals = new ConcurrentHashMap<>();
+
+    @Value("${predykt.security.principal-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${predykt.security.principal-cache.max-size:10000}")
+    private int maxSize;
+
+    @Value("${predykt.security.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    /**
+     * @return Utilisateur en cache pour ce token, null si absent ou expiré
+     */
+    public CachedPrincipal get(Claims claims) {
+        String jti = claims.getId();
+        if (!enabled || jti == null) {
+            return null;
+        }
+        CachedPrincipal cached = principals.get(jti);
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.currentTimeMillis())) {
+            principals.remove(jti, cached);
+            return null;
+        }
+        return cached;
+    }
+
+    /**
+     * Met en cache l'utilisateur résolu pour ce token
+     */
+    public CachedPrincipal put(Claims claims, UserDetails userDetails, AuthorizationSnapshot authorization) {
+        long now = System.currentTimeMillis();
+        Date expiration = claims.getExpiration();
+        long expiresAt = now + ttlSeconds * 1000;
+        if (expiration != null) {
+            expiresAt = Math.min(expiresAt, expiration.getTime());
+        }
+
+        Long userId = userDetails instanceof User user ? user.getId() : null;
+        CachedPrincipal cached = new CachedPrincipal(
+            userDetails, List.copyOf(userDetails.getAuthorities()), authorization, userId, expiresAt);
+
+        String jti = claims.getId();
+        if (!enabled || jti == null) {
+            return cached;
+        }
+        if (principals.size() >= maxSize) {
+            evictExpired(now);
+            if (principals.size() >= maxSize) {
+                log.debug("Cache des utilisateurs authentifiés plein ({} entrées), vidé", principals.size());
+                principals.clear();
+            }
+        }
+        principals.put(jti, cached);
+        return cached;
+    }
+
+    /**
+     * Invalide le token révoqué
+     */
+    public void invalidate(String jti) {
+        if (jti != null) {
+            principals.remove(jti);
+        }
+    }
+
+    /**
+     * Invalide tous les tokens d'un utilisateur
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            principals.values().removeIf(cached -> userId.equals(cached.userId()));
+        }
+    }
+
+    /**
+     * Vide le cache
+     */
+    public void clear() {
+        principals.clear();
+    }
+
+    private void evictExpired(long now) {
+        principals.values().removeIf(cached -> cached.isExpired(now));
+    }
+
+    /**
+     * Utilisateur, autorités et autorisations précalculées résolus pour un token
+     */
+    public record CachedPrincipal(UserDetails userDetails,
+                                  Collection<? extends GrantedAuthority> authorities,
+                                  AuthorizationSnapshot authorization,
+                                  Long userId,
+                                  long expiresAt) {
+
+        boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
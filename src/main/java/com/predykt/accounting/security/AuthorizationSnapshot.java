@@ -0,0 +1,66 @@
+package com.predykt.accounting.security;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+
+/**
+ * Autorisations d'un utilisateur figées à la connexion (immuable, thread-safe)
+ *
+ * - Permissions: jeu de bits indexé par PermissionCodeIndex
+ * - Dossiers accessibles et dossiers accessibles en écriture: identifiants triés, recherche par dichotomie
+ *
+ * Construit par AuthorizationSnapshotCache, transporté par l'authentification (PredyktAuthenticationToken).
+ */
+public final class AuthorizationSnapshot implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long userId;
+    private final BitSet permissions;
+    private final long[] accessibleCompanyIds;
+    private final long[] writableCompanyIds;
+
+    AuthorizationSnapshot(Long userId, BitSet permissions,
+                          Collection<Long> accessibleCompanyIds, Collection<Long> writableCompanyIds) {
+        this.userId = userId;
+        this.permissions = (BitSet) permissions.clone();
+        this.accessibleCompanyIds = sortedIds(accessibleCompanyIds);
+        this.writableCompanyIds = sortedIds(writableCompanyIds);
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    /**
+     * Permission détenue (position du code, -1 pour un code inconnu)
+     */
+    boolean hasPermission(int position) {
+        return position >= 0 && permissions.get(position);
+    }
+
+    public boolean hasAccessToCompany(Long companyId) {
+        return companyId != null && Arrays.binarySearch(accessibleCompanyIds, companyId) >= 0;
+    }
+
+    public boolean canWriteToCompany(Long companyId) {
+        return companyId != null && Arrays.binarySearch(writableCompanyIds, companyId) >= 0;
+    }
+
+    public int getAccessibleCompanyCount() {
+        return accessibleCompanyIds.length;
+    }
+
+    private static long[] sortedIds(Collection<Long> ids) {
+        return ids.stream()
+            .filter(id -> id != null)
+            .mapToLong(Long::longValue)
+            .sorted()
+            .distinct()
+            .toArray();
+    }
+}
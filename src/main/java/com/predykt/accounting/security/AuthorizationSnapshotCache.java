@@ -0,0 +1,203 @@
+package com.predykt.accounting.security;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.Permission;
+import com.predykt.accounting.domain.entity.Role;
+import com.predykt.accounting.domain.entity.User;
+import com.predykt.accounting.repository.UserCompanyAccessRepository;
+import com.predykt.accounting.util.TransactionalEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des autorisations précalculées, par (tenant, utilisateur)
+ *
+ * L'instantané est construit à l'authentification depuis les rôles de l'utilisateur (déjà chargés)
+ * et deux requêtes sur ses accès aux dossiers, puis réutilisé par tous ses tokens.
+ * Les vérifications (@securityService, UserCompanyAccessService) deviennent un test de bit
+ * ou une recherche par dichotomie au lieu d'un parcours rôles/permissions ou d'une requête.
+ *
+ * Invalidation immédiate et rejouée après commit (une construction concurrente faite sur l'ancien
+ * état n'est pas conservée): rôles ou accès d'un utilisateur modifiés -> invalidateUser,
+ * permissions d'un rôle ou accès d'un dossier entier modifiés -> invalidateAll.
+ * Les utilisateurs authentifiés en cache (AuthenticatedPrincipalCache) sont invalidés en même temps.
+ *
+ * Le cache est local à l'instance: un instantané vit au plus ttl-seconds (celui du cache des
+ * utilisateurs authentifiés) et, avec predykt.security.revocation.redis-sync, les invalidations
+ * sont diffusées aux autres instances après commit (Redis pub/sub).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AuthorizationSnapshotCache {
+
+    /**
+     * Nombre maximal d'instantanés conservés avant purge
+     */
+    private static final int MAX_CACHED_SNAPSHOTS = 20_000;
+
+    /**
+     * Message d'invalidation de tous les utilisateurs
+     */
+    private static final String ALL_USERS = "*";
+
+    private final UserCompanyAccessRepository accessRepository;
+    private final PermissionCodeIndex permissionCodeIndex;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final Map<SnapshotKey, CachedSnapshot> cache = new ConcurrentHashMap<>();
+
+    @Value("${predykt.security.principal-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${predykt.security.revocation.redis-sync:false}")
+    private boolean redisSync;
+
+    @Value("${predykt.security.authorization-cache.channel:predykt:authorization-invalidations}")
+    private String channel;
+
+    /**
+     * Incrémenté à chaque invalidation: une construction commencée avant n'est pas mise en cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Autorisations de l'utilisateur (depuis le cache ou construites)
+     */
+    public AuthorizationSnapshot snapshotFor(User user) {
+        SnapshotKey key = new SnapshotKey(currentTenant(), user.getId());
+        long now = System.currentTimeMillis();
+        CachedSnapshot cached = cache.get(key);
+        if (cached != null) {
+            if (now < cached.expiresAt()) {
+                return cached.snapshot();
+            }
+            cache.remove(key, cached);
+        }
+
+        long startGeneration = generation.get();
+        AuthorizationSnapshot snapshot = build(user);
+
+        if (generation.get() == startGeneration) {
+            if (cache.size() >= MAX_CACHED_SNAPSHOTS) {
+                cache.values().removeIf(entry -> now >= entry.expiresAt());
+                if (cache.size() >= MAX_CACHED_SNAPSHOTS) {
+                    log.debug("Cache des autorisations plein ({}), purge", cache.size());
+                    cache.clear();
+                }
+            }
+            cache.put(key, new CachedSnapshot(snapshot, now + ttlSeconds * 1000));
+        }
+        return snapshot;
+    }
+
+    /**
+     * Position d'un code de permission dans les instantanés (-1 si aucun utilisateur ne le détient)
+     */
+    public int permissionPosition(String permissionCode) {
+        return permissionCodeIndex.find(permissionCode);
+    }
+
+    /**
+     * Invalide les autorisations d'un utilisateur (immédiatement et après commit, sur toutes les instances)
+     */
+    public void invalidateUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        TransactionalEviction.evictNowAndAfterCompletion(() -> evictUser(userId));
+        // Diffusion après commit: les autres instances reconstruisent sur l'état validé
+        TransactionalEviction.afterCompletion(() -> publish(String.valueOf(userId)));
+    }
+
+    /**
+     * Invalide toutes les autorisations (immédiatement et après commit, sur toutes les instances)
+     */
+    public void invalidateAll() {
+        TransactionalEviction.evictNowAndAfterCompletion(this::evictAll);
+        TransactionalEviction.afterCompletion(() -> publish(ALL_USERS));
+    }
+
+    /**
+     * Invalidation reçue d'une autre instance ("*" ou identifiant de l'utilisateur)
+     */
+    public void onRemoteInvalidation(String message) {
+        if (ALL_USERS.equals(message)) {
+            evictAll();
+            return;
+        }
+        try {
+            evictUser(Long.valueOf(message));
+        } catch (NumberFormatException e) {
+            log.warn("Message d'invalidation des autorisations ignoré: {}", message);
+        }
+    }
+
+    private void evictUser(Long userId) {
+        generation.incrementAndGet();
+        cache.keySet().removeIf(key -> userId.equals(key.userId()));
+        principalCache.invalidateUser(userId);
+        log.debug("Autorisations invalidées: utilisateur={}", userId);
+    }
+
+    private void evictAll() {
+        generation.incrementAndGet();
+        cache.clear();
+        principalCache.clear();
+        log.debug("Autorisations invalidées: tous les utilisateurs");
+    }
+
+    private AuthorizationSnapshot build(User user) {
+        long start = System.nanoTime();
+
+        BitSet permissions = new BitSet();
+        for (Role role : user.getRoles()) {
+            for (Permission permission : role.getPermissions()) {
+                permissions.set(permissionCodeIndex.positionOf(permission.getPermissionCode()));
+            }
+        }
+
+        List<Long> accessible = accessRepository.findCompanyIdsByUserId(user.getId());
+        List<Long> writable = accessRepository.findWritableCompanyIdsByUserId(user.getId());
+
+        AuthorizationSnapshot snapshot = new AuthorizationSnapshot(user.getId(), permissions, accessible, writable);
+        log.debug("Autorisations construites pour l'utilisateur {}: {} permission(s), {} dossier(s) en {} µs",
+            user.getId(), permissions.cardinality(), snapshot.getAccessibleCompanyCount(),
+            (System.nanoTime() - start) / 1_000);
+        return snapshot;
+    }
+
+    private void publish(String message) {
+        if (!redisSync) {
+            return;
+        }
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        try {
+            template.convertAndSend(channel, message);
+        } catch (Exception e) {
+            log.warn("Diffusion de l'invalidation des autorisations {} impossible: {}", message, e.getMessage());
+        }
+    }
+
+    private static String currentTenant() {
+        return TenantContextHolder.hasContext() ? TenantContextHolder.getTenantId() : "default";
+    }
+
+    private record SnapshotKey(String tenantId, Long userId) {}
+
+    private record CachedSnapshot(AuthorizationSnapshot snapshot, long expiresAt) {}
+}
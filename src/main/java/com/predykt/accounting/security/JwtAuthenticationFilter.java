@@ -6,7 +6,6 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -14,7 +13,9 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.predykt.accounting.domain.entity.User;
 import com.predykt.accounting.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 
 import java.io.IOException;
 
@@ -29,6 +30,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private final JwtTokenProvider tokenProvider;
     private final CustomUserDetailsService userDetailsService;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final AuthorizationSnapshotCache authorizationCache;
+    private final TokenRevocationRegistry revocationRegistry;
     
     @Override
     protected void doFilterInternal(HttpServletRequest request, 
@@ -41,28 +45,47 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             String jwt = extractJwtFromRequest(request);
             
             if (StringUtils.hasText(jwt)) {
-                // Valider le token
-                if (tokenProvider.validateToken(jwt)) {
+                // Valider le token (signature vérifiée une seule fois par requête)
+                Claims claims = tokenProvider.parseClaims(jwt);
+                
+                // Token révoqué: requête traitée comme non authentifiée (registre en mémoire)
+                if (claims != null && revocationRegistry.isRevoked(claims.getId())) {
+                    log.warn("🚫 Token révoqué utilisé: {}", claims.getId());
+                    principalCache.invalidate(claims.getId());
+                    claims = null;
+                }
+                
+                if (claims != null) {
                     // Valider que le token appartient au bon tenant (sécurité mono-tenant)
-                    if (!tokenProvider.validateTenantContext(jwt)) {
+                    if (!tokenProvider.validateTenantContext(claims)) {
                         log.warn("🚨 Token invalide pour ce tenant - Accès refusé");
                         response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                         response.getWriter().write("{\"error\":\"Token invalide pour ce tenant\"}");
                         return;
                     }
                     
+                    // Claims réutilisés par TenantInterceptor
+                    request.setAttribute(JwtTokenProvider.CLAIMS_ATTRIBUTE, claims);
+                    
                     // Extraire l'email de l'utilisateur
-                    String username = tokenProvider.getUsernameFromToken(jwt);
+                    String username = claims.getSubject();
                     
-                    // Charger les détails complets de l'utilisateur
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // Détails de l'utilisateur: cache par jti, sinon chargement complet
+                    AuthenticatedPrincipalCache.CachedPrincipal principal = principalCache.get(claims);
+                    if (principal == null) {
+                        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                        AuthorizationSnapshot authorization = userDetails instanceof User user
+                            ? authorizationCache.snapshotFor(user)
+                            : null;
+                        principal = principalCache.put(claims, userDetails, authorization);
+                    }
                     
-                    // Créer l'authentification Spring Security
-                    UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(
-                            userDetails, 
-                            null, 
-                            userDetails.getAuthorities()
+                    // Créer l'authentification Spring Security (avec les autorisations précalculées)
+                    PredyktAuthenticationToken authentication = 
+                        new PredyktAuthenticationToken(
+                            principal.userDetails(), 
+                            principal.authorities(),
+                            principal.authorization()
                         );
                     
                     authentication.setDetails(
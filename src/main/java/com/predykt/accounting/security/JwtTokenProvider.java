@@ -13,6 +13,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -34,6 +35,13 @@ public class JwtTokenProvider {
     @Value("${TENANT_DOMAIN:}")
     private String tenantDomain;
     
+    /**
+     * Attribut de requête portant les claims déjà validés par JwtAuthenticationFilter
+     */
+    public static final String CLAIMS_ATTRIBUTE = JwtTokenProvider.class.getName() + ".claims";
+    
+    private volatile JwtParser parser;
+    
     /**
      * Génère un token JWT pour un utilisateur authentifié
      */
@@ -65,6 +73,7 @@ public class JwtTokenProvider {
         
         return Jwts.builder()
             .setClaims(claims)
+            .setId(UUID.randomUUID().toString())
             .setSubject(user.getEmail())
             .setIssuedAt(now)
             .setExpiration(expiryDate)
@@ -95,11 +104,7 @@ public class JwtTokenProvider {
      * Extrait l'email (username) du token
      */
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        Claims claims = parser().parseClaimsJws(token).getBody();
         
         return claims.getSubject();
     }
@@ -108,11 +113,7 @@ public class JwtTokenProvider {
      * Extrait l'ID utilisateur du token
      */
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        Claims claims = parser().parseClaimsJws(token).getBody();
         
         return claims.get("userId", Long.class);
     }
@@ -121,11 +122,7 @@ public class JwtTokenProvider {
      * Extrait le Tenant ID du token
      */
     public String getTenantIdFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        Claims claims = parser().parseClaimsJws(token).getBody();
         
         return claims.get("tenantId", String.class);
     }
@@ -134,13 +131,17 @@ public class JwtTokenProvider {
      * Valide le token JWT
      */
     public boolean validateToken(String token) {
+        return parseClaims(token) != null;
+    }
+    
+    /**
+     * Valide le token JWT et retourne ses claims (une seule vérification de signature)
+     *
+     * @return Claims du token, null si le token est invalide ou expiré
+     */
+    public Claims parseClaims(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token);
-            
-            return true;
+            return parser().parseClaimsJws(token).getBody();
             
         } catch (SecurityException ex) {
             log.error("Signature JWT invalide");
@@ -154,7 +155,7 @@ public class JwtTokenProvider {
             log.error("Claims JWT vide");
         }
         
-        return false;
+        return null;
     }
     
     /**
@@ -162,37 +163,39 @@ public class JwtTokenProvider {
      */
     public boolean validateTenantContext(String token) {
         try {
-            String tokenTenantId = getTenantIdFromToken(token);
-            
-            if (tenantId != null && !tenantId.isEmpty()) {
-                boolean isValid = tenantId.equals(tokenTenantId);
-                
-                if (!isValid) {
-                    log.warn("🚨 ALERTE SÉCURITÉ: Tentative d'utilisation d'un token d'un autre tenant");
-                    log.warn("Tenant actuel: {} | Token tenant: {}", tenantId, tokenTenantId);
-                }
-                
-                return isValid;
-            }
-            
-            // En dev (pas de tenant), accepter tous les tokens
-            return true;
-            
+            return validateTenantContext(parser().parseClaimsJws(token).getBody());
         } catch (Exception e) {
             log.error("Erreur validation contexte tenant", e);
             return false;
         }
     }
     
+    /**
+     * Valide que des claims déjà vérifiés appartiennent bien au tenant actuel
+     */
+    public boolean validateTenantContext(Claims claims) {
+        String tokenTenantId = claims.get("tenantId", String.class);
+        
+        if (tenantId != null && !tenantId.isEmpty()) {
+            boolean isValid = tenantId.equals(tokenTenantId);
+            
+            if (!isValid) {
+                log.warn("🚨 ALERTE SÉCURITÉ: Tentative d'utilisation d'un token d'un autre tenant");
+                log.warn("Tenant actuel: {} | Token tenant: {}", tenantId, tokenTenantId);
+            }
+            
+            return isValid;
+        }
+        
+        // En dev (pas de tenant), accepter tous les tokens
+        return true;
+    }
+    
     /**
      * Extrait la date d'expiration du token
      */
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-            .setSigningKey(getSigningKey())
-            .build()
-            .parseClaimsJws(token)
-            .getBody();
+        Claims claims = parser().parseClaimsJws(token).getBody();
         
         return claims.getExpiration();
     }
@@ -204,14 +207,24 @@ public class JwtTokenProvider {
         byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
         return Keys.hmacShaKeyFor(keyBytes);
     }
+    
+    /**
+     * Parser construit une seule fois (immuable et thread-safe): la clé n'est plus dérivée à chaque appel
+     */
+    private JwtParser parser() {
+        JwtParser current = parser;
+        if (current == null) {
+            current = Jwts.parserBuilder()
+                .setSigningKey(getSigningKey())
+                .build();
+            parser = current;
+        }
+        return current;
+    }
 
     // Ajouter méthode pour extraire claims custom
    public Object getClaim(String token, String claimName) {
-       Claims claims = Jwts.parserBuilder()
-           .setSigningKey(getSigningKey())
-           .build()
-           .parseClaimsJws(token)
-           .getBody();
+       Claims claims = parser().parseClaimsJws(token).getBody();
        return claims.get(claimName);
    }
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.predykt.accounting.security;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Position de chaque code de permission dans les jeux de bits d'autorisation (AuthorizationSnapshot)
+ *
+ * Attribuée au premier usage du code et stable pendant la vie du processus: les jeux de bits
+ * ne sont jamais partagés entre instances.
+ */
+@Component
+public class PermissionCodeIndex {
+
+    private final Map<String, Integer> positions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPosition = new AtomicInteger();
+
+    /**
+     * Position du code, attribuée s'il est nouveau
+     */
+    public int positionOf(String permissionCode) {
+        Integer position = positions.get(permissionCode);
+        return position != null
+            ? position
+            : positions.computeIfAbsent(permissionCode, code -> nextPosition.getAndIncrement());
+    }
+
+    /**
+     * Position du code, -1 s'il n'a jamais été attribué (aucun utilisateur ne le détient)
+     */
+    public int find(String permissionCode) {
+        Integer position = positions.get(permissionCode);
+        return position != null ? position : -1;
+    }
+}
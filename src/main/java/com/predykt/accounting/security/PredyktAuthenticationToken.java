@@ -0,0 +1,33 @@
+package com.predykt.accounting.security;
+
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+
+/**
+ * Authentification JWT portant les autorisations précalculées de l'utilisateur
+ */
+public class PredyktAuthenticationToken extends UsernamePasswordAuthenticationToken {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final AuthorizationSnapshot authorization;
+
+    public PredyktAuthenticationToken(UserDetails userDetails,
+                                      Collection<? extends GrantedAuthority> authorities,
+                                      AuthorizationSnapshot authorization) {
+        super(userDetails, null, authorities);
+        this.authorization = authorization;
+    }
+
+    /**
+     * Autorisations précalculées, null si l'utilisateur n'a pas pu être résolu
+     */
+    public AuthorizationSnapshot getAuthorization() {
+        return authorization;
+    }
+}
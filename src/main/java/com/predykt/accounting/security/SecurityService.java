@@ -0,0 +1,76 @@
+package com.predykt.accounting.security;
+
+import com.predykt.accounting.domain.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Vérifications d'autorisation utilisables dans @PreAuthorize (@securityService.xxx)
+ *
+ * S'appuie sur les autorisations précalculées de l'authentification (PredyktAuthenticationToken);
+ * à défaut (authentification construite autrement), sur les autorités et l'utilisateur courant.
+ */
+@Component("securityService")
+@RequiredArgsConstructor
+public class SecurityService {
+
+    private final AuthorizationSnapshotCache snapshotCache;
+
+    /**
+     * Autorisations précalculées de l'utilisateur courant, null si indisponibles
+     */
+    public AuthorizationSnapshot currentAuthorization() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof PredyktAuthenticationToken token) {
+            return token.getAuthorization();
+        }
+        if (authentication != null && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return snapshotCache.snapshotFor(user);
+        }
+        return null;
+    }
+
+    /**
+     * L'utilisateur courant détient-il cette permission
+     */
+    public boolean hasPermission(String permissionCode) {
+        AuthorizationSnapshot authorization = currentAuthorization();
+        if (authorization != null) {
+            return authorization.hasPermission(snapshotCache.permissionPosition(permissionCode));
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getAuthorities().stream()
+            .map(GrantedAuthority::getAuthority)
+            .anyMatch(permissionCode::equals);
+    }
+
+    /**
+     * L'utilisateur courant est-il l'utilisateur demandé
+     */
+    public boolean isCurrentUser(Long userId) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return userId != null && authentication != null
+            && authentication.getPrincipal() instanceof User user
+            && userId.equals(user.getId());
+    }
+
+    /**
+     * L'utilisateur courant a-t-il accès au dossier
+     */
+    public boolean canAccessCompany(Long companyId) {
+        AuthorizationSnapshot authorization = currentAuthorization();
+        return authorization != null && authorization.hasAccessToCompany(companyId);
+    }
+
+    /**
+     * L'utilisateur courant peut-il écrire dans le dossier
+     */
+    public boolean canWriteCompany(Long companyId) {
+        AuthorizationSnapshot authorization = currentAuthorization();
+        return authorization != null && authorization.canWriteToCompany(companyId);
+    }
+}
@@ -0,0 +1,243 @@
+package com.predykt.accounting.security;
+
+import com.predykt.accounting.repository.JwtTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre en mémoire des tokens révoqués et non encore expirés
+ *
+ * - Filtre de Bloom: la grande majorité des tokens (non révoqués) est écartée sans autre recherche
+ * - Ensemble exact jti → expiration: confirme les réponses positives du filtre (aucun faux positif final)
+ * - Chargé au démarrage depuis jwt_tokens, alimenté à chaque révocation, reconstruit périodiquement
+ *   pour oublier les tokens expirés
+ * - Optionnellement synchronisé entre instances par Redis pub/sub (predykt.security.revocation.redis-sync)
+ *
+ * La révocation est enregistrée avant la validation de la transaction: en cas d'annulation,
+ * le token reste refusé jusqu'à son expiration (échec du côté sûr).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationRegistry {
+
+    private final JwtTokenRepository tokenRepository;
+    private final ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+
+    @Value("${predykt.security.revocation.expected-insertions:100000}")
+    private int expectedInsertions;
+
+    @Value("${predykt.security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${predykt.security.revocation.redis-sync:false}")
+    private boolean redisSync;
+
+    @Value("${predykt.security.revocation.channel:predykt:jwt-revocations}")
+    private String channel;
+
+    @Value("${spring.security.jwt.expiration:86400000}")
+    private long jwtExpirationMs;
+
+    /**
+     * Vérifie si un token est révoqué (sans accès à la base)
+     */
+    public boolean isRevoked(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        BloomFilter filter = bloomFilter;
+        if (filter != null && !filter.mightContain(jti)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    /**
+     * Enregistre une révocation et la diffuse aux autres instances
+     *
+     * @param expiresAt Expiration du token, null si inconnue (durée de vie maximale d'un token)
+     */
+    public void revoke(String jti, LocalDateTime expiresAt) {
+        if (jti == null) {
+            return;
+        }
+        long expiresAtMillis = expiresAt != null
+            ? expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+            : System.currentTimeMillis() + jwtExpirationMs;
+
+        add(jti, expiresAtMillis);
+        publish(jti, expiresAtMillis);
+    }
+
+    /**
+     * Révocation reçue d'une autre instance ("jti|expiration en ms")
+     */
+    public void onRemoteRevocation(String message) {
+        int separator = message.lastIndexOf('|');
+        if (separator <= 0) {
+            log.warn("Message de révocation ignoré: {}", message);
+            return;
+        }
+        try {
+            add(message.substring(0, separator), Long.parseLong(message.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("Message de révocation ignoré: {}", message);
+        }
+    }
+
+    /**
+     * Chargement initial des révocations encore actives
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        try {
+            List<Object[]> rows = tokenRepository.findRevokedUnexpired(LocalDateTime.now());
+            for (Object[] row : rows) {
+                LocalDateTime expiresAt = (LocalDateTime) row[1];
+                revoked.put((String) row[0], expiresAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            rebuild();
+            log.info("Registre de révocation chargé: {} token(s) révoqué(s) actif(s)", revoked.size());
+        } catch (Exception e) {
+            log.warn("Chargement du registre de révocation impossible: {}", e.getMessage());
+            rebuild();
+        }
+    }
+
+    /**
+     * Oublie les tokens expirés et reconstruit le filtre de Bloom
+     */
+    @Scheduled(fixedDelayString = "${predykt.security.revocation.rebuild-interval-ms:3600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        int before = revoked.size();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        rebuild();
+        if (before != revoked.size()) {
+            log.debug("Registre de révocation: {} token(s) expiré(s) oublié(s)", before - revoked.size());
+        }
+    }
+
+    /**
+     * Nombre de révocations actives en mémoire
+     */
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * Synchronisé avec rebuild(): une révocation concurrente ne peut pas manquer au nouveau filtre
+     */
+    private synchronized void add(String jti, long expiresAtMillis) {
+        revoked.merge(jti, expiresAtMillis, Math::max);
+        BloomFilter filter = bloomFilter;
+        if (filter == null || filter.isSaturated()) {
+            rebuild();
+        } else {
+            filter.put(jti);
+            // Republication volatile: les bits écrits sont visibles des lectures sans verrou
+            bloomFilter = filter;
+        }
+    }
+
+    private synchronized void rebuild() {
+        BloomFilter filter = new BloomFilter(Math.max(expectedInsertions, revoked.size() * 2), falsePositiveRate);
+        revoked.keySet().forEach(filter::put);
+        bloomFilter = filter;
+    }
+
+    private void publish(String jti, long expiresAtMillis) {
+        if (!redisSync) {
+            return;
+        }
+        StringRedisTemplate template = redisTemplate.getIfAvailable();
+        if (template == null) {
+            return;
+        }
+        try {
+            template.convertAndSend(channel, jti + "|" + expiresAtMillis);
+        } catch (Exception e) {
+            log.warn("Diffusion de la révocation {} impossible: {}", jti, e.getMessage());
+        }
+    }
+
+    /**
+     * Filtre de Bloom (double hachage FNV-1a 64 bits), sans suppression
+     */
+    static final class BloomFilter {
+
+        private final long[] bits;
+        private final long bitCount;
+        private final int hashCount;
+        private final int capacity;
+        private int insertions;
+
+        BloomFilter(int capacity, double falsePositiveRate) {
+            double fpp = falsePositiveRate > 0 && falsePositiveRate < 1 ? falsePositiveRate : 0.01;
+            long m = (long) Math.ceil(-capacity * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, m);
+            this.bits = new long[(int) ((bitCount + 63) / 64)];
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / capacity * Math.log(2)));
+            this.capacity = capacity;
+        }
+
+        synchronized void put(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                bits[(int) (index >>> 6)] |= 1L << index;
+            }
+            insertions++;
+        }
+
+        /**
+         * Lecture sans verrou, après la lecture volatile du filtre publié par le registre
+         */
+        boolean mightContain(String value) {
+            long hash = hash(value);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 1; i <= hashCount; i++) {
+                long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+                if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isSaturated() {
+            return insertions >= capacity;
+        }
+
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= b & 0xFF;
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
@@ -10,23 +10,25 @@ import com.predykt.accounting.dto.request.activity.ActivityImportRequest;
 import com.predykt.accounting.dto.request.JournalEntryLineRequest;
 import com.predykt.accounting.dto.request.JournalEntryRequest;
 import com.predykt.accounting.dto.response.ImportResultResponse;
-import com.predykt.accounting.dto.response.activity.ActivityPreviewRow;
 import com.predykt.accounting.dto.response.activity.PreviewResponse;
 import com.predykt.accounting.exception.ImportException;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.ActivityImportHistoryRepository;
 import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.service.activity.ActivityImportPreviewEngine;
+import com.predykt.accounting.service.journal.ChunkedJournalPoster;
 import com.predykt.accounting.service.parser.activity.ActivityCsvParser;
 import com.predykt.accounting.service.parser.activity.ActivityParserFactory;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -42,14 +44,30 @@ public class ActivityImportService {
     private final ActivityParserFactory parserFactory;
     private final ActivityMappingService mappingService;
     private final ActivityTemplateService templateService;
-    private final GeneralLedgerService glService;
+    private final ChunkedJournalPoster journalPoster;
     private final ActivityImportHistoryRepository historyRepository;
+    private final ActivityImportPreviewEngine previewEngine;
 
     /**
      * Import principal d'activités
      */
-    @Transactional
     public ImportResultResponse importActivities(Long companyId, MultipartFile file, ActivityImportRequest request) {
+        return importActivities(companyId, file, request, null);
+    }
+
+    /**
+     * Import d'activités avec suivi de progression
+     * Hors prévisualisation, le fichier est lu en flux et les écritures enregistrées par lots
+     * (ChunkedJournalPoster): un lot en échec n'annule pas les lots déjà validés.
+     *
+     * Pas de transaction englobante: chaque lot est validé dans sa propre transaction et l'historique
+     * est enregistré par de courtes transactions (démarrage, progression à chaque lot, fin ou échec),
+     * visible pendant l'import et conservé même si l'import échoue après des lots validés.
+     *
+     * @param progressListener Suivi de progression (optionnel)
+     */
+    public ImportResultResponse importActivities(Long companyId, MultipartFile file, ActivityImportRequest request,
+                                                 Consumer<ChunkedJournalPoster.PostingProgress> progressListener) {
         Company company = getCompany(companyId);
 
         log.info("Starting activity import for company {}: file={}, template={}, preview={}",
@@ -60,81 +78,105 @@ public class ActivityImportService {
 
         try {
             history.start();
-            historyRepository.save(history);
+            history = historyRepository.save(history);
+
+            // 1. Structure retenue à la prévisualisation (jeton), sinon détection
+            ActivityImportPreviewEngine.ImportLayout layout = Boolean.TRUE.equals(request.getPreview())
+                ? null
+                : previewEngine.resolveToken(request.getUploadToken(), companyId, file).orElse(null);
 
-            // 1. Récupérer le template si spécifié
             ActivityImportTemplate template = null;
+            ActivityCsvFormat format;
             if (request.getTemplateId() != null) {
-                template = templateService.getTemplate(request.getTemplateId());
                 templateService.incrementUsage(request.getTemplateId());
-            } else {
-                // Utiliser template par défaut si existe
-                template = templateService.getDefaultTemplate(companyId).orElse(null);
             }
 
-            // 2. Sélectionner et exécuter le parser
-            ActivityCsvFormat format = request.getFormat() != null
-                ? ActivityCsvFormat.valueOf(request.getFormat().toUpperCase())
-                : null;
-
-            ActivityCsvParser parser = parserFactory.getParser(file.getOriginalFilename(), format, template);
-            List<ActivityImportDto> activities = parser.parse(file);
-
-            log.info("Parsed {} activities from file", activities.size());
-            history.setTotalRows(activities.size());
+            if (layout != null) {
+                log.info("Reusing file structure from preview token: format={}, template={}",
+                    layout.format(), layout.templateId());
+                if (layout.templateId() != null) {
+                    template = templateService.getTemplate(layout.templateId());
+                }
+                format = layout.format();
+            } else {
+                // Récupérer le template si spécifié
+                if (request.getTemplateId() != null) {
+                    template = templateService.getTemplate(request.getTemplateId());
+                } else {
+                    // Utiliser template par défaut si existe
+                    template = templateService.getDefaultTemplate(companyId).orElse(null);
+                }
 
-            // 3. Appliquer le mapping à chaque activité
-            for (ActivityImportDto activity : activities) {
-                mappingService.applyMapping(companyId, activity);
+                format = request.getFormat() != null
+                    ? ActivityCsvFormat.valueOf(request.getFormat().toUpperCase())
+                    : ActivityCsvFormat.detectFromFileName(file.getOriginalFilename());
             }
 
-            log.info("Mapping applied to all activities");
+            // 2. Sélectionner le parser
+            ActivityCsvParser parser = parserFactory.getParser(file.getOriginalFilename(), format, template);
 
-            // 4. Si mode preview, retourner sans sauvegarder
+            // 4. Si mode preview, retourner sans sauvegarder (premières lignes + échantillon)
             if (Boolean.TRUE.equals(request.getPreview())) {
-                return createPreviewResult(activities, file.getOriginalFilename());
+                PreviewResponse preview = previewEngine.preview(companyId, file, parser,
+                    previewEngine.layoutOf(file, format, template != null ? template.getId() : null));
+
+                return ImportResultResponse.builder()
+                    .totalRows(preview.getTotalRows())
+                    .successCount(0)
+                    .errorCount(0)
+                    .message("Prévisualisation générée")
+                    .data(preview)
+                    .build();
             }
 
-            // 5. Créer les écritures comptables
-            int successCount = 0;
-            int errorCount = 0;
-            List<Map<String, Object>> errors = new ArrayList<>();
-
-            for (ActivityImportDto activity : activities) {
-                try {
-                    createJournalEntryFromActivity(company, activity);
-                    successCount++;
-                } catch (Exception e) {
-                    errorCount++;
-                    errors.add(Map.of(
-                        "row", activity.getRowNumber(),
-                        "activity", activity.getActivity(),
-                        "error", e.getMessage()
-                    ));
-                    log.warn("Error creating journal entry for row {}: {}", activity.getRowNumber(), e.getMessage());
+            // 3 + 5. Lecture en flux: mapping puis écriture par lots, ligne par ligne
+            Long historyId = history.getId();
+            ChunkedJournalPoster.PostingSession session = journalPoster.open(company, progress -> {
+                historyRepository.updateProgress(historyId, progress.submitted(), progress.posted(), progress.failed());
+                if (progressListener != null) {
+                    progressListener.accept(progress);
                 }
+            });
+            long totalRows;
+            try (InputStream inputStream = file.getInputStream()) {
+                totalRows = parser.parse(inputStream, file.getOriginalFilename(), activity -> {
+                    String label = String.format("Ligne %d - %s", activity.getRowNumber(), activity.getActivity());
+                    try {
+                        mappingService.applyMapping(companyId, activity);
+                        session.submit(label, buildJournalEntry(activity));
+                    } catch (Exception e) {
+                        log.warn("Error creating journal entry for row {}: {}", activity.getRowNumber(), e.getMessage());
+                        session.reject(label, e.getMessage());
+                    }
+                });
             }
+            ChunkedJournalPoster.PostingResult result = session.finish();
 
             // 6. Finaliser l'historique
-            history.setSuccessCount(successCount);
-            history.setErrorCount(errorCount);
+            List<Map<String, Object>> errors = result.errors().stream()
+                .map(error -> Map.<String, Object>of("error", error))
+                .collect(Collectors.toList());
+
+            history.setTotalRows((int) totalRows);
+            history.setSuccessCount(result.posted());
+            history.setErrorCount(result.failed());
             history.setErrors(errors);
             history.complete();
-            historyRepository.save(history);
+            history = historyRepository.save(history);
 
-            log.info("Import completed: {}/{} activities imported successfully", successCount, activities.size());
+            log.info("Import completed: {}/{} activities imported successfully", result.posted(), totalRows);
 
             return ImportResultResponse.builder()
-                .totalRows(activities.size())
-                .successCount(successCount)
-                .errorCount(errorCount)
-                .errors(errors.stream().map(m -> m.get("error").toString()).collect(Collectors.toList()))
-                .message(String.format("Import terminé: %d/%d lignes importées", successCount, activities.size()))
+                .totalRows((int) totalRows)
+                .successCount(result.posted())
+                .errorCount(result.failed())
+                .errors(result.errors())
+                .message(String.format("Import terminé: %d/%d lignes importées", result.posted(), totalRows))
                 .build();
 
         } catch (Exception e) {
             history.fail();
-            historyRepository.save(history);
+            saveFailedHistory(history);
             log.error("Import failed for company {}: {}", companyId, e.getMessage(), e);
             throw new ImportException("Échec de l'import: " + e.getMessage(), e);
         }
@@ -142,6 +184,7 @@ public class ActivityImportService {
 
     /**
      * Prévisualisation sans sauvegarde
+     * Le jeton retourné (uploadToken) peut être transmis à l'import confirmé
      */
     public PreviewResponse previewImport(Long companyId, MultipartFile file, ActivityImportRequest request) {
         request.setPreview(true);
@@ -152,9 +195,9 @@ public class ActivityImportService {
     }
 
     /**
-     * Crée une écriture comptable à partir d'une activité
+     * Construit l'écriture comptable d'une activité
      */
-    private void createJournalEntryFromActivity(Company company, ActivityImportDto activity) {
+    private JournalEntryRequest buildJournalEntry(ActivityImportDto activity) {
         String accountNumber = activity.getDetectedAccount();
         String contraAccountNumber = determineContraAccount(activity);
 
@@ -194,7 +237,7 @@ public class ActivityImportService {
         lines.add(contraLine);
         request.setLines(lines);
 
-        glService.recordJournalEntry(company.getId(), request);
+        return request;
     }
 
     /**
@@ -231,65 +274,14 @@ public class ActivityImportService {
     }
 
     /**
-     * Crée le résultat de prévisualisation
+     * Enregistre l'échec sans masquer l'erreur d'origine
      */
-    private ImportResultResponse createPreviewResult(List<ActivityImportDto> activities, String fileName) {
-        // Limiter à 50 lignes pour la preview
-        List<ActivityPreviewRow> previewRows = activities.stream()
-            .limit(50)
-            .map(this::toPreviewRow)
-            .collect(Collectors.toList());
-
-        // Distribution des comptes
-        Map<String, Integer> accountDistribution = activities.stream()
-            .filter(a -> a.getDetectedAccount() != null)
-            .collect(Collectors.groupingBy(
-                ActivityImportDto::getDetectedAccount,
-                Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-            ));
-
-        // Distribution de confiance
-        Map<String, Integer> confidenceDistribution = activities.stream()
-            .collect(Collectors.groupingBy(
-                ActivityImportDto::getConfidenceLevel,
-                Collectors.collectingAndThen(Collectors.counting(), Long::intValue)
-            ));
-
-        PreviewResponse preview = PreviewResponse.builder()
-            .fileName(fileName)
-            .totalRows(activities.size())
-            .validRows((int) activities.stream().filter(ActivityImportDto::isValid).count())
-            .invalidRows((int) activities.stream().filter(a -> !a.isValid()).count())
-            .rows(previewRows)
-            .accountDistribution(accountDistribution)
-            .confidenceDistribution(confidenceDistribution)
-            .build();
-
-        return ImportResultResponse.builder()
-            .totalRows(activities.size())
-            .successCount(0)
-            .errorCount(0)
-            .message("Prévisualisation générée")
-            .data(preview)
-            .build();
-    }
-
-    private ActivityPreviewRow toPreviewRow(ActivityImportDto dto) {
-        return ActivityPreviewRow.builder()
-            .rowNumber(dto.getRowNumber())
-            .date(dto.getDate())
-            .activity(dto.getActivity())
-            .description(dto.getDescription())
-            .amount(dto.getAmount())
-            .type(dto.getType())
-            .detectedAccount(dto.getDetectedAccount())
-            .accountName(dto.getAccountName())
-            .journalCode(dto.getJournalCode())
-            .confidence(dto.getConfidenceLevel())
-            .isValid(dto.isValid())
-            .warnings(dto.getWarnings())
-            .errors(dto.getErrors())
-            .build();
+    private void saveFailedHistory(ActivityImportHistory history) {
+        try {
+            historyRepository.save(history);
+        } catch (Exception e) {
+            log.warn("Unable to record failed import history {}: {}", history.getId(), e.getMessage());
+        }
     }
 
     private Company getCompany(Long companyId) {
@@ -9,6 +9,9 @@ import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.ActivityMappingRuleRepository;
 import com.predykt.accounting.repository.ChartOfAccountsRepository;
 import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.service.mapping.ActivityRuleMatcher;
+import com.predykt.accounting.service.mapping.ActivityRuleMatcherCache;
+import com.predykt.accounting.service.mapping.RuleUsageRecorder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -31,39 +34,33 @@ public class ActivityMappingService {
     private final CompanyRepository companyRepository;
     private final ChartOfAccountsRepository chartRepository;
     private final JdbcTemplate jdbcTemplate;
+    private final ActivityRuleMatcherCache matcherCache;
+    private final RuleUsageRecorder usageRecorder;
 
     /**
      * Trouve le compte OHADA pour une activité donnée
-     * Applique les règles de mapping par ordre de priorité
+     * Applique les règles de mapping par ordre de priorité (jeu compilé et mis en cache par entreprise)
      */
     public MappingResult findAccountForActivity(Long companyId, String activityName) {
-        Company company = getCompany(companyId);
+        ActivityRuleMatcher matcher = matcherCache.matcherFor(companyId);
+        ActivityMappingRule rule = matcher.match(activityName);
+
+        if (rule != null) {
+            log.debug("Activité '{}' matchée par règle: '{}' → compte {}",
+                activityName, rule.getActivityKeyword(), rule.getAccountNumber());
+
+            // Incrémenter le compteur d'utilisation (reporté en base par lots)
+            usageRecorder.record(rule.getId());
+
+            String accountName = matcher.accountName(rule.getAccountNumber());
 
-        // Récupérer toutes les règles actives triées par priorité
-        List<ActivityMappingRule> rules = mappingRuleRepository
-            .findByCompanyAndIsActiveTrueOrderByPriorityDesc(company);
-
-        // Tester chaque règle
-        for (ActivityMappingRule rule : rules) {
-            if (rule.matches(activityName)) {
-                log.debug("Activité '{}' matchée par règle: '{}' → compte {}",
-                    activityName, rule.getActivityKeyword(), rule.getAccountNumber());
-
-                // Incrémenter le compteur d'utilisation
-                rule.incrementUsage();
-                mappingRuleRepository.save(rule);
-
-                // Récupérer le nom du compte OHADA
-                String accountName = getAccountName(company, rule.getAccountNumber());
-
-                return MappingResult.builder()
-                    .accountNumber(rule.getAccountNumber())
-                    .accountName(accountName)
-                    .journalCode(rule.getJournalCode())
-                    .confidenceScore(rule.getConfidenceScore())
-                    .matchedRule(rule)
-                    .build();
-            }
+            return MappingResult.builder()
+                .accountNumber(rule.getAccountNumber())
+                .accountName(accountName != null ? accountName : "Compte " + rule.getAccountNumber())
+                .journalCode(rule.getJournalCode())
+                .confidenceScore(rule.getConfidenceScore())
+                .matchedRule(rule)
+                .build();
         }
 
         // Aucune règle trouvée → Mapping par défaut
@@ -112,6 +109,7 @@ public class ActivityMappingService {
             .build();
 
         rule = mappingRuleRepository.save(rule);
+        matcherCache.invalidate(companyId);
         log.info("Règle de mapping créée: '{}' → {}", rule.getActivityKeyword(), rule.getAccountNumber());
 
         return rule;
@@ -134,7 +132,9 @@ public class ActivityMappingService {
         rule.setConfidenceScore(request.getConfidenceScore());
         rule.setIsActive(request.getIsActive());
 
-        return mappingRuleRepository.save(rule);
+        rule = mappingRuleRepository.save(rule);
+        matcherCache.invalidate(rule.getCompany().getId());
+        return rule;
     }
 
     /**
@@ -142,7 +142,11 @@ public class ActivityMappingService {
      */
     @Transactional
     public void deleteRule(Long ruleId) {
-        mappingRuleRepository.deleteById(ruleId);
+        ActivityMappingRule rule = mappingRuleRepository.findById(ruleId)
+            .orElseThrow(() -> new ResourceNotFoundException("Règle de mapping non trouvée: " + ruleId));
+
+        mappingRuleRepository.delete(rule);
+        matcherCache.invalidate(rule.getCompany().getId());
         log.info("Règle de mapping supprimée: {}", ruleId);
     }
 
@@ -177,6 +181,7 @@ public class ActivityMappingService {
             """;
 
         int count = jdbcTemplate.update(sql, companyId, companyId);
+        matcherCache.invalidate(companyId);
         log.info("{} règles de mapping par défaut initialisées pour l'entreprise {}", count, companyId);
     }
 
@@ -214,15 +219,6 @@ public class ActivityMappingService {
             .build();
     }
 
-    /**
-     * Récupère le nom d'un compte OHADA
-     */
-    private String getAccountName(Company company, String accountNumber) {
-        return chartRepository.findByCompanyAndAccountNumber(company, accountNumber)
-            .map(ChartOfAccounts::getAccountName)
-            .orElse("Compte " + accountNumber);
-    }
-
     private Company getCompany(Long companyId) {
         return companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée: " + companyId));
@@ -1,11 +1,10 @@
 package com.predykt.accounting.service;
 
 import com.predykt.accounting.domain.entity.Company;
-import com.predykt.accounting.domain.entity.GeneralLedger;
 import com.predykt.accounting.dto.response.AgingReportResponse;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.CompanyRepository;
-import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.aging.AgingBucketEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,7 +15,6 @@ import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service pour la génération des balances âgées (clients et fournisseurs)
@@ -28,16 +26,25 @@ import java.util.stream.Collectors;
 public class AgingReportService {
 
     private final CompanyRepository companyRepository;
-    private final GeneralLedgerRepository generalLedgerRepository;
+    private final AgingBucketEngine agingBucketEngine;
 
     /**
      * Générer la balance âgée des clients
      */
     @Transactional(readOnly = true)
     public AgingReportResponse generateCustomersAgingReport(Long companyId, LocalDate asOfDate) {
+        return generateCustomersAgingReport(companyId, asOfDate, false);
+    }
+
+    /**
+     * Générer la balance âgée des clients
+     * @param netSettled true pour exclure les factures lettrées et leurs règlements
+     */
+    @Transactional(readOnly = true)
+    public AgingReportResponse generateCustomersAgingReport(Long companyId, LocalDate asOfDate, boolean netSettled) {
         log.info("Génération de la balance âgée clients pour l'entreprise {} au {}", companyId, asOfDate);
 
-        return generateAgingReport(companyId, asOfDate, "411", "CUSTOMERS");
+        return generateAgingReport(companyId, asOfDate, "411", "CUSTOMERS", netSettled);
     }
 
     /**
@@ -45,36 +52,39 @@ public class AgingReportService {
      */
     @Transactional(readOnly = true)
     public AgingReportResponse generateSuppliersAgingReport(Long companyId, LocalDate asOfDate) {
+        return generateSuppliersAgingReport(companyId, asOfDate, false);
+    }
+
+    /**
+     * Générer la balance âgée des fournisseurs
+     * @param netSettled true pour exclure les factures lettrées et leurs règlements
+     */
+    @Transactional(readOnly = true)
+    public AgingReportResponse generateSuppliersAgingReport(Long companyId, LocalDate asOfDate, boolean netSettled) {
         log.info("Génération de la balance âgée fournisseurs pour l'entreprise {} au {}", companyId, asOfDate);
 
-        return generateAgingReport(companyId, asOfDate, "401", "SUPPLIERS");
+        return generateAgingReport(companyId, asOfDate, "401", "SUPPLIERS", netSettled);
     }
 
     /**
      * Méthode générique pour générer un rapport de balance âgée
+     * L'agrégation par compte et par tranche est déléguée à la base via AgingBucketEngine
      */
     private AgingReportResponse generateAgingReport(Long companyId, LocalDate asOfDate,
-                                                    String accountPrefix, String reportType) {
+                                                    String accountPrefix, String reportType,
+                                                    boolean netSettled) {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
 
-        // Récupérer toutes les écritures des comptes clients ou fournisseurs jusqu'à la date donnée
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndAccountNumberStartingWithAndEntryDateLessThanEqual(
-            company, accountPrefix, asOfDate);
-
-        // Regrouper les écritures par compte (client ou fournisseur)
-        Map<String, List<GeneralLedger>> groupedByAccount = entries.stream()
-            .collect(Collectors.groupingBy(e -> e.getAccount().getAccountNumber()));
+        // Une seule requête: totaux par compte et par tranche d'âge
+        List<AgingBucketEngine.AccountAgingBuckets> accountBuckets =
+            agingBucketEngine.computeBuckets(company, accountPrefix, asOfDate, netSettled);
 
         // Calculer les montants par tranche d'âge pour chaque compte
         List<AgingReportResponse.AgingItem> agingItems = new ArrayList<>();
 
-        for (Map.Entry<String, List<GeneralLedger>> entry : groupedByAccount.entrySet()) {
-            String accountNumber = entry.getKey();
-            List<GeneralLedger> accountEntries = entry.getValue();
-
-            AgingReportResponse.AgingItem item = calculateAgingForAccount(
-                accountNumber, accountEntries, asOfDate, reportType);
+        for (AgingBucketEngine.AccountAgingBuckets buckets : accountBuckets) {
+            AgingReportResponse.AgingItem item = calculateAgingForAccount(buckets, asOfDate, reportType);
 
             if (item.getTotalAmount().compareTo(BigDecimal.ZERO) > 0) {
                 agingItems.add(item);
@@ -102,26 +112,16 @@ public class AgingReportService {
     }
 
     /**
-     * Calculer le vieillissement pour un compte spécifique
+     * Calculer le vieillissement pour un compte spécifique à partir des totaux agrégés
      */
     private AgingReportResponse.AgingItem calculateAgingForAccount(
-            String accountNumber, List<GeneralLedger> entries, LocalDate asOfDate, String reportType) {
+            AgingBucketEngine.AccountAgingBuckets buckets, LocalDate asOfDate, String reportType) {
 
         // Déterminer si c'est du débit ou crédit selon le type
         boolean isReceivable = reportType.equals("CUSTOMERS"); // Clients = créances (débit)
 
-        // Calculer le solde total
-        BigDecimal totalDebit = entries.stream()
-            .map(GeneralLedger::getDebitAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCredit = entries.stream()
-            .map(GeneralLedger::getCreditAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalAmount = isReceivable
-            ? totalDebit.subtract(totalCredit)
-            : totalCredit.subtract(totalDebit);
+        String accountNumber = buckets.accountNumber();
+        BigDecimal totalAmount = buckets.balance(isReceivable);
 
         if (totalAmount.compareTo(BigDecimal.ZERO) <= 0) {
             // Pas de solde ou solde négatif, ne pas inclure
@@ -131,44 +131,17 @@ public class AgingReportService {
                 .build();
         }
 
-        // Initialiser les tranches
-        BigDecimal current = BigDecimal.ZERO;
-        BigDecimal days30to60 = BigDecimal.ZERO;
-        BigDecimal days60to90 = BigDecimal.ZERO;
-        BigDecimal over90Days = BigDecimal.ZERO;
-
-        LocalDate oldestDate = asOfDate;
-        int overdueCount = 0;
-
-        // Analyser chaque écriture pour déterminer son âge
-        for (GeneralLedger entry : entries) {
-            BigDecimal amount = isReceivable
-                ? entry.getDebitAmount().subtract(entry.getCreditAmount())
-                : entry.getCreditAmount().subtract(entry.getDebitAmount());
-
-            if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-                continue; // Ignorer les paiements (montant négatif)
-            }
-
-            long daysSinceEntry = ChronoUnit.DAYS.between(entry.getEntryDate(), asOfDate);
-
-            if (daysSinceEntry <= 30) {
-                current = current.add(amount);
-            } else if (daysSinceEntry <= 60) {
-                days30to60 = days30to60.add(amount);
-                overdueCount++;
-            } else if (daysSinceEntry <= 90) {
-                days60to90 = days60to90.add(amount);
-                overdueCount++;
-            } else {
-                over90Days = over90Days.add(amount);
-                overdueCount++;
-            }
+        // Tranches: montants ouverts (débits clients / crédits fournisseurs), les règlements sont ignorés
+        BigDecimal[] amounts = buckets.buckets(isReceivable);
+        BigDecimal current = amounts[0];
+        BigDecimal days30to60 = amounts[1];
+        BigDecimal days60to90 = amounts[2];
+        BigDecimal over90Days = amounts[3];
 
-            if (entry.getEntryDate().isBefore(oldestDate)) {
-                oldestDate = entry.getEntryDate();
-            }
-        }
+        LocalDate oldestDate = buckets.oldestDate(isReceivable) != null
+            ? buckets.oldestDate(isReceivable)
+            : asOfDate;
+        int overdueCount = buckets.overdueCount(isReceivable);
 
         // Déterminer le statut
         String status;
@@ -184,14 +157,8 @@ public class AgingReportService {
             statusIcon = "✅";
         }
 
-        // Extraire le nom depuis le tiers, la description ou le compte
-        // Ordre de priorité: 1. Customer/Supplier name, 2. Description, 3. Account number
-        String name = accountNumber;  // Fallback par défaut
-        if (!entries.isEmpty()) {
-            GeneralLedger firstEntry = entries.get(0);
-            // Utiliser getTiersName() qui gère automatiquement la priorité Customer > Supplier > Description > Account
-            name = firstEntry.getTiersName();
-        }
+        // Ordre de priorité du nom: 1. Customer/Supplier name, 2. Libellé du compte, 3. Numéro de compte
+        String name = buckets.tiersName();
 
         long oldestDays = ChronoUnit.DAYS.between(oldestDate, asOfDate);
 
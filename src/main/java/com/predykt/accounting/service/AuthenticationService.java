@@ -10,7 +10,9 @@ import com.predykt.accounting.exception.AccountingException;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.RoleRepository;
 import com.predykt.accounting.repository.UserRepository;
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
 import com.predykt.accounting.security.JwtTokenProvider;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -22,6 +24,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.Set;
 
 /**
@@ -38,6 +42,8 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider tokenProvider;
+    private final AuthorizationSnapshotCache authorizationCache;
+    private final JwtTokenService jwtTokenService;
     
     /**
      * Authentification (Login)
@@ -69,6 +75,9 @@ public class AuthenticationService {
             user.recordSuccessfulLogin();
             userRepository.save(user);
             
+            // Autorisations précalculées dès la connexion (réutilisées par les requêtes suivantes)
+            authorizationCache.snapshotFor(user);
+            
             // Injecter l'authentification dans le contexte
             SecurityContextHolder.getContext().setAuthentication(authentication);
             
@@ -97,6 +106,8 @@ public class AuthenticationService {
                 
                 if (user.getFailedLoginAttempts() >= 5) {
                     log.warn("⚠️ Compte verrouillé après 5 tentatives: {}", request.getEmail());
+                    // Tokens déjà émis: plus servis depuis le cache des utilisateurs authentifiés
+                    authorizationCache.invalidateUser(user.getId());
                 }
             });
             
@@ -204,8 +215,13 @@ public class AuthenticationService {
     public void logout(String token) {
         log.info("🚪 Déconnexion");
         
-        // TODO: Ajouter le token à une blacklist Redis
-        // Pour l'instant, la déconnexion est côté client (suppression du token)
+        // Token invalide ou déjà expiré: plus rien à révoquer
+        Claims claims = tokenProvider.parseClaims(token);
+        if (claims != null && claims.getId() != null) {
+            LocalDateTime expiresAt = LocalDateTime.ofInstant(claims.getExpiration().toInstant(), ZoneId.systemDefault());
+            // Révocation en base et dans le registre (diffusée aux autres instances), principal en cache invalidé
+            jwtTokenService.revokeToken(claims.getId(), claims.get("userId", Long.class), expiresAt, "Déconnexion");
+        }
         
         SecurityContextHolder.clearContext();
     }
@@ -1,12 +1,12 @@
 package com.predykt.accounting.service;
 
 import com.predykt.accounting.domain.entity.Company;
-import com.predykt.accounting.domain.entity.GeneralLedger;
 import com.predykt.accounting.dto.response.AuxiliaryJournalResponse;
 import com.predykt.accounting.dto.response.AuxiliaryJournalResponse.*;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.journal.JournalProjectionEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -16,7 +16,6 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Service pour générer les journaux auxiliaires conformes OHADA
@@ -37,6 +36,7 @@ public class AuxiliaryJournalsService {
 
     private final GeneralLedgerRepository generalLedgerRepository;
     private final CompanyRepository companyRepository;
+    private final JournalProjectionEngine journalProjectionEngine;
 
     private static final BigDecimal VAT_RATE_CAMEROON = new BigDecimal("0.1925");
 
@@ -49,14 +49,12 @@ public class AuxiliaryJournalsService {
 
         Company company = getCompany(companyId);
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "VE", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "VE");
-        JournalStatistics stats = buildSalesStatistics(entries, journalEntries);
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "VE", startDate, endDate);
+        JournalStatistics stats = buildSalesStatistics(journalEntries);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "VE", startDate, endDate);
 
         return buildJournalResponse(company, "VE", "Journal des Ventes",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
@@ -68,14 +66,12 @@ public class AuxiliaryJournalsService {
 
         Company company = getCompany(companyId);
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "AC", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "AC");
-        JournalStatistics stats = buildPurchasesStatistics(entries, journalEntries);
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "AC", startDate, endDate);
+        JournalStatistics stats = buildPurchasesStatistics(journalEntries);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "AC", startDate, endDate);
 
         return buildJournalResponse(company, "AC", "Journal des Achats",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
@@ -87,14 +83,12 @@ public class AuxiliaryJournalsService {
 
         Company company = getCompany(companyId);
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "BQ", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "BQ");
-        JournalStatistics stats = buildBankStatistics(entries, journalEntries, company, startDate);
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "BQ", startDate, endDate);
+        JournalStatistics stats = buildBankStatistics(journalEntries, company, startDate);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "BQ", startDate, endDate);
 
         return buildJournalResponse(company, "BQ", "Journal de Banque",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
@@ -106,14 +100,12 @@ public class AuxiliaryJournalsService {
 
         Company company = getCompany(companyId);
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "CA", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "CA");
-        JournalStatistics stats = buildCashStatistics(entries, journalEntries, company, startDate);
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "CA", startDate, endDate);
+        JournalStatistics stats = buildCashStatistics(journalEntries, company, startDate);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "CA", startDate, endDate);
 
         return buildJournalResponse(company, "CA", "Journal de Caisse",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
@@ -126,14 +118,12 @@ public class AuxiliaryJournalsService {
 
         Company company = getCompany(companyId);
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "OD", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "OD");
-        JournalStatistics stats = buildGeneralJournalStatistics(entries);
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "OD", startDate, endDate);
+        JournalStatistics stats = buildGeneralJournalStatistics(journalEntries);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "OD", startDate, endDate);
 
         return buildJournalResponse(company, "OD", "Journal des Opérations Diverses",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
@@ -148,59 +138,49 @@ public class AuxiliaryJournalsService {
         LocalDate startDate = LocalDate.of(fiscalYear, 1, 1);
         LocalDate endDate = LocalDate.of(fiscalYear, 1, 31); // Généralement en janvier
 
-        List<GeneralLedger> entries = generalLedgerRepository.findByCompanyAndJournalCodeAndEntryDateBetween(
-            company, "AN", startDate, endDate);
-
-        List<JournalEntry> journalEntries = buildJournalEntries(entries, "AN");
+        List<JournalEntry> journalEntries = buildJournalEntries(company, "AN", startDate, endDate);
+        JournalProjectionEngine.JournalTotals totals = journalProjectionEngine.totals(company, "AN", startDate, endDate);
         JournalStatistics stats = new JournalStatistics(); // Pas de stats spécifiques pour AN
 
         return buildJournalResponse(company, "AN", "Journal à Nouveaux (Ouverture " + fiscalYear + ")",
-            startDate, endDate, journalEntries, stats);
+            startDate, endDate, journalEntries, stats, totals);
     }
 
     /**
-     * Construit les lignes du journal à partir des écritures du grand livre
+     * Construit les lignes du journal à partir de la projection SQL
+     * Les pièces arrivent déjà groupées (tri par pièce): un seul passage, sans charger d'entités
      */
-    private List<JournalEntry> buildJournalEntries(List<GeneralLedger> entries, String journalCode) {
-        // Grouper par pièce comptable pour analyser les écritures complètes
-        Map<String, List<GeneralLedger>> entriesByPiece = entries.stream()
-            .collect(Collectors.groupingBy(
-                e -> e.getPieceNumber() != null ? e.getPieceNumber() : e.getReferenceNumber(),
-                LinkedHashMap::new,
-                Collectors.toList()
-            ));
-
+    private List<JournalEntry> buildJournalEntries(Company company, String journalCode,
+                                                   LocalDate startDate, LocalDate endDate) {
         List<JournalEntry> journalEntries = new ArrayList<>();
-        BigDecimal cumulativeBalance = BigDecimal.ZERO;
-
-        for (Map.Entry<String, List<GeneralLedger>> pieceGroup : entriesByPiece.entrySet()) {
-            List<GeneralLedger> pieceEntries = pieceGroup.getValue();
+        BigDecimal[] cumulativeBalance = { BigDecimal.ZERO };
 
+        journalProjectionEngine.forEachPiece(company, journalCode, startDate, endDate, piece -> {
             // Pour chaque ligne de la pièce
-            for (GeneralLedger entry : pieceEntries) {
-                BigDecimal amount = entry.getDebitAmount().subtract(entry.getCreditAmount());
-                cumulativeBalance = cumulativeBalance.add(amount);
+            for (JournalProjectionEngine.JournalLine line : piece.lines()) {
+                BigDecimal amount = line.debitAmount().subtract(line.creditAmount());
+                cumulativeBalance[0] = cumulativeBalance[0].add(amount);
 
                 JournalEntry journalEntry = JournalEntry.builder()
-                    .entryDate(entry.getEntryDate())
-                    .pieceNumber(entry.getPieceNumber())
-                    .reference(entry.getReferenceNumber())
-                    .accountNumber(entry.getAccountNumber())
-                    .accountName(entry.getAccountName())
-                    .description(entry.getDescription())
-                    .debitAmount(entry.getDebitAmount())
-                    .creditAmount(entry.getCreditAmount())
-                    .balance(cumulativeBalance)
-                    .isReconciled(entry.getIsReconciled())
-                    .isLocked(entry.getIsLocked())
+                    .entryDate(line.entryDate())
+                    .pieceNumber(line.pieceNumber())
+                    .reference(line.pieceNumber())
+                    .accountNumber(line.accountNumber())
+                    .accountName(line.accountName())
+                    .description(line.description())
+                    .debitAmount(line.debitAmount())
+                    .creditAmount(line.creditAmount())
+                    .balance(cumulativeBalance[0])
+                    .isReconciled(false)
+                    .isLocked(line.isLocked())
                     .build();
 
                 // Enrichir avec données spécifiques selon journal
-                enrichJournalEntry(journalEntry, entry, pieceEntries, journalCode);
+                enrichJournalEntry(journalEntry, piece.lines(), journalCode);
 
                 journalEntries.add(journalEntry);
             }
-        }
+        });
 
         return journalEntries;
     }
@@ -208,15 +188,15 @@ public class AuxiliaryJournalsService {
     /**
      * Enrichit une ligne de journal avec des données spécifiques selon le type
      */
-    private void enrichJournalEntry(JournalEntry journalEntry, GeneralLedger entry,
-                                    List<GeneralLedger> pieceEntries, String journalCode) {
+    private void enrichJournalEntry(JournalEntry journalEntry,
+                                    List<JournalProjectionEngine.JournalLine> pieceLines, String journalCode) {
 
         if ("VE".equals(journalCode) || "AC".equals(journalCode)) {
             // Pour ventes/achats: extraire HT, TVA, TTC
-            enrichSalesOrPurchaseEntry(journalEntry, pieceEntries, journalCode);
+            enrichSalesOrPurchaseEntry(journalEntry, pieceLines, journalCode);
         } else if ("BQ".equals(journalCode)) {
             // Pour banque: extraire infos paiement
-            enrichBankEntry(journalEntry, entry);
+            enrichBankEntry(journalEntry);
         }
     }
 
@@ -224,19 +204,19 @@ public class AuxiliaryJournalsService {
      * Enrichit une écriture vente/achat avec HT, TVA, TTC
      */
     private void enrichSalesOrPurchaseEntry(JournalEntry journalEntry,
-                                           List<GeneralLedger> pieceEntries, String journalCode) {
+                                           List<JournalProjectionEngine.JournalLine> pieceLines, String journalCode) {
 
         // Rechercher le compte de TVA
         String vatAccountPrefix = "VE".equals(journalCode) ? "4431" : "4452"; // Collectée ou Déductible
 
-        Optional<GeneralLedger> vatEntry = pieceEntries.stream()
-            .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith(vatAccountPrefix))
+        Optional<JournalProjectionEngine.JournalLine> vatEntry = pieceLines.stream()
+            .filter(e -> e.isOnAccount(vatAccountPrefix))
             .findFirst();
 
         if (vatEntry.isPresent()) {
             BigDecimal vatAmount = "VE".equals(journalCode)
-                ? vatEntry.get().getCreditAmount()
-                : vatEntry.get().getDebitAmount();
+                ? vatEntry.get().creditAmount()
+                : vatEntry.get().debitAmount();
 
             journalEntry.setVatAmount(vatAmount);
             journalEntry.setVatRate(VAT_RATE_CAMEROON.multiply(new BigDecimal("100")));
@@ -261,10 +241,10 @@ public class AuxiliaryJournalsService {
     /**
      * Enrichit une écriture banque
      */
-    private void enrichBankEntry(JournalEntry journalEntry, GeneralLedger entry) {
+    private void enrichBankEntry(JournalEntry journalEntry) {
         // Extraire méthode de paiement de la description
-        if (entry.getDescription() != null) {
-            String desc = entry.getDescription().toUpperCase();
+        if (journalEntry.getDescription() != null) {
+            String desc = journalEntry.getDescription().toUpperCase();
             if (desc.contains("CHEQUE") || desc.contains("CHQ")) {
                 journalEntry.setPaymentMethod("CHEQUE");
             } else if (desc.contains("VIREMENT") || desc.contains("VIR")) {
@@ -280,16 +260,16 @@ public class AuxiliaryJournalsService {
     /**
      * Construit les statistiques du journal des VENTES
      */
-    private JournalStatistics buildSalesStatistics(List<GeneralLedger> entries, List<JournalEntry> journalEntries) {
+    private JournalStatistics buildSalesStatistics(List<JournalEntry> journalEntries) {
 
-        BigDecimal totalSalesHT = entries.stream()
+        BigDecimal totalSalesHT = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("7"))
-            .map(GeneralLedger::getCreditAmount)
+            .map(JournalEntry::getCreditAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal totalVATCollected = entries.stream()
+        BigDecimal totalVATCollected = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("4431"))
-            .map(GeneralLedger::getCreditAmount)
+            .map(JournalEntry::getCreditAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal totalSalesTTC = totalSalesHT.add(totalVATCollected);
@@ -316,16 +296,16 @@ public class AuxiliaryJournalsService {
     /**
      * Construit les statistiques du journal des ACHATS
      */
-    private JournalStatistics buildPurchasesStatistics(List<GeneralLedger> entries, List<JournalEntry> journalEntries) {
+    private JournalStatistics buildPurchasesStatistics(List<JournalEntry> journalEntries) {
 
-        BigDecimal totalPurchasesHT = entries.stream()
+        BigDecimal totalPurchasesHT = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("6"))
-            .map(GeneralLedger::getDebitAmount)
+            .map(JournalEntry::getDebitAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal totalVATDeductible = entries.stream()
+        BigDecimal totalVATDeductible = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("4452"))
-            .map(GeneralLedger::getDebitAmount)
+            .map(JournalEntry::getDebitAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal totalPurchasesTTC = totalPurchasesHT.add(totalVATDeductible);
@@ -352,17 +332,17 @@ public class AuxiliaryJournalsService {
     /**
      * Construit les statistiques du journal de BANQUE
      */
-    private JournalStatistics buildBankStatistics(List<GeneralLedger> entries, List<JournalEntry> journalEntries,
+    private JournalStatistics buildBankStatistics(List<JournalEntry> journalEntries,
                                                   Company company, LocalDate startDate) {
 
-        BigDecimal totalDebits = entries.stream()
+        BigDecimal totalDebits = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("52"))
-            .map(GeneralLedger::getDebitAmount)
+            .map(JournalEntry::getDebitAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal totalCredits = entries.stream()
+        BigDecimal totalCredits = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("52"))
-            .map(GeneralLedger::getCreditAmount)
+            .map(JournalEntry::getCreditAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal netCashFlow = totalDebits.subtract(totalCredits);
@@ -384,17 +364,17 @@ public class AuxiliaryJournalsService {
     /**
      * Construit les statistiques du journal de CAISSE
      */
-    private JournalStatistics buildCashStatistics(List<GeneralLedger> entries, List<JournalEntry> journalEntries,
+    private JournalStatistics buildCashStatistics(List<JournalEntry> journalEntries,
                                                   Company company, LocalDate startDate) {
 
-        BigDecimal cashReceipts = entries.stream()
+        BigDecimal cashReceipts = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("57"))
-            .map(GeneralLedger::getDebitAmount)
+            .map(JournalEntry::getDebitAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        BigDecimal cashPayments = entries.stream()
+        BigDecimal cashPayments = journalEntries.stream()
             .filter(e -> e.getAccountNumber() != null && e.getAccountNumber().startsWith("57"))
-            .map(GeneralLedger::getCreditAmount)
+            .map(JournalEntry::getCreditAmount)
             .reduce(BigDecimal.ZERO, BigDecimal::add);
 
         BigDecimal netCashMovement = cashReceipts.subtract(cashPayments);
@@ -414,7 +394,7 @@ public class AuxiliaryJournalsService {
     /**
      * Construit les statistiques du journal OPÉRATIONS DIVERSES
      */
-    private JournalStatistics buildGeneralJournalStatistics(List<GeneralLedger> entries) {
+    private JournalStatistics buildGeneralJournalStatistics(List<JournalEntry> entries) {
 
         int corrections = (int) entries.stream()
             .filter(e -> e.getDescription() != null &&
@@ -442,17 +422,8 @@ public class AuxiliaryJournalsService {
      */
     private AuxiliaryJournalResponse buildJournalResponse(Company company, String journalCode, String journalName,
                                                           LocalDate startDate, LocalDate endDate,
-                                                          List<JournalEntry> entries, JournalStatistics stats) {
-
-        BigDecimal totalDebit = entries.stream()
-            .map(JournalEntry::getDebitAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal totalCredit = entries.stream()
-            .map(JournalEntry::getCreditAmount)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        boolean isBalanced = totalDebit.compareTo(totalCredit) == 0;
+                                                          List<JournalEntry> entries, JournalStatistics stats,
+                                                          JournalProjectionEngine.JournalTotals totals) {
 
         return AuxiliaryJournalResponse.builder()
             .companyId(company.getId())
@@ -463,10 +434,10 @@ public class AuxiliaryJournalsService {
             .endDate(endDate)
             .currency("XAF")
             .entries(entries)
-            .totalDebit(totalDebit)
-            .totalCredit(totalCredit)
-            .numberOfEntries(entries.size())
-            .isBalanced(isBalanced)
+            .totalDebit(totals.totalDebit())
+            .totalCredit(totals.totalCredit())
+            .numberOfEntries((int) totals.numberOfLines())
+            .isBalanced(totals.isBalanced())
             .statistics(stats)
             .build();
     }
@@ -477,22 +448,10 @@ public class AuxiliaryJournalsService {
     }
 
     private BigDecimal getBankBalanceAtDate(Company company, LocalDate date) {
-        List<GeneralLedger> entries = generalLedgerRepository
-            .findByCompanyAndAccountNumberStartingWithAndEntryDateLessThanEqual(company, "52", date);
-
-        BigDecimal debit = entries.stream().map(GeneralLedger::getDebitAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal credit = entries.stream().map(GeneralLedger::getCreditAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return debit.subtract(credit);
+        return generalLedgerRepository.calculateBalanceByAccountPrefix(company, "52", date);
     }
 
     private BigDecimal getCashBalanceAtDate(Company company, LocalDate date) {
-        List<GeneralLedger> entries = generalLedgerRepository
-            .findByCompanyAndAccountNumberStartingWithAndEntryDateLessThanEqual(company, "57", date);
-
-        BigDecimal debit = entries.stream().map(GeneralLedger::getDebitAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-        BigDecimal credit = entries.stream().map(GeneralLedger::getCreditAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return debit.subtract(credit);
+        return generalLedgerRepository.calculateBalanceByAccountPrefix(company, "57", date);
     }
 }
@@ -4,12 +4,12 @@ import com.predykt.accounting.domain.entity.BankTransaction;
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.entity.GeneralLedger;
 import com.predykt.accounting.domain.enums.BankProvider;
-import com.predykt.accounting.dto.request.BankTransactionImportDto;
 import com.predykt.accounting.exception.ImportException;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.BankTransactionRepository;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.bank.BankStatementIngestionPipeline;
 import com.predykt.accounting.service.parser.BankStatementParser;
 import com.predykt.accounting.service.parser.BankStatementParserFactory;
 import lombok.RequiredArgsConstructor;
@@ -18,8 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -31,6 +31,7 @@ public class BankTransactionService {
     private final CompanyRepository companyRepository;
     private final GeneralLedgerRepository glRepository;
     private final BankStatementParserFactory parserFactory;
+    private final BankStatementIngestionPipeline ingestionPipeline;
     
     /**
      * Importer des transactions depuis un fichier (tous formats supportés)
@@ -56,49 +57,22 @@ public class BankTransactionService {
         log.info("Importing bank transactions from file: {} (type: {}, provider: {})",
             fileName, contentType, bankProvider != null ? bankProvider.getDisplayName() : "auto-detect");
 
-        try {
-            // Sélectionner le parser approprié
-            BankStatementParser parser = parserFactory.getParser(fileName, contentType, bankProvider);
+        // Sélectionner le parser approprié
+        BankStatementParser parser = parserFactory.getParser(fileName, contentType, bankProvider);
 
-            // Parser le fichier
-            List<BankTransactionImportDto> importDtos = parser.parse(file);
-            log.info("Parsed {} transactions from file", importDtos.size());
+        // Parsing en flux et insertion par lots (voir BankStatementIngestionPipeline)
+        try (InputStream inputStream = file.getInputStream()) {
+            BankStatementIngestionPipeline.IngestionResult result =
+                ingestionPipeline.ingest(company, parser, inputStream);
 
-            // Convertir en BankTransaction et sauvegarder
-            List<BankTransaction> transactions = new ArrayList<>();
-            int duplicateCount = 0;
+            log.info("Import completed: {} transactions saved, {} duplicates ignored, {} invalid lines ignored",
+                result.getImported().size(), result.getDuplicateCount(), result.getInvalidCount());
 
-            for (BankTransactionImportDto dto : importDtos) {
-                // Vérifier les doublons par référence bancaire
-                if (dto.getBankReference() != null &&
-                    transactionRepository.existsByCompanyAndBankReference(company, dto.getBankReference())) {
-                    log.debug("Duplicate transaction ignored: {}", dto.getBankReference());
-                    duplicateCount++;
-                    continue;
-                }
-
-                // Créer la transaction
-                BankTransaction transaction = BankTransaction.builder()
-                    .company(company)
-                    .transactionDate(dto.getTransactionDate())
-                    .valueDate(dto.getValueDate())
-                    .amount(dto.getAmount())
-                    .description(dto.getDescription())
-                    .bankReference(dto.getBankReference())
-                    .thirdPartyName(dto.getThirdPartyName())
-                    .isReconciled(false)
-                    .importedAt(LocalDate.now())
-                    .importSource(parser.getFormatName())
-                    .build();
-
-                transactions.add(transactionRepository.save(transaction));
-            }
-
-            log.info("Import completed: {} transactions saved, {} duplicates ignored",
-                transactions.size(), duplicateCount);
-
-            return transactions;
+            return result.getImported();
 
+        } catch (ImportException e) {
+            log.error("Error importing bank transactions from file: {}", fileName, e);
+            throw e;
         } catch (Exception e) {
             log.error("Error importing bank transactions from file: {}", fileName, e);
             throw new ImportException("Échec de l'import: " + e.getMessage(), e);
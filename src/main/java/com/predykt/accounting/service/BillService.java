@@ -11,6 +11,7 @@ import com.predykt.accounting.dto.response.BillResponse;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.exception.ValidationException;
 import com.predykt.accounting.repository.*;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -44,7 +45,7 @@ public class BillService {
     private final BillLineRepository billLineRepository;
     private final SupplierRepository supplierRepository;
     private final CompanyRepository companyRepository;
-    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
     private final GeneralLedgerRepository generalLedgerRepository;
     private final TaxCalculationRepository taxCalculationRepository;
     private final TaxService taxService;
@@ -402,11 +403,11 @@ public class BillService {
             throw new ValidationException("Le fournisseur n'a pas de compte auxiliaire");
         }
 
-        ChartOfAccounts supplierAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, supplierAccountNumber)
+        ChartOfAccounts supplierAccount = snapshotCache.findReference(company, supplierAccountNumber)
             .orElseThrow(() -> new ValidationException("Compte fournisseur non trouvé: " + supplierAccountNumber));
 
         // Ligne 1: DÉBIT Achats (601) = HT
-        ChartOfAccounts purchaseAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, PURCHASE_ACCOUNT_DEFAULT)
+        ChartOfAccounts purchaseAccount = snapshotCache.findReference(company, PURCHASE_ACCOUNT_DEFAULT)
             .orElseThrow(() -> new ValidationException("Compte achats non trouvé: " + PURCHASE_ACCOUNT_DEFAULT));
 
         GeneralLedger purchaseEntry = GeneralLedger.builder()
@@ -424,7 +425,7 @@ public class BillService {
 
         // Ligne 2: DÉBIT TVA déductible (4452)
         if (bill.getVatDeductible().compareTo(BigDecimal.ZERO) > 0) {
-            ChartOfAccounts vatAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, VAT_DEDUCTIBLE_ACCOUNT)
+            ChartOfAccounts vatAccount = snapshotCache.findReference(company, VAT_DEDUCTIBLE_ACCOUNT)
                 .orElseThrow(() -> new ValidationException("Compte TVA déductible non trouvé: " + VAT_DEDUCTIBLE_ACCOUNT));
 
             GeneralLedger vatEntry = GeneralLedger.builder()
@@ -446,7 +447,7 @@ public class BillService {
             // Récupérer le compte AIR depuis la configuration fiscale
             String airAccountNumber = getAIRAccountNumber(company, bill.getSupplierHasNiu());
 
-            ChartOfAccounts airAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, airAccountNumber)
+            ChartOfAccounts airAccount = snapshotCache.findReference(company, airAccountNumber)
                 .orElseThrow(() -> new ValidationException("Compte AIR non trouvé: " + airAccountNumber));
 
             GeneralLedger airEntry = GeneralLedger.builder()
@@ -468,7 +469,7 @@ public class BillService {
             // Récupérer le compte IRPP depuis la configuration fiscale
             String irppAccountNumber = getIRPPRentAccountNumber(company);
 
-            ChartOfAccounts irppAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, irppAccountNumber)
+            ChartOfAccounts irppAccount = snapshotCache.findReference(company, irppAccountNumber)
                 .orElseThrow(() -> new ValidationException("Compte IRPP Loyer non trouvé: " + irppAccountNumber));
 
             GeneralLedger irppEntry = GeneralLedger.builder()
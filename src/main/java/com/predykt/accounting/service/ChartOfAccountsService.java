@@ -8,9 +8,10 @@ import com.predykt.accounting.domain.enums.AccountType;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.ChartOfAccountsRepository;
 import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshot;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -27,6 +28,7 @@ public class ChartOfAccountsService {
     private final ChartOfAccountsRepository chartRepository;
     private final CompanyRepository companyRepository;
     private final ObjectMapper objectMapper;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
     
     /**
      * Initialiser le plan comptable OHADA par défaut
@@ -98,12 +100,16 @@ public class ChartOfAccountsService {
     /**
      * Récupérer un compte par numéro
      */
-    @Cacheable(value = "chartOfAccounts", key = "#companyId + '-' + #accountNumber")
     public ChartOfAccounts getAccountByNumber(Long companyId, String accountNumber) {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
         
-        return chartRepository.findByCompanyAndAccountNumber(company, accountNumber)
+        // Existence vérifiée sur le plan figé, puis chargement par clé primaire
+        ChartOfAccountsSnapshot.AccountSummary summary = snapshotCache.snapshotFor(company).find(accountNumber);
+        if (summary == null) {
+            throw new ResourceNotFoundException("Compte " + accountNumber + " non trouvé");
+        }
+        return chartRepository.findById(summary.id())
             .orElseThrow(() -> new ResourceNotFoundException(
                 "Compte " + accountNumber + " non trouvé"
             ));
@@ -112,7 +118,6 @@ public class ChartOfAccountsService {
     /**
      * Lister les comptes actifs d'une entreprise
      */
-    @Cacheable(value = "chartOfAccountsList", key = "#companyId")
     public List<ChartOfAccounts> getActiveAccounts(Long companyId) {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
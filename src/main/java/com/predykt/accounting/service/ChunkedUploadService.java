@@ -0,0 +1,493 @@
+package com.predykt.accounting.service;
+
+import com.predykt.accounting.config.ChunkedUploadConfig;
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.BankTransaction;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.domain.entity.ImportFileReceipt;
+import com.predykt.accounting.domain.enums.UploadKind;
+import com.predykt.accounting.dto.request.UploadStartRequest;
+import com.predykt.accounting.dto.request.activity.ActivityImportRequest;
+import com.predykt.accounting.dto.response.ImportResultResponse;
+import com.predykt.accounting.dto.response.UploadStatusResponse;
+import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.exception.ResourceNotFoundException;
+import com.predykt.accounting.exception.ValidationException;
+import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.repository.ImportFileReceiptRepository;
+import com.predykt.accounting.service.upload.StagedMultipartFile;
+import com.predykt.accounting.service.upload.StagedUpload;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Envois fractionnés, reprenables et idempotents des fichiers d'import
+ *
+ * - Le client ouvre un envoi (taille, empreinte SHA-256 optionnelle) puis envoie des fragments
+ *   positionnés, dans n'importe quel ordre; un fragment perdu est simplement renvoyé
+ * - L'état indique les plages manquantes: une coupure réseau ne fait renvoyer que ce qui manque
+ * - L'empreinte du contenu est enregistrée à chaque import (ImportFileReceipt), dans la transaction
+ *   d'un relevé bancaire: un fichier identique n'est jamais importé deux fois pour la même entreprise
+ * - Relevés bancaires avec empreinte annoncée et stream-while-uploading (désactivé par défaut):
+ *   l'import démarre pendant l'envoi, sur uploadImportExecutor, et lit les fragments au fur et à mesure;
+ *   l'empreinte est vérifiée avant la validation de la transaction, qui reste ouverte pendant l'envoi
+ *
+ * Les envois en cours sont conservés sur l'instance qui les a ouverts (fichiers de préparation locaux).
+ *
+ * @author PREDYKT Team
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedUploadService {
+
+    private static final String STATUS_RECEIVING = "RECEIVING";
+    private static final String STATUS_IMPORTING = "IMPORTING";
+    private static final String STATUS_COMPLETED = "COMPLETED";
+    private static final String STATUS_DUPLICATE = "DUPLICATE";
+    private static final String STATUS_FAILED = "FAILED";
+
+    private final ChunkedUploadConfig config;
+    private final CompanyRepository companyRepository;
+    private final ImportFileReceiptRepository receiptRepository;
+    private final BankTransactionService bankTransactionService;
+    private final ActivityImportService activityImportService;
+    private final PlatformTransactionManager transactionManager;
+    private final Executor uploadImportExecutor;
+
+    private final Map<String, StagedUpload> uploads = new ConcurrentHashMap<>();
+
+    /**
+     * Ouvre un envoi fractionné
+     * Si l'empreinte annoncée correspond à un fichier déjà importé, aucun envoi n'est ouvert (DUPLICATE).
+     */
+    public UploadStatusResponse start(Long companyId, UploadStartRequest request) {
+        Company company = findCompany(companyId);
+
+        if (request.getTotalSize() > config.getMaxFileSize()) {
+            throw new ValidationException("Fichier trop volumineux (maximum " + config.getMaxFileSize() + " octets)");
+        }
+
+        String sha256 = request.getSha256() != null ? request.getSha256().toLowerCase() : null;
+        request.setSha256(sha256);
+
+        if (sha256 != null) {
+            Optional<ImportFileReceipt> receipt =
+                receiptRepository.findByCompanyAndImportKindAndContentHash(company, request.getKind(), sha256);
+            if (receipt.isPresent()) {
+                log.info("Upload {} skipped: content {} already imported for company {}",
+                    request.getFileName(), sha256, companyId);
+                return duplicateResponse(request, receipt.get());
+            }
+        }
+
+        String uploadId = UUID.randomUUID().toString();
+        StagedUpload upload;
+        try {
+            upload = new StagedUpload(uploadId, companyId, request, Path.of(config.getStagingDir(), uploadId),
+                TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null,
+                SecurityContextHolder.getContext());
+        } catch (IOException e) {
+            throw new ImportException("Impossible de préparer l'envoi: " + e.getMessage(), e);
+        }
+        uploads.put(uploadId, upload);
+
+        // Un relevé s'importe en une seule transaction: il peut démarrer avant la fin de l'envoi
+        if (sha256 != null && config.isStreamWhileUploading() && request.getKind() == UploadKind.BANK_STATEMENT) {
+            upload.setEarlyImport(startEarlyImport(upload));
+        }
+
+        log.info("Upload {} started: {} ({} bytes, {}) for company {}",
+            uploadId, request.getFileName(), request.getTotalSize(), request.getKind(), companyId);
+        return toResponse(upload);
+    }
+
+    /**
+     * Reçoit un fragment à la position donnée
+     *
+     * @param chunkSha256 Empreinte SHA-256 du fragment (optionnelle, vérifiée si fournie)
+     */
+    public UploadStatusResponse putChunk(Long companyId, String uploadId, long offset, InputStream body,
+                                         String chunkSha256) {
+        StagedUpload upload = findUpload(companyId, uploadId);
+        if (!STATUS_RECEIVING.equals(upload.getStatus()) && !STATUS_IMPORTING.equals(upload.getStatus())) {
+            throw new ValidationException("L'envoi n'accepte plus de fragments (" + upload.getStatus() + ")");
+        }
+        if (offset < 0 || offset >= upload.getTotalSize()) {
+            throw new ValidationException("Position de fragment invalide: " + offset);
+        }
+
+        byte[] chunk;
+        try {
+            chunk = body.readNBytes((int) Math.min(config.getMaxChunkSize() + 1, Integer.MAX_VALUE - 8));
+        } catch (IOException e) {
+            throw new ImportException("Lecture du fragment impossible: " + e.getMessage(), e);
+        }
+        if (chunk.length == 0) {
+            throw new ValidationException("Fragment vide");
+        }
+        if (chunk.length > config.getMaxChunkSize()) {
+            throw new ValidationException("Fragment trop volumineux (maximum " + config.getMaxChunkSize() + " octets)");
+        }
+        if (offset + chunk.length > upload.getTotalSize()) {
+            throw new ValidationException("Le fragment dépasse la taille annoncée du fichier");
+        }
+        if (chunkSha256 != null && !chunkSha256.isBlank()
+                && !sha256Hex(chunk).equalsIgnoreCase(chunkSha256.trim())) {
+            throw new ValidationException("Empreinte du fragment invalide: fragment à renvoyer");
+        }
+
+        try {
+            upload.write(ByteBuffer.wrap(chunk), offset);
+        } catch (IOException e) {
+            throw new ImportException("Écriture du fragment impossible: " + e.getMessage(), e);
+        }
+        upload.markReceived(offset, offset + chunk.length);
+
+        return toResponse(upload);
+    }
+
+    /**
+     * État de l'envoi (plages manquantes pour la reprise)
+     */
+    public UploadStatusResponse status(Long companyId, String uploadId) {
+        return toResponse(findUpload(companyId, uploadId));
+    }
+
+    /**
+     * Termine l'envoi et importe le fichier (sauf s'il a déjà été importé)
+     * En cas d'échec l'envoi est conservé: il peut être corrigé (fragments renvoyés) puis terminé à nouveau.
+     */
+    public UploadStatusResponse complete(Long companyId, String uploadId) {
+        StagedUpload upload = findUpload(companyId, uploadId);
+        synchronized (upload.getCompletionLock()) {
+            if (!upload.isComplete()) {
+                throw new ValidationException(String.format("Envoi incomplet: %d/%d octets reçus",
+                    upload.receivedBytes(), upload.getTotalSize()));
+            }
+            if (STATUS_COMPLETED.equals(upload.getStatus()) || STATUS_DUPLICATE.equals(upload.getStatus())) {
+                return toResponse(upload);
+            }
+
+            Company company = findCompany(companyId);
+            UploadStartRequest request = upload.getRequest();
+
+            Optional<StagedUpload.ImportOutcome> early = awaitEarlyImport(upload);
+            if (early.isPresent()) {
+                return finish(upload, request.getSha256(), early.get());
+            }
+
+            upload.setStatus(STATUS_IMPORTING);
+            String contentHash;
+            try {
+                contentHash = hashOf(upload);
+            } catch (IOException e) {
+                upload.setStatus(STATUS_FAILED);
+                throw new ImportException("Lecture du fichier envoyé impossible: " + e.getMessage(), e);
+            }
+
+            if (request.getSha256() != null && !request.getSha256().equals(contentHash)) {
+                upload.setStatus(STATUS_FAILED);
+                upload.setMessage("Empreinte SHA-256 différente de celle annoncée");
+                throw new ValidationException("Le fichier reçu ne correspond pas à l'empreinte annoncée");
+            }
+
+            Optional<ImportFileReceipt> receipt =
+                receiptRepository.findByCompanyAndImportKindAndContentHash(company, request.getKind(), contentHash);
+            if (receipt.isPresent()) {
+                uploads.remove(uploadId);
+                upload.deleteFiles();
+                return duplicateResponse(request, receipt.get());
+            }
+
+            try {
+                StagedUpload.ImportOutcome outcome = runImport(upload, null, contentHash);
+                return finish(upload, contentHash, outcome);
+            } catch (DataIntegrityViolationException e) {
+                // Même contenu importé en parallèle par un autre envoi: import annulé avec l'accusé
+                Optional<ImportFileReceipt> concurrent =
+                    receiptRepository.findByCompanyAndImportKindAndContentHash(company, request.getKind(), contentHash);
+                if (concurrent.isEmpty()) {
+                    upload.setStatus(STATUS_FAILED);
+                    upload.setMessage(e.getMessage());
+                    throw e;
+                }
+                uploads.remove(uploadId);
+                upload.deleteFiles();
+                return duplicateResponse(request, concurrent.get());
+            } catch (RuntimeException e) {
+                upload.setStatus(STATUS_FAILED);
+                upload.setMessage(e.getMessage());
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Abandonne l'envoi et supprime le fichier de préparation
+     */
+    public void abort(Long companyId, String uploadId) {
+        StagedUpload upload = findUpload(companyId, uploadId);
+        uploads.remove(uploadId);
+        upload.abort();
+        log.info("Upload {} aborted", uploadId);
+    }
+
+    /**
+     * Purge des envois inactifs depuis plus de sessionTtlHours
+     */
+    @Scheduled(fixedDelayString = "${predykt.upload.cleanup-interval-ms:3600000}")
+    public void purgeExpiredUploads() {
+        Instant expiry = Instant.now().minus(Duration.ofHours(config.getSessionTtlHours()));
+        uploads.values().removeIf(upload -> {
+            if (upload.getLastActivity().isBefore(expiry) && !STATUS_IMPORTING.equals(upload.getStatus())) {
+                log.info("Upload {} expired ({}), staging file deleted", upload.getId(), upload.getStatus());
+                upload.abort();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        uploads.values().forEach(StagedUpload::abort);
+        uploads.clear();
+    }
+
+    /**
+     * Import démarré pendant l'envoi, sur le pool borné uploadImportExecutor (contexte de la requête
+     * d'ouverture posé par runImport)
+     *
+     * @return null si le pool est occupé: le fichier est alors importé à la fin de l'envoi
+     */
+    private Future<StagedUpload.ImportOutcome> startEarlyImport(StagedUpload upload) {
+        String sha256 = upload.getRequest().getSha256();
+        try {
+            return CompletableFuture.supplyAsync(() -> runImport(upload, sha256, sha256), uploadImportExecutor)
+                .whenComplete((outcome, e) -> {
+                    if (e != null) {
+                        log.warn("Early import of upload {} failed: {}", upload.getId(), e.getMessage());
+                    }
+                });
+        } catch (RejectedExecutionException e) {
+            log.info("Upload {}: no early import slot available, importing on completion", upload.getId());
+            return null;
+        }
+    }
+
+    /**
+     * Résultat de l'import démarré pendant l'envoi
+     * Vide s'il n'y en a pas ou s'il a échoué (l'import est alors rejoué depuis le fichier complet)
+     */
+    private Optional<StagedUpload.ImportOutcome> awaitEarlyImport(StagedUpload upload) {
+        Future<StagedUpload.ImportOutcome> earlyImport = upload.getEarlyImport();
+        if (earlyImport == null) {
+            return Optional.empty();
+        }
+        upload.setEarlyImport(null);
+        try {
+            return Optional.of(earlyImport.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportException("Import interrompu", e);
+        } catch (ExecutionException e) {
+            log.info("Upload {}: early import failed ({}), importing from the complete file",
+                upload.getId(), e.getCause().getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Import du fichier envoyé par le service correspondant à sa nature, puis accusé de réception
+     * Relevé bancaire: import et accusé dans la même transaction (un import validé a toujours son accusé).
+     * Activités: import par lots validés séparément (sans transaction englobante), accusé à la fin.
+     */
+    private StagedUpload.ImportOutcome runImport(StagedUpload upload, String expectedSha256, String contentHash) {
+        TenantContextHolder.TenantContext previousTenant =
+            TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+        SecurityContext previousSecurity = SecurityContextHolder.getContext();
+        if (upload.getTenantContext() != null) {
+            TenantContextHolder.setContext(upload.getTenantContext());
+        }
+        SecurityContextHolder.setContext(upload.getSecurityContext());
+        try {
+            UploadStartRequest request = upload.getRequest();
+            StagedMultipartFile file = new StagedMultipartFile(
+                upload, config.getChunkWaitTimeoutSeconds() * 1000, expectedSha256);
+
+            if (request.getKind() == UploadKind.BANK_STATEMENT) {
+                return new TransactionTemplate(transactionManager).execute(status -> {
+                    List<BankTransaction> imported = bankTransactionService.importTransactions(
+                        upload.getCompanyId(), file, request.getBankProvider());
+                    StagedUpload.ImportOutcome outcome = new StagedUpload.ImportOutcome(imported.size(),
+                        String.format("%d transactions importées avec succès", imported.size()));
+                    saveReceipt(upload, contentHash, outcome);
+                    return outcome;
+                });
+            }
+
+            ImportResultResponse result = activityImportService.importActivities(upload.getCompanyId(), file,
+                ActivityImportRequest.builder()
+                    .templateId(request.getTemplateId())
+                    .format(request.getFormat())
+                    .preview(false)
+                    .build());
+            StagedUpload.ImportOutcome outcome = new StagedUpload.ImportOutcome(
+                result.getSuccessCount() != null ? result.getSuccessCount() : 0, result.getMessage());
+            try {
+                saveReceipt(upload, contentHash, outcome);
+            } catch (DataIntegrityViolationException e) {
+                // Même contenu importé en parallèle par un autre envoi
+                log.warn("Upload {}: receipt for content {} already recorded", upload.getId(), contentHash);
+            }
+            return outcome;
+        } finally {
+            if (previousTenant != null) {
+                TenantContextHolder.setContext(previousTenant);
+            } else {
+                TenantContextHolder.clear();
+            }
+            SecurityContextHolder.setContext(previousSecurity);
+        }
+    }
+
+    /**
+     * Enregistre l'accusé de réception du contenu importé (contexte tenant de l'envoi)
+     */
+    private void saveReceipt(StagedUpload upload, String contentHash, StagedUpload.ImportOutcome outcome) {
+        UploadStartRequest request = upload.getRequest();
+        receiptRepository.save(ImportFileReceipt.builder()
+            .company(companyRepository.getReferenceById(upload.getCompanyId()))
+            .importKind(request.getKind())
+            .contentHash(contentHash)
+            .fileName(request.getFileName())
+            .fileSize(request.getTotalSize())
+            .importedCount(outcome.importedCount())
+            .resultMessage(truncate(outcome.message(), 500))
+            .build());
+    }
+
+    /**
+     * Termine l'envoi importé (accusé déjà enregistré par runImport) et libère le fichier de préparation
+     */
+    private UploadStatusResponse finish(StagedUpload upload, String contentHash, StagedUpload.ImportOutcome outcome) {
+        UploadStartRequest request = upload.getRequest();
+        upload.setStatus(STATUS_COMPLETED);
+        upload.setMessage(outcome.message());
+        uploads.remove(upload.getId());
+        upload.deleteFiles();
+
+        log.info("Upload {} imported: {} ({} row(s))", upload.getId(), request.getFileName(), outcome.importedCount());
+
+        UploadStatusResponse response = toResponse(upload);
+        response.setContentHash(contentHash);
+        response.setImportedCount(outcome.importedCount());
+        response.setMissingRanges(List.of());
+        response.setReceivedBytes(request.getTotalSize());
+        return response;
+    }
+
+    private static String hashOf(StagedUpload upload) throws IOException {
+        MessageDigest digest = sha256();
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = 0;
+        while (position < upload.getTotalSize()) {
+            buffer.clear();
+            int read = upload.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Fichier de préparation tronqué");
+            }
+            buffer.flip();
+            digest.update(buffer);
+            position += read;
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static String sha256Hex(byte[] data) {
+        return HexFormat.of().formatHex(sha256().digest(data));
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private Company findCompany(Long companyId) {
+        return companyRepository.findById(companyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
+    }
+
+    private StagedUpload findUpload(Long companyId, String uploadId) {
+        StagedUpload upload = uploads.get(uploadId);
+        if (upload == null || !upload.getCompanyId().equals(companyId)) {
+            throw new ResourceNotFoundException("Envoi non trouvé: " + uploadId);
+        }
+        upload.touch();
+        return upload;
+    }
+
+    private static UploadStatusResponse toResponse(StagedUpload upload) {
+        UploadStartRequest request = upload.getRequest();
+        return UploadStatusResponse.builder()
+            .uploadId(upload.getId())
+            .kind(request.getKind())
+            .fileName(request.getFileName())
+            .totalSize(request.getTotalSize())
+            .receivedBytes(upload.receivedBytes())
+            .missingRanges(upload.missingRanges())
+            .status(upload.getEarlyImport() != null && STATUS_RECEIVING.equals(upload.getStatus())
+                ? STATUS_IMPORTING : upload.getStatus())
+            .contentHash(request.getSha256())
+            .message(upload.getMessage())
+            .build();
+    }
+
+    private static UploadStatusResponse duplicateResponse(UploadStartRequest request, ImportFileReceipt receipt) {
+        return UploadStatusResponse.builder()
+            .kind(request.getKind())
+            .fileName(request.getFileName())
+            .totalSize(request.getTotalSize())
+            .status(STATUS_DUPLICATE)
+            .contentHash(receipt.getContentHash())
+            .importedCount(receipt.getImportedCount())
+            .message("Fichier déjà importé le " + receipt.getCreatedAt())
+            .build();
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value != null && value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+}
@@ -1,7 +1,5 @@
 package com.predykt.accounting.service;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 import com.predykt.accounting.domain.entity.*;
 import com.predykt.accounting.domain.enums.AccountType;
 import com.predykt.accounting.dto.request.JournalEntryLineRequest;
@@ -9,22 +7,20 @@ import com.predykt.accounting.dto.request.JournalEntryRequest;
 import com.predykt.accounting.dto.response.ImportResultResponse;
 import com.predykt.accounting.exception.ImportException;
 import com.predykt.accounting.repository.*;
+import com.predykt.accounting.service.journal.ChunkedJournalPoster;
+import com.predykt.accounting.util.CsvParser;
+import com.predykt.accounting.util.DateFormatDetector;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.*;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
-import java.text.NumberFormat;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.*;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 /**
  * Service d'import des données comptables depuis CSV
@@ -36,138 +32,105 @@ import java.util.stream.Collectors;
 public class CsvImportService {
     
     private final CompanyRepository companyRepository;
-    private final ChartOfAccountsRepository chartRepository;
-    private final GeneralLedgerService glService;
+    private final ChunkedJournalPoster journalPoster;
     
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ofPattern("d/M/yyyy")
-    };
+    private static final String[] DATE_FORMATS = {"dd/MM/yyyy", "yyyy-MM-dd", "d/M/yyyy"};
     
     /**
      * Import principal du fichier CSV des activités
      */
-    @Transactional
     public ImportResultResponse importActivitiesCsv(Long companyId, MultipartFile file) {
+        return importActivitiesCsv(companyId, file, null);
+    }
+    
+    /**
+     * Import du fichier CSV des activités en flux
+     * Les lignes sont lues une à une et les écritures enregistrées par lots (ChunkedJournalPoster):
+     * la mémoire ne dépend plus de la taille du fichier et un lot en échec n'annule pas les autres.
+     *
+     * @param progressListener Suivi de progression (optionnel)
+     */
+    public ImportResultResponse importActivitiesCsv(Long companyId, MultipartFile file,
+                                                    Consumer<ChunkedJournalPoster.PostingProgress> progressListener) {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ImportException("Entreprise non trouvée: " + companyId));
         
         log.info("Début import CSV pour l'entreprise {}: {}", companyId, file.getOriginalFilename());
         
-        List<ActivityRow> activities = parseCsvFile(file);
-        log.info("Fichier parsé: {} lignes détectées", activities.size());
-        
-        // Grouper par date et référence pour créer des écritures équilibrées
-        Map<String, List<ActivityRow>> groupedByDate = activities.stream()
-            .filter(a -> a.amount != null && a.amount.compareTo(BigDecimal.ZERO) != 0)
-            .collect(Collectors.groupingBy(a -> a.date.toString()));
-        
-        int successCount = 0;
-        int errorCount = 0;
-        List<String> errors = new ArrayList<>();
-        
-        for (Map.Entry<String, List<ActivityRow>> entry : groupedByDate.entrySet()) {
-            LocalDate entryDate = LocalDate.parse(entry.getKey());
-            List<ActivityRow> dailyActivities = entry.getValue();
+        ChunkedJournalPoster.PostingSession session = journalPoster.open(company, progressListener);
+        int parsedRows = streamCsvFile(file, activity -> {
+            // Les lignes à montant nul ne génèrent pas d'écriture
+            if (activity.amount == null || activity.amount.compareTo(BigDecimal.ZERO) == 0) {
+                return;
+            }
             
-            for (ActivityRow activity : dailyActivities) {
-                try {
-                    createJournalEntryFromActivity(company, activity);
-                    successCount++;
-                } catch (Exception e) {
-                    errorCount++;
-                    String errorMsg = String.format("Ligne %s - %s: %s", 
-                        activity.date, activity.description, e.getMessage());
-                    errors.add(errorMsg);
-                    log.warn("Erreur import: {}", errorMsg);
-                }
+            String label = String.format("Ligne %s - %s", activity.date, activity.description);
+            String accountNumber = determineAccountNumber(activity);
+            if (!session.hasAccount(accountNumber)) {
+                session.reject(label, String.format("Compte %s non trouvé pour l'activité: %s",
+                    accountNumber, activity.activity));
+                return;
             }
-        }
+            session.submit(label, buildJournalEntry(activity, accountNumber));
+        });
+        ChunkedJournalPoster.PostingResult result = session.finish();
         
-        log.info("Import terminé: {} succès, {} erreurs", successCount, errorCount);
+        log.info("Import terminé: {} lignes lues, {} succès, {} erreurs",
+            parsedRows, result.posted(), result.failed());
         
         return ImportResultResponse.builder()
-            .totalRows(activities.size())
-            .successCount(successCount)
-            .errorCount(errorCount)
-            .errors(errors)
-            .message(String.format("Import terminé: %d/%d lignes importées", successCount, activities.size()))
+            .totalRows(parsedRows)
+            .successCount(result.posted())
+            .errorCount(result.failed())
+            .errors(result.errors())
+            .message(String.format("Import terminé: %d/%d lignes importées", result.posted(), parsedRows))
             .build();
     }
     
     /**
-     * Parse le fichier CSV avec détection du séparateur
+     * Lit le fichier CSV ligne par ligne (CsvParser) avec détection du séparateur
+     *
+     * @return Nombre de lignes d'activité valides lues
      */
-    private List<ActivityRow> parseCsvFile(MultipartFile file) {
-        List<ActivityRow> activities = new ArrayList<>();
+    private int streamCsvFile(MultipartFile file, Consumer<ActivityRow> consumer) {
+        int count = 0;
         
-        try (Reader reader = new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8);
-             CSVReader csvReader = new CSVReader(reader)) {
+        try (CsvParser csv = CsvParser.detectingSeparator(
+                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8), ',')) {
             
-            List<String[]> allRows = csvReader.readAll();
-            
-            if (allRows.isEmpty()) {
+            if (!csv.next()) {
                 throw new ImportException("Fichier CSV vide");
             }
+            log.info("Séparateur détecté: '{}'", csv.getSeparator());
             
-            // Déterminer le séparateur (priorité: ;, puis ,)
-            char separator = detectSeparator(allRows.get(0));
-            log.info("Séparateur détecté: '{}'", separator);
-            
-            // Skip header
-            boolean isFirstRow = true;
+            DateFormatDetector dateFormat = new DateFormatDetector(DATE_FORMATS);
             
-            for (String[] row : allRows) {
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue;
-                }
-                
+            while (csv.next()) {
                 // Ignorer les lignes vides
-                if (row.length == 0 || (row.length == 1 && (row[0] == null || row[0].trim().isEmpty()))) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
                 
-                // Re-split si le séparateur n'est pas le bon
-                String[] columns = row;
-                if (separator != ',' && row.length == 1) {
-                    columns = row[0].split(String.valueOf(separator));
-                }
-                
-                try {
-                    ActivityRow activity = parseActivityRow(columns);
-                    if (activity != null) {
-                        activities.add(activity);
-                    }
-                } catch (Exception e) {
-                    log.warn("Ligne ignorée (parsing error): {} - {}", Arrays.toString(row), e.getMessage());
+                ActivityRow activity = parseActivityRow(csv, dateFormat);
+                if (activity != null) {
+                    count++;
+                    consumer.accept(activity);
                 }
             }
             
-        } catch (IOException | CsvException e) {
+        } catch (IOException e) {
             throw new ImportException("Erreur lecture fichier CSV: " + e.getMessage());
         }
         
-        return activities;
+        return count;
     }
     
     /**
-     * Détecte le séparateur le plus probable
-     */
-    private char detectSeparator(String[] firstRow) {
-        if (firstRow.length == 1 && firstRow[0].contains(";")) {
-            return ';';
-        }
-        return ',';
-    }
-    
-    /**
-     * Parse une ligne CSV en ActivityRow
+     * Parse la ligne courante en ActivityRow
      * Format: date de saisie;Activitées;description;Montant Brut;Type;Années
      */
-    private ActivityRow parseActivityRow(String[] columns) {
-        if (columns.length < 5) {
+    private ActivityRow parseActivityRow(CsvParser csv, DateFormatDetector dateFormat) {
+        if (csv.size() < 5) {
             return null; // Ligne incomplète
         }
         
@@ -175,30 +138,31 @@ public class CsvImportService {
             ActivityRow row = new ActivityRow();
             
             // Colonne 0: Date
-            row.date = parseDate(columns[0].trim());
+            row.date = csv.getDate(0, dateFormat);
             if (row.date == null) {
+                log.warn("Format de date non reconnu: {}", csv.get(0));
                 return null;
             }
             
             // Colonne 1: Activité (catégorie)
-            row.activity = columns[1].trim();
+            row.activity = csv.get(1);
             
             // Colonne 2: Description
-            row.description = columns.length > 2 ? columns[2].trim() : "";
-            if (row.description.isEmpty() || row.description.equalsIgnoreCase("Description manquante")) {
+            row.description = csv.get(2);
+            if (row.description.isEmpty() || csv.equalsIgnoreCase(2, "Description manquante")) {
                 row.description = row.activity; // Utiliser l'activité comme description par défaut
             }
             
             // Colonne 3: Montant
-            row.amount = parseAmount(columns[3].trim());
+            row.amount = parseAmount(csv, 3);
             
             // Colonne 4: Type (Revenu, Dépenses, Capex, Financing)
-            row.type = columns[4].trim();
+            row.type = csv.get(4);
             
             // Colonne 5: Année
-            if (columns.length > 5 && !columns[5].trim().isEmpty()) {
+            if (!csv.isEmpty(5)) {
                 try {
-                    row.year = Integer.parseInt(columns[5].trim());
+                    row.year = Integer.parseInt(csv.get(5));
                 } catch (NumberFormatException e) {
                     row.year = row.date.getYear();
                 }
@@ -209,71 +173,28 @@ public class CsvImportService {
             return row;
             
         } catch (Exception e) {
-            log.warn("Erreur parsing ligne: {} - {}", Arrays.toString(columns), e.getMessage());
+            log.warn("Ligne ignorée (parsing error): {} - {}", csv.describeRecord(), e.getMessage());
             return null;
         }
     }
     
-    /**
-     * Parse une date avec plusieurs formats possibles
-     */
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.trim().isEmpty()) {
-            return null;
-        }
-        
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                return LocalDate.parse(dateStr, formatter);
-            } catch (DateTimeParseException ignored) {
-            }
-        }
-        
-        log.warn("Format de date non reconnu: {}", dateStr);
-        return null;
-    }
-    
     /**
      * Parse un montant avec gestion des formats français/internationaux
+     * (espaces ignorés, virgule décimale, montants négatifs entre parenthèses)
      */
-    private BigDecimal parseAmount(String amountStr) {
-        if (amountStr == null || amountStr.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
+    private BigDecimal parseAmount(CsvParser csv, int column) {
         try {
-            // Supprimer les espaces et remplacer les virgules par des points
-            String cleaned = amountStr
-                .replaceAll("\\s", "")  // Supprimer espaces
-                .replace(",", ".");      // Virgule -> point
-            
-            // Gérer le cas des montants négatifs entre parenthèses
-            if (cleaned.startsWith("(") && cleaned.endsWith(")")) {
-                cleaned = "-" + cleaned.substring(1, cleaned.length() - 1);
-            }
-            
-            return new BigDecimal(cleaned);
-            
+            return csv.getDecimal(column);
         } catch (NumberFormatException e) {
-            log.warn("Format de montant invalide: {}", amountStr);
+            log.warn("Format de montant invalide: {}", csv.get(column));
             return BigDecimal.ZERO;
         }
     }
     
     /**
-     * Crée une écriture comptable à partir d'une activité
+     * Construit l'écriture comptable d'une activité
      */
-    private void createJournalEntryFromActivity(Company company, ActivityRow activity) {
-        // Déterminer le compte comptable selon l'activité et le type
-        String accountNumber = determineAccountNumber(activity);
-        
-        // Vérifier que le compte existe
-        ChartOfAccounts account = chartRepository
-            .findByCompanyAndAccountNumber(company, accountNumber)
-            .orElseThrow(() -> new ImportException(
-                String.format("Compte %s non trouvé pour l'activité: %s", accountNumber, activity.activity)
-            ));
-        
+    private JournalEntryRequest buildJournalEntry(ActivityRow activity, String accountNumber) {
         // Créer la requête d'écriture
         JournalEntryRequest request = new JournalEntryRequest();
         request.setEntryDate(activity.date);
@@ -329,8 +250,7 @@ public class CsvImportService {
         lines.add(contraLine);
         request.setLines(lines);
         
-        // Enregistrer l'écriture via le service
-        glService.recordJournalEntry(company.getId(), request);
+        return request;
     }
     
     /**
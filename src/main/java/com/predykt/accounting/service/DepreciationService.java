@@ -3,11 +3,11 @@ package com.predykt.accounting.service;
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.entity.FixedAsset;
 import com.predykt.accounting.domain.enums.AssetCategory;
-import com.predykt.accounting.domain.enums.DepreciationMethod;
 import com.predykt.accounting.dto.response.DepreciationScheduleResponse;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.FixedAssetRepository;
+import com.predykt.accounting.service.depreciation.DepreciationScheduleEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -30,6 +30,7 @@ public class DepreciationService {
 
     private final FixedAssetRepository fixedAssetRepository;
     private final CompanyRepository companyRepository;
+    private final DepreciationScheduleEngine depreciationScheduleEngine;
 
     /**
      * Générer le tableau d'amortissements complet pour un exercice fiscal
@@ -99,11 +100,14 @@ public class DepreciationService {
 
         BigDecimal depreciableAmount = asset.getDepreciableAmount();
 
+        // Plan complet calculé une seule fois (mémoïsé par version de l'immobilisation)
+        DepreciationScheduleEngine.AssetSchedule schedule = depreciationScheduleEngine.scheduleFor(asset);
+
         // Calculer l'amortissement cumulé de l'exercice précédent
-        BigDecimal previousDepreciation = calculateAccumulatedDepreciation(asset, fiscalYear - 1);
+        BigDecimal previousDepreciation = schedule.accumulatedThrough(fiscalYear - 1);
 
         // Calculer la dotation de l'exercice en cours
-        BigDecimal currentDepreciation = calculateAnnualDepreciation(asset, fiscalYear);
+        BigDecimal currentDepreciation = schedule.annualFor(fiscalYear);
 
         // Amortissements cumulés totaux
         BigDecimal accumulatedDepreciation = previousDepreciation.add(currentDepreciation);
@@ -155,154 +159,32 @@ public class DepreciationService {
 
     /**
      * Calculer la dotation annuelle d'amortissement pour un exercice donné
+     * Lecture dans le plan mémoïsé de l'immobilisation
      */
     public BigDecimal calculateAnnualDepreciation(FixedAsset asset, Integer fiscalYear) {
-        if (!asset.isDepreciable()) {
-            return BigDecimal.ZERO;
-        }
-
-        LocalDate fiscalYearStart = LocalDate.of(fiscalYear, 1, 1);
-        LocalDate fiscalYearEnd = LocalDate.of(fiscalYear, 12, 31);
-
-        // Si acquis après la fin de l'exercice, pas d'amortissement
-        if (asset.getAcquisitionDate().isAfter(fiscalYearEnd)) {
-            return BigDecimal.ZERO;
-        }
-
-        // Si cédé avant le début de l'exercice, pas d'amortissement
-        if (asset.getDisposalDate() != null && asset.getDisposalDate().isBefore(fiscalYearStart)) {
-            return BigDecimal.ZERO;
-        }
-
-        BigDecimal depreciableAmount = asset.getDepreciableAmount();
-
-        if (asset.getDepreciationMethod() == DepreciationMethod.LINEAR) {
-            return calculateLinearDepreciation(asset, fiscalYear, depreciableAmount);
-        } else if (asset.getDepreciationMethod() == DepreciationMethod.DECLINING_BALANCE) {
-            return calculateDecliningBalanceDepreciation(asset, fiscalYear, depreciableAmount);
-        }
-
-        // Méthode non supportée, retour à linéaire
-        return calculateLinearDepreciation(asset, fiscalYear, depreciableAmount);
-    }
-
-    /**
-     * Amortissement linéaire
-     */
-    private BigDecimal calculateLinearDepreciation(FixedAsset asset, Integer fiscalYear,
-                                                   BigDecimal depreciableAmount) {
-        if (asset.getUsefulLifeYears() == null || asset.getUsefulLifeYears() == 0) {
-            return BigDecimal.ZERO;
-        }
-
-        BigDecimal annualDepreciation = depreciableAmount
-            .divide(BigDecimal.valueOf(asset.getUsefulLifeYears()), 2, RoundingMode.HALF_UP);
-
-        // Appliquer le prorata temporis si acquisition en cours d'année
-        if (isAcquiredDuringYear(asset, fiscalYear)) {
-            int monthsInService = calculateMonthsInService(asset, fiscalYear);
-            annualDepreciation = annualDepreciation
-                .multiply(BigDecimal.valueOf(monthsInService))
-                .divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
-        }
-
-        // Limiter à la valeur résiduelle
-        BigDecimal accumulatedSoFar = calculateAccumulatedDepreciation(asset, fiscalYear - 1);
-        BigDecimal remainingValue = depreciableAmount.subtract(accumulatedSoFar);
-
-        return annualDepreciation.min(remainingValue).max(BigDecimal.ZERO);
-    }
-
-    /**
-     * Amortissement dégressif (coefficients fiscaux Cameroun)
-     */
-    private BigDecimal calculateDecliningBalanceDepreciation(FixedAsset asset, Integer fiscalYear,
-                                                             BigDecimal depreciableAmount) {
-        if (asset.getUsefulLifeYears() == null || asset.getUsefulLifeYears() == 0) {
-            return BigDecimal.ZERO;
-        }
-
-        // Coefficient dégressif selon la durée de vie
-        BigDecimal coefficient = asset.getDepreciationMethod()
-            .getDecliningBalanceCoefficient(asset.getUsefulLifeYears());
-
-        BigDecimal rate = BigDecimal.ONE
-            .divide(BigDecimal.valueOf(asset.getUsefulLifeYears()), 4, RoundingMode.HALF_UP)
-            .multiply(coefficient);
-
-        // VNC de début d'exercice
-        BigDecimal beginningBookValue = (asset.getTotalCost() != null ? asset.getTotalCost() : asset.getAcquisitionCost())
-            .subtract(calculateAccumulatedDepreciation(asset, fiscalYear - 1));
-
-        BigDecimal decliningDepreciation = beginningBookValue.multiply(rate);
-
-        // Calculer aussi le linéaire sur la durée restante
-        int yearsElapsed = fiscalYear - asset.getAcquisitionDate().getYear();
-        int remainingYears = Math.max(asset.getUsefulLifeYears() - yearsElapsed, 1);
-
-        BigDecimal linearDepreciation = beginningBookValue
-            .divide(BigDecimal.valueOf(remainingYears), 2, RoundingMode.HALF_UP);
-
-        // Prendre le maximum (règle du dégressif)
-        BigDecimal annualDepreciation = decliningDepreciation.max(linearDepreciation);
-
-        // Appliquer le prorata temporis si acquisition en cours d'année
-        if (isAcquiredDuringYear(asset, fiscalYear)) {
-            int monthsInService = calculateMonthsInService(asset, fiscalYear);
-            annualDepreciation = annualDepreciation
-                .multiply(BigDecimal.valueOf(monthsInService))
-                .divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
-        }
-
-        return annualDepreciation.min(beginningBookValue).max(BigDecimal.ZERO);
+        return depreciationScheduleEngine.scheduleFor(asset).annualFor(fiscalYear);
     }
 
     /**
      * Calculer l'amortissement cumulé jusqu'à une année donnée
+     * Lecture directe du cumul dans le plan mémoïsé (pas de boucle sur les exercices)
      */
     public BigDecimal calculateAccumulatedDepreciation(FixedAsset asset, Integer upToYear) {
-        if (!asset.isDepreciable()) {
-            return BigDecimal.ZERO;
-        }
-
-        int startYear = asset.getAcquisitionDate().getYear();
-        BigDecimal accumulated = BigDecimal.ZERO;
-
-        for (int year = startYear; year <= upToYear; year++) {
-            accumulated = accumulated.add(calculateAnnualDepreciation(asset, year));
-        }
-
-        return accumulated;
+        return depreciationScheduleEngine.scheduleFor(asset).accumulatedThrough(upToYear);
     }
 
     /**
      * Vérifier si l'immobilisation a été acquise durant l'exercice fiscal
      */
     private boolean isAcquiredDuringYear(FixedAsset asset, Integer fiscalYear) {
-        return asset.getAcquisitionDate().getYear() == fiscalYear;
+        return depreciationScheduleEngine.isAcquiredDuringYear(asset, fiscalYear);
     }
 
     /**
      * Calculer le nombre de mois en service durant l'exercice
      */
     private int calculateMonthsInService(FixedAsset asset, Integer fiscalYear) {
-        LocalDate fiscalYearStart = LocalDate.of(fiscalYear, 1, 1);
-        LocalDate fiscalYearEnd = LocalDate.of(fiscalYear, 12, 31);
-
-        LocalDate serviceStart = asset.getAcquisitionDate().isAfter(fiscalYearStart)
-            ? asset.getAcquisitionDate() : fiscalYearStart;
-
-        LocalDate serviceEnd = fiscalYearEnd;
-        if (asset.getDisposalDate() != null && asset.getDisposalDate().isBefore(fiscalYearEnd)) {
-            serviceEnd = asset.getDisposalDate();
-        }
-
-        long months = ChronoUnit.MONTHS.between(
-            serviceStart.withDayOfMonth(1),
-            serviceEnd.withDayOfMonth(1).plusMonths(1)
-        );
-
-        return (int) Math.max(1, Math.min(months, 12));
+        return depreciationScheduleEngine.monthsInService(asset, fiscalYear);
     }
 
     /**
@@ -12,6 +12,7 @@ import com.predykt.accounting.exception.ValidationException;
 import com.predykt.accounting.mapper.FixedAssetMapper;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.FixedAssetRepository;
+import com.predykt.accounting.service.depreciation.DepreciationScheduleEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,6 +39,7 @@ public class FixedAssetService {
     private final FixedAssetMapper fixedAssetMapper;
     private final DepreciationService depreciationService;
     private final JournalEntryGenerationService journalEntryGenerationService;
+    private final DepreciationScheduleEngine depreciationScheduleEngine;
 
     // ========================================
     // CREATE
@@ -212,6 +214,7 @@ public class FixedAssetService {
 
         // Sauvegarder (totalCost et depreciationRate seront recalculés par @PreUpdate)
         FixedAsset updatedAsset = fixedAssetRepository.save(asset);
+        depreciationScheduleEngine.evict(assetId);
 
         log.info("Immobilisation mise à jour avec succès: ID={}", updatedAsset.getId());
 
@@ -249,6 +252,7 @@ public class FixedAssetService {
         // Soft delete: marquer comme inactive
         asset.setIsActive(false);
         fixedAssetRepository.save(asset);
+        depreciationScheduleEngine.evict(assetId);
 
         log.info("Immobilisation marquée comme inactive: ID={}", assetId);
     }
@@ -300,6 +304,9 @@ public class FixedAssetService {
         asset.setDisposalReason(request.getDisposalReason());
         asset.setIsActive(false);
 
+        // Plan de la version précédente périmé: la VNC tient compte de la date de cession
+        depreciationScheduleEngine.evict(assetId);
+
         // Calculer la plus-value ou moins-value
         BigDecimal vnc = calculateNetBookValue(asset, request.getDisposalDate());
         BigDecimal gainLoss = request.getDisposalAmount().subtract(vnc);
@@ -10,6 +10,8 @@ import com.predykt.accounting.exception.UnbalancedEntryException;
 import com.predykt.accounting.repository.ChartOfAccountsRepository;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshot;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,7 +21,9 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -30,7 +34,7 @@ public class GeneralLedgerService {
     private final CompanyRepository companyRepository;
     private final ChartOfAccountsRepository chartRepository;
     private final VATRecoverabilityService vatRecoverabilityService;
-    private final ChartOfAccountsService chartService;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
     
     /**
      * Enregistrer une écriture comptable (respecte la partie double)
@@ -62,8 +66,8 @@ public class GeneralLedgerService {
         List<GeneralLedger> entries = new ArrayList<>();
         
         for (JournalEntryLineRequest line : request.getLines()) {
-            ChartOfAccounts account = chartRepository
-                .findByCompanyAndAccountNumber(company, line.getAccountNumber())
+            ChartOfAccounts account = snapshotCache
+                .findReference(company, line.getAccountNumber())
                 .orElseThrow(() -> new ResourceNotFoundException(
                     "Compte " + line.getAccountNumber() + " non trouvé"
                 ));
@@ -98,6 +102,86 @@ public class GeneralLedgerService {
         return entries;
     }
 
+    /**
+     * Enregistrer un lot d'écritures (imports par lots)
+     *
+     * Les comptes sont résolus depuis une table préchargée (aucune requête par ligne)
+     * et toutes les lignes valides sont sauvegardées en un seul saveAll (batching JDBC).
+     * Une écriture invalide (déséquilibrée, compte inconnu) est écartée sans bloquer le lot.
+     *
+     * @param company Entreprise
+     * @param requests Écritures à enregistrer
+     * @param accountsByNumber Plan comptable de l'entreprise indexé par numéro de compte
+     * @return Messages d'erreur indexés par position de l'écriture dans le lot
+     */
+    @Transactional
+    public Map<Integer, String> recordJournalEntries(Company company, List<JournalEntryRequest> requests,
+                                                     Map<String, ChartOfAccounts> accountsByNumber) {
+        Map<Integer, String> errors = new HashMap<>();
+        List<GeneralLedger> entries = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            JournalEntryRequest request = requests.get(i);
+
+            String error = validateEntry(request, accountsByNumber);
+            if (error != null) {
+                errors.put(i, error);
+                continue;
+            }
+
+            for (JournalEntryLineRequest line : request.getLines()) {
+                entries.add(GeneralLedger.builder()
+                    .company(company)
+                    .entryDate(request.getEntryDate())
+                    .account(accountsByNumber.get(line.getAccountNumber()))
+                    .debitAmount(line.getDebitAmount())
+                    .creditAmount(line.getCreditAmount())
+                    .description(line.getDescription())
+                    .reference(request.getReference())
+                    .journalCode(request.getJournalCode())
+                    .isLocked(false)
+                    .build());
+            }
+        }
+
+        List<GeneralLedger> savedEntries = glRepository.saveAll(entries);
+
+        // Détection automatique de la TVA déductible (comme pour une écriture unitaire)
+        for (GeneralLedger savedEntry : savedEntries) {
+            if (isVATDeductibleAccount(savedEntry.getAccount().getAccountNumber())) {
+                processVATEntry(company, savedEntry, savedEntry.getEntryDate());
+            }
+        }
+
+        log.debug("Lot de {} écriture(s) enregistré: {} ligne(s), {} rejet(s)",
+                  requests.size(), savedEntries.size(), errors.size());
+
+        return errors;
+    }
+
+    /**
+     * Valide une écriture du lot (équilibre et existence des comptes)
+     *
+     * @return Message d'erreur, ou null si l'écriture est valide
+     */
+    private String validateEntry(JournalEntryRequest request, Map<String, ChartOfAccounts> accountsByNumber) {
+        BigDecimal totalDebit = BigDecimal.ZERO;
+        BigDecimal totalCredit = BigDecimal.ZERO;
+
+        for (JournalEntryLineRequest line : request.getLines()) {
+            if (!accountsByNumber.containsKey(line.getAccountNumber())) {
+                return "Compte " + line.getAccountNumber() + " non trouvé";
+            }
+            totalDebit = totalDebit.add(line.getDebitAmount());
+            totalCredit = totalCredit.add(line.getCreditAmount());
+        }
+
+        if (totalDebit.compareTo(totalCredit) != 0) {
+            return String.format("Écriture déséquilibrée : Débit=%s, Crédit=%s", totalDebit, totalCredit);
+        }
+        return null;
+    }
+
     /**
      * Vérifie si un compte est un compte de TVA déductible
      * Comptes OHADA: 4451 - TVA récupérable
@@ -186,14 +270,23 @@ public class GeneralLedgerService {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
         
-        ChartOfAccounts account = chartRepository
-            .findByCompanyAndAccountNumber(company, accountNumber)
-            .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé"));
+        ChartOfAccountsSnapshot.AccountSummary account = snapshotCache.snapshotFor(company).find(accountNumber);
+        if (account == null) {
+            throw new ResourceNotFoundException("Compte non trouvé");
+        }
         
-        BigDecimal balance = glRepository.calculateAccountBalance(account, asOfDate);
+        return balanceOf(account, asOfDate);
+    }
+    
+    /**
+     * Solde d'un compte du plan figé, signe ajusté selon la nature du compte
+     */
+    private BigDecimal balanceOf(ChartOfAccountsSnapshot.AccountSummary account, LocalDate asOfDate) {
+        BigDecimal balance = glRepository.calculateAccountBalance(
+            chartRepository.getReferenceById(account.id()), asOfDate);
         
         // Ajuster le signe selon la nature du compte
-        if (!account.getAccountType().isDebitNature()) {
+        if (!account.accountType().isDebitNature()) {
             balance = balance.negate();
         }
         
@@ -208,8 +301,8 @@ public class GeneralLedgerService {
         Company company = companyRepository.findById(companyId)
             .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
         
-        ChartOfAccounts account = chartRepository
-            .findByCompanyAndAccountNumber(company, accountNumber)
+        ChartOfAccounts account = snapshotCache
+            .findReference(company, accountNumber)
             .orElseThrow(() -> new ResourceNotFoundException("Compte non trouvé"));
         
         return glRepository.findByAccountAndEntryDateBetween(account, startDate, endDate);
@@ -277,16 +370,8 @@ public class GeneralLedgerService {
     public BigDecimal getAccountClassBalance(Long companyId, String classPrefix, LocalDate asOfDate) {
         log.debug("📊 Calcul solde classe {} à la date {}", classPrefix, asOfDate);
 
-        return chartService.getActiveAccounts(companyId).stream()
-            .filter(account -> account.getAccountNumber().startsWith(classPrefix))
-            .map(account -> {
-                try {
-                    return getAccountBalance(companyId, account.getAccountNumber(), asOfDate);
-                } catch (ResourceNotFoundException e) {
-                    log.trace("Compte {} non trouvé, solde = 0", account.getAccountNumber());
-                    return BigDecimal.ZERO;
-                }
-            })
+        return activeAccountsWithPrefix(companyId, classPrefix).stream()
+            .map(account -> balanceOf(account, asOfDate))
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
@@ -307,17 +392,9 @@ public class GeneralLedgerService {
         log.debug("📊 Calcul solde classe {} (excluant {}) à la date {}",
             classPrefix, excludePrefix, asOfDate);
 
-        return chartService.getActiveAccounts(companyId).stream()
-            .filter(account -> account.getAccountNumber().startsWith(classPrefix)
-                            && !account.getAccountNumber().startsWith(excludePrefix))
-            .map(account -> {
-                try {
-                    return getAccountBalance(companyId, account.getAccountNumber(), asOfDate);
-                } catch (ResourceNotFoundException e) {
-                    log.trace("Compte {} non trouvé, solde = 0", account.getAccountNumber());
-                    return BigDecimal.ZERO;
-                }
-            })
+        return activeAccountsWithPrefix(companyId, classPrefix).stream()
+            .filter(account -> !account.accountNumber().startsWith(excludePrefix))
+            .map(account -> balanceOf(account, asOfDate))
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
@@ -366,9 +443,8 @@ public class GeneralLedgerService {
         log.debug("📊 Calcul variation solde classe {} du {} au {}",
             classPrefix, startDate, endDate);
 
-        return chartService.getActiveAccounts(companyId).stream()
-            .filter(account -> account.getAccountNumber().startsWith(classPrefix))
-            .map(account -> getAccountBalanceChange(companyId, account.getAccountNumber(), startDate, endDate))
+        return activeAccountsWithPrefix(companyId, classPrefix).stream()
+            .map(account -> balanceOf(account, endDate).subtract(balanceOf(account, startDate.minusDays(1))))
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
 
@@ -390,10 +466,18 @@ public class GeneralLedgerService {
         log.debug("📊 Calcul variation solde classe {} (excluant {}) du {} au {}",
             classPrefix, excludePrefix, startDate, endDate);
 
-        return chartService.getActiveAccounts(companyId).stream()
-            .filter(account -> account.getAccountNumber().startsWith(classPrefix)
-                            && !account.getAccountNumber().startsWith(excludePrefix))
-            .map(account -> getAccountBalanceChange(companyId, account.getAccountNumber(), startDate, endDate))
+        return activeAccountsWithPrefix(companyId, classPrefix).stream()
+            .filter(account -> !account.accountNumber().startsWith(excludePrefix))
+            .map(account -> balanceOf(account, endDate).subtract(balanceOf(account, startDate.minusDays(1))))
             .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
+
+    /**
+     * Comptes actifs d'une classe (plage contiguë du plan figé, sans parcourir tout le plan)
+     */
+    private List<ChartOfAccountsSnapshot.AccountSummary> activeAccountsWithPrefix(Long companyId, String classPrefix) {
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée"));
+        return snapshotCache.snapshotFor(company).withPrefix(classPrefix, true);
+    }
 }
\ No newline at end of file
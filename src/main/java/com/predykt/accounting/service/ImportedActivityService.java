@@ -6,6 +6,8 @@ import com.predykt.accounting.domain.entity.ImportedActivity;
 import com.predykt.accounting.repository.ChartOfAccountsRepository;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.ImportedActivityRepository;
+import com.predykt.accounting.service.mapping.AccountNameIndex;
+import com.predykt.accounting.service.mapping.AccountNameIndexCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -32,6 +34,7 @@ public class ImportedActivityService {
     private final ImportedActivityRepository activityRepository;
     private final CompanyRepository companyRepository;
     private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final AccountNameIndexCache accountNameIndexCache;
 
     /**
      * Importe une activité depuis un fichier CSV
@@ -69,12 +72,12 @@ public class ImportedActivityService {
 
         ImportedActivity activity = getActivityById(activityId);
 
-        // Rechercher le meilleur compte correspondant
-        ChartOfAccounts bestMatch = findBestAccountMatch(activity);
+        // Rechercher le meilleur compte correspondant (index des libellés de l'entreprise)
+        AccountNameIndex.Match bestMatch = findBestAccountMatch(activity);
 
         if (bestMatch != null) {
-            BigDecimal confidence = calculateConfidence(activity, bestMatch);
-            activity.markAsMapped(bestMatch, confidence);
+            ChartOfAccounts account = chartOfAccountsRepository.getReferenceById(bestMatch.accountId());
+            activity.markAsMapped(account, bestMatch.confidence());
             return activityRepository.save(activity);
         } else {
             log.warn("Aucun compte trouvé pour l'activité {}", activityId);
@@ -84,51 +87,10 @@ public class ImportedActivityService {
 
     /**
      * Trouve le meilleur compte OHADA correspondant à une activité
+     * Score BM25 entre la description et les libellés des comptes actifs, confiance issue de l'index
      */
-    private ChartOfAccounts findBestAccountMatch(ImportedActivity activity) {
-        Company company = activity.getCompany();
-        String description = activity.getDescription().toLowerCase();
-
-        // Rechercher par mots-clés dans la description
-        List<ChartOfAccounts> accounts = chartOfAccountsRepository.findByCompanyAndIsActiveTrue(company);
-
-        return accounts.stream()
-            .filter(account -> {
-                String accountName = account.getAccountName().toLowerCase();
-                String[] keywords = description.split("\\s+");
-
-                // Vérifier si au moins 2 mots-clés correspondent
-                long matchCount = 0;
-                for (String keyword : keywords) {
-                    if (accountName.contains(keyword)) {
-                        matchCount++;
-                    }
-                }
-                return matchCount >= 2;
-            })
-            .findFirst()
-            .orElse(null);
-    }
-
-    /**
-     * Calcule le score de confiance du mapping
-     */
-    private BigDecimal calculateConfidence(ImportedActivity activity, ChartOfAccounts account) {
-        String description = activity.getDescription().toLowerCase();
-        String accountName = account.getAccountName().toLowerCase();
-
-        String[] keywords = description.split("\\s+");
-        long matchCount = 0;
-
-        for (String keyword : keywords) {
-            if (accountName.contains(keyword)) {
-                matchCount++;
-            }
-        }
-
-        // Calculer le pourcentage de correspondance
-        double confidence = (double) matchCount / keywords.length * 100;
-        return BigDecimal.valueOf(Math.min(confidence, 100.0));
+    private AccountNameIndex.Match findBestAccountMatch(ImportedActivity activity) {
+        return accountNameIndexCache.indexFor(activity.getCompany()).bestMatch(activity.getDescription());
     }
 
     /**
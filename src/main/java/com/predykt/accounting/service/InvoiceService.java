@@ -13,6 +13,7 @@ import com.predykt.accounting.dto.response.PaymentResponse;
 import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.exception.ValidationException;
 import com.predykt.accounting.repository.*;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -48,7 +49,7 @@ public class InvoiceService {
     private final InvoiceLineRepository invoiceLineRepository;
     private final CustomerRepository customerRepository;
     private final CompanyRepository companyRepository;
-    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
     private final GeneralLedgerRepository generalLedgerRepository;
     private final PaymentRepository paymentRepository;
     private final TaxCalculationRepository taxCalculationRepository;
@@ -391,7 +392,7 @@ public class InvoiceService {
             throw new ValidationException("Le client n'a pas de compte auxiliaire. Veuillez réinitialiser le client.");
         }
 
-        ChartOfAccounts customerAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, customerAccountNumber)
+        ChartOfAccounts customerAccount = snapshotCache.findReference(company, customerAccountNumber)
             .orElseThrow(() -> new ValidationException("Compte client non trouvé dans le plan comptable: " + customerAccountNumber));
 
         // Créer l'écriture principale
@@ -411,7 +412,7 @@ public class InvoiceService {
         final Long parentEntryId = entry.getId();
 
         // Ligne 2: CRÉDIT Ventes (701) = HT
-        ChartOfAccounts salesAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, SALES_ACCOUNT_DEFAULT)
+        ChartOfAccounts salesAccount = snapshotCache.findReference(company, SALES_ACCOUNT_DEFAULT)
             .orElseThrow(() -> new ValidationException("Compte ventes non trouvé: " + SALES_ACCOUNT_DEFAULT));
 
         GeneralLedger salesEntry = GeneralLedger.builder()
@@ -432,7 +433,7 @@ public class InvoiceService {
             // Récupérer le compte TVA depuis la configuration fiscale
             String vatCollectedAccountNumber = getVATCollectedAccountNumber(company);
 
-            ChartOfAccounts vatCollectedAccount = chartOfAccountsRepository.findByCompanyAndAccountNumber(company, vatCollectedAccountNumber)
+            ChartOfAccounts vatCollectedAccount = snapshotCache.findReference(company, vatCollectedAccountNumber)
                 .orElseThrow(() -> new ValidationException("Compte TVA collectée non trouvé: " + vatCollectedAccountNumber));
 
             // Récupérer le taux de TVA depuis la configuration (pour la description)
@@ -455,7 +456,7 @@ public class InvoiceService {
         }
 
         log.info("✅ Écriture comptable générée: DÉBIT {} {} XAF / CRÉDIT {} + TVA = {} XAF",
-            customerAccount, invoice.getTotalTtc(), SALES_ACCOUNT_DEFAULT, invoice.getTotalTtc());
+            customerAccountNumber, invoice.getTotalTtc(), SALES_ACCOUNT_DEFAULT, invoice.getTotalTtc());
 
         return entry;
     }
@@ -5,9 +5,10 @@ import com.predykt.accounting.domain.entity.FixedAsset;
 import com.predykt.accounting.domain.entity.GeneralLedger;
 import com.predykt.accounting.dto.request.FixedAssetDisposalRequest;
 import com.predykt.accounting.exception.AccountingException;
-import com.predykt.accounting.repository.ChartOfAccountsRepository;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
+import com.predykt.accounting.service.depreciation.DepreciationBatchRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 /**
  * Service de génération automatique des écritures comptables
@@ -35,9 +37,9 @@ import java.util.UUID;
 public class JournalEntryGenerationService {
 
     private final GeneralLedgerRepository generalLedgerRepository;
-    private final ChartOfAccountsRepository chartOfAccountsRepository;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
     private final CompanyRepository companyRepository;
-    private final DepreciationService depreciationService;
+    private final DepreciationBatchRunner depreciationBatchRunner;
 
     // Taux TVA Cameroun (19,25%)
     private static final BigDecimal VAT_RATE_CAMEROON = new BigDecimal("0.1925");
@@ -255,77 +257,47 @@ public class JournalEntryGenerationService {
      *
      * Débit  681x - Dotations aux amortissements
      *        Crédit 28xx - Amortissements
+     *
+     * Traitement par lot (voir DepreciationBatchRunner): comptes préchargés,
+     * calcul parallèle et insertion JDBC par lots dans la transaction courante
      */
     @Transactional
     public List<GeneralLedger> generateMonthlyDepreciationEntries(
             Company company,
             Integer year,
             Integer month) {
+        return generateMonthlyDepreciationEntries(company, year, month, null);
+    }
+
+    /**
+     * Variante avec suivi de progression (ex: job de fin de mois multi-entreprises)
+     */
+    @Transactional
+    public List<GeneralLedger> generateMonthlyDepreciationEntries(
+            Company company,
+            Integer year,
+            Integer month,
+            Consumer<DepreciationBatchRunner.DepreciationRunProgress> progressListener) {
 
         log.info("Génération dotations aux amortissements - Entreprise: {} - Période: {}/{}",
                  company.getId(), month, year);
 
-        List<GeneralLedger> entries = new ArrayList<>();
-
-        // Récupérer toutes les immobilisations amortissables actives
-        List<FixedAsset> assets = depreciationService.getDepreciableAssets(company, year, month);
-
         LocalDate periodEnd = LocalDate.of(year, month, 1).withDayOfMonth(
             LocalDate.of(year, month, 1).lengthOfMonth()
         );
 
         String pieceNumber = generatePieceNumber("AMORT", company, periodEnd);
 
-        for (FixedAsset asset : assets) {
-            BigDecimal monthlyDepreciation = depreciationService.calculateMonthlyDepreciation(asset, year, month);
-
-            if (monthlyDepreciation.compareTo(BigDecimal.ZERO) > 0) {
-                String description = String.format(
-                    "Dotation amortissement %s/%s - %s",
-                    month, year, asset.getAssetNumber()
-                );
-
-                // Débit 681x - Dotations
-                String expenseAccount = asset.getCategory().getDepreciationExpenseAccountNumber();
-                entries.add(createJournalEntry(
-                    company,
-                    periodEnd,
-                    expenseAccount,
-                    "Dotations aux amortissements " + asset.getCategory().getDisplayName(),
-                    description,
-                    monthlyDepreciation,     // Débit (charge)
-                    BigDecimal.ZERO,         // Crédit
-                    "OD",
-                    pieceNumber,
-                    "DEPRECIATION_EXPENSE"
-                ));
-
-                // Crédit 28xx - Amortissements cumulés
-                String depreciationAccount = asset.getCategory().getDepreciationAccountNumber();
-                entries.add(createJournalEntry(
-                    company,
-                    periodEnd,
-                    depreciationAccount,
-                    "Amortissements " + asset.getCategory().getDisplayName(),
-                    description,
-                    BigDecimal.ZERO,         // Débit
-                    monthlyDepreciation,     // Crédit (amortissement cumulé)
-                    "OD",
-                    pieceNumber,
-                    "DEPRECIATION_ACCUMULATED"
-                ));
-            }
-        }
+        List<GeneralLedger> entries = depreciationBatchRunner.run(company, year, month, pieceNumber, progressListener);
 
         if (!entries.isEmpty()) {
-            List<GeneralLedger> savedEntries = generalLedgerRepository.saveAll(entries);
             log.info("✅ {} écriture(s) de dotations générée(s) - Total: {} FCFA",
-                     savedEntries.size(),
+                     entries.size(),
                      entries.stream()
                             .filter(e -> e.getDebitAmount().compareTo(BigDecimal.ZERO) > 0)
                             .map(GeneralLedger::getDebitAmount)
                             .reduce(BigDecimal.ZERO, BigDecimal::add));
-            return savedEntries;
+            return entries;
         }
 
         log.info("Aucune dotation à enregistrer pour cette période");
@@ -348,9 +320,10 @@ public class JournalEntryGenerationService {
             String entryType) {
 
         // Vérifier que le compte existe dans le plan comptable
-        chartOfAccountsRepository.findByCompanyAndAccountNumber(company, accountNumber)
-            .orElseThrow(() -> new AccountingException(
-                "Compte OHADA non trouvé: " + accountNumber + " - Veuillez l'ajouter au plan comptable"));
+        if (!snapshotCache.snapshotFor(company).contains(accountNumber)) {
+            throw new AccountingException(
+                "Compte OHADA non trouvé: " + accountNumber + " - Veuillez l'ajouter au plan comptable");
+        }
 
         GeneralLedger entry = GeneralLedger.builder()
             .company(company)
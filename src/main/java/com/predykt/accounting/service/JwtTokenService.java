@@ -4,6 +4,8 @@ import com.predykt.accounting.domain.entity.JwtToken;
 import com.predykt.accounting.domain.entity.User;
 import com.predykt.accounting.repository.JwtTokenRepository;
 import com.predykt.accounting.repository.UserRepository;
+import com.predykt.accounting.security.AuthenticatedPrincipalCache;
+import com.predykt.accounting.security.TokenRevocationRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -26,6 +28,8 @@ public class JwtTokenService {
 
     private final JwtTokenRepository tokenRepository;
     private final UserRepository userRepository;
+    private final AuthenticatedPrincipalCache principalCache;
+    private final TokenRevocationRegistry revocationRegistry;
 
     /**
      * Enregistre un nouveau token
@@ -50,14 +54,10 @@ public class JwtTokenService {
     }
 
     /**
-     * Génère un JTI unique
+     * Génère un JTI unique (UUID aléatoire: 122 bits, sans vérification en base)
      */
     public String generateJti() {
-        String jti;
-        do {
-            jti = UUID.randomUUID().toString();
-        } while (tokenRepository.existsByJti(jti));
-        return jti;
+        return UUID.randomUUID().toString();
     }
 
     /**
@@ -94,11 +94,10 @@ public class JwtTokenService {
     }
 
     /**
-     * Vérifie si un token est révoqué
+     * Vérifie si un token est révoqué (registre en mémoire, sans accès à la base)
      */
-    @Transactional(readOnly = true)
     public boolean isTokenRevoked(String jti) {
-        return tokenRepository.isTokenRevoked(jti);
+        return revocationRegistry.isRevoked(jti);
     }
 
     /**
@@ -107,6 +106,33 @@ public class JwtTokenService {
     public void revokeToken(String jti, String reason) {
         log.info("Révocation du token {} - Raison: {}", jti, reason);
         tokenRepository.revokeToken(jti, LocalDateTime.now(), reason);
+        revocationRegistry.revoke(jti, tokenRepository.findByJti(jti).map(JwtToken::getExpiresAt).orElse(null));
+        principalCache.invalidate(jti);
+    }
+
+    /**
+     * Révoque un token présenté par son porteur (déconnexion)
+     * Un token absent de jwt_tokens y est enregistré révoqué, avec son expiration:
+     * la révocation survit ainsi au rechargement du registre au démarrage.
+     */
+    public void revokeToken(String jti, Long userId, LocalDateTime expiresAt, String reason) {
+        log.info("Révocation du token {} - Raison: {}", jti, reason);
+
+        JwtToken token = tokenRepository.findByJti(jti).orElse(null);
+        if (token == null && userId != null && expiresAt != null && userRepository.existsById(userId)) {
+            token = JwtToken.builder()
+                .user(userRepository.getReferenceById(userId))
+                .jti(jti)
+                .expiresAt(expiresAt)
+                .build();
+        }
+        if (token != null) {
+            token.revoke(reason);
+            tokenRepository.save(token);
+        }
+
+        revocationRegistry.revoke(jti, token != null ? token.getExpiresAt() : expiresAt);
+        principalCache.invalidate(jti);
     }
 
     /**
@@ -114,7 +140,11 @@ public class JwtTokenService {
      */
     public void revokeAllUserTokens(Long userId, String reason) {
         log.info("Révocation de tous les tokens de l'utilisateur {} - Raison: {}", userId, reason);
-        tokenRepository.revokeAllUserTokens(userId, LocalDateTime.now(), reason);
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> activeTokens = tokenRepository.findActiveJtisByUserId(userId, now);
+        tokenRepository.revokeAllUserTokens(userId, now, reason);
+        activeTokens.forEach(row -> revocationRegistry.revoke((String) row[0], (LocalDateTime) row[1]));
+        principalCache.invalidateUser(userId);
     }
 
     /**
@@ -155,6 +185,8 @@ public class JwtTokenService {
             .forEach(token -> {
                 token.revoke(reason);
                 tokenRepository.save(token);
+                revocationRegistry.revoke(token.getJti(), token.getExpiresAt());
+                principalCache.invalidate(token.getJti());
             });
     }
 
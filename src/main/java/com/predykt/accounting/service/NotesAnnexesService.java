@@ -11,6 +11,7 @@ import com.predykt.accounting.exception.ResourceNotFoundException;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.FixedAssetRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
+import com.predykt.accounting.service.depreciation.DepreciationScheduleEngine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -38,6 +39,7 @@ public class NotesAnnexesService {
     private final FixedAssetRepository fixedAssetRepository;
     private final GeneralLedgerRepository generalLedgerRepository;
     private final FinancialReportService financialReportService;
+    private final DepreciationScheduleEngine depreciationScheduleEngine;
 
     private static final BigDecimal TVA_RATE_CAMEROON = new BigDecimal("0.1925"); // 19.25%
     private static final BigDecimal IMPOT_RATE_CAMEROON = new BigDecimal("0.30"); // 30%
@@ -111,18 +113,25 @@ public class NotesAnnexesService {
                     .map(FixedAsset::getAcquisitionCost)
                     .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-                BigDecimal totalAmortissement = categoryAssets.stream()
-                    .map(asset -> asset.getDepreciation() != null ? asset.getDepreciation() : BigDecimal.ZERO)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+                // Cumuls et dotations lus dans les plans d'amortissement mémoïsés
+                BigDecimal amortissementsDebut = BigDecimal.ZERO;
+                BigDecimal dotations = BigDecimal.ZERO;
+                BigDecimal totalAmortissement = BigDecimal.ZERO;
+                for (FixedAsset asset : categoryAssets) {
+                    DepreciationScheduleEngine.AssetSchedule schedule = depreciationScheduleEngine.scheduleFor(asset);
+                    amortissementsDebut = amortissementsDebut.add(schedule.accumulatedThrough(fiscalYear - 1));
+                    dotations = dotations.add(schedule.annualFor(fiscalYear));
+                    totalAmortissement = totalAmortissement.add(schedule.accumulatedThrough(fiscalYear));
+                }
 
                 return Note2_Immobilisations.TableauMouvements.builder()
                     .categorie(entry.getKey().getDisplayName())
                     .valeurBruteDebut(totalAcquisitions)
                     .amortissementsCumules(totalAmortissement)
-                    .valeurNetteDebut(totalAcquisitions.subtract(totalAmortissement))
+                    .valeurNetteDebut(totalAcquisitions.subtract(amortissementsDebut))
                     .acquisitions(totalAcquisitions)
                     .cessions(BigDecimal.ZERO)
-                    .dotationsAmortissement(totalAmortissement)
+                    .dotationsAmortissement(dotations)
                     .valeurBruteFin(totalAcquisitions)
                     .valeurNetteFin(totalAcquisitions.subtract(totalAmortissement))
                     .build();
@@ -4,6 +4,7 @@ import com.predykt.accounting.domain.entity.Permission;
 import com.predykt.accounting.domain.entity.Role;
 import com.predykt.accounting.repository.PermissionRepository;
 import com.predykt.accounting.repository.RoleRepository;
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,6 +25,7 @@ public class PermissionService {
 
     private final PermissionRepository permissionRepository;
     private final RoleRepository roleRepository;
+    private final AuthorizationSnapshotCache authorizationCache;
 
     /**
      * Crée une nouvelle permission
@@ -209,6 +211,7 @@ public class PermissionService {
 
         role.addPermission(permission);
         roleRepository.save(role);
+        authorizationCache.invalidateAll();
     }
 
     /**
@@ -223,6 +226,7 @@ public class PermissionService {
 
         role.removePermission(permission);
         roleRepository.save(role);
+        authorizationCache.invalidateAll();
     }
 
     /**
@@ -2,22 +2,29 @@ package com.predykt.accounting.service;
 
 import com.predykt.accounting.domain.entity.Company;
 import com.predykt.accounting.domain.entity.GeneralLedger;
+import com.predykt.accounting.dto.response.SubledgerPageResponse;
 import com.predykt.accounting.dto.response.SubledgerResponse;
 import com.predykt.accounting.dto.response.SubledgerResponse.*;
 import com.predykt.accounting.exception.ResourceNotFoundException;
+import com.predykt.accounting.exception.ValidationException;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.GeneralLedgerRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service pour les Grands Livres Auxiliaires
@@ -109,9 +116,13 @@ public class SubledgerService {
         Map<String, List<GeneralLedger>> entriesByAccount = entries.stream()
             .collect(Collectors.groupingBy(e -> e.getAccount().getAccountNumber()));
 
+        // Soldes d'ouverture de tous les comptes du préfixe en un seul agrégat
+        Map<String, BigDecimal> openingBalances = loadOpeningBalances(company, accountPrefix, startDate);
+
         // Construire les détails par tiers
         List<TiersDetail> tiersDetails = entriesByAccount.entrySet().stream()
-            .map(entry -> buildTiersDetail(entry.getKey(), entry.getValue(), type, startDate, endDate))
+            .map(entry -> buildTiersDetail(entry.getKey(), entry.getValue(), type,
+                openingBalances.getOrDefault(entry.getKey(), BigDecimal.ZERO), startDate, endDate))
             .sorted((a, b) -> b.getTotalDebits().add(b.getTotalCredits())
                 .compareTo(a.getTotalDebits().add(a.getTotalCredits()))) // Tri par volume décroissant
             .collect(Collectors.toList());
@@ -158,14 +169,12 @@ public class SubledgerService {
      * Construit le détail d'un tiers (client ou fournisseur)
      */
     private TiersDetail buildTiersDetail(String accountNumber, List<GeneralLedger> entries,
-                                        String type, LocalDate startDate, LocalDate endDate) {
+                                        String type, BigDecimal soldeOuverture,
+                                        LocalDate startDate, LocalDate endDate) {
 
         // Trier par date
         entries.sort(Comparator.comparing(GeneralLedger::getEntryDate));
 
-        // Solde d'ouverture (avant startDate)
-        BigDecimal soldeOuverture = BigDecimal.ZERO; // Simplification - à améliorer avec données N-1
-
         // Construire les lignes d'écriture avec solde cumulé
         List<SubledgerEntry> subledgerEntries = new ArrayList<>();
         BigDecimal balance = soldeOuverture;
@@ -344,6 +353,208 @@ public class SubledgerService {
             .build();
     }
 
+    // ==================== Grand livre auxiliaire paginé / en flux ====================
+
+    private static final int DEFAULT_PAGE_SIZE = 200;
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Page du grand livre auxiliaire CLIENTS (pagination par clé)
+     */
+    public SubledgerPageResponse getCustomersSubledgerPage(Long companyId, LocalDate startDate, LocalDate endDate,
+                                                           String cursor, Integer pageSize) {
+        return getSubledgerPage(companyId, "CLIENTS", "411", startDate, endDate, cursor, pageSize);
+    }
+
+    /**
+     * Page du grand livre auxiliaire FOURNISSEURS (pagination par clé)
+     */
+    public SubledgerPageResponse getSuppliersSubledgerPage(Long companyId, LocalDate startDate, LocalDate endDate,
+                                                           String cursor, Integer pageSize) {
+        return getSubledgerPage(companyId, "FOURNISSEURS", "401", startDate, endDate, cursor, pageSize);
+    }
+
+    /**
+     * Lit une page du grand livre auxiliaire ordonnée par (compte, date, id)
+     *
+     * - La page suivante repart après la dernière clé lue (pas d'OFFSET)
+     * - Le solde cumulé du compte en cours est transporté dans le curseur
+     * - Les soldes d'ouverture des comptes commencés dans la page sont calculés en un seul agrégat
+     */
+    public SubledgerPageResponse getSubledgerPage(Long companyId, String type, String accountPrefix,
+                                                  LocalDate startDate, LocalDate endDate,
+                                                  String cursor, Integer pageSize) {
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée avec l'ID: " + companyId));
+
+        int size = pageSize == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+        SubledgerCursor after = cursor == null || cursor.isBlank()
+            ? SubledgerCursor.start(startDate)
+            : SubledgerCursor.decode(cursor);
+
+        // Lire une ligne de plus pour savoir s'il reste des données
+        List<Object[]> rows = new ArrayList<>(generalLedgerRepository.findSubledgerPageAfter(
+            company, accountPrefix, startDate, endDate,
+            after.accountNumber(), after.entryDate(), after.entryId(),
+            PageRequest.of(0, size + 1)));
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+
+        // Comptes dont la première ligne est dans cette page: solde d'ouverture à calculer
+        Set<String> accountsToOpen = new LinkedHashSet<>();
+        for (Object[] row : rows) {
+            String accountNumber = (String) row[0];
+            if (!accountNumber.equals(after.accountNumber())) {
+                accountsToOpen.add(accountNumber);
+            }
+        }
+        Map<String, BigDecimal> openingBalances = accountsToOpen.isEmpty()
+            ? Collections.emptyMap()
+            : toBalanceMap(generalLedgerRepository.sumOpeningBalancesByAccount(company, accountsToOpen, startDate));
+
+        List<SubledgerPageResponse.SubledgerLine> lines = new ArrayList<>(rows.size());
+        String currentAccount = after.accountNumber();
+        BigDecimal balance = after.balance();
+
+        for (Object[] row : rows) {
+            String accountNumber = (String) row[0];
+            if (!accountNumber.equals(currentAccount)) {
+                currentAccount = accountNumber;
+                balance = openingBalances.getOrDefault(accountNumber, BigDecimal.ZERO);
+            }
+            SubledgerPageResponse.SubledgerLine line = toSubledgerLine(row, balance);
+            balance = line.getBalance();
+            lines.add(line);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            SubledgerPageResponse.SubledgerLine last = lines.get(lines.size() - 1);
+            nextCursor = new SubledgerCursor(last.getAccountNumber(), last.getEntryDate(),
+                last.getEntryId(), last.getBalance()).encode();
+        }
+
+        Map<String, BigDecimal> pageOpenings = new LinkedHashMap<>();
+        accountsToOpen.forEach(acc -> pageOpenings.put(acc, openingBalances.getOrDefault(acc, BigDecimal.ZERO)));
+
+        return SubledgerPageResponse.builder()
+            .companyId(company.getId())
+            .subledgerType(type)
+            .startDate(startDate)
+            .endDate(endDate)
+            .currency("XAF")
+            .lines(lines)
+            .openingBalances(pageOpenings)
+            .nextCursor(nextCursor)
+            .hasMore(hasMore)
+            .pageSize(size)
+            .build();
+    }
+
+    /**
+     * Parcourt tout le grand livre auxiliaire en flux (curseur JDBC) et pousse chaque ligne au consommateur
+     * Aucune liste n'est constituée en mémoire: adapté à l'export NDJSON de milliers de tiers
+     *
+     * @return Nombre de lignes émises
+     */
+    public long streamSubledger(Long companyId, String accountPrefix, LocalDate startDate, LocalDate endDate,
+                                Consumer<SubledgerPageResponse.SubledgerLine> consumer) {
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée avec l'ID: " + companyId));
+
+        Map<String, BigDecimal> openingBalances = loadOpeningBalances(company, accountPrefix, startDate);
+
+        long count = 0;
+        String currentAccount = null;
+        BigDecimal balance = BigDecimal.ZERO;
+
+        try (Stream<Object[]> rows = generalLedgerRepository.streamSubledger(company, accountPrefix, startDate, endDate)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Object[] row = iterator.next();
+                String accountNumber = (String) row[0];
+                if (!accountNumber.equals(currentAccount)) {
+                    currentAccount = accountNumber;
+                    balance = openingBalances.getOrDefault(accountNumber, BigDecimal.ZERO);
+                }
+                SubledgerPageResponse.SubledgerLine line = toSubledgerLine(row, balance);
+                balance = line.getBalance();
+                consumer.accept(line);
+                count++;
+            }
+        }
+
+        log.info("Grand livre auxiliaire {} diffusé en flux: {} ligne(s)", accountPrefix, count);
+        return count;
+    }
+
+    private SubledgerPageResponse.SubledgerLine toSubledgerLine(Object[] row, BigDecimal previousBalance) {
+        BigDecimal debit = (BigDecimal) row[6];
+        BigDecimal credit = (BigDecimal) row[7];
+        String customerName = (String) row[9];
+        String supplierName = (String) row[10];
+
+        return SubledgerPageResponse.SubledgerLine.builder()
+            .accountNumber((String) row[0])
+            .tiersName(customerName != null ? customerName
+                : supplierName != null ? supplierName : (String) row[1])
+            .entryId((Long) row[2])
+            .entryDate((LocalDate) row[3])
+            .reference((String) row[4])
+            .description((String) row[5])
+            .debitAmount(debit)
+            .creditAmount(credit)
+            .balance(previousBalance.add(debit).subtract(credit))
+            .isLocked((Boolean) row[8])
+            .build();
+    }
+
+    private Map<String, BigDecimal> loadOpeningBalances(Company company, String accountPrefix, LocalDate startDate) {
+        return toBalanceMap(generalLedgerRepository.sumOpeningBalancesByAccountPrefix(company, accountPrefix, startDate));
+    }
+
+    private Map<String, BigDecimal> toBalanceMap(List<Object[]> rows) {
+        Map<String, BigDecimal> balances = new HashMap<>();
+        for (Object[] row : rows) {
+            balances.put((String) row[0], (BigDecimal) row[1]);
+        }
+        return balances;
+    }
+
+    /**
+     * Curseur de pagination: dernière clé lue + solde cumulé du compte à cette position
+     * Encodé en Base64 URL pour rester opaque côté client
+     */
+    private record SubledgerCursor(String accountNumber, LocalDate entryDate, Long entryId, BigDecimal balance) {
+
+        static SubledgerCursor start(LocalDate startDate) {
+            // "" est inférieur à tout numéro de compte: la première page part du début
+            return new SubledgerCursor("", startDate, 0L, BigDecimal.ZERO);
+        }
+
+        String encode() {
+            String raw = accountNumber + "|" + entryDate + "|" + entryId + "|" + balance.toPlainString();
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static SubledgerCursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|", -1);
+                if (parts.length != 4) {
+                    throw new ValidationException("Curseur de pagination invalide");
+                }
+                return new SubledgerCursor(parts[0], LocalDate.parse(parts[1]),
+                    Long.parseLong(parts[2]), new BigDecimal(parts[3]));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                throw new ValidationException("Curseur de pagination invalide");
+            }
+        }
+    }
+
     // ==================== Méthodes utilitaires ====================
 
     private String extractInvoiceNumber(String description) {
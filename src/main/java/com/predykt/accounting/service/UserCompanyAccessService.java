@@ -7,6 +7,9 @@ import com.predykt.accounting.domain.enums.AccessLevel;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.UserCompanyAccessRepository;
 import com.predykt.accounting.repository.UserRepository;
+import com.predykt.accounting.security.AuthorizationSnapshot;
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
+import com.predykt.accounting.security.SecurityService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,6 +31,8 @@ public class UserCompanyAccessService {
     private final UserCompanyAccessRepository accessRepository;
     private final UserRepository userRepository;
     private final CompanyRepository companyRepository;
+    private final AuthorizationSnapshotCache authorizationCache;
+    private final SecurityService securityService;
 
     /**
      * Accorde l'accès à un dossier client pour un utilisateur
@@ -42,7 +47,7 @@ public class UserCompanyAccessService {
             .orElseThrow(() -> new EntityNotFoundException("Entreprise non trouvée avec l'ID: " + companyId));
 
         // Vérifier si l'accès existe déjà
-        return accessRepository.findByUserIdAndCompanyId(userId, companyId)
+        UserCompanyAccess granted = accessRepository.findByUserIdAndCompanyId(userId, companyId)
             .map(existing -> {
                 log.info("Mise à jour de l'accès existant de {} vers {}", existing.getAccessLevel(), accessLevel);
                 existing.setAccessLevel(accessLevel);
@@ -56,6 +61,8 @@ public class UserCompanyAccessService {
                     .build();
                 return accessRepository.save(newAccess);
             });
+        authorizationCache.invalidateUser(userId);
+        return granted;
     }
 
     /**
@@ -70,6 +77,7 @@ public class UserCompanyAccessService {
             ));
 
         accessRepository.delete(access);
+        authorizationCache.invalidateUser(userId);
     }
 
     /**
@@ -120,6 +128,10 @@ public class UserCompanyAccessService {
      */
     @Transactional(readOnly = true)
     public boolean hasAccess(Long userId, Long companyId) {
+        AuthorizationSnapshot authorization = currentAuthorizationOf(userId);
+        if (authorization != null) {
+            return authorization.hasAccessToCompany(companyId);
+        }
         return accessRepository.hasAccess(userId, companyId);
     }
 
@@ -128,6 +140,10 @@ public class UserCompanyAccessService {
      */
     @Transactional(readOnly = true)
     public boolean canWrite(Long userId, Long companyId) {
+        AuthorizationSnapshot authorization = currentAuthorizationOf(userId);
+        if (authorization != null) {
+            return authorization.canWriteToCompany(companyId);
+        }
         return accessRepository.canWrite(userId, companyId);
     }
 
@@ -154,7 +170,9 @@ public class UserCompanyAccessService {
         };
 
         access.setAccessLevel(newLevel);
-        return accessRepository.save(access);
+        UserCompanyAccess promoted = accessRepository.save(access);
+        authorizationCache.invalidateUser(userId);
+        return promoted;
     }
 
     /**
@@ -172,7 +190,9 @@ public class UserCompanyAccessService {
         };
 
         access.setAccessLevel(newLevel);
-        return accessRepository.save(access);
+        UserCompanyAccess demoted = accessRepository.save(access);
+        authorizationCache.invalidateUser(userId);
+        return demoted;
     }
 
     /**
@@ -186,7 +206,7 @@ public class UserCompanyAccessService {
 
         List<UserCompanyAccess> sourceAccesses = accessRepository.findByUserId(sourceUserId);
 
-        return sourceAccesses.stream()
+        List<UserCompanyAccess> copied = sourceAccesses.stream()
             .map(sourceAccess -> {
                 // Vérifier si l'accès n'existe pas déjà
                 if (accessRepository.hasAccess(targetUserId, sourceAccess.getCompany().getId())) {
@@ -204,6 +224,8 @@ public class UserCompanyAccessService {
             })
             .filter(access -> access != null)
             .toList();
+        authorizationCache.invalidateUser(targetUserId);
+        return copied;
     }
 
     /**
@@ -212,6 +234,7 @@ public class UserCompanyAccessService {
     public void revokeAllUserAccesses(Long userId) {
         log.info("Révocation de tous les accès de l'utilisateur {}", userId);
         accessRepository.deleteByUserId(userId);
+        authorizationCache.invalidateUser(userId);
     }
 
     /**
@@ -220,6 +243,7 @@ public class UserCompanyAccessService {
     public void revokeAllCompanyAccesses(Long companyId) {
         log.info("Révocation de tous les accès pour l'entreprise {}", companyId);
         accessRepository.deleteByCompanyId(companyId);
+        authorizationCache.invalidateAll();
     }
 
     /**
@@ -243,4 +267,16 @@ public class UserCompanyAccessService {
 
         return accessRepository.findByUserIdAndAccessLevelIn(userId, allowedLevels);
     }
+
+    /**
+     * Autorisations précalculées si l'utilisateur vérifié est l'utilisateur authentifié
+     * (évite une requête par vérification), null sinon
+     */
+    private AuthorizationSnapshot currentAuthorizationOf(Long userId) {
+        AuthorizationSnapshot authorization = securityService.currentAuthorization();
+        return authorization != null && authorization.getUserId() != null
+                && authorization.getUserId().equals(userId)
+            ? authorization
+            : null;
+    }
 }
@@ -11,6 +11,7 @@ import com.predykt.accounting.mapper.UserMapper;
 import com.predykt.accounting.repository.CompanyRepository;
 import com.predykt.accounting.repository.RoleRepository;
 import com.predykt.accounting.repository.UserRepository;
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -35,6 +36,7 @@ public class UserService {
     private final PasswordEncoder passwordEncoder;
     private final UserMapper userMapper;
     private final TenantLicenseValidator licenseValidator;
+    private final AuthorizationSnapshotCache authorizationCache;
     
     /**
      * Créer un utilisateur
@@ -133,7 +135,9 @@ public class UserService {
         if (request.getPhone() != null) {
             user.setPhone(request.getPhone());
         }
+        boolean invalidateAuthentication = false;
         if (request.getIsActive() != null) {
+            invalidateAuthentication = !request.getIsActive().equals(user.getIsActive());
             user.setIsActive(request.getIsActive());
         }
         
@@ -144,6 +148,12 @@ public class UserService {
                     .orElseThrow(() -> new ResourceNotFoundException("Rôle non trouvé: " + roleId)))
                 .collect(Collectors.toSet());
             user.setRoles(roles);
+            invalidateAuthentication = true;
+        }
+        
+        // Rôles ou activation modifiés: utilisateur authentifié en cache à recharger (toutes instances)
+        if (invalidateAuthentication) {
+            authorizationCache.invalidateUser(userId);
         }
         
         user = userRepository.save(user);
@@ -169,6 +179,9 @@ public class UserService {
         user.setIsActive(false);
         userRepository.save(user);
         
+        // Les tokens encore valides ne doivent plus être servis depuis le cache des utilisateurs authentifiés
+        authorizationCache.invalidateUser(userId);
+        
         log.info("🚫 Utilisateur désactivé: {} (ID: {})", user.getEmail(), user.getId());
     }
     
@@ -4,11 +4,13 @@ import com.predykt.accounting.domain.entity.User;
 import com.predykt.accounting.domain.entity.UserSession;
 import com.predykt.accounting.repository.UserRepository;
 import com.predykt.accounting.repository.UserSessionRepository;
+import com.predykt.accounting.service.session.SessionActivityTracker;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
@@ -26,6 +28,7 @@ public class UserSessionService {
 
     private final UserSessionRepository sessionRepository;
     private final UserRepository userRepository;
+    private final SessionActivityTracker activityTracker;
 
     // Configuration: durée de session par défaut (8 heures)
     private static final int DEFAULT_SESSION_DURATION_HOURS = 8;
@@ -58,14 +61,10 @@ public class UserSessionService {
     }
 
     /**
-     * Génère un ID de session unique
+     * Génère un ID de session unique (UUID aléatoire: 122 bits, sans vérification en base)
      */
     public String generateSessionId() {
-        String sessionId;
-        do {
-            sessionId = UUID.randomUUID().toString();
-        } while (sessionRepository.existsBySessionId(sessionId));
-        return sessionId;
+        return UUID.randomUUID().toString();
     }
 
     /**
@@ -102,10 +101,11 @@ public class UserSessionService {
     }
 
     /**
-     * Met à jour la dernière activité d'une session
+     * Met à jour la dernière activité d'une session (en mémoire, reportée en base en différé)
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void updateSessionActivity(String sessionId) {
-        sessionRepository.updateLastActivity(sessionId, LocalDateTime.now());
+        activityTracker.record(sessionId);
     }
 
     /**
@@ -126,6 +126,7 @@ public class UserSessionService {
     public void endSession(String sessionId, String reason) {
         log.info("Fin de la session {} - Raison: {}", sessionId, reason);
         sessionRepository.endSession(sessionId, LocalDateTime.now(), reason);
+        activityTracker.forget(sessionId);
     }
 
     /**
@@ -150,6 +151,7 @@ public class UserSessionService {
             .forEach(session -> {
                 session.end(reason);
                 sessionRepository.save(session);
+                activityTracker.forget(session.getSessionId());
             });
     }
 
@@ -170,15 +172,26 @@ public class UserSessionService {
     }
 
     /**
-     * Vérifie si une session est valide
+     * Vérifie si une session est valide (active, non expirée et non inactive)
+     * L'inactivité est évaluée sur la dernière activité connue, en mémoire ou en base
      */
     @Transactional(readOnly = true)
     public boolean isSessionValid(String sessionId) {
         return sessionRepository.findBySessionId(sessionId)
-            .map(UserSession::isValid)
+            .map(session -> session.isValid() && !isInactive(session))
             .orElse(false);
     }
 
+    private boolean isInactive(UserSession session) {
+        LocalDateTime lastActivity = session.getLastActivityAt();
+        LocalDateTime tracked = activityTracker.getLastActivity(session.getSessionId());
+        if (tracked != null && (lastActivity == null || tracked.isAfter(lastActivity))) {
+            lastActivity = tracked;
+        }
+        return lastActivity != null
+            && LocalDateTime.now().isAfter(lastActivity.plusMinutes(INACTIVITY_TIMEOUT_MINUTES));
+    }
+
     /**
      * Vérifie si un sessionId existe
      */
@@ -206,6 +219,9 @@ public class UserSessionService {
     public void cleanupInactiveSessions() {
         log.info("Début du nettoyage des sessions inactives");
 
+        // Reporter d'abord les activités en mémoire: une session active ne doit pas être fermée
+        activityTracker.flush();
+
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(INACTIVITY_TIMEOUT_MINUTES);
         int count = sessionRepository.endInactiveSessions(LocalDateTime.now(), threshold);
 
@@ -238,6 +254,7 @@ public class UserSessionService {
      */
     @Transactional(readOnly = true)
     public List<UserSession> getInactiveSessions(int inactivityMinutes) {
+        activityTracker.flush();
         LocalDateTime threshold = LocalDateTime.now().minusMinutes(inactivityMinutes);
         return sessionRepository.findInactiveSessions(threshold);
     }
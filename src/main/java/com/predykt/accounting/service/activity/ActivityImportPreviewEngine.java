@@ -0,0 +1,261 @@
+package com.predykt.accounting.service.activity;
+
+import com.predykt.accounting.config.ActivityImportConfig;
+import com.predykt.accounting.domain.enums.ActivityCsvFormat;
+import com.predykt.accounting.dto.ActivityImportDto;
+import com.predykt.accounting.dto.response.activity.ActivityPreviewRow;
+import com.predykt.accounting.dto.response.activity.PreviewResponse;
+import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.service.ActivityMappingService;
+import com.predykt.accounting.service.parser.activity.ActivityCsvParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Moteur de prévisualisation des imports d'activités
+ *
+ * - Un seul passage en flux sur le fichier: les N premières lignes sont conservées pour l'affichage,
+ *   le reste alimente un échantillon aléatoire de taille fixe (reservoir sampling)
+ * - Le mapping n'est appliqué qu'aux lignes conservées; les statistiques (validité, comptes,
+ *   confiance) sont extrapolées à tout le fichier depuis l'échantillon
+ * - Le format, le template et l'en-tête détectés sont conservés sous un jeton, réutilisé par
+ *   l'import confirmé au lieu de refaire la détection
+ *
+ * La mémoire utilisée ne dépend pas de la taille du fichier.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityImportPreviewEngine {
+
+    /**
+     * Nombre maximal de jetons conservés simultanément
+     */
+    private static final int MAX_TOKENS = 10_000;
+
+    /**
+     * Longueur maximale lue pour l'en-tête
+     */
+    private static final int MAX_HEADER_BYTES = 64 * 1024;
+
+    private final ActivityMappingService mappingService;
+    private final ActivityImportConfig config;
+
+    private final Map<String, CachedLayout> layouts = new ConcurrentHashMap<>();
+
+    /**
+     * Prévisualise le fichier et conserve sa structure sous un jeton
+     *
+     * @param layout Format et template retenus pour ce fichier
+     */
+    public PreviewResponse preview(Long companyId, MultipartFile file, ActivityCsvParser parser, ImportLayout layout) {
+        long start = System.currentTimeMillis();
+
+        int headRows = Math.max(0, config.getPreviewRows());
+        int sampleSize = Math.max(1, config.getPreviewSampleSize());
+
+        List<ActivityImportDto> head = new ArrayList<>(headRows);
+        List<ActivityImportDto> reservoir = new ArrayList<>(sampleSize);
+        long[] seenAfterHead = {0};
+
+        long totalRows;
+        try (InputStream inputStream = file.getInputStream()) {
+            totalRows = parser.parse(inputStream, file.getOriginalFilename(), activity -> {
+                if (head.size() < headRows) {
+                    head.add(activity);
+                    return;
+                }
+                // Algorithme R: chaque ligne du reste du fichier a la même probabilité d'être retenue
+                long seen = ++seenAfterHead[0];
+                if (reservoir.size() < sampleSize) {
+                    reservoir.add(activity);
+                } else {
+                    long slot = ThreadLocalRandom.current().nextLong(seen);
+                    if (slot < sampleSize) {
+                        reservoir.set((int) slot, activity);
+                    }
+                }
+            });
+        } catch (ImportException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new ImportException("Échec de la prévisualisation: " + e.getMessage(), e);
+        }
+
+        for (ActivityImportDto activity : head) {
+            mappingService.applyMapping(companyId, activity);
+        }
+        for (ActivityImportDto activity : reservoir) {
+            mappingService.applyMapping(companyId, activity);
+        }
+
+        // Les lignes de l'échantillon représentent chacune (reste du fichier / taille de l'échantillon) lignes
+        boolean estimated = seenAfterHead[0] > reservoir.size();
+        double sampleWeight = reservoir.isEmpty() ? 0 : (double) seenAfterHead[0] / reservoir.size();
+
+        Statistics statistics = new Statistics();
+        head.forEach(activity -> statistics.add(activity, 1));
+        reservoir.forEach(activity -> statistics.add(activity, sampleWeight));
+
+        String token = store(companyId, layout);
+
+        List<String> globalWarnings = new ArrayList<>();
+        if (estimated) {
+            globalWarnings.add(String.format(
+                "Statistiques estimées sur un échantillon de %d lignes (fichier de %d lignes)",
+                head.size() + reservoir.size(), totalRows));
+        }
+
+        log.info("Preview of {} for company {}: {} rows, {} analysed in {} ms",
+            file.getOriginalFilename(), companyId, totalRows, head.size() + reservoir.size(),
+            System.currentTimeMillis() - start);
+
+        return PreviewResponse.builder()
+            .fileName(file.getOriginalFilename())
+            .totalRows((int) totalRows)
+            .validRows((int) Math.round(statistics.valid))
+            .invalidRows((int) Math.round(statistics.invalid))
+            .rows(head.stream().map(ActivityImportPreviewEngine::toPreviewRow).collect(Collectors.toList()))
+            .globalWarnings(globalWarnings)
+            .accountDistribution(round(statistics.accounts))
+            .confidenceDistribution(round(statistics.confidence))
+            .uploadToken(token)
+            .sampledRows(head.size() + reservoir.size())
+            .estimated(estimated)
+            .build();
+    }
+
+    /**
+     * Structure retenue lors de la prévisualisation, si le jeton est valide pour ce fichier
+     *
+     * @throws ImportException si le fichier diffère de celui prévisualisé
+     */
+    public Optional<ImportLayout> resolveToken(String token, Long companyId, MultipartFile file) {
+        CachedLayout cached = token != null ? layouts.remove(token) : null;
+        if (cached == null || cached.expiresAt().isBefore(Instant.now())) {
+            log.info("Preview token unknown or expired, detecting file structure again");
+            return Optional.empty();
+        }
+
+        ImportLayout layout = cached.layout();
+        if (!cached.companyId().equals(companyId)
+                || !Objects.equals(layout.fileName(), file.getOriginalFilename())
+                || layout.fileSize() != file.getSize()
+                || !Objects.equals(layout.header(), readHeader(file))) {
+            throw new ImportException("Le fichier ne correspond pas à la prévisualisation, veuillez la relancer");
+        }
+        return Optional.of(layout);
+    }
+
+    /**
+     * Structure d'un fichier: format et template retenus, en-tête lu
+     */
+    public ImportLayout layoutOf(MultipartFile file, ActivityCsvFormat format, Long templateId) {
+        return new ImportLayout(format, templateId, file.getOriginalFilename(), file.getSize(), readHeader(file));
+    }
+
+    private String store(Long companyId, ImportLayout layout) {
+        Instant now = Instant.now();
+        if (layouts.size() >= MAX_TOKENS) {
+            layouts.values().removeIf(cached -> cached.expiresAt().isBefore(now));
+            if (layouts.size() >= MAX_TOKENS) {
+                layouts.clear();
+            }
+        }
+        String token = UUID.randomUUID().toString();
+        layouts.put(token, new CachedLayout(companyId, layout,
+            now.plusSeconds(Math.max(1, config.getPreviewTokenTtlMinutes()) * 60)));
+        return token;
+    }
+
+    /**
+     * Première ligne du fichier (sans fin de ligne)
+     */
+    private static String readHeader(MultipartFile file) {
+        try (InputStream inputStream = file.getInputStream()) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = inputStream.read()) != -1 && b != '\n' && line.size() < MAX_HEADER_BYTES) {
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return line.toString(StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new ImportException("Erreur lecture fichier: " + e.getMessage(), e);
+        }
+    }
+
+    private static Map<String, Integer> round(Map<String, Double> weighted) {
+        Map<String, Integer> rounded = new HashMap<>();
+        weighted.forEach((key, value) -> rounded.put(key, (int) Math.round(value)));
+        return rounded;
+    }
+
+    private static ActivityPreviewRow toPreviewRow(ActivityImportDto dto) {
+        return ActivityPreviewRow.builder()
+            .rowNumber(dto.getRowNumber())
+            .date(dto.getDate())
+            .activity(dto.getActivity())
+            .description(dto.getDescription())
+            .amount(dto.getAmount())
+            .type(dto.getType())
+            .detectedAccount(dto.getDetectedAccount())
+            .accountName(dto.getAccountName())
+            .journalCode(dto.getJournalCode())
+            .confidence(dto.getConfidenceLevel())
+            .isValid(dto.isValid())
+            .warnings(dto.getWarnings())
+            .errors(dto.getErrors())
+            .build();
+    }
+
+    /**
+     * Compteurs pondérés (une ligne d'échantillon compte pour plusieurs lignes du fichier)
+     */
+    private static final class Statistics {
+        private double valid;
+        private double invalid;
+        private final Map<String, Double> accounts = new HashMap<>();
+        private final Map<String, Double> confidence = new HashMap<>();
+
+        void add(ActivityImportDto activity, double weight) {
+            if (activity.isValid()) {
+                valid += weight;
+            } else {
+                invalid += weight;
+            }
+            if (activity.getDetectedAccount() != null) {
+                accounts.merge(activity.getDetectedAccount(), weight, Double::sum);
+            }
+            confidence.merge(activity.getConfidenceLevel(), weight, Double::sum);
+        }
+    }
+
+    /**
+     * Structure d'un fichier retenue à la prévisualisation
+     */
+    public record ImportLayout(ActivityCsvFormat format, Long templateId, String fileName, long fileSize, String header) {}
+
+    private record CachedLayout(Long companyId, ImportLayout layout, Instant expiresAt) {}
+}
@@ -0,0 +1,142 @@
+package com.predykt.accounting.service.aging;
+
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.repository.GeneralLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Moteur de balance âgée agrégée en base de données
+ *
+ * Une seule requête par rapport: regroupement par compte tiers et ventilation
+ * par tranche d'âge (0-30j, 30-60j, 60-90j, >90j) relative à la date d'arrêté.
+ * Aucune écriture n'est chargée en mémoire: seuls les totaux par compte remontent.
+ *
+ * Option "netSettled": exclut au préalable les pièces lettrées
+ * (factures/avoirs soldés et leurs règlements) afin que les tranches ne
+ * reflètent que les montants réellement ouverts.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AgingBucketEngine {
+
+    private final GeneralLedgerRepository generalLedgerRepository;
+
+    /**
+     * Calcule les totaux par tranche d'âge pour chaque compte commençant par le préfixe
+     *
+     * @param company Entreprise
+     * @param accountPrefix Préfixe de compte (411 clients, 401 fournisseurs)
+     * @param asOfDate Date d'arrêté
+     * @param netSettled true pour exclure les pièces lettrées
+     * @return Une ligne agrégée par compte, triée par numéro de compte
+     */
+    public List<AccountAgingBuckets> computeBuckets(Company company, String accountPrefix,
+                                                    LocalDate asOfDate, boolean netSettled) {
+        List<Object[]> rows = generalLedgerRepository.getAgingBucketsByAccount(
+            company,
+            accountPrefix,
+            asOfDate,
+            asOfDate.minusDays(30),
+            asOfDate.minusDays(60),
+            asOfDate.minusDays(90),
+            netSettled);
+
+        log.debug("Balance âgée {}: {} compte(s) agrégé(s) en base (lettrage net: {})",
+            accountPrefix, rows.size(), netSettled);
+
+        return rows.stream()
+            .map(AgingBucketEngine::toBuckets)
+            .toList();
+    }
+
+    private static AccountAgingBuckets toBuckets(Object[] row) {
+        return new AccountAgingBuckets(
+            (String) row[0],                 // accountNumber
+            (String) row[1],                 // accountName
+            (String) row[2],                 // customerName
+            (String) row[3],                 // supplierName
+            (BigDecimal) row[4],             // totalDebit
+            (BigDecimal) row[5],             // totalCredit
+            new BigDecimal[] {               // débits par tranche
+                (BigDecimal) row[6], (BigDecimal) row[7], (BigDecimal) row[8], (BigDecimal) row[9]
+            },
+            new BigDecimal[] {               // crédits par tranche
+                (BigDecimal) row[10], (BigDecimal) row[11], (BigDecimal) row[12], (BigDecimal) row[13]
+            },
+            (LocalDate) row[14],             // plus ancien débit
+            (LocalDate) row[15],             // plus ancien crédit
+            toInt(row[16]),                  // débits échus (> 30j)
+            toInt(row[17])                   // crédits échus (> 30j)
+        );
+    }
+
+    private static int toInt(Object value) {
+        return value == null ? 0 : ((Number) value).intValue();
+    }
+
+    /**
+     * Totaux agrégés d'un compte tiers
+     * Index des tranches: 0 = 0-30j, 1 = 30-60j, 2 = 60-90j, 3 = >90j
+     */
+    public record AccountAgingBuckets(
+        String accountNumber,
+        String accountName,
+        String customerName,
+        String supplierName,
+        BigDecimal totalDebit,
+        BigDecimal totalCredit,
+        BigDecimal[] debitBuckets,
+        BigDecimal[] creditBuckets,
+        LocalDate oldestDebitDate,
+        LocalDate oldestCreditDate,
+        int overdueDebitCount,
+        int overdueCreditCount
+    ) {
+
+        /**
+         * Solde du compte dans le sens attendu (débiteur pour créances, créditeur pour dettes)
+         */
+        public BigDecimal balance(boolean receivable) {
+            return receivable
+                ? totalDebit.subtract(totalCredit)
+                : totalCredit.subtract(totalDebit);
+        }
+
+        /**
+         * Montants "ouverts" par tranche (débits pour clients, crédits pour fournisseurs)
+         */
+        public BigDecimal[] buckets(boolean receivable) {
+            return receivable ? debitBuckets : creditBuckets;
+        }
+
+        public LocalDate oldestDate(boolean receivable) {
+            return receivable ? oldestDebitDate : oldestCreditDate;
+        }
+
+        public int overdueCount(boolean receivable) {
+            return receivable ? overdueDebitCount : overdueCreditCount;
+        }
+
+        /**
+         * Nom du tiers: client > fournisseur > libellé du compte > numéro de compte
+         */
+        public String tiersName() {
+            if (customerName != null) {
+                return customerName;
+            }
+            if (supplierName != null) {
+                return supplierName;
+            }
+            return accountName != null ? accountName : accountNumber;
+        }
+    }
+}
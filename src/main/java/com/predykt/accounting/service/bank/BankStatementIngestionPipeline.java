@@ -0,0 +1,287 @@
+package com.predykt.accounting.service.bank;
+
+import com.predykt.accounting.config.BankImportConfig;
+import com.predykt.accounting.domain.entity.BankTransaction;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.dto.request.BankTransactionImportDto;
+import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.repository.BankTransactionRepository;
+import com.predykt.accounting.repository.support.SequenceIdAllocator;
+import com.predykt.accounting.service.parser.BankStatementParser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.InputStream;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Pipeline d'import des relevés bancaires par lots
+ *
+ * - Un thread lit le fichier (parsers en flux) et produit des lots de transactions
+ * - Le thread appelant, porteur de la transaction, consomme les lots au fil de l'eau:
+ *   une requête IN par lot pour détecter les références déjà importées,
+ *   puis insertion des nouvelles lignes par lots JDBC avec identifiants pré-réservés
+ *
+ * Une erreur de lecture ou d'écriture annule tout l'import (rollback de la transaction).
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BankStatementIngestionPipeline {
+
+    /**
+     * Marqueur de fin de fichier (comparé par identité)
+     */
+    private static final List<BankTransactionImportDto> END_OF_STREAM = Collections.unmodifiableList(new ArrayList<>());
+
+    private static final String ID_SEQUENCE = "bank_transactions_seq";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO bank_transactions (id, company_id, transaction_date, value_date, amount, description, " +
+        "bank_reference, is_reconciled, third_party_name, imported_at, import_source, created_at, created_by, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, FALSE, ?, ?, ?, ?, ?, 0)";
+
+    private final BankTransactionRepository transactionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+    private final AuditorAware<String> auditorProvider;
+    private final BankImportConfig config;
+
+    /**
+     * Importe toutes les transactions du flux
+     *
+     * @param company Entreprise
+     * @param parser Parser du format détecté
+     * @param inputStream Contenu du relevé (fermé par l'appelant)
+     * @return Transactions insérées et compteurs de l'import
+     */
+    @Transactional
+    public IngestionResult ingest(Company company, BankStatementParser parser, InputStream inputStream) {
+        long start = System.currentTimeMillis();
+
+        BlockingQueue<List<BankTransactionImportDto>> queue =
+            new ArrayBlockingQueue<>(Math.max(1, config.getQueueCapacity()));
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        AtomicReference<Throwable> parseError = new AtomicReference<>();
+
+        Thread parserThread = new Thread(
+            () -> produceChunks(parser, inputStream, queue, cancelled, parseError),
+            "bank-import-parser");
+        parserThread.setDaemon(true);
+        parserThread.start();
+
+        IngestionResult result = new IngestionResult(new ArrayList<>());
+        Set<String> seenReferences = new HashSet<>();
+        String importedBy = auditorProvider.getCurrentAuditor().orElse("system");
+        boolean completed = false;
+
+        try {
+            List<BankTransactionImportDto> chunk;
+            while ((chunk = queue.take()) != END_OF_STREAM) {
+                writeChunk(company, chunk, parser.getFormatName(), importedBy, seenReferences, result);
+            }
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ImportException("Import interrompu", e);
+        } finally {
+            if (!completed) {
+                // Débloquer et arrêter le thread de lecture
+                cancelled.set(true);
+                queue.clear();
+            }
+        }
+
+        Throwable error = parseError.get();
+        if (error != null) {
+            throw new ImportException("Échec du parsing: " + error.getMessage(), error);
+        }
+
+        log.info("Bank import ({}) - {} parsed, {} inserted, {} duplicates, {} invalid in {} ms",
+            parser.getFormatName(), result.getParsedCount(), result.getImported().size(),
+            result.getDuplicateCount(), result.getInvalidCount(), System.currentTimeMillis() - start);
+
+        return result;
+    }
+
+    /**
+     * Lecture du fichier et découpage en lots (thread de lecture)
+     */
+    private void produceChunks(BankStatementParser parser, InputStream inputStream,
+                               BlockingQueue<List<BankTransactionImportDto>> queue,
+                               AtomicBoolean cancelled, AtomicReference<Throwable> parseError) {
+        int chunkSize = Math.max(1, config.getChunkSize());
+        List<List<BankTransactionImportDto>> current = new ArrayList<>(1);
+        current.add(new ArrayList<>(chunkSize));
+
+        try {
+            parser.parse(inputStream, dto -> {
+                List<BankTransactionImportDto> chunk = current.get(0);
+                chunk.add(dto);
+                if (chunk.size() >= chunkSize) {
+                    put(queue, chunk, cancelled);
+                    current.set(0, new ArrayList<>(chunkSize));
+                }
+            });
+            if (!current.get(0).isEmpty()) {
+                put(queue, current.get(0), cancelled);
+            }
+        } catch (CancellationException e) {
+            log.debug("Bank import parsing cancelled");
+        } catch (Throwable e) {
+            parseError.set(e);
+        } finally {
+            try {
+                put(queue, END_OF_STREAM, cancelled);
+            } catch (CancellationException ignored) {
+                // L'import a été abandonné par le thread d'écriture
+            }
+        }
+    }
+
+    private static void put(BlockingQueue<List<BankTransactionImportDto>> queue,
+                            List<BankTransactionImportDto> chunk, AtomicBoolean cancelled) {
+        try {
+            while (!queue.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+                if (cancelled.get()) {
+                    throw new CancellationException();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * Dédoublonnage d'un lot en une requête puis insertion des nouvelles transactions
+     */
+    private void writeChunk(Company company, List<BankTransactionImportDto> chunk, String importSource,
+                            String importedBy, Set<String> seenReferences, IngestionResult result) {
+        result.parsedCount += chunk.size();
+
+        List<String> references = chunk.stream()
+            .map(BankTransactionImportDto::getBankReference)
+            .filter(reference -> reference != null && !reference.isBlank())
+            .distinct()
+            .toList();
+
+        Set<String> existing = references.isEmpty()
+            ? Collections.emptySet()
+            : new HashSet<>(transactionRepository.findExistingBankReferences(company, references));
+
+        LocalDate today = LocalDate.now();
+        List<BankTransaction> survivors = new ArrayList<>(chunk.size());
+
+        for (BankTransactionImportDto dto : chunk) {
+            if (dto.getTransactionDate() == null || dto.getAmount() == null) {
+                log.debug("Invalid transaction ignored (missing date or amount): {}", dto.getBankReference());
+                result.invalidCount++;
+                continue;
+            }
+
+            // Doublon en base ou déjà présent plus haut dans le fichier
+            String reference = dto.getBankReference();
+            if (reference != null && !reference.isBlank()
+                    && (existing.contains(reference) || !seenReferences.add(reference))) {
+                log.debug("Duplicate transaction ignored: {}", reference);
+                result.duplicateCount++;
+                continue;
+            }
+
+            survivors.add(BankTransaction.builder()
+                .company(company)
+                .transactionDate(dto.getTransactionDate())
+                .valueDate(dto.getValueDate())
+                .amount(dto.getAmount())
+                .description(dto.getDescription())
+                .bankReference(reference)
+                .thirdPartyName(dto.getThirdPartyName())
+                .isReconciled(false)
+                .importedAt(today)
+                .importSource(importSource)
+                .build());
+        }
+
+        if (!survivors.isEmpty()) {
+            insertInBatches(company, survivors, importedBy);
+            result.imported.addAll(survivors);
+        }
+    }
+
+    /**
+     * Réserve les identifiants puis insère les transactions par lots JDBC
+     */
+    private void insertInBatches(Company company, List<BankTransaction> transactions, String importedBy) {
+        List<Long> ids = idAllocator.allocate(ID_SEQUENCE, transactions.size());
+        for (int i = 0; i < transactions.size(); i++) {
+            transactions.get(i).setId(ids.get(i));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, transactions, Math.max(1, config.getBatchSize()), (ps, transaction) -> {
+            ps.setLong(1, transaction.getId());
+            ps.setLong(2, company.getId());
+            ps.setDate(3, Date.valueOf(transaction.getTransactionDate()));
+            ps.setDate(4, transaction.getValueDate() != null ? Date.valueOf(transaction.getValueDate()) : null);
+            ps.setBigDecimal(5, transaction.getAmount());
+            ps.setString(6, transaction.getDescription());
+            ps.setString(7, transaction.getBankReference());
+            ps.setString(8, transaction.getThirdPartyName());
+            ps.setDate(9, Date.valueOf(transaction.getImportedAt()));
+            ps.setString(10, transaction.getImportSource());
+            ps.setTimestamp(11, now);
+            ps.setString(12, importedBy);
+        });
+    }
+
+    /**
+     * Résultat d'un import
+     */
+    public static class IngestionResult {
+        private final List<BankTransaction> imported;
+        private int parsedCount;
+        private int duplicateCount;
+        private int invalidCount;
+
+        IngestionResult(List<BankTransaction> imported) {
+            this.imported = imported;
+        }
+
+        public List<BankTransaction> getImported() {
+            return imported;
+        }
+
+        public int getParsedCount() {
+            return parsedCount;
+        }
+
+        public int getDuplicateCount() {
+            return duplicateCount;
+        }
+
+        public int getInvalidCount() {
+            return invalidCount;
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.predykt.accounting.service.chart;
+
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+import com.predykt.accounting.domain.enums.AccountType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Plan comptable d'une entreprise figé en mémoire (immuable, thread-safe)
+ *
+ * - Tableaux parallèles triés par numéro de compte: id, numéro, libellé, type, actif
+ * - Recherche d'un numéro par dichotomie, plage de comptes d'un préfixe (classe, racine) par deux dichotomies
+ * - Sérialisé en un bloc binaire compact (pas d'entité JPA ni d'association paresseuse dans le cache)
+ *
+ * @author PREDYKT Team
+ */
+public final class ChartOfAccountsSnapshot implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final AccountType[] TYPES = AccountType.values();
+
+    private final Long companyId;
+    private final long[] ids;
+    private final String[] numbers;
+    private final String[] names;
+    private final AccountType[] types;
+    private final BitSet active;
+
+    private ChartOfAccountsSnapshot(Long companyId, long[] ids, String[] numbers, String[] names,
+                                    AccountType[] types, BitSet active) {
+        this.companyId = companyId;
+        this.ids = ids;
+        this.numbers = numbers;
+        this.names = names;
+        this.types = types;
+        this.active = active;
+    }
+
+    /**
+     * Construit le plan figé à partir des comptes de l'entreprise (ordre quelconque)
+     */
+    public static ChartOfAccountsSnapshot of(Long companyId, List<ChartOfAccounts> accounts) {
+        List<ChartOfAccounts> sorted = new ArrayList<>(accounts.size());
+        for (ChartOfAccounts account : accounts) {
+            if (account.getId() != null && account.getAccountNumber() != null) {
+                sorted.add(account);
+            }
+        }
+        sorted.sort(Comparator.comparing(ChartOfAccounts::getAccountNumber));
+
+        int size = sorted.size();
+        long[] ids = new long[size];
+        String[] numbers = new String[size];
+        String[] names = new String[size];
+        AccountType[] types = new AccountType[size];
+        BitSet active = new BitSet(size);
+        for (int i = 0; i < size; i++) {
+            ChartOfAccounts account = sorted.get(i);
+            ids[i] = account.getId();
+            numbers[i] = account.getAccountNumber();
+            names[i] = account.getAccountName();
+            types[i] = account.getAccountType();
+            if (!Boolean.FALSE.equals(account.getIsActive())) {
+                active.set(i);
+            }
+        }
+        return new ChartOfAccountsSnapshot(companyId, ids, numbers, names, types, active);
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public int size() {
+        return numbers.length;
+    }
+
+    /**
+     * Position du compte, ou valeur négative s'il n'existe pas
+     */
+    public int indexOf(String accountNumber) {
+        return accountNumber != null ? Arrays.binarySearch(numbers, accountNumber) : -1;
+    }
+
+    public boolean contains(String accountNumber) {
+        return indexOf(accountNumber) >= 0;
+    }
+
+    /**
+     * Compte par numéro (null s'il n'existe pas)
+     */
+    public AccountSummary find(String accountNumber) {
+        int index = indexOf(accountNumber);
+        return index >= 0 ? get(index) : null;
+    }
+
+    public AccountSummary get(int index) {
+        return new AccountSummary(ids[index], numbers[index], names[index], types[index], active.get(index));
+    }
+
+    /**
+     * Comptes dont le numéro commence par le préfixe, dans l'ordre des numéros
+     *
+     * @param activeOnly Comptes actifs uniquement
+     */
+    public List<AccountSummary> withPrefix(String prefix, boolean activeOnly) {
+        int from = lowerBound(prefix);
+        int to = upperBound(prefix, from);
+        List<AccountSummary> accounts = new ArrayList<>(to - from);
+        for (int i = from; i < to; i++) {
+            if (!activeOnly || active.get(i)) {
+                accounts.add(get(i));
+            }
+        }
+        return accounts;
+    }
+
+    /**
+     * Tous les comptes, dans l'ordre des numéros
+     */
+    public List<AccountSummary> all(boolean activeOnly) {
+        return withPrefix("", activeOnly);
+    }
+
+    /**
+     * Premier numéro >= préfixe
+     */
+    private int lowerBound(String prefix) {
+        int low = 0;
+        int high = numbers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid].compareTo(prefix) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Premier numéro (à partir de from) qui ne commence plus par le préfixe
+     * Les numéros commençant par un préfixe forment une plage contiguë de l'ordre lexicographique
+     */
+    private int upperBound(String prefix, int from) {
+        int low = from;
+        int high = numbers.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (numbers[mid].startsWith(prefix)) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Bloc binaire: entreprise, nombre de comptes, puis pour chaque compte id, numéro, libellé, type, actif
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + numbers.length * 48);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeLong(companyId != null ? companyId : -1L);
+            out.writeInt(numbers.length);
+            for (int i = 0; i < numbers.length; i++) {
+                out.writeLong(ids[i]);
+                out.writeUTF(numbers[i]);
+                out.writeUTF(names[i] != null ? names[i] : "");
+                out.writeByte(types[i] != null ? types[i].ordinal() : -1);
+                out.writeBoolean(active.get(i));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static ChartOfAccountsSnapshot fromBytes(byte[] data) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            long company = in.readLong();
+            int size = in.readInt();
+            long[] ids = new long[size];
+            String[] numbers = new String[size];
+            String[] names = new String[size];
+            AccountType[] types = new AccountType[size];
+            BitSet active = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                ids[i] = in.readLong();
+                numbers[i] = in.readUTF();
+                names[i] = in.readUTF();
+                int type = in.readByte();
+                types[i] = type >= 0 && type < TYPES.length ? TYPES[type] : null;
+                if (in.readBoolean()) {
+                    active.set(i);
+                }
+            }
+            return new ChartOfAccountsSnapshot(company >= 0 ? company : null, ids, numbers, names, types, active);
+        }
+    }
+
+    /**
+     * Sérialisation Java (cache Redis): remplacée par le bloc binaire
+     */
+    @Serial
+    private Object writeReplace() {
+        return new SerializedForm(toBytes());
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("Forme sérialisée attendue");
+    }
+
+    /**
+     * Compte du plan figé
+     */
+    public record AccountSummary(long id, String accountNumber, String accountName,
+                                 AccountType accountType, boolean active) {}
+
+    private record SerializedForm(byte[] data) implements Serializable {
+
+        @Serial
+        private Object readResolve() throws IOException {
+            return fromBytes(data);
+        }
+    }
+}
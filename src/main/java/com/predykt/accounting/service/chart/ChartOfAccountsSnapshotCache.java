@@ -0,0 +1,170 @@
+package com.predykt.accounting.service.chart;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.repository.ChartOfAccountsRepository;
+import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.util.TransactionalEviction;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Plans comptables figés par (tenant, entreprise), dans le cache à deux niveaux "chartOfAccountsSnapshot"
+ *
+ * Le plan est chargé en une requête au premier accès puis servi depuis la mémoire locale (ou Redis,
+ * sous forme de bloc binaire). Il est invalidé à chaque création, modification ou suppression d'un compte
+ * de l'entreprise (ChartOfAccountsChangeListener), puis à nouveau après commit.
+ *
+ * Les écritures reçoivent des références JPA (EntityManager.getReference) construites à partir des id
+ * du plan figé: aucune requête pour rattacher un compte à une écriture.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChartOfAccountsSnapshotCache {
+
+    public static final String CACHE_NAME = "chartOfAccountsSnapshot";
+
+    private final CacheManager cacheManager;
+    private final ChartOfAccountsRepository chartRepository;
+    private final CompanyRepository companyRepository;
+    private final EntityManager entityManager;
+
+    /**
+     * Plan comptable figé de l'entreprise (depuis le cache ou chargé)
+     */
+    public ChartOfAccountsSnapshot snapshotFor(Company company) {
+        return cache().get(cacheKey(company.getId()), () -> load(company));
+    }
+
+    public ChartOfAccountsSnapshot snapshotFor(Long companyId) {
+        return cache().get(cacheKey(companyId), () -> load(companyRepository.getReferenceById(companyId)));
+    }
+
+    /**
+     * Référence JPA d'un compte de l'entreprise, sans requête
+     */
+    public Optional<ChartOfAccounts> findReference(Company company, String accountNumber) {
+        ChartOfAccountsSnapshot.AccountSummary account = snapshotFor(company).find(accountNumber);
+        return account != null ? Optional.of(reference(account.id())) : Optional.empty();
+    }
+
+    /**
+     * Plan comptable de l'entreprise indexé par numéro, sous forme de références JPA
+     * (vue en lecture seule; à utiliser dans une transaction ouverte au moment des accès)
+     */
+    public Map<String, ChartOfAccounts> referencesByNumber(Company company) {
+        return new ReferenceMap(snapshotFor(company));
+    }
+
+    /**
+     * Invalide le plan figé d'une entreprise (immédiatement et après commit)
+     */
+    public void invalidate(Long companyId) {
+        String key = cacheKey(companyId);
+        // Une seule éviction différée par entreprise et par transaction (imports de plan comptable)
+        TransactionalEviction.evictNowAndAfterCompletion(CACHE_NAME + ":" + key, () -> cache().evict(key));
+    }
+
+    private ChartOfAccountsSnapshot load(Company company) {
+        long start = System.nanoTime();
+        ChartOfAccountsSnapshot snapshot = ChartOfAccountsSnapshot.of(company.getId(), chartRepository.findByCompany(company));
+        log.debug("Plan comptable figé pour l'entreprise {}: {} compte(s) en {} µs",
+            company.getId(), snapshot.size(), (System.nanoTime() - start) / 1_000);
+        return snapshot;
+    }
+
+    private ChartOfAccounts reference(long accountId) {
+        return entityManager.getReference(ChartOfAccounts.class, accountId);
+    }
+
+    private Cache cache() {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache == null) {
+            throw new IllegalStateException("Cache " + CACHE_NAME + " indisponible");
+        }
+        return cache;
+    }
+
+    private static String cacheKey(Long companyId) {
+        String tenantId = TenantContextHolder.hasContext() ? TenantContextHolder.getTenantId() : "default";
+        return tenantId + ":" + companyId;
+    }
+
+    /**
+     * Vue numéro → référence JPA sur un plan figé
+     */
+    private final class ReferenceMap extends AbstractMap<String, ChartOfAccounts> {
+
+        private final ChartOfAccountsSnapshot snapshot;
+
+        private ReferenceMap(ChartOfAccountsSnapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String number && snapshot.contains(number);
+        }
+
+        @Override
+        public ChartOfAccounts get(Object key) {
+            if (!(key instanceof String number)) {
+                return null;
+            }
+            int index = snapshot.indexOf(number);
+            return index >= 0 ? reference(snapshot.get(index).id()) : null;
+        }
+
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+
+        @Override
+        public Set<Entry<String, ChartOfAccounts>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<String, ChartOfAccounts>> iterator() {
+                    return new Iterator<>() {
+                        private int index;
+
+                        @Override
+                        public boolean hasNext() {
+                            return index < snapshot.size();
+                        }
+
+                        @Override
+                        public Entry<String, ChartOfAccounts> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            ChartOfAccountsSnapshot.AccountSummary account = snapshot.get(index++);
+                            return new SimpleImmutableEntry<>(account.accountNumber(), reference(account.id()));
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return snapshot.size();
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package com.predykt.accounting.service.depreciation;
+
+import com.predykt.accounting.config.DepreciationBatchConfig;
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.domain.entity.FixedAsset;
+import com.predykt.accounting.domain.entity.GeneralLedger;
+import com.predykt.accounting.exception.AccountingException;
+import com.predykt.accounting.repository.support.SequenceIdAllocator;
+import com.predykt.accounting.service.DepreciationService;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Traitement par lot des dotations mensuelles aux amortissements
+ *
+ * 1. Préchargement en une requête de tous les comptes 681x / 28x nécessaires
+ * 2. Calcul des dotations en parallèle sur taskExecutor (plans mémoïsés par DepreciationScheduleEngine)
+ * 3. Réservation des identifiants par blocs sur la séquence pooled-lo
+ * 4. Insertion des écritures par lots JDBC, dans une seule transaction
+ *
+ * Débit  681x - Dotations aux amortissements
+ *        Crédit 28xx - Amortissements
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DepreciationBatchRunner {
+
+    private static final String CREATED_BY = "SYSTEM_AUTO_DEPRECIATION";
+
+    private static final String ID_SEQUENCE = "general_ledger_seq";
+
+    private static final String INSERT_SQL =
+        "INSERT INTO general_ledger (id, company_id, account_id, entry_date, debit_amount, credit_amount, " +
+        "description, reference, journal_code, is_locked, period, fiscal_year, created_at, created_by, version) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, FALSE, ?, ?, ?, ?, 0)";
+
+    private final DepreciationService depreciationService;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final SequenceIdAllocator idAllocator;
+    private final DepreciationBatchConfig config;
+    private final Executor taskExecutor;
+
+    /**
+     * Génère et insère les dotations du mois pour toutes les immobilisations amortissables
+     *
+     * @param company Entreprise
+     * @param year Exercice
+     * @param month Mois (1-12)
+     * @param pieceNumber Numéro de pièce commun à toutes les dotations du mois
+     * @param progressListener Suivi de progression (optionnel)
+     * @return Écritures insérées (identifiants renseignés)
+     */
+    @Transactional
+    public List<GeneralLedger> run(Company company, Integer year, Integer month, String pieceNumber,
+                                   Consumer<DepreciationRunProgress> progressListener) {
+        long start = System.currentTimeMillis();
+
+        List<FixedAsset> assets = depreciationService.getDepreciableAssets(company, year, month);
+        if (assets.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<String, ChartOfAccounts> accounts = prefetchAccounts(company, assets);
+
+        LocalDate periodEnd = LocalDate.of(year, month, 1).withDayOfMonth(
+            LocalDate.of(year, month, 1).lengthOfMonth()
+        );
+
+        List<AssetDepreciation> depreciations = computeInParallel(assets, year, month, progressListener);
+
+        List<GeneralLedger> entries = new ArrayList<>(depreciations.size() * 2);
+        for (AssetDepreciation depreciation : depreciations) {
+            FixedAsset asset = depreciation.asset();
+            String description = String.format(
+                "Dotation amortissement %s/%s - %s",
+                month, year, asset.getAssetNumber()
+            );
+
+            // Débit 681x - Dotations
+            entries.add(buildEntry(company, periodEnd,
+                accounts.get(asset.getCategory().getDepreciationExpenseAccountNumber()),
+                description, depreciation.amount(), BigDecimal.ZERO, pieceNumber));
+
+            // Crédit 28xx - Amortissements cumulés
+            entries.add(buildEntry(company, periodEnd,
+                accounts.get(asset.getCategory().getDepreciationAccountNumber()),
+                description, BigDecimal.ZERO, depreciation.amount(), pieceNumber));
+        }
+
+        if (!entries.isEmpty()) {
+            insertInBatches(entries);
+        }
+
+        log.info("Dotations {}/{} - Entreprise {}: {} immobilisation(s), {} écriture(s) insérée(s) en {} ms",
+                 month, year, company.getId(), assets.size(), entries.size(), System.currentTimeMillis() - start);
+
+        return entries;
+    }
+
+    /**
+     * Charge en une requête les comptes de dotation et d'amortissement de toutes les catégories
+     */
+    private Map<String, ChartOfAccounts> prefetchAccounts(Company company, List<FixedAsset> assets) {
+        Set<String> accountNumbers = new LinkedHashSet<>();
+        for (FixedAsset asset : assets) {
+            accountNumbers.add(asset.getCategory().getDepreciationExpenseAccountNumber());
+            accountNumbers.add(asset.getCategory().getDepreciationAccountNumber());
+        }
+
+        // Vérifier tous les comptes avant le moindre calcul (plan figé, références sans requête)
+        Map<String, ChartOfAccounts> accounts = new HashMap<>();
+        for (String accountNumber : accountNumbers) {
+            ChartOfAccounts account = snapshotCache.findReference(company, accountNumber)
+                .orElseThrow(() -> new AccountingException(
+                    "Compte OHADA non trouvé: " + accountNumber + " - Veuillez l'ajouter au plan comptable"));
+            accounts.put(accountNumber, account);
+        }
+        return accounts;
+    }
+
+    /**
+     * Calcule les dotations par tranches d'immobilisations sur taskExecutor (contexte tenant propagé
+     * par TenantContextTaskDecorator); le thread appelant exécute lui-même les tranches que le pool
+     * n'a pas encore prises ou a refusées. L'ordre des immobilisations est conservé dans le résultat.
+     */
+    private List<AssetDepreciation> computeInParallel(List<FixedAsset> assets, Integer year, Integer month,
+                                                      Consumer<DepreciationRunProgress> progressListener) {
+        int parallelism = Math.max(1, Math.min(config.getEffectiveParallelism(), assets.size()));
+        int sliceSize = (assets.size() + parallelism - 1) / parallelism;
+        int progressInterval = Math.max(1, config.getProgressInterval());
+
+        AtomicInteger processed = new AtomicInteger();
+
+        List<FutureTask<List<AssetDepreciation>>> slices = new ArrayList<>(parallelism);
+        try {
+            for (int from = 0; from < assets.size(); from += sliceSize) {
+                List<FixedAsset> slice = assets.subList(from, Math.min(from + sliceSize, assets.size()));
+                FutureTask<List<AssetDepreciation>> task = new FutureTask<>(() -> {
+                    List<AssetDepreciation> result = new ArrayList<>(slice.size());
+                    for (FixedAsset asset : slice) {
+                        BigDecimal amount = depreciationService.calculateMonthlyDepreciation(asset, year, month);
+                        if (amount.compareTo(BigDecimal.ZERO) > 0) {
+                            result.add(new AssetDepreciation(asset, amount));
+                        }
+                        int done = processed.incrementAndGet();
+                        if (done % progressInterval == 0 || done == assets.size()) {
+                            reportProgress(progressListener, new DepreciationRunProgress(done, assets.size()));
+                        }
+                    }
+                    return result;
+                });
+                slices.add(task);
+                try {
+                    taskExecutor.execute(task);
+                } catch (RejectedExecutionException e) {
+                    log.debug("Dotations: pool occupé, tranche calculée par le thread appelant");
+                }
+            }
+
+            List<AssetDepreciation> depreciations = new ArrayList<>(assets.size());
+            for (FutureTask<List<AssetDepreciation>> slice : slices) {
+                // Sans effet si la tranche est déjà prise par le pool
+                slice.run();
+                depreciations.addAll(slice.get());
+            }
+            return depreciations;
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AccountingException("Calcul des dotations interrompu");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new AccountingException("Erreur lors du calcul des dotations: " + e.getCause().getMessage());
+        } finally {
+            slices.forEach(slice -> slice.cancel(true));
+        }
+    }
+
+    private void reportProgress(Consumer<DepreciationRunProgress> progressListener, DepreciationRunProgress progress) {
+        log.debug("Dotations: {}/{} immobilisation(s) traitée(s)", progress.processed(), progress.total());
+        if (progressListener != null) {
+            progressListener.accept(progress);
+        }
+    }
+
+    /**
+     * Réserve les identifiants puis insère les écritures par lots JDBC
+     */
+    private void insertInBatches(List<GeneralLedger> entries) {
+        List<Long> ids = idAllocator.allocate(ID_SEQUENCE, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            entries.get(i).setId(ids.get(i));
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_SQL, entries, Math.max(1, config.getBatchSize()), (ps, entry) -> {
+            ps.setLong(1, entry.getId());
+            ps.setLong(2, entry.getCompany().getId());
+            ps.setLong(3, entry.getAccount().getId());
+            ps.setDate(4, Date.valueOf(entry.getEntryDate()));
+            ps.setBigDecimal(5, entry.getDebitAmount());
+            ps.setBigDecimal(6, entry.getCreditAmount());
+            ps.setString(7, entry.getDescription());
+            ps.setString(8, entry.getReference());
+            ps.setString(9, entry.getJournalCode());
+            ps.setString(10, entry.getPeriod());
+            ps.setString(11, entry.getFiscalYear());
+            ps.setTimestamp(12, now);
+            ps.setString(13, CREATED_BY);
+        });
+    }
+
+    private static GeneralLedger buildEntry(Company company, LocalDate entryDate, ChartOfAccounts account,
+                                            String description, BigDecimal debitAmount, BigDecimal creditAmount,
+                                            String pieceNumber) {
+        GeneralLedger entry = GeneralLedger.builder()
+            .company(company)
+            .entryDate(entryDate)
+            .account(account)
+            .description(description)
+            .debitAmount(debitAmount)
+            .creditAmount(creditAmount)
+            .reference(pieceNumber)
+            .journalCode("OD")
+            .isLocked(false)
+            // Renseignés ici: l'insertion JDBC ne passe pas par @PrePersist
+            .period(entryDate.getYear() + "-" + String.format("%02d", entryDate.getMonthValue()))
+            .fiscalYear(String.valueOf(entryDate.getYear()))
+            .build();
+        entry.setCreatedBy(CREATED_BY);
+        return entry;
+    }
+
+    private record AssetDepreciation(FixedAsset asset, BigDecimal amount) {}
+
+    /**
+     * Progression du calcul des dotations
+     */
+    public record DepreciationRunProgress(int processed, int total) {}
+}
@@ -0,0 +1,282 @@
+package com.predykt.accounting.service.depreciation;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.FixedAsset;
+import com.predykt.accounting.domain.enums.DepreciationMethod;
+import com.predykt.accounting.util.TransactionalEviction;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Moteur de plans d'amortissement mémoïsés
+ *
+ * Le plan complet d'une immobilisation (dotation et cumul année par année) est calculé
+ * une seule fois, en un passage de l'année d'acquisition jusqu'à l'extinction de la base
+ * amortissable. Chaque dotation dépend du cumul de l'année précédente, déjà connu dans le
+ * passage: plus de recalcul récursif des années antérieures.
+ *
+ * Le plan est mis en cache par (tenant, id, version) de l'immobilisation: toute modification
+ * persistée incrémente la version (@Version) et produit un nouveau plan. Les versions remplacées
+ * sont retirées par FixedAssetService (modification, suppression, cession) via evict().
+ *
+ * Lu par le tableau d'amortissements, les dotations mensuelles et les notes annexes.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@Slf4j
+public class DepreciationScheduleEngine {
+
+    /**
+     * Nombre maximal de plans conservés en mémoire avant purge
+     */
+    private static final int MAX_CACHED_SCHEDULES = 50_000;
+
+    /**
+     * Garde-fou: nombre maximal d'années calculées pour un plan
+     */
+    private static final int MAX_SCHEDULE_YEARS = 200;
+
+    private final Map<ScheduleKey, AssetSchedule> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Retourne le plan d'amortissement complet de l'immobilisation (calculé ou depuis le cache)
+     */
+    public AssetSchedule scheduleFor(FixedAsset asset) {
+        if (asset.getId() == null) {
+            // Immobilisation non persistée: pas de version fiable, calcul direct
+            return computeSchedule(asset);
+        }
+
+        ScheduleKey key = new ScheduleKey(currentTenant(), asset.getId(), asset.getVersion());
+        AssetSchedule schedule = cache.get(key);
+        if (schedule != null) {
+            return schedule;
+        }
+
+        if (cache.size() >= MAX_CACHED_SCHEDULES) {
+            log.debug("Cache des plans d'amortissement plein ({}), purge", cache.size());
+            cache.clear();
+        }
+
+        schedule = computeSchedule(asset);
+        cache.put(key, schedule);
+        return schedule;
+    }
+
+    /**
+     * Retire du cache tous les plans d'une immobilisation du tenant courant (toutes versions),
+     * immédiatement et après commit (un plan calculé sur l'état non commité n'est pas conservé)
+     */
+    public void evict(Long assetId) {
+        if (assetId == null) {
+            return;
+        }
+        String tenant = currentTenant();
+        TransactionalEviction.evictNowAndAfterCompletion(() -> cache.keySet().removeIf(key ->
+            key.assetId().equals(assetId) && key.tenantId().equals(tenant)));
+    }
+
+    /**
+     * Calcule le plan en un seul passage chronologique
+     */
+    AssetSchedule computeSchedule(FixedAsset asset) {
+        int firstYear = asset.getAcquisitionDate().getYear();
+
+        if (!asset.isDepreciable()
+                || asset.getUsefulLifeYears() == null
+                || asset.getUsefulLifeYears() == 0) {
+            return new AssetSchedule(firstYear, new BigDecimal[0], new BigDecimal[0]);
+        }
+
+        int lifeEndYear = firstYear + asset.getUsefulLifeYears();
+        List<BigDecimal> annuals = new ArrayList<>();
+        List<BigDecimal> accumulated = new ArrayList<>();
+        BigDecimal accumulatedSoFar = BigDecimal.ZERO;
+
+        for (int year = firstYear; year < firstYear + MAX_SCHEDULE_YEARS; year++) {
+            BigDecimal annual = computeYear(asset, year, accumulatedSoFar);
+
+            // Au-delà de la durée de vie, le plan s'arrête dès que la base est épuisée
+            if (year > lifeEndYear && annual.signum() == 0) {
+                break;
+            }
+
+            accumulatedSoFar = accumulatedSoFar.add(annual);
+            annuals.add(annual);
+            accumulated.add(accumulatedSoFar);
+        }
+
+        return new AssetSchedule(firstYear,
+            annuals.toArray(new BigDecimal[0]),
+            accumulated.toArray(new BigDecimal[0]));
+    }
+
+    /**
+     * Dotation d'un exercice connaissant le cumul des exercices antérieurs
+     */
+    private BigDecimal computeYear(FixedAsset asset, int fiscalYear, BigDecimal previousAccumulated) {
+        LocalDate fiscalYearStart = LocalDate.of(fiscalYear, 1, 1);
+        LocalDate fiscalYearEnd = LocalDate.of(fiscalYear, 12, 31);
+
+        // Si acquis après la fin de l'exercice, pas d'amortissement
+        if (asset.getAcquisitionDate().isAfter(fiscalYearEnd)) {
+            return BigDecimal.ZERO;
+        }
+
+        // Si cédé avant le début de l'exercice, pas d'amortissement
+        if (asset.getDisposalDate() != null && asset.getDisposalDate().isBefore(fiscalYearStart)) {
+            return BigDecimal.ZERO;
+        }
+
+        if (asset.getDepreciationMethod() == DepreciationMethod.DECLINING_BALANCE) {
+            return decliningBalanceYear(asset, fiscalYear, previousAccumulated);
+        }
+
+        // Linéaire (et repli pour les méthodes non supportées)
+        return linearYear(asset, fiscalYear, previousAccumulated);
+    }
+
+    /**
+     * Amortissement linéaire
+     */
+    private BigDecimal linearYear(FixedAsset asset, int fiscalYear, BigDecimal previousAccumulated) {
+        BigDecimal depreciableAmount = asset.getDepreciableAmount();
+
+        BigDecimal annualDepreciation = depreciableAmount
+            .divide(BigDecimal.valueOf(asset.getUsefulLifeYears()), 2, RoundingMode.HALF_UP);
+
+        // Appliquer le prorata temporis si acquisition en cours d'année
+        if (isAcquiredDuringYear(asset, fiscalYear)) {
+            int monthsInService = monthsInService(asset, fiscalYear);
+            annualDepreciation = annualDepreciation
+                .multiply(BigDecimal.valueOf(monthsInService))
+                .divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
+        }
+
+        // Limiter à la valeur résiduelle
+        BigDecimal remainingValue = depreciableAmount.subtract(previousAccumulated);
+
+        return annualDepreciation.min(remainingValue).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Amortissement dégressif (coefficients fiscaux Cameroun)
+     */
+    private BigDecimal decliningBalanceYear(FixedAsset asset, int fiscalYear, BigDecimal previousAccumulated) {
+        // Coefficient dégressif selon la durée de vie
+        BigDecimal coefficient = asset.getDepreciationMethod()
+            .getDecliningBalanceCoefficient(asset.getUsefulLifeYears());
+
+        BigDecimal rate = BigDecimal.ONE
+            .divide(BigDecimal.valueOf(asset.getUsefulLifeYears()), 4, RoundingMode.HALF_UP)
+            .multiply(coefficient);
+
+        // VNC de début d'exercice
+        BigDecimal beginningBookValue = grossValue(asset).subtract(previousAccumulated);
+
+        BigDecimal decliningDepreciation = beginningBookValue.multiply(rate);
+
+        // Calculer aussi le linéaire sur la durée restante
+        int yearsElapsed = fiscalYear - asset.getAcquisitionDate().getYear();
+        int remainingYears = Math.max(asset.getUsefulLifeYears() - yearsElapsed, 1);
+
+        BigDecimal linearDepreciation = beginningBookValue
+            .divide(BigDecimal.valueOf(remainingYears), 2, RoundingMode.HALF_UP);
+
+        // Prendre le maximum (règle du dégressif)
+        BigDecimal annualDepreciation = decliningDepreciation.max(linearDepreciation);
+
+        // Appliquer le prorata temporis si acquisition en cours d'année
+        if (isAcquiredDuringYear(asset, fiscalYear)) {
+            int monthsInService = monthsInService(asset, fiscalYear);
+            annualDepreciation = annualDepreciation
+                .multiply(BigDecimal.valueOf(monthsInService))
+                .divide(BigDecimal.valueOf(12), 2, RoundingMode.HALF_UP);
+        }
+
+        return annualDepreciation.min(beginningBookValue).max(BigDecimal.ZERO);
+    }
+
+    /**
+     * Vérifier si l'immobilisation a été acquise durant l'exercice fiscal
+     */
+    public boolean isAcquiredDuringYear(FixedAsset asset, int fiscalYear) {
+        return asset.getAcquisitionDate().getYear() == fiscalYear;
+    }
+
+    /**
+     * Calculer le nombre de mois en service durant l'exercice
+     */
+    public int monthsInService(FixedAsset asset, int fiscalYear) {
+        LocalDate fiscalYearStart = LocalDate.of(fiscalYear, 1, 1);
+        LocalDate fiscalYearEnd = LocalDate.of(fiscalYear, 12, 31);
+
+        LocalDate serviceStart = asset.getAcquisitionDate().isAfter(fiscalYearStart)
+            ? asset.getAcquisitionDate() : fiscalYearStart;
+
+        LocalDate serviceEnd = fiscalYearEnd;
+        if (asset.getDisposalDate() != null && asset.getDisposalDate().isBefore(fiscalYearEnd)) {
+            serviceEnd = asset.getDisposalDate();
+        }
+
+        long months = ChronoUnit.MONTHS.between(
+            serviceStart.withDayOfMonth(1),
+            serviceEnd.withDayOfMonth(1).plusMonths(1)
+        );
+
+        return (int) Math.max(1, Math.min(months, 12));
+    }
+
+    private static BigDecimal grossValue(FixedAsset asset) {
+        return asset.getTotalCost() != null ? asset.getTotalCost() : asset.getAcquisitionCost();
+    }
+
+    private static String currentTenant() {
+        return TenantContextHolder.hasContext() ? TenantContextHolder.getTenantId() : "default";
+    }
+
+    private record ScheduleKey(String tenantId, Long assetId, Long version) {}
+
+    /**
+     * Plan d'amortissement d'une immobilisation
+     * annual[i] et accumulated[i] correspondent à l'exercice firstYear + i
+     */
+    public record AssetSchedule(int firstYear, BigDecimal[] annual, BigDecimal[] accumulated) {
+
+        /**
+         * Dotation de l'exercice (0 hors du plan)
+         */
+        public BigDecimal annualFor(int fiscalYear) {
+            int index = fiscalYear - firstYear;
+            if (index < 0 || index >= annual.length) {
+                return BigDecimal.ZERO;
+            }
+            return annual[index];
+        }
+
+        /**
+         * Amortissements cumulés jusqu'à la fin de l'exercice inclus (lecture directe)
+         */
+        public BigDecimal accumulatedThrough(int fiscalYear) {
+            int index = fiscalYear - firstYear;
+            if (index < 0 || accumulated.length == 0) {
+                return BigDecimal.ZERO;
+            }
+            return accumulated[Math.min(index, accumulated.length - 1)];
+        }
+
+        public int lastYear() {
+            return firstYear + annual.length - 1;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.predykt.accounting.service.journal;
+
+import com.predykt.accounting.config.ActivityImportConfig;
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.dto.request.JournalEntryRequest;
+import com.predykt.accounting.service.GeneralLedgerService;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Enregistrement d'écritures par lots pour les imports volumineux
+ *
+ * - Plan comptable de l'entreprise figé une seule fois à l'ouverture de la session (ChartOfAccountsSnapshotCache)
+ * - Écritures accumulées puis enregistrées par lots, chaque lot dans sa propre transaction
+ *   (un lot en échec n'annule pas les lots déjà validés)
+ * - Progression remontée après chaque lot
+ *
+ * Utilisation: open() → submit() pour chaque écriture → finish()
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkedJournalPoster {
+
+    private final GeneralLedgerService glService;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
+    private final PlatformTransactionManager transactionManager;
+    private final ActivityImportConfig config;
+
+    /**
+     * Ouvre une session d'enregistrement pour une entreprise
+     *
+     * @param company Entreprise
+     * @param progressListener Suivi de progression (optionnel)
+     */
+    public PostingSession open(Company company, Consumer<PostingProgress> progressListener) {
+        // Vue sur le plan figé: les références sont créées dans la transaction de chaque lot
+        Map<String, ChartOfAccounts> accounts = snapshotCache.referencesByNumber(company);
+
+        TransactionTemplate chunkTransaction = new TransactionTemplate(transactionManager);
+        chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        return new PostingSession(company, accounts, chunkTransaction,
+            Math.max(1, config.getChunkSize()), progressListener);
+    }
+
+    /**
+     * Session d'enregistrement (non thread-safe)
+     */
+    public final class PostingSession {
+
+        private final Company company;
+        private final Map<String, ChartOfAccounts> accounts;
+        private final TransactionTemplate chunkTransaction;
+        private final int chunkSize;
+        private final Consumer<PostingProgress> progressListener;
+
+        private final List<JournalEntryRequest> pending = new ArrayList<>();
+        private final List<String> pendingLabels = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+        private int submitted;
+        private int posted;
+        private int failed;
+
+        private PostingSession(Company company, Map<String, ChartOfAccounts> accounts,
+                               TransactionTemplate chunkTransaction, int chunkSize,
+                               Consumer<PostingProgress> progressListener) {
+            this.company = company;
+            this.accounts = accounts;
+            this.chunkTransaction = chunkTransaction;
+            this.chunkSize = chunkSize;
+            this.progressListener = progressListener;
+        }
+
+        /**
+         * Plan comptable préchargé (numéro → compte)
+         */
+        public boolean hasAccount(String accountNumber) {
+            return accounts.containsKey(accountNumber);
+        }
+
+        /**
+         * Ajoute une écriture; le lot est enregistré dès qu'il est plein
+         *
+         * @param label Libellé de la ligne source (pour les messages d'erreur)
+         */
+        public void submit(String label, JournalEntryRequest request) {
+            pending.add(request);
+            pendingLabels.add(label);
+            submitted++;
+            if (pending.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        /**
+         * Écarte une ligne source avant enregistrement (erreur de parsing, mapping...)
+         */
+        public void reject(String label, String error) {
+            submitted++;
+            failed++;
+            errors.add(label + ": " + error);
+        }
+
+        /**
+         * Enregistre le dernier lot et retourne le bilan
+         */
+        public PostingResult finish() {
+            flush();
+            log.info("Enregistrement par lots terminé - Entreprise {}: {} écriture(s), {} rejet(s)",
+                company.getId(), posted, failed);
+            return new PostingResult(submitted, posted, failed, errors);
+        }
+
+        private void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+
+            List<JournalEntryRequest> chunk = new ArrayList<>(pending);
+            List<String> labels = new ArrayList<>(pendingLabels);
+            pending.clear();
+            pendingLabels.clear();
+
+            try {
+                Map<Integer, String> chunkErrors = chunkTransaction.execute(status ->
+                    glService.recordJournalEntries(company, chunk, accounts));
+
+                if (chunkErrors != null) {
+                    chunkErrors.forEach((index, error) -> errors.add(labels.get(index) + ": " + error));
+                    failed += chunkErrors.size();
+                    posted += chunk.size() - chunkErrors.size();
+                } else {
+                    posted += chunk.size();
+                }
+            } catch (Exception e) {
+                // Lot annulé: toutes ses écritures sont en échec
+                log.warn("Lot de {} écriture(s) rejeté: {}", chunk.size(), e.getMessage());
+                for (String label : labels) {
+                    errors.add(label + ": " + e.getMessage());
+                }
+                failed += chunk.size();
+            }
+
+            if (progressListener != null) {
+                progressListener.accept(new PostingProgress(submitted, posted, failed));
+            }
+        }
+    }
+
+    /**
+     * Progression d'un import (lignes soumises, enregistrées, en échec)
+     */
+    public record PostingProgress(int submitted, int posted, int failed) {}
+
+    /**
+     * Bilan d'une session d'enregistrement
+     */
+    public record PostingResult(int submitted, int posted, int failed, List<String> errors) {}
+}
@@ -0,0 +1,135 @@
+package com.predykt.accounting.service.journal;
+
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.repository.GeneralLedgerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Moteur de lecture des journaux auxiliaires par projection SQL
+ *
+ * - Une seule requête avec jointure sur le plan comptable, sans charger d'entités GeneralLedger
+ * - Lignes triées par pièce puis regroupées en un seul passage (pas de groupingBy en mémoire)
+ * - Totaux du journal calculés en base
+ *
+ * Utilisé par les endpoints JSON et les exports PDF/Excel des journaux (via AuxiliaryJournalsService)
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JournalProjectionEngine {
+
+    private final GeneralLedgerRepository generalLedgerRepository;
+
+    /**
+     * Parcourt le journal pièce par pièce
+     * Chaque pièce est émise dès que sa dernière ligne a été lue
+     *
+     * @return Nombre de lignes lues
+     */
+    @Transactional(readOnly = true)
+    public long forEachPiece(Company company, String journalCode, LocalDate startDate, LocalDate endDate,
+                             Consumer<JournalPiece> consumer) {
+        long count = 0;
+        String currentPiece = null;
+        List<JournalLine> pieceLines = new ArrayList<>();
+
+        try (Stream<Object[]> rows = generalLedgerRepository.streamJournalLines(company, journalCode, startDate, endDate)) {
+            Iterator<Object[]> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                JournalLine line = toLine(iterator.next());
+
+                if (!pieceLines.isEmpty() && !Objects.equals(line.pieceNumber(), currentPiece)) {
+                    consumer.accept(new JournalPiece(currentPiece, pieceLines));
+                    pieceLines = new ArrayList<>();
+                }
+                currentPiece = line.pieceNumber();
+                pieceLines.add(line);
+                count++;
+            }
+        }
+
+        if (!pieceLines.isEmpty()) {
+            consumer.accept(new JournalPiece(currentPiece, pieceLines));
+        }
+
+        log.debug("Journal {} lu par projection: {} ligne(s)", journalCode, count);
+        return count;
+    }
+
+    /**
+     * Totaux du journal calculés en base
+     */
+    @Transactional(readOnly = true)
+    public JournalTotals totals(Company company, String journalCode, LocalDate startDate, LocalDate endDate) {
+        List<Object[]> rows = generalLedgerRepository.sumJournalTotals(company, journalCode, startDate, endDate);
+        if (rows.isEmpty()) {
+            return new JournalTotals(0, BigDecimal.ZERO, BigDecimal.ZERO);
+        }
+        Object[] row = rows.get(0);
+        return new JournalTotals(
+            ((Number) row[0]).longValue(),
+            (BigDecimal) row[1],
+            (BigDecimal) row[2]
+        );
+    }
+
+    private static JournalLine toLine(Object[] row) {
+        return new JournalLine(
+            (String) row[0],        // pièce (référence)
+            (LocalDate) row[1],     // date
+            (String) row[2],        // numéro de compte
+            (String) row[3],        // libellé du compte
+            (BigDecimal) row[4],    // débit
+            (BigDecimal) row[5],    // crédit
+            (String) row[6],        // libellé de l'écriture
+            (Boolean) row[7]        // verrouillée
+        );
+    }
+
+    /**
+     * Ligne de journal projetée
+     */
+    public record JournalLine(
+        String pieceNumber,
+        LocalDate entryDate,
+        String accountNumber,
+        String accountName,
+        BigDecimal debitAmount,
+        BigDecimal creditAmount,
+        String description,
+        Boolean isLocked
+    ) {
+        public boolean isOnAccount(String prefix) {
+            return accountNumber != null && accountNumber.startsWith(prefix);
+        }
+    }
+
+    /**
+     * Pièce comptable: lignes consécutives partageant la même référence
+     */
+    public record JournalPiece(String pieceNumber, List<JournalLine> lines) {}
+
+    /**
+     * Totaux du journal
+     */
+    public record JournalTotals(long numberOfLines, BigDecimal totalDebit, BigDecimal totalCredit) {
+
+        public boolean isBalanced() {
+            return totalDebit.compareTo(totalCredit) == 0;
+        }
+    }
+}
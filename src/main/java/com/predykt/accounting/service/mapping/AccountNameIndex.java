@@ -0,0 +1,211 @@
+package com.predykt.accounting.service.mapping;
+
+import com.predykt.accounting.domain.entity.ChartOfAccounts;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé des libellés du plan comptable d'une entreprise (immuable, thread-safe)
+ *
+ * - Libellés normalisés (minuscules, sans accents, pluriels simples ramenés au singulier)
+ * - Pour chaque terme: comptes qui le contiennent et fréquence dans le libellé
+ * - Score BM25 entre la description d'une activité et chaque libellé candidat
+ *
+ * La confiance est le score obtenu rapporté au score d'un libellé entièrement couvert
+ * par la description (0-100).
+ *
+ * @author PREDYKT Team
+ */
+public final class AccountNameIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Nombre minimal de termes distincts communs (comme l'ancienne recherche par mots-clés)
+     */
+    private static final int MIN_MATCHED_TERMS = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "de", "des", "du", "la", "le", "les", "et", "en", "sur", "aux", "au", "par", "pour", "un", "une",
+        "the", "of", "and", "for"
+    );
+
+    private final Long[] accountIds;
+    private final String[] accountNumbers;
+    private final int[] lengths;
+    private final double[] selfScores;
+    private final Map<String, Posting> postings;
+    private final double averageLength;
+
+    public AccountNameIndex(List<ChartOfAccounts> accounts) {
+        int size = accounts.size();
+        this.accountIds = new Long[size];
+        this.accountNumbers = new String[size];
+        this.lengths = new int[size];
+        this.selfScores = new double[size];
+
+        Map<String, List<int[]>> builder = new HashMap<>();
+        List<Map<String, Integer>> termFrequencies = new ArrayList<>(size);
+        long totalLength = 0;
+
+        for (int doc = 0; doc < size; doc++) {
+            ChartOfAccounts account = accounts.get(doc);
+            accountIds[doc] = account.getId();
+            accountNumbers[doc] = account.getAccountNumber();
+
+            Map<String, Integer> frequencies = new LinkedHashMap<>();
+            for (String term : tokenize(account.getAccountName())) {
+                frequencies.merge(term, 1, Integer::sum);
+                lengths[doc]++;
+            }
+            totalLength += lengths[doc];
+            termFrequencies.add(frequencies);
+
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                builder.computeIfAbsent(entry.getKey(), term -> new ArrayList<>())
+                    .add(new int[]{doc, entry.getValue()});
+            }
+        }
+
+        this.averageLength = size == 0 ? 0 : (double) totalLength / size;
+
+        Map<String, Posting> frozen = new HashMap<>(builder.size() * 2);
+        for (Map.Entry<String, List<int[]>> entry : builder.entrySet()) {
+            List<int[]> list = entry.getValue();
+            int[] docs = new int[list.size()];
+            int[] tfs = new int[list.size()];
+            for (int i = 0; i < list.size(); i++) {
+                docs[i] = list.get(i)[0];
+                tfs[i] = list.get(i)[1];
+            }
+            frozen.put(entry.getKey(), new Posting(docs, tfs, idf(size, docs.length)));
+        }
+        this.postings = frozen;
+
+        // Score maximal de chaque libellé (requête = le libellé lui-même)
+        for (int doc = 0; doc < size; doc++) {
+            double score = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.get(doc).entrySet()) {
+                score += postings.get(entry.getKey()).idf * termWeight(entry.getValue(), lengths[doc]);
+            }
+            selfScores[doc] = score;
+        }
+    }
+
+    /**
+     * Meilleur compte pour une description, ou null si moins de deux termes en commun
+     */
+    public Match bestMatch(String description) {
+        if (description == null || accountIds.length == 0) {
+            return null;
+        }
+
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(description));
+        if (queryTerms.size() < MIN_MATCHED_TERMS) {
+            return null;
+        }
+
+        double[] scores = new double[accountIds.length];
+        int[] matchedTerms = new int[accountIds.length];
+        int[] touched = new int[accountIds.length];
+        int touchedCount = 0;
+
+        for (String term : queryTerms) {
+            Posting posting = postings.get(term);
+            if (posting == null) {
+                continue;
+            }
+            for (int i = 0; i < posting.docs.length; i++) {
+                int doc = posting.docs[i];
+                if (matchedTerms[doc] == 0) {
+                    touched[touchedCount++] = doc;
+                }
+                matchedTerms[doc]++;
+                scores[doc] += posting.idf * termWeight(posting.tfs[i], lengths[doc]);
+            }
+        }
+
+        int best = -1;
+        for (int t = 0; t < touchedCount; t++) {
+            int doc = touched[t];
+            if (matchedTerms[doc] < MIN_MATCHED_TERMS) {
+                continue;
+            }
+            // Ex aequo: le plus petit index (ordre du plan comptable)
+            if (best < 0 || scores[doc] > scores[best] || (scores[doc] == scores[best] && doc < best)) {
+                best = doc;
+            }
+        }
+        if (best < 0) {
+            return null;
+        }
+
+        double ratio = selfScores[best] > 0 ? scores[best] / selfScores[best] : 0;
+        BigDecimal confidence = BigDecimal.valueOf(Math.min(ratio, 1.0) * 100).setScale(2, RoundingMode.HALF_UP);
+
+        return new Match(accountIds[best], accountNumbers[best], confidence);
+    }
+
+    public int size() {
+        return accountIds.length;
+    }
+
+    private double termWeight(int tf, int length) {
+        double norm = averageLength > 0 ? length / averageLength : 1;
+        return tf * (K1 + 1) / (tf + K1 * (1 - B + B * norm));
+    }
+
+    private static double idf(int documentCount, int documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    /**
+     * Découpe et normalise un libellé en termes indexables
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text.toLowerCase(), Normalizer.Form.NFD))
+            .replaceAll("");
+        for (String token : SEPARATORS.split(normalized)) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            terms.add(stem(token));
+        }
+        return terms;
+    }
+
+    /**
+     * Pluriels simples ramenés au singulier (achats → achat, charges → charge)
+     */
+    private static String stem(String token) {
+        if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x")) && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+
+    private record Posting(int[] docs, int[] tfs, double idf) {}
+
+    /**
+     * Compte retenu et confiance associée (0-100)
+     */
+    public record Match(Long accountId, String accountNumber, BigDecimal confidence) {}
+}
@@ -0,0 +1,88 @@
+package com.predykt.accounting.service.mapping;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.repository.ChartOfAccountsRepository;
+import com.predykt.accounting.util.TransactionalEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache des index de libellés du plan comptable, par (tenant, entreprise)
+ *
+ * L'index est construit au premier rapprochement (une requête sur les comptes actifs)
+ * et invalidé à chaque création, modification ou suppression d'un compte de l'entreprise
+ * (ChartOfAccountsChangeListener), puis à nouveau après commit.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccountNameIndexCache {
+
+    /**
+     * Nombre maximal d'index conservés avant purge
+     */
+    private static final int MAX_CACHED_INDEXES = 5_000;
+
+    private final ChartOfAccountsRepository chartOfAccountsRepository;
+
+    private final Map<IndexKey, AccountNameIndex> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incrémenté à chaque invalidation: une construction commencée avant n'est pas mise en cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Index des comptes actifs de l'entreprise (depuis le cache ou construit)
+     */
+    public AccountNameIndex indexFor(Company company) {
+        IndexKey key = new IndexKey(currentTenant(), company.getId());
+        AccountNameIndex index = cache.get(key);
+        if (index != null) {
+            return index;
+        }
+
+        long startGeneration = generation.get();
+        long start = System.nanoTime();
+        index = new AccountNameIndex(chartOfAccountsRepository.findByCompanyAndIsActiveTrue(company));
+        log.debug("Index des libellés construit pour l'entreprise {}: {} compte(s) en {} µs",
+            company.getId(), index.size(), (System.nanoTime() - start) / 1_000);
+
+        if (generation.get() == startGeneration) {
+            if (cache.size() >= MAX_CACHED_INDEXES) {
+                log.debug("Cache des index de libellés plein ({}), purge", cache.size());
+                cache.clear();
+            }
+            cache.put(key, index);
+        }
+        return index;
+    }
+
+    /**
+     * Invalide l'index d'une entreprise (immédiatement et après commit)
+     */
+    public void invalidate(Long companyId) {
+        IndexKey key = new IndexKey(currentTenant(), companyId);
+        // Une seule éviction différée par entreprise et par transaction (imports de plan comptable)
+        TransactionalEviction.evictNowAndAfterCompletion(key, () -> evict(key));
+    }
+
+    private void evict(IndexKey key) {
+        generation.incrementAndGet();
+        cache.remove(key);
+    }
+
+    private static String currentTenant() {
+        return TenantContextHolder.hasContext() ? TenantContextHolder.getTenantId() : "default";
+    }
+
+    private record IndexKey(String tenantId, Long companyId) {}
+}
@@ -0,0 +1,312 @@
+package com.predykt.accounting.service.mapping;
+
+import com.predykt.accounting.domain.entity.ActivityMappingRule;
+import com.predykt.accounting.domain.enums.MatchType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Jeu de règles de mapping compilé pour une entreprise (immuable, thread-safe)
+ *
+ * - Mots-clés CONTAINS / EXACT / STARTS_WITH / ENDS_WITH: automate Aho-Corasick
+ *   (un pour les règles sensibles à la casse, un pour les autres), un seul passage sur le libellé
+ * - Règles REGEX: Pattern précompilé, évalué seulement s'il peut battre la meilleure règle trouvée
+ *
+ * Même résultat que le test séquentiel rule.matches() par priorité décroissante:
+ * la règle retenue est la première de la liste triée qui matche.
+ *
+ * @author PREDYKT Team
+ */
+@Slf4j
+public final class ActivityRuleMatcher {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final ActivityMappingRule[] rules;
+    private final MatchType[] matchTypes;
+    private final Automaton caseInsensitive;
+    private final Automaton caseSensitive;
+    private final int[] regexRules;
+    private final Pattern[] regexPatterns;
+    private final Map<String, String> accountNames;
+
+    /**
+     * @param orderedRules Règles actives triées par priorité décroissante
+     * @param accountNames Libellés des comptes cibles (numéro → libellé)
+     */
+    public ActivityRuleMatcher(List<ActivityMappingRule> orderedRules, Map<String, String> accountNames) {
+        this.rules = orderedRules.toArray(new ActivityMappingRule[0]);
+        this.matchTypes = new MatchType[rules.length];
+        this.accountNames = Map.copyOf(accountNames);
+
+        AutomatonBuilder insensitiveBuilder = new AutomatonBuilder();
+        AutomatonBuilder sensitiveBuilder = new AutomatonBuilder();
+        List<Integer> regexIndexes = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+
+        for (int i = 0; i < rules.length; i++) {
+            ActivityMappingRule rule = rules[i];
+            MatchType type = rule.getMatchType() != null ? rule.getMatchType() : MatchType.CONTAINS;
+            matchTypes[i] = type;
+
+            String keyword = rule.getActivityKeyword();
+            if (keyword == null) {
+                continue;
+            }
+            boolean sensitive = Boolean.TRUE.equals(rule.getCaseSensitive());
+            String normalized = sensitive ? keyword : keyword.toLowerCase();
+
+            if (type == MatchType.REGEX) {
+                try {
+                    patterns.add(Pattern.compile(normalized));
+                    regexIndexes.add(i);
+                } catch (PatternSyntaxException e) {
+                    log.warn("Règle de mapping {} ignorée: expression régulière invalide '{}'", rule.getId(), keyword);
+                }
+            } else if (normalized.isEmpty()) {
+                // Mot-clé vide: CONTAINS, STARTS_WITH et ENDS_WITH matchent tout libellé non vide, EXACT aucun
+                if (type != MatchType.EXACT) {
+                    patterns.add(Pattern.compile("(?s).*"));
+                    regexIndexes.add(i);
+                }
+            } else {
+                (sensitive ? sensitiveBuilder : insensitiveBuilder).add(normalized, i);
+            }
+        }
+
+        this.caseInsensitive = insensitiveBuilder.build();
+        this.caseSensitive = sensitiveBuilder.build();
+        this.regexRules = regexIndexes.stream().mapToInt(Integer::intValue).toArray();
+        this.regexPatterns = patterns.toArray(new Pattern[0]);
+    }
+
+    /**
+     * Règle la plus prioritaire qui matche le libellé, ou null
+     */
+    public ActivityMappingRule match(String activityName) {
+        if (activityName == null || activityName.trim().isEmpty()) {
+            return null;
+        }
+
+        int best = NO_MATCH;
+        String lower = null;
+
+        if (caseInsensitive != null) {
+            lower = activityName.toLowerCase();
+            best = scan(caseInsensitive, lower, best);
+        }
+        if (caseSensitive != null) {
+            best = scan(caseSensitive, activityName, best);
+        }
+
+        for (int r = 0; r < regexRules.length; r++) {
+            int ruleIndex = regexRules[r];
+            if (ruleIndex >= best) {
+                break;
+            }
+            String text;
+            if (Boolean.TRUE.equals(rules[ruleIndex].getCaseSensitive())) {
+                text = activityName;
+            } else {
+                text = lower != null ? lower : (lower = activityName.toLowerCase());
+            }
+            if (regexPatterns[r].matcher(text).matches()) {
+                best = ruleIndex;
+                break;
+            }
+        }
+
+        return best == NO_MATCH ? null : rules[best];
+    }
+
+    /**
+     * Libellé du compte cible d'une règle (null si le compte n'existe plus)
+     */
+    public String accountName(String accountNumber) {
+        return accountNames.get(accountNumber);
+    }
+
+    public int size() {
+        return rules.length;
+    }
+
+    /**
+     * Parcours Aho-Corasick: retient la règle de plus petit index dont la contrainte de position est satisfaite
+     */
+    private int scan(Automaton automaton, String text, int best) {
+        int length = text.length();
+        int state = 0;
+
+        for (int i = 0; i < length; i++) {
+            state = automaton.next(state, text.charAt(i));
+
+            for (int node = automaton.hasOutput[state] ? state : automaton.outputLink[state];
+                 node > 0; node = automaton.outputLink[node]) {
+                int end = i + 1;
+                int start = end - automaton.depth[node];
+                for (int ruleIndex : automaton.outputs[node]) {
+                    if (ruleIndex >= best) {
+                        break; // Sorties triées par index croissant
+                    }
+                    if (accepts(matchTypes[ruleIndex], start, end, length)) {
+                        best = ruleIndex;
+                        break;
+                    }
+                }
+            }
+            if (best == 0) {
+                return best;
+            }
+        }
+        return best;
+    }
+
+    private static boolean accepts(MatchType type, int start, int end, int length) {
+        return switch (type) {
+            case CONTAINS -> true;
+            case EXACT -> start == 0 && end == length;
+            case STARTS_WITH -> start == 0;
+            case ENDS_WITH -> end == length;
+            case REGEX -> false;
+        };
+    }
+
+    /**
+     * Automate figé: transitions triées par caractère (recherche dichotomique), liens d'échec et de sortie
+     */
+    private static final class Automaton {
+        final char[][] keys;
+        final int[][] targets;
+        final int[] fail;
+        final int[] outputLink;
+        final boolean[] hasOutput;
+        final int[][] outputs;
+        final int[] depth;
+
+        Automaton(char[][] keys, int[][] targets, int[] fail, int[] outputLink,
+                  boolean[] hasOutput, int[][] outputs, int[] depth) {
+            this.keys = keys;
+            this.targets = targets;
+            this.fail = fail;
+            this.outputLink = outputLink;
+            this.hasOutput = hasOutput;
+            this.outputs = outputs;
+            this.depth = depth;
+        }
+
+        int goTo(int state, char c) {
+            int index = Arrays.binarySearch(keys[state], c);
+            return index >= 0 ? targets[state][index] : -1;
+        }
+
+        int next(int state, char c) {
+            while (true) {
+                int target = goTo(state, c);
+                if (target >= 0) {
+                    return target;
+                }
+                if (state == 0) {
+                    return 0;
+                }
+                state = fail[state];
+            }
+        }
+    }
+
+    /**
+     * Construction du trie puis calcul des liens d'échec en largeur
+     */
+    private static final class AutomatonBuilder {
+        private final List<TreeMap<Character, Integer>> children = new ArrayList<>();
+        private final List<List<Integer>> nodeOutputs = new ArrayList<>();
+        private final List<Integer> depths = new ArrayList<>();
+
+        AutomatonBuilder() {
+            newNode(0);
+        }
+
+        private int newNode(int depth) {
+            children.add(new TreeMap<>());
+            nodeOutputs.add(new ArrayList<>());
+            depths.add(depth);
+            return children.size() - 1;
+        }
+
+        void add(String keyword, int ruleIndex) {
+            int state = 0;
+            for (int i = 0; i < keyword.length(); i++) {
+                char c = keyword.charAt(i);
+                Integer next = children.get(state).get(c);
+                if (next == null) {
+                    next = newNode(i + 1);
+                    children.get(state).put(c, next);
+                }
+                state = next;
+            }
+            nodeOutputs.get(state).add(ruleIndex);
+        }
+
+        Automaton build() {
+            int size = children.size();
+            if (size == 1) {
+                return null;
+            }
+
+            char[][] keys = new char[size][];
+            int[][] targets = new int[size][];
+            int[][] outputs = new int[size][];
+            boolean[] hasOutput = new boolean[size];
+            int[] depth = new int[size];
+
+            for (int node = 0; node < size; node++) {
+                TreeMap<Character, Integer> edges = children.get(node);
+                keys[node] = new char[edges.size()];
+                targets[node] = new int[edges.size()];
+                int k = 0;
+                for (Map.Entry<Character, Integer> edge : edges.entrySet()) {
+                    keys[node][k] = edge.getKey();
+                    targets[node][k] = edge.getValue();
+                    k++;
+                }
+                outputs[node] = nodeOutputs.get(node).stream().mapToInt(Integer::intValue).sorted().toArray();
+                hasOutput[node] = outputs[node].length > 0;
+                depth[node] = depths.get(node);
+            }
+
+            int[] fail = new int[size];
+            int[] outputLink = new int[size];
+            Automaton automaton = new Automaton(keys, targets, fail, outputLink, hasOutput, outputs, depth);
+
+            Deque<Integer> queue = new ArrayDeque<>();
+            for (int child : targets[0]) {
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int k = 0; k < keys[node].length; k++) {
+                    char c = keys[node][k];
+                    int child = targets[node][k];
+
+                    int f = fail[node];
+                    while (f > 0 && automaton.goTo(f, c) < 0) {
+                        f = fail[f];
+                    }
+                    int target = automaton.goTo(f, c);
+                    fail[child] = target >= 0 && target != child ? target : 0;
+                    outputLink[child] = hasOutput[fail[child]] ? fail[child] : outputLink[fail[child]];
+                    queue.add(child);
+                }
+            }
+            return automaton;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.predykt.accounting.service.mapping;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.ActivityMappingRule;
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.exception.ResourceNotFoundException;
+import com.predykt.accounting.repository.ActivityMappingRuleRepository;
+import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshot;
+import com.predykt.accounting.service.chart.ChartOfAccountsSnapshotCache;
+import com.predykt.accounting.util.TransactionalEviction;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Cache des jeux de règles de mapping compilés, par (tenant, entreprise)
+ *
+ * Le jeu est compilé au premier mapping (une requête pour les règles, une pour les libellés
+ * des comptes cibles) puis réutilisé pour toutes les activités suivantes.
+ * Toute création, modification ou suppression de règle invalide le jeu de l'entreprise;
+ * l'invalidation est rejouée après commit pour ne pas garder une compilation concurrente
+ * faite sur l'ancien état.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ActivityRuleMatcherCache {
+
+    /**
+     * Nombre maximal de jeux compilés conservés avant purge
+     */
+    private static final int MAX_CACHED_MATCHERS = 5_000;
+
+    private final ActivityMappingRuleRepository mappingRuleRepository;
+    private final ChartOfAccountsSnapshotCache snapshotCache;
+    private final CompanyRepository companyRepository;
+
+    private final Map<MatcherKey, ActivityRuleMatcher> cache = new ConcurrentHashMap<>();
+
+    /**
+     * Incrémenté à chaque invalidation: une compilation commencée avant n'est pas mise en cache
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Jeu de règles compilé de l'entreprise (depuis le cache ou compilé)
+     */
+    public ActivityRuleMatcher matcherFor(Long companyId) {
+        MatcherKey key = new MatcherKey(currentTenant(), companyId);
+        ActivityRuleMatcher matcher = cache.get(key);
+        if (matcher != null) {
+            return matcher;
+        }
+
+        long startGeneration = generation.get();
+        matcher = compile(companyId);
+
+        if (generation.get() == startGeneration) {
+            if (cache.size() >= MAX_CACHED_MATCHERS) {
+                log.debug("Cache des règles de mapping plein ({}), purge", cache.size());
+                cache.clear();
+            }
+            cache.put(key, matcher);
+        }
+        return matcher;
+    }
+
+    /**
+     * Invalide le jeu compilé d'une entreprise (immédiatement et après commit)
+     */
+    public void invalidate(Long companyId) {
+        MatcherKey key = new MatcherKey(currentTenant(), companyId);
+        // Une seule éviction différée par entreprise et par transaction (règles enregistrées en série)
+        TransactionalEviction.evictNowAndAfterCompletion(key, () -> evict(key));
+    }
+
+    private void evict(MatcherKey key) {
+        generation.incrementAndGet();
+        cache.remove(key);
+        log.debug("Règles de mapping compilées invalidées: tenant={}, entreprise={}", key.tenantId(), key.companyId());
+    }
+
+    private ActivityRuleMatcher compile(Long companyId) {
+        long start = System.nanoTime();
+
+        Company company = companyRepository.findById(companyId)
+            .orElseThrow(() -> new ResourceNotFoundException("Entreprise non trouvée: " + companyId));
+
+        List<ActivityMappingRule> rules = mappingRuleRepository.findByCompanyAndIsActiveTrueOrderByPriorityDesc(company);
+
+        Set<String> accountNumbers = rules.stream()
+            .map(ActivityMappingRule::getAccountNumber)
+            .collect(Collectors.toSet());
+        Map<String, String> accountNames = new HashMap<>();
+        if (!accountNumbers.isEmpty()) {
+            ChartOfAccountsSnapshot snapshot = snapshotCache.snapshotFor(company);
+            for (String accountNumber : accountNumbers) {
+                ChartOfAccountsSnapshot.AccountSummary account = snapshot.find(accountNumber);
+                if (account != null && account.accountName() != null) {
+                    accountNames.put(accountNumber, account.accountName());
+                }
+            }
+        }
+
+        ActivityRuleMatcher matcher = new ActivityRuleMatcher(rules, accountNames);
+        log.debug("Règles de mapping compilées pour l'entreprise {}: {} règle(s) en {} µs",
+            companyId, matcher.size(), (System.nanoTime() - start) / 1_000);
+        return matcher;
+    }
+
+    private static String currentTenant() {
+        return TenantContextHolder.hasContext() ? TenantContextHolder.getTenantId() : "default";
+    }
+
+    private record MatcherKey(String tenantId, Long companyId) {}
+}
@@ -0,0 +1,133 @@
+package com.predykt.accounting.service.mapping;
+
+import com.predykt.accounting.config.ReferenceDataCache;
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.domain.entity.ActivityMappingRule;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs d'utilisation des règles de mapping, écrits en différé
+ *
+ * Chaque match incrémente un compteur en mémoire (aucune écriture en base sur le chemin du mapping).
+ * Les compteurs sont reportés périodiquement par un UPDATE JDBC en lot par tenant,
+ * ainsi qu'à l'arrêt de l'application. Seules les règles mises à jour sont alors retirées
+ * du cache de second niveau, dans la partition de leur tenant.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RuleUsageRecorder {
+
+    private static final String UPDATE_SQL =
+        "UPDATE activity_mapping_rules SET usage_count = COALESCE(usage_count, 0) + ?, " +
+        "last_used_at = GREATEST(COALESCE(last_used_at, ?), ?) WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReferenceDataCache referenceDataCache;
+
+    private final Map<UsageKey, PendingUsage> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Enregistre une utilisation de la règle
+     */
+    public void record(Long ruleId) {
+        if (ruleId == null) {
+            return;
+        }
+        TenantContextHolder.TenantContext tenant =
+            TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+
+        PendingUsage usage = pending.computeIfAbsent(new UsageKey(tenant, ruleId), key -> new PendingUsage());
+        usage.count.increment();
+        usage.lastUsedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Reporte les compteurs accumulés en base
+     *
+     * @return Nombre de règles mises à jour
+     */
+    @Scheduled(fixedDelayString = "${predykt.activity-import.usage-flush-interval-ms:30000}")
+    public int flush() {
+        Map<TenantContextHolder.TenantContext, List<Object[]>> updatesByTenant = new HashMap<>();
+
+        for (Map.Entry<UsageKey, PendingUsage> entry : pending.entrySet()) {
+            long count = entry.getValue().count.sumThenReset();
+            if (count == 0) {
+                continue;
+            }
+            Timestamp lastUsedAt = Timestamp.valueOf(entry.getValue().lastUsedAt);
+            updatesByTenant.computeIfAbsent(entry.getKey().tenant(), tenant -> new ArrayList<>())
+                .add(new Object[]{count, lastUsedAt, lastUsedAt, entry.getKey().ruleId()});
+        }
+
+        int updated = 0;
+        for (Map.Entry<TenantContextHolder.TenantContext, List<Object[]>> entry : updatesByTenant.entrySet()) {
+            updated += flushTenant(entry.getKey(), entry.getValue());
+        }
+
+        if (updated > 0) {
+            log.debug("Compteurs d'utilisation des règles de mapping reportés: {} règle(s)", updated);
+        }
+        return updated;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * UPDATE en lot sur la base du tenant, puis invalidation des règles mises à jour
+     * (contexte rétabli le temps de l'écriture: même partition de cache que la base écrite)
+     */
+    private int flushTenant(TenantContextHolder.TenantContext tenant, List<Object[]> updates) {
+        TenantContextHolder.TenantContext previous =
+            TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+        if (tenant != null) {
+            TenantContextHolder.setContext(tenant);
+        } else {
+            TenantContextHolder.clear();
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+            referenceDataCache.evictEntities(ActivityMappingRule.class,
+                updates.stream().map(update -> update[3]).toList());
+            return updates.size();
+        } catch (Exception e) {
+            // Compteurs indicatifs: une perte ponctuelle ne doit pas bloquer le mapping
+            log.warn("Échec du report des compteurs de règles ({} règle(s)): {}", updates.size(), e.getMessage());
+            return 0;
+        } finally {
+            if (previous != null) {
+                TenantContextHolder.setContext(previous);
+            } else {
+                TenantContextHolder.clear();
+            }
+        }
+    }
+
+    private record UsageKey(TenantContextHolder.TenantContext tenant, Long ruleId) {}
+
+    private static final class PendingUsage {
+        private final LongAdder count = new LongAdder();
+        private volatile LocalDateTime lastUsedAt = LocalDateTime.now();
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface commune pour tous les parsers de relevés bancaires
@@ -30,6 +31,22 @@ public interface BankStatementParser {
      */
     List<BankTransactionImportDto> parse(InputStream inputStream, String fileName) throws Exception;
 
+    /**
+     * Parse un input stream en émettant chaque transaction dès qu'elle est lue
+     * Les parsers en flux (CAMT.053, OFX) n'accumulent pas les transactions en mémoire;
+     * l'implémentation par défaut s'appuie sur le parsing en liste
+     *
+     * @param inputStream Stream à parser
+     * @param consumer Reçoit chaque transaction dans l'ordre du fichier
+     * @return Nombre de transactions émises
+     * @throws Exception en cas d'erreur de parsing
+     */
+    default long parse(InputStream inputStream, Consumer<BankTransactionImportDto> consumer) throws Exception {
+        List<BankTransactionImportDto> transactions = parse(inputStream, (String) null);
+        transactions.forEach(consumer);
+        return transactions.size();
+    }
+
     /**
      * Vérifie si le parser peut traiter ce type de fichier
      *
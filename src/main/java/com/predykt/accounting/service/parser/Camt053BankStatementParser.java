@@ -4,31 +4,40 @@ import com.predykt.accounting.dto.request.BankTransactionImportDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Parser pour fichiers CAMT.053 (ISO 20022)
  * Format XML européen utilisé par les banques du groupe Société Générale (SGBC)
  *
  * CAMT.053 = Bank-to-Customer Account Report
+ *
+ * Lecture en flux (StAX): chaque transaction est émise à la fermeture de son élément
+ * <Ntry>, sans construire de DOM. La mémoire utilisée ne dépend pas de la taille du
+ * fichier. Les fichiers multi-comptes (plusieurs <Stmt>) sont supportés: chaque
+ * transaction porte le compte de son relevé.
  */
 @Slf4j
 @Component
 public class Camt053BankStatementParser implements BankStatementParser {
 
     private static final DateTimeFormatter CAMT_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-    private static final DateTimeFormatter CAMT_DATETIME_FORMAT = DateTimeFormatter.ISO_DATE_TIME;
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
 
     @Override
     public List<BankTransactionImportDto> parse(MultipartFile file) throws Exception {
@@ -40,34 +49,74 @@ public class Camt053BankStatementParser implements BankStatementParser {
         log.info("Parsing CAMT.053 file: {}", fileName);
 
         List<BankTransactionImportDto> transactions = new ArrayList<>();
+        parse(inputStream, transactions::add);
 
-        // Parser le XML
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(true);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(inputStream);
+        log.info("CAMT.053 parsing completed: {} transactions found", transactions.size());
+        return transactions;
+    }
 
-        // Extraire le numéro de compte
-        String accountNumber = extractAccountNumber(doc);
+    @Override
+    public long parse(InputStream inputStream, Consumer<BankTransactionImportDto> consumer) throws Exception {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
 
-        // Extraire les transactions (Entry elements)
-        NodeList entryList = doc.getElementsByTagNameNS("*", "Ntry");
+        // Chemin des éléments ouverts (sommet = parent de l'élément courant)
+        Deque<String> path = new ArrayDeque<>();
+        String accountNumber = null;
+        EntryState entry = null;
+        long count = 0;
 
-        for (int i = 0; i < entryList.getLength(); i++) {
-            Element entry = (Element) entryList.item(i);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+
+                    if ("Stmt".equals(name) || "Rpt".equals(name)) {
+                        // Nouveau relevé: le compte sera relu
+                        accountNumber = null;
+                    } else if ("Ntry".equals(name)) {
+                        entry = new EntryState();
+                    } else if (entry != null) {
+                        if ("TxDtls".equals(name)) {
+                            entry.txDtlsCount++;
+                        } else if (captureEntryField(reader, name, path, entry)) {
+                            // Texte lu: la balise fermante a été consommée
+                            continue;
+                        }
+                    } else if (path.contains("Acct")) {
+                        String account = captureAccountNumber(reader, name, path, accountNumber);
+                        if (account != null) {
+                            accountNumber = account;
+                            continue;
+                        }
+                    }
 
-            try {
-                BankTransactionImportDto transaction = parseEntry(entry, accountNumber);
-                if (transaction != null) {
-                    transactions.add(transaction);
+                    path.push(name);
+
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    path.pop();
+
+                    if ("Ntry".equals(reader.getLocalName()) && entry != null) {
+                        BankTransactionImportDto transaction = null;
+                        try {
+                            transaction = entry.toTransaction(accountNumber);
+                        } catch (Exception e) {
+                            log.warn("Error parsing CAMT.053 entry: {}", e.getMessage());
+                        }
+                        if (transaction != null) {
+                            consumer.accept(transaction);
+                            count++;
+                        }
+                        entry = null;
+                    }
                 }
-            } catch (Exception e) {
-                log.warn("Error parsing CAMT.053 entry: {}", e.getMessage());
             }
+        } finally {
+            reader.close();
         }
 
-        log.info("CAMT.053 parsing completed: {} transactions found", transactions.size());
-        return transactions;
+        return count;
     }
 
     @Override
@@ -86,140 +135,189 @@ public class Camt053BankStatementParser implements BankStatementParser {
     }
 
     /**
-     * Extrait le numéro de compte du document CAMT.053
+     * Lit le numéro de compte du relevé (Acct/Id/IBAN, sinon Acct/Id/Othr/Id)
+     *
+     * @return Le numéro lu, ou null si l'élément courant n'est pas un identifiant de compte
      */
-    private String extractAccountNumber(Document doc) {
-        NodeList acctList = doc.getElementsByTagNameNS("*", "Acct");
-        if (acctList.getLength() > 0) {
-            Element acct = (Element) acctList.item(0);
-            NodeList ibanList = acct.getElementsByTagNameNS("*", "IBAN");
-            if (ibanList.getLength() > 0) {
-                return ibanList.item(0).getTextContent();
-            }
-
-            // Si pas d'IBAN, chercher un autre identifiant
-            NodeList idList = acct.getElementsByTagNameNS("*", "Id");
-            if (idList.getLength() > 0) {
-                Element id = (Element) idList.item(0);
-                NodeList othrList = id.getElementsByTagNameNS("*", "Othr");
-                if (othrList.getLength() > 0) {
-                    Element othr = (Element) othrList.item(0);
-                    NodeList idNodeList = othr.getElementsByTagNameNS("*", "Id");
-                    if (idNodeList.getLength() > 0) {
-                        return idNodeList.item(0).getTextContent();
-                    }
-                }
-            }
+    private String captureAccountNumber(XMLStreamReader reader, String name, Deque<String> path,
+                                        String currentAccount) throws XMLStreamException {
+        if ("IBAN".equals(name) && parentsAre(path, "Id", "Acct")) {
+            return readText(reader);
+        }
+        if ("Id".equals(name) && currentAccount == null && parentsAre(path, "Othr", "Id", "Acct")) {
+            return readText(reader);
         }
         return null;
     }
 
     /**
-     * Parse un élément Entry (transaction)
+     * Capture un champ de la transaction en cours
+     * Seul le premier TxDtls est lu (comme pour le tiers et le libellé d'une écriture simple)
+     *
+     * @return true si le texte de l'élément a été consommé
      */
-    private BankTransactionImportDto parseEntry(Element entry, String accountNumber) {
-        // Date de la transaction
-        LocalDate bookingDate = parseDate(getElementText(entry, "BookgDt", "Dt"));
-        LocalDate valueDate = parseDate(getElementText(entry, "ValDt", "Dt"));
-
-        // Montant
-        Element amtElement = getFirstElement(entry, "Amt");
-        if (amtElement == null) {
-            return null;
-        }
-        BigDecimal amount = new BigDecimal(amtElement.getTextContent());
-
-        // Devise
-        String currency = amtElement.getAttribute("Ccy");
-
-        // Crédit ou Débit
-        String cdtDbtInd = getElementText(entry, "CdtDbtInd");
-        if ("DBIT".equals(cdtDbtInd)) {
-            amount = amount.negate();
-        }
-
-        // Référence bancaire
-        String bankReference = getElementText(entry, "AcctSvcrRef");
-
-        // Détails de la transaction
-        Element ntryDtls = getFirstElement(entry, "NtryDtls");
-        String description = "";
-        String thirdPartyName = "";
-
-        if (ntryDtls != null) {
-            Element txDtls = getFirstElement(ntryDtls, "TxDtls");
-            if (txDtls != null) {
-                // Informations sur le tiers
-                Element rltdPties = getFirstElement(txDtls, "RltdPties");
-                if (rltdPties != null) {
-                    // Créditeur
-                    Element cdtr = getFirstElement(rltdPties, "Cdtr");
-                    if (cdtr != null) {
-                        thirdPartyName = getElementText(cdtr, "Nm");
+    private boolean captureEntryField(XMLStreamReader reader, String name, Deque<String> path,
+                                      EntryState entry) throws XMLStreamException {
+        String parent = path.peek();
+
+        switch (name) {
+            case "Dt", "DtTm" -> {
+                if ("BookgDt".equals(parent) && entry.bookingDate == null) {
+                    entry.bookingDate = readText(reader);
+                    return true;
+                }
+                if ("ValDt".equals(parent) && entry.valueDate == null) {
+                    entry.valueDate = readText(reader);
+                    return true;
+                }
+            }
+            case "Amt" -> {
+                if (entry.amount == null) {
+                    String currency = reader.getAttributeValue(null, "Ccy");
+                    entry.currency = currency != null ? currency : "";
+                    entry.amount = readText(reader);
+                    return true;
+                }
+            }
+            case "CdtDbtInd" -> {
+                if (entry.creditDebitIndicator == null) {
+                    entry.creditDebitIndicator = readText(reader);
+                    return true;
+                }
+            }
+            case "AcctSvcrRef" -> {
+                if (entry.bankReference == null) {
+                    entry.bankReference = readText(reader);
+                    return true;
+                }
+            }
+            case "AddtlNtryInf" -> {
+                if (entry.additionalEntryInfo == null) {
+                    entry.additionalEntryInfo = readText(reader);
+                    return true;
+                }
+            }
+            case "Nm" -> {
+                if (isInFirstTxDtls(path, entry) && path.contains("RltdPties")) {
+                    if (path.contains("Cdtr") && entry.creditorName == null) {
+                        entry.creditorName = readText(reader);
+                        return true;
                     }
-
-                    // Débiteur
-                    Element dbtr = getFirstElement(rltdPties, "Dbtr");
-                    if (dbtr != null && thirdPartyName.isEmpty()) {
-                        thirdPartyName = getElementText(dbtr, "Nm");
+                    if (path.contains("Dbtr") && entry.debtorName == null) {
+                        entry.debtorName = readText(reader);
+                        return true;
                     }
                 }
-
-                // Description
-                Element rmtInf = getFirstElement(txDtls, "RmtInf");
-                if (rmtInf != null) {
-                    description = getElementText(rmtInf, "Ustrd");
+            }
+            case "Ustrd" -> {
+                if (isInFirstTxDtls(path, entry) && path.contains("RmtInf") && entry.remittanceInfo == null) {
+                    entry.remittanceInfo = readText(reader);
+                    return true;
                 }
-
-                // Si pas de description, utiliser AddtlTxInf
-                if (description.isEmpty()) {
-                    description = getElementText(txDtls, "AddtlTxInf");
+            }
+            case "AddtlTxInf" -> {
+                if (isInFirstTxDtls(path, entry) && entry.additionalTxInfo == null) {
+                    entry.additionalTxInfo = readText(reader);
+                    return true;
                 }
             }
+            default -> {
+                // Élément non utilisé
+            }
         }
+        return false;
+    }
 
-        // Si pas de description, utiliser AddtlNtryInf au niveau Entry
-        if (description.isEmpty()) {
-            description = getElementText(entry, "AddtlNtryInf");
-        }
-
-        return BankTransactionImportDto.builder()
-            .transactionDate(bookingDate)
-            .valueDate(valueDate)
-            .amount(amount)
-            .description(description.isEmpty() ? "Transaction" : description)
-            .bankReference(bankReference)
-            .thirdPartyName(thirdPartyName)
-            .accountNumber(accountNumber)
-            .currency(currency)
-            .build();
+    private static boolean isInFirstTxDtls(Deque<String> path, EntryState entry) {
+        return entry.txDtlsCount == 1 && path.contains("TxDtls");
     }
 
     /**
-     * Récupère le texte d'un élément (avec namespace wildcard)
+     * Vérifie les ancêtres immédiats de l'élément courant (du plus proche au plus lointain)
      */
-    private String getElementText(Element parent, String... tagNames) {
-        Element current = parent;
-        for (String tagName : tagNames) {
-            NodeList nodeList = current.getElementsByTagNameNS("*", tagName);
-            if (nodeList.getLength() == 0) {
-                return "";
-            }
-            current = (Element) nodeList.item(0);
+    private static boolean parentsAre(Deque<String> path, String... ancestors) {
+        Iterator<String> iterator = path.iterator();
+        for (String ancestor : ancestors) {
+            if (!iterator.hasNext() || !ancestor.equals(iterator.next())) {
+                return false;
+            }
         }
-        String text = current.getTextContent();
+        return true;
+    }
+
+    private static String readText(XMLStreamReader reader) throws XMLStreamException {
+        String text = reader.getElementText();
         return text != null ? text.trim() : "";
     }
 
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        // Pas de DTD ni d'entités externes (XXE)
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
     /**
-     * Récupère le premier élément enfant avec le tag donné
+     * Champs d'une transaction (<Ntry>) en cours de lecture
      */
-    private Element getFirstElement(Element parent, String tagName) {
-        NodeList nodeList = parent.getElementsByTagNameNS("*", tagName);
-        if (nodeList.getLength() > 0) {
-            return (Element) nodeList.item(0);
+    private final class EntryState {
+        private String bookingDate;
+        private String valueDate;
+        private String amount;
+        private String currency;
+        private String creditDebitIndicator;
+        private String bankReference;
+        private String additionalEntryInfo;
+        private String creditorName;
+        private String debtorName;
+        private String remittanceInfo;
+        private String additionalTxInfo;
+        private int txDtlsCount;
+
+        private BankTransactionImportDto toTransaction(String accountNumber) {
+            if (amount == null) {
+                return null;
+            }
+
+            // Crédit ou Débit
+            BigDecimal signedAmount = new BigDecimal(amount);
+            if ("DBIT".equals(creditDebitIndicator)) {
+                signedAmount = signedAmount.negate();
+            }
+
+            // Tiers: créditeur, sinon débiteur
+            String thirdPartyName = isBlank(creditorName) ? nonNull(debtorName) : creditorName;
+
+            // Libellé: remise non structurée, puis infos transaction, puis infos écriture
+            String description = nonNull(remittanceInfo);
+            if (description.isEmpty()) {
+                description = nonNull(additionalTxInfo);
+            }
+            if (description.isEmpty()) {
+                description = nonNull(additionalEntryInfo);
+            }
+
+            return BankTransactionImportDto.builder()
+                .transactionDate(parseDate(bookingDate))
+                .valueDate(parseDate(valueDate))
+                .amount(signedAmount)
+                .description(description.isEmpty() ? "Transaction" : description)
+                .bankReference(nonNull(bankReference))
+                .thirdPartyName(thirdPartyName)
+                .accountNumber(accountNumber)
+                .currency(currency)
+                .build();
         }
-        return null;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static String nonNull(String value) {
+        return value != null ? value : "";
     }
 
     /**
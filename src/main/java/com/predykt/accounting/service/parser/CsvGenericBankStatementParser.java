@@ -1,7 +1,8 @@
 package com.predykt.accounting.service.parser;
 
-import com.opencsv.CSVReader;
 import com.predykt.accounting.dto.request.BankTransactionImportDto;
+import com.predykt.accounting.util.CsvParser;
+import com.predykt.accounting.util.DateFormatDetector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -11,25 +12,21 @@ import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Parser pour fichiers CSV génériques
  * Format attendu: Date, Description, Montant, Référence
  * ou: Date, Débit, Crédit, Description, Référence
+ * Séparateur ; ou , détecté sur l'en-tête
  */
 @Slf4j
 @Component
 public class CsvGenericBankStatementParser implements BankStatementParser {
 
-    private static final DateTimeFormatter[] DATE_FORMATS = {
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ofPattern("d/M/yyyy"),
-        DateTimeFormatter.ofPattern("MM/dd/yyyy")
-    };
+    private static final String[] DATE_FORMATS = {"dd/MM/yyyy", "yyyy-MM-dd", "d/M/yyyy", "MM/dd/yyyy"};
 
     @Override
     public List<BankTransactionImportDto> parse(MultipartFile file) throws Exception {
@@ -39,44 +36,55 @@ public class CsvGenericBankStatementParser implements BankStatementParser {
     @Override
     public List<BankTransactionImportDto> parse(InputStream inputStream, String fileName) throws Exception {
         log.info("Parsing CSV file: {}", fileName);
-
         List<BankTransactionImportDto> transactions = new ArrayList<>();
+        parse(inputStream, (Consumer<BankTransactionImportDto>) transactions::add);
+        return transactions;
+    }
 
-        try (CSVReader csvReader = new CSVReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
-            List<String[]> allRows = csvReader.readAll();
+    /**
+     * Lecture en flux (CsvParser): une transaction est émise par ligne, sans charger le fichier
+     * Le séparateur (; ou ,) et le format de date sont détectés une fois pour tout le fichier
+     */
+    @Override
+    public long parse(InputStream inputStream, Consumer<BankTransactionImportDto> consumer) throws Exception {
+        long count = 0;
+
+        try (CsvParser csv = CsvParser.detectingSeparator(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8), ',')) {
 
-            if (allRows.isEmpty()) {
+            if (!csv.next()) {
                 log.warn("CSV file is empty");
-                return transactions;
+                return 0;
             }
 
             // Détecter le format du CSV à partir du header
-            String[] header = allRows.get(0);
-            CsvFormat format = detectCsvFormat(header);
-            log.info("Detected CSV format: {}", format);
+            CsvFormat format = detectCsvFormat(csv.toArray());
+            log.info("Detected CSV format: {} (separator '{}')", format, csv.getSeparator());
 
-            // Parser les lignes de données
-            for (int i = 1; i < allRows.size(); i++) {
-                String[] row = allRows.get(i);
+            DateFormatDetector dateFormat = new DateFormatDetector(DATE_FORMATS);
 
+            // Parser les lignes de données
+            while (csv.next()) {
                 // Ignorer les lignes vides
-                if (row.length == 0 || (row.length == 1 && (row[0] == null || row[0].trim().isEmpty()))) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
 
                 try {
-                    BankTransactionImportDto transaction = parseRow(row, format);
+                    BankTransactionImportDto transaction = parseRow(csv, format, dateFormat);
                     if (transaction != null) {
-                        transactions.add(transaction);
+                        consumer.accept(transaction);
+                        count++;
                     }
                 } catch (Exception e) {
-                    log.warn("Error parsing CSV row {}: {} - {}", i, String.join(",", row), e.getMessage());
+                    log.warn("Error parsing CSV row {}: {} - {}",
+                        csv.getRecordNumber(), csv.describeRecord(), e.getMessage());
                 }
             }
         }
 
-        log.info("CSV parsing completed: {} transactions found", transactions.size());
-        return transactions;
+        log.info("CSV parsing completed: {} transactions found", count);
+        return count;
     }
 
     @Override
@@ -124,30 +132,30 @@ public class CsvGenericBankStatementParser implements BankStatementParser {
     /**
      * Parse une ligne CSV selon le format détecté
      */
-    private BankTransactionImportDto parseRow(String[] row, CsvFormat format) {
+    private BankTransactionImportDto parseRow(CsvParser csv, CsvFormat format, DateFormatDetector dateFormat) {
         if (format == CsvFormat.DEBIT_CREDIT) {
-            return parseDebitCreditRow(row);
+            return parseDebitCreditRow(csv, dateFormat);
         } else {
-            return parseSimpleRow(row);
+            return parseSimpleRow(csv, dateFormat);
         }
     }
 
     /**
      * Format simple: Date, Description, Montant, Référence
      */
-    private BankTransactionImportDto parseSimpleRow(String[] row) {
-        if (row.length < 3) {
+    private BankTransactionImportDto parseSimpleRow(CsvParser csv, DateFormatDetector dateFormat) {
+        if (csv.size() < 3) {
             return null;
         }
 
-        LocalDate date = parseDate(row[0]);
+        LocalDate date = parseDate(csv, 0, dateFormat);
         if (date == null) {
             return null;
         }
 
-        String description = row.length > 1 ? row[1].trim() : "";
-        BigDecimal amount = parseAmount(row.length > 2 ? row[2].trim() : "0");
-        String reference = row.length > 3 ? row[3].trim() : null;
+        String description = csv.get(1);
+        BigDecimal amount = parseAmount(csv, 2);
+        String reference = csv.size() > 3 ? csv.get(3) : null;
 
         return BankTransactionImportDto.builder()
             .transactionDate(date)
@@ -161,24 +169,24 @@ public class CsvGenericBankStatementParser implements BankStatementParser {
     /**
      * Format débit/crédit: Date, Débit, Crédit, Description, Référence
      */
-    private BankTransactionImportDto parseDebitCreditRow(String[] row) {
-        if (row.length < 4) {
+    private BankTransactionImportDto parseDebitCreditRow(CsvParser csv, DateFormatDetector dateFormat) {
+        if (csv.size() < 4) {
             return null;
         }
 
-        LocalDate date = parseDate(row[0]);
+        LocalDate date = parseDate(csv, 0, dateFormat);
         if (date == null) {
             return null;
         }
 
-        BigDecimal debit = parseAmount(row[1]);
-        BigDecimal credit = parseAmount(row[2]);
+        BigDecimal debit = parseAmount(csv, 1);
+        BigDecimal credit = parseAmount(csv, 2);
 
         // Montant = Crédit - Débit (positif si crédit, négatif si débit)
         BigDecimal amount = credit.subtract(debit);
 
-        String description = row.length > 3 ? row[3].trim() : "";
-        String reference = row.length > 4 ? row[4].trim() : null;
+        String description = csv.get(3);
+        String reference = csv.size() > 4 ? csv.get(4) : null;
 
         return BankTransactionImportDto.builder()
             .transactionDate(date)
@@ -190,46 +198,28 @@ public class CsvGenericBankStatementParser implements BankStatementParser {
     }
 
     /**
-     * Parse une date avec plusieurs formats possibles
+     * Parse une date (format détecté sur les premières lignes puis conservé)
      */
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.trim().isEmpty()) {
+    private LocalDate parseDate(CsvParser csv, int column, DateFormatDetector dateFormat) {
+        if (csv.isEmpty(column)) {
             return null;
         }
 
-        for (DateTimeFormatter formatter : DATE_FORMATS) {
-            try {
-                return LocalDate.parse(dateStr.trim(), formatter);
-            } catch (Exception ignored) {
-            }
+        LocalDate date = csv.getDate(column, dateFormat);
+        if (date == null) {
+            log.warn("Cannot parse date: {}", csv.get(column));
         }
-
-        log.warn("Cannot parse date: {}", dateStr);
-        return null;
+        return date;
     }
 
     /**
      * Parse un montant
      */
-    private BigDecimal parseAmount(String amountStr) {
-        if (amountStr == null || amountStr.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
+    private BigDecimal parseAmount(CsvParser csv, int column) {
         try {
-            // Nettoyer le montant
-            String cleaned = amountStr
-                .replaceAll("\\s", "")
-                .replace(",", ".");
-
-            // Gérer les parenthèses (montant négatif)
-            if (cleaned.startsWith("(") && cleaned.endsWith(")")) {
-                cleaned = "-" + cleaned.substring(1, cleaned.length() - 1);
-            }
-
-            return new BigDecimal(cleaned);
+            return csv.getDecimal(column);
         } catch (NumberFormatException e) {
-            log.warn("Cannot parse amount: {}", amountStr);
+            log.warn("Cannot parse amount: {}", csv.get(column));
             return BigDecimal.ZERO;
         }
     }
@@ -9,12 +9,11 @@ import java.io.BufferedReader;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
+import java.time.DateTimeException;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 /**
  * Parser pour fichiers MT940 (SWIFT format)
@@ -28,16 +27,16 @@ import java.util.regex.Pattern;
  * :61:  Transaction
  * :86:  Informations complémentaires
  * :62F: Solde de clôture
+ *
+ * Lecture en flux: chaque transaction est émise dès que son couple :61:/:86: est complet.
+ * Un fichier peut contenir plusieurs relevés (plusieurs comptes, blocs SWIFT {1:...}{4: ... -}):
+ * chaque transaction porte le compte et la devise de son propre relevé.
+ * Les balises sont reconnues caractère par caractère, sans expression régulière.
  */
 @Slf4j
 @Component
 public class Mt940BankStatementParser implements BankStatementParser {
 
-    private static final DateTimeFormatter MT940_DATE_FORMAT = DateTimeFormatter.ofPattern("yyMMdd");
-    private static final Pattern TRANSACTION_PATTERN = Pattern.compile(
-        ":(61):(\\d{6})(\\d{4})?(C|D|RC|RD)([\\d,\\.]+).*"
-    );
-
     @Override
     public List<BankTransactionImportDto> parse(MultipartFile file) throws Exception {
         return parse(file.getInputStream(), file.getOriginalFilename());
@@ -48,68 +47,44 @@ public class Mt940BankStatementParser implements BankStatementParser {
         log.info("Parsing MT940 file: {}", fileName);
 
         List<BankTransactionImportDto> transactions = new ArrayList<>();
+        parse(inputStream, (Consumer<BankTransactionImportDto>) transactions::add);
+
+        log.info("MT940 parsing completed: {} transactions found", transactions.size());
+        return transactions;
+    }
+
+    @Override
+    public long parse(InputStream inputStream, Consumer<BankTransactionImportDto> consumer) throws Exception {
+        StatementState state = new StatementState(consumer);
 
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
             String line;
-            String accountNumber = null;
-            String currentTransactionRef = null;
-            LocalDate currentDate = null;
-            BigDecimal currentAmount = null;
-            String currentDescription = "";
-            String debitCredit = null;
-
             while ((line = reader.readLine()) != null) {
                 line = line.trim();
-
-                // Numéro de compte (:25:)
-                if (line.startsWith(":25:")) {
-                    accountNumber = line.substring(4).trim();
-                    log.debug("Account number: {}", accountNumber);
-                }
-
-                // Transaction (:61:)
-                else if (line.startsWith(":61:")) {
-                    // Sauvegarder la transaction précédente
-                    if (currentDate != null && currentAmount != null) {
-                        transactions.add(buildTransaction(
-                            currentDate, currentAmount, debitCredit,
-                            currentDescription, currentTransactionRef, accountNumber
-                        ));
-                    }
-
-                    // Parser la nouvelle transaction
-                    Mt940Transaction mt940Txn = parseMt940TransactionLine(line);
-                    if (mt940Txn != null) {
-                        currentDate = mt940Txn.date;
-                        currentAmount = mt940Txn.amount;
-                        debitCredit = mt940Txn.debitCredit;
-                        currentTransactionRef = mt940Txn.reference;
-                        currentDescription = "";
-                    }
+                if (line.isEmpty()) {
+                    continue;
                 }
 
-                // Informations complémentaires (:86:)
-                else if (line.startsWith(":86:")) {
-                    currentDescription = line.substring(4).trim();
+                int contentStart = tagEnd(line);
+                if (contentStart < 0) {
+                    state.onUntaggedLine(line);
+                    continue;
                 }
 
-                // Continuation de la ligne précédente (pas de tag)
-                else if (!line.startsWith(":") && !currentDescription.isEmpty()) {
-                    currentDescription += " " + line;
+                switch (tagOf(line, contentStart)) {
+                    case STATEMENT_REFERENCE -> state.startStatement();
+                    case ACCOUNT -> state.onAccount(line.substring(contentStart).trim());
+                    case OPENING_BALANCE -> state.onOpeningBalance(line, contentStart);
+                    case TRANSACTION -> state.onTransaction(line, contentStart);
+                    case INFORMATION -> state.onInformation(line.substring(contentStart).trim());
+                    default -> state.onOtherTag();
                 }
             }
-
-            // Sauvegarder la dernière transaction
-            if (currentDate != null && currentAmount != null) {
-                transactions.add(buildTransaction(
-                    currentDate, currentAmount, debitCredit,
-                    currentDescription, currentTransactionRef, accountNumber
-                ));
-            }
         }
 
-        log.info("MT940 parsing completed: {} transactions found", transactions.size());
-        return transactions;
+        state.flush();
+        log.debug("MT940: {} statement(s), {} transaction(s)", state.statements, state.count);
+        return state.count;
     }
 
     @Override
@@ -127,103 +102,256 @@ public class Mt940BankStatementParser implements BankStatementParser {
         return "MT940 (SWIFT)";
     }
 
+    /**
+     * Fin de la balise ":nn[a]:" en début de ligne
+     *
+     * @return Position du contenu qui suit la balise, -1 si la ligne n'en commence pas par une
+     */
+    static int tagEnd(String line) {
+        int length = line.length();
+        if (length < 4 || line.charAt(0) != ':') {
+            return -1;
+        }
+        int i = 1;
+        while (i < length && isDigit(line.charAt(i))) {
+            i++;
+        }
+        if (i == 1 || i > 3) {
+            return -1;
+        }
+        if (i < length && Character.isLetter(line.charAt(i))) {
+            i++;
+        }
+        return i < length && line.charAt(i) == ':' ? i + 1 : -1;
+    }
+
+    /**
+     * Classe la balise à partir de son numéro (l'option lettre n'est pas discriminante ici)
+     */
+    static Tag tagOf(String line, int contentStart) {
+        int number = 0;
+        for (int i = 1; i < contentStart && isDigit(line.charAt(i)); i++) {
+            number = number * 10 + (line.charAt(i) - '0');
+        }
+        return switch (number) {
+            case 20 -> Tag.STATEMENT_REFERENCE;
+            case 25 -> Tag.ACCOUNT;
+            case 60 -> Tag.OPENING_BALANCE;
+            case 61 -> Tag.TRANSACTION;
+            case 86 -> Tag.INFORMATION;
+            default -> Tag.OTHER;
+        };
+    }
+
     /**
      * Parse une ligne de transaction MT940
-     * Format: :61:YYMMDD[MMDD]C/D<montant>[monnaie][ref]
+     * Format: :61:YYMMDD[MMDD]<C|D|RC|RD>[code fonds]<montant><type><référence>
+     *
+     * @return null si la ligne est invalide
      */
-    private Mt940Transaction parseMt940TransactionLine(String line) {
-        try {
-            // Retirer le tag :61:
-            String content = line.substring(4);
-
-            // Extraire la date (6 premiers caractères: YYMMDD)
-            String dateStr = content.substring(0, 6);
-            LocalDate date = LocalDate.parse(dateStr, MT940_DATE_FORMAT);
-
-            // Chercher le marqueur C (crédit) ou D (débit)
-            int dcIndex = -1;
-            String debitCredit = null;
-            for (int i = 6; i < content.length(); i++) {
-                char c = content.charAt(i);
-                if (c == 'C' || c == 'D') {
-                    dcIndex = i;
-                    debitCredit = String.valueOf(c);
-                    break;
-                }
-                // Peut aussi être RC (reverse credit) ou RD (reverse debit)
-                if (i + 1 < content.length() && c == 'R' &&
-                    (content.charAt(i + 1) == 'C' || content.charAt(i + 1) == 'D')) {
-                    dcIndex = i;
-                    debitCredit = content.substring(i, i + 2);
-                    break;
-                }
-            }
+    static Mt940Transaction parseTransactionLine(String line, int start) {
+        int length = line.length();
 
-            if (dcIndex == -1) {
-                log.warn("Cannot find D/C indicator in MT940 line: {}", line);
-                return null;
-            }
+        // Date de valeur YYMMDD
+        if (length < start + 6) {
+            return null;
+        }
+        int yy = twoDigits(line, start);
+        int mm = twoDigits(line, start + 2);
+        int dd = twoDigits(line, start + 4);
+        if (yy < 0 || mm < 0 || dd < 0) {
+            return null;
+        }
+        LocalDate date;
+        try {
+            date = LocalDate.of(2000 + yy, mm, dd);
+        } catch (DateTimeException e) {
+            return null;
+        }
 
-            // Extraire le montant (après D/C jusqu'au prochain caractère non-numérique)
-            int amountStart = dcIndex + debitCredit.length();
-            StringBuilder amountStr = new StringBuilder();
-            for (int i = amountStart; i < content.length(); i++) {
-                char c = content.charAt(i);
-                if (Character.isDigit(c) || c == ',' || c == '.') {
-                    amountStr.append(c);
-                } else {
-                    break;
-                }
-            }
+        // Date d'écriture MMDD optionnelle, puis marque débit/crédit
+        int i = start + 6;
+        while (i < length && isDigit(line.charAt(i)) && i < start + 10) {
+            i++;
+        }
+        if (i >= length) {
+            return null;
+        }
+        String debitCredit;
+        char mark = line.charAt(i);
+        if (mark == 'R' && i + 1 < length && (line.charAt(i + 1) == 'C' || line.charAt(i + 1) == 'D')) {
+            debitCredit = line.charAt(i + 1) == 'C' ? "RC" : "RD";
+            i += 2;
+        } else if (mark == 'C' || mark == 'D') {
+            debitCredit = mark == 'C' ? "C" : "D";
+            i++;
+        } else {
+            return null;
+        }
 
-            BigDecimal amount = new BigDecimal(amountStr.toString().replace(',', '.'));
+        // Code fonds optionnel (3e lettre de la devise)
+        if (i < length && Character.isLetter(line.charAt(i))) {
+            i++;
+        }
 
-            // Si débit, montant négatif
-            if (debitCredit.equals("D") || debitCredit.equals("RD")) {
-                amount = amount.negate();
+        // Montant (virgule décimale)
+        int amountStart = i;
+        char[] amount = new char[Math.max(0, length - i)];
+        int amountLength = 0;
+        while (i < length) {
+            char c = line.charAt(i);
+            if (isDigit(c)) {
+                amount[amountLength++] = c;
+            } else if (c == ',' || c == '.') {
+                amount[amountLength++] = '.';
+            } else {
+                break;
             }
+            i++;
+        }
+        if (i == amountStart) {
+            return null;
+        }
 
-            // Extraire la référence (tout ce qui reste)
-            String reference = content.substring(amountStart + amountStr.length()).trim();
+        BigDecimal value = new BigDecimal(amount, 0, amountLength);
+        // Débit et extourne de crédit: montant négatif
+        if ("D".equals(debitCredit) || "RC".equals(debitCredit)) {
+            value = value.negate();
+        }
 
-            Mt940Transaction transaction = new Mt940Transaction();
-            transaction.date = date;
-            transaction.amount = amount;
-            transaction.debitCredit = debitCredit;
-            transaction.reference = reference;
+        // Référence: tout ce qui reste (type, référence client // référence banque)
+        return new Mt940Transaction(date, value, debitCredit, line.substring(i).trim());
+    }
 
-            return transaction;
+    private static int twoDigits(String line, int index) {
+        char a = line.charAt(index);
+        char b = line.charAt(index + 1);
+        return isDigit(a) && isDigit(b) ? (a - '0') * 10 + (b - '0') : -1;
+    }
 
-        } catch (Exception e) {
-            log.warn("Error parsing MT940 transaction line: {} - {}", line, e.getMessage());
-            return null;
-        }
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
     }
 
     /**
-     * Construit un BankTransactionImportDto
+     * Balises utiles à l'import
      */
-    private BankTransactionImportDto buildTransaction(LocalDate date, BigDecimal amount,
-                                                       String debitCredit, String description,
-                                                       String reference, String accountNumber) {
-        return BankTransactionImportDto.builder()
-            .transactionDate(date)
-            .valueDate(date)
-            .amount(amount)
-            .description(description)
-            .bankReference(reference)
-            .accountNumber(accountNumber)
-            .additionalInfo("MT940 " + debitCredit)
-            .build();
+    enum Tag {
+        STATEMENT_REFERENCE,
+        ACCOUNT,
+        OPENING_BALANCE,
+        TRANSACTION,
+        INFORMATION,
+        OTHER
     }
 
     /**
-     * Classe interne pour représenter une transaction MT940
+     * Champs d'une ligne :61:
      */
-    private static class Mt940Transaction {
-        LocalDate date;
-        BigDecimal amount;
-        String debitCredit;
-        String reference;
+    record Mt940Transaction(LocalDate date, BigDecimal amount, String debitCredit, String reference) {}
+
+    /**
+     * Relevé en cours et transaction en attente de son :86:
+     */
+    private static final class StatementState {
+
+        private final Consumer<BankTransactionImportDto> consumer;
+        private String accountNumber;
+        private String currency;
+        private Mt940Transaction pending;
+        private final StringBuilder description = new StringBuilder();
+        private boolean inInformation;
+        private long count;
+        private int statements;
+
+        StatementState(Consumer<BankTransactionImportDto> consumer) {
+            this.consumer = consumer;
+        }
+
+        /**
+         * :20: ou nouveau bloc SWIFT: nouveau relevé
+         */
+        void startStatement() {
+            flush();
+            accountNumber = null;
+            currency = null;
+            statements++;
+        }
+
+        void onAccount(String account) {
+            flush();
+            accountNumber = account;
+            log.debug("Account number: {}", accountNumber);
+        }
+
+        /**
+         * :60F:/:60M: C|D YYMMDD devise montant
+         */
+        void onOpeningBalance(String line, int start) {
+            flush();
+            if (line.length() >= start + 10) {
+                currency = line.substring(start + 7, start + 10);
+            }
+        }
+
+        void onTransaction(String line, int start) {
+            flush();
+            pending = parseTransactionLine(line, start);
+            if (pending == null) {
+                log.warn("Error parsing MT940 transaction line: {}", line);
+            }
+        }
+
+        void onInformation(String content) {
+            if (pending == null) {
+                // :86: de niveau relevé (sans :61:)
+                inInformation = false;
+                return;
+            }
+            description.setLength(0);
+            description.append(content);
+            inInformation = true;
+        }
+
+        /**
+         * :62F:, :64:, :28C:... : la transaction en attente est complète
+         */
+        void onOtherTag() {
+            flush();
+        }
+
+        void onUntaggedLine(String line) {
+            if (line.charAt(0) == '{' || line.equals("-") || line.startsWith("-}")) {
+                // Bloc SWIFT ({1:...}{4:) ou fin de message (-}): fin du relevé
+                flush();
+                return;
+            }
+            // Suite des informations complémentaires (:86: sur plusieurs lignes)
+            if (inInformation && pending != null) {
+                description.append(' ').append(line);
+            }
+        }
+
+        /**
+         * Émet la transaction en attente
+         */
+        void flush() {
+            if (pending != null) {
+                consumer.accept(BankTransactionImportDto.builder()
+                    .transactionDate(pending.date())
+                    .valueDate(pending.date())
+                    .amount(pending.amount())
+                    .description(description.toString())
+                    .bankReference(pending.reference())
+                    .accountNumber(accountNumber)
+                    .currency(currency)
+                    .additionalInfo("MT940 " + pending.debitCredit())
+                    .build());
+                count++;
+                pending = null;
+            }
+            description.setLength(0);
+            inInformation = false;
+        }
     }
 }
@@ -4,29 +4,50 @@ import com.predykt.accounting.dto.request.BankTransactionImportDto;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Parser pour fichiers OFX (Open Financial Exchange)
  * Format XML standard utilisé par Ecobank, UBA, BOA, Standard Bank
+ *
+ * Lecture en flux balise par balise: chaque transaction est émise à la fermeture de
+ * son élément <STMTTRN>, sans charger le fichier ni construire de DOM.
+ * Accepte l'OFX 2.x (XML) comme l'OFX 1.x (SGML, balises feuilles non fermées),
+ * que StAX ne peut pas lire.
+ * Jeu de caractères pris dans l'en-tête: ENCODING/CHARSET en OFX 1.x (USASCII + 1252 le plus souvent),
+ * déclaration XML en OFX 2.x, UTF-8 par défaut.
  */
 @Slf4j
 @Component
 public class OfxBankStatementParser implements BankStatementParser {
 
     private static final DateTimeFormatter OFX_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
-    private static final DateTimeFormatter OFX_DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+    /**
+     * Octets lus au maximum pour trouver l'en-tête (avant la première balise ou déclaration XML comprise)
+     */
+    private static final int HEADER_LIMIT = 4096;
+
+    private static final Pattern XML_ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z0-9._:-]+)[\"']");
 
     @Override
     public List<BankTransactionImportDto> parse(MultipartFile file) throws Exception {
@@ -38,46 +59,78 @@ public class OfxBankStatementParser implements BankStatementParser {
         log.info("Parsing OFX file: {}", fileName);
 
         List<BankTransactionImportDto> transactions = new ArrayList<>();
+        parse(inputStream, transactions::add);
 
-        // Le format OFX peut être SGML ou XML
-        // On va d'abord nettoyer le contenu pour le rendre XML-compatible
-        String content = new String(inputStream.readAllBytes());
-        String xmlContent = convertOfxToXml(content);
-
-        // Parser le XML
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        factory.setNamespaceAware(false);
-        DocumentBuilder builder = factory.newDocumentBuilder();
-        Document doc = builder.parse(new java.io.ByteArrayInputStream(xmlContent.getBytes()));
-
-        // Extraire les transactions du relevé bancaire (STMTTRN)
-        NodeList stmtTrnList = doc.getElementsByTagName("STMTTRN");
-
-        for (int i = 0; i < stmtTrnList.getLength(); i++) {
-            Element stmtTrn = (Element) stmtTrnList.item(i);
-
-            BankTransactionImportDto transaction = BankTransactionImportDto.builder()
-                .transactionDate(parseOfxDate(getElementText(stmtTrn, "DTPOSTED")))
-                .valueDate(parseOfxDate(getElementText(stmtTrn, "DTUSER")))
-                .amount(new BigDecimal(getElementText(stmtTrn, "TRNAMT")))
-                .bankReference(getElementText(stmtTrn, "FITID"))
-                .description(getElementText(stmtTrn, "NAME") + " - " + getElementText(stmtTrn, "MEMO"))
-                .thirdPartyName(getElementText(stmtTrn, "NAME"))
-                .additionalInfo(getElementText(stmtTrn, "MEMO"))
-                .currency(getElementText(stmtTrn, "CURRENCY"))
-                .build();
+        log.info("OFX parsing completed: {} transactions found", transactions.size());
+        return transactions;
+    }
+
+    @Override
+    public long parse(InputStream inputStream, Consumer<BankTransactionImportDto> consumer) throws Exception {
+        BufferedInputStream input = new BufferedInputStream(inputStream, HEADER_LIMIT);
+        Reader reader = new BufferedReader(new InputStreamReader(input, detectCharset(input)));
+
+        StringBuilder text = new StringBuilder();
+        StringBuilder tag = new StringBuilder();
+        String openTag = null;          // Dernière balise ouverte (porteuse de la valeur à venir)
+        String accountNumber = null;
+        String defaultCurrency = null;
+        Map<String, String> transaction = null;
+        long count = 0;
 
-            // Extraire le numéro de compte du relevé
-            NodeList acctIdList = doc.getElementsByTagName("ACCTID");
-            if (acctIdList.getLength() > 0) {
-                transaction.setAccountNumber(acctIdList.item(0).getTextContent());
+        int c;
+        while ((c = reader.read()) != -1) {
+            if (c != '<') {
+                text.append((char) c);
+                continue;
             }
 
-            transactions.add(transaction);
+            // Valeur de la balise précédente (SGML: jusqu'à la balise suivante)
+            String value = decodeEntities(text.toString().trim());
+            text.setLength(0);
+            if (openTag != null && !value.isEmpty()) {
+                if (transaction != null) {
+                    transaction.putIfAbsent(openTag, value);
+                } else if ("ACCTID".equals(openTag) && accountNumber == null) {
+                    accountNumber = value;
+                } else if ("CURDEF".equals(openTag)) {
+                    defaultCurrency = value;
+                }
+            }
+
+            // Lire le nom de la balise
+            tag.setLength(0);
+            while ((c = reader.read()) != -1 && c != '>') {
+                tag.append((char) c);
+            }
+            String name = tag.toString().trim();
+
+            if (name.isEmpty() || name.charAt(0) == '?' || name.charAt(0) == '!') {
+                // Déclaration XML, instruction OFX ou commentaire
+                openTag = null;
+            } else if (name.charAt(0) == '/') {
+                openTag = null;
+                if ("/STMTTRN".equalsIgnoreCase(name) && transaction != null) {
+                    BankTransactionImportDto dto = toTransaction(transaction, accountNumber, defaultCurrency);
+                    if (dto != null) {
+                        consumer.accept(dto);
+                        count++;
+                    }
+                    transaction = null;
+                }
+            } else {
+                openTag = name.toUpperCase();
+                if ("STMTTRN".equals(openTag)) {
+                    transaction = new HashMap<>();
+                } else if ("STMTRS".equals(openTag) || "CCSTMTRS".equals(openTag)) {
+                    // Nouveau relevé
+                    accountNumber = null;
+                    defaultCurrency = null;
+                }
+            }
         }
 
-        log.info("OFX parsing completed: {} transactions found", transactions.size());
-        return transactions;
+        return count;
     }
 
     @Override
@@ -95,21 +148,121 @@ public class OfxBankStatementParser implements BankStatementParser {
     }
 
     /**
-     * Convertit le format OFX SGML en XML valide
+     * Jeu de caractères annoncé par l'en-tête, sans consommer le flux
+     * OFX 1.x: ENCODING:UTF-8 (ou UNICODE) -> UTF-8, sinon CHARSET (1252 -> windows-1252, ISO-8859-1...),
+     * windows-1252 si aucun n'est utilisable (sur-ensemble de l'USASCII). OFX 2.x: encoding de la déclaration XML.
      */
-    private String convertOfxToXml(String ofxContent) {
-        // Supprimer le header OFX et garder seulement la partie XML/SGML
-        int ofxStart = ofxContent.indexOf("<OFX>");
-        if (ofxStart > 0) {
-            ofxContent = ofxContent.substring(ofxStart);
+    private static Charset detectCharset(BufferedInputStream input) throws IOException {
+        input.mark(HEADER_LIMIT);
+        byte[] bytes = input.readNBytes(HEADER_LIMIT);
+        input.reset();
+
+        String head = new String(bytes, StandardCharsets.ISO_8859_1);
+        int firstTag = head.indexOf('<');
+        String header = firstTag >= 0 ? head.substring(0, firstTag) : head;
+
+        String encoding = null;
+        String charset = null;
+        for (String line : header.split("\\r?\\n|\\r")) {
+            int separator = line.indexOf(':');
+            if (separator <= 0) {
+                continue;
+            }
+            String key = line.substring(0, separator).trim().toUpperCase(Locale.ROOT);
+            String value = line.substring(separator + 1).trim().toUpperCase(Locale.ROOT);
+            if ("ENCODING".equals(key)) {
+                encoding = value;
+            } else if ("CHARSET".equals(key)) {
+                charset = value;
+            }
         }
 
-        // Ajouter la déclaration XML si absente
-        if (!ofxContent.trim().startsWith("<?xml")) {
-            ofxContent = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" + ofxContent;
+        if (encoding == null && charset == null) {
+            // OFX 2.x (ou fichier sans en-tête): déclaration XML éventuelle
+            int declarationEnd = head.indexOf("?>");
+            if (head.startsWith("<?xml", Math.max(firstTag, 0)) && declarationEnd > 0) {
+                Matcher matcher = XML_ENCODING.matcher(head.substring(0, declarationEnd));
+                if (matcher.find()) {
+                    return charsetOrDefault(matcher.group(1), StandardCharsets.UTF_8);
+                }
+            }
+            return StandardCharsets.UTF_8;
         }
 
-        return ofxContent;
+        if ("UTF-8".equals(encoding) || "UNICODE".equals(encoding)) {
+            return StandardCharsets.UTF_8;
+        }
+        Charset windows1252 = charsetOrDefault("windows-1252", StandardCharsets.ISO_8859_1);
+        if (charset == null || "NONE".equals(charset) || "1252".equals(charset)) {
+            return windows1252;
+        }
+        if (charset.matches("\\d+")) {
+            // Page de code Windows (ex. 1250, 1251)
+            return charsetOrDefault("windows-" + charset, windows1252);
+        }
+        if (charset.startsWith("8859-")) {
+            return charsetOrDefault("ISO-" + charset, windows1252);
+        }
+        return charsetOrDefault(charset, windows1252);
+    }
+
+    private static Charset charsetOrDefault(String name, Charset defaultCharset) {
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            log.warn("OFX: jeu de caractères inconnu '{}', {} utilisé", name, defaultCharset.name());
+            return defaultCharset;
+        }
+    }
+
+    /**
+     * Construit la transaction à partir des champs lus dans <STMTTRN>
+     */
+    private BankTransactionImportDto toTransaction(Map<String, String> fields, String accountNumber,
+                                                   String defaultCurrency) {
+        String amount = fields.get("TRNAMT");
+        if (amount == null) {
+            log.warn("OFX transaction without TRNAMT skipped: {}", fields.get("FITID"));
+            return null;
+        }
+
+        String name = fields.getOrDefault("NAME", "");
+        String memo = fields.getOrDefault("MEMO", "");
+        // Devise de la transaction (CURRENCY/CURSYM) sinon devise du relevé
+        String currency = fields.getOrDefault("CURSYM", defaultCurrency != null ? defaultCurrency : "");
+
+        try {
+            return BankTransactionImportDto.builder()
+                .transactionDate(parseOfxDate(fields.get("DTPOSTED")))
+                .valueDate(parseOfxDate(fields.get("DTUSER")))
+                .amount(new BigDecimal(amount.replace(',', '.')))
+                .bankReference(fields.getOrDefault("FITID", ""))
+                .description(name + " - " + memo)
+                .thirdPartyName(name)
+                .additionalInfo(memo)
+                .currency(currency)
+                .accountNumber(accountNumber)
+                .build();
+        } catch (NumberFormatException e) {
+            log.warn("Invalid OFX amount: {}", amount);
+            return null;
+        }
+    }
+
+    /**
+     * Décode les entités XML/SGML usuelles
+     */
+    private static String decodeEntities(String value) {
+        if (value.indexOf('&') < 0) {
+            return value;
+        }
+        return value
+            .replace("&lt;", "<")
+            .replace("&gt;", ">")
+            .replace("&quot;", "\"")
+            .replace("&apos;", "'")
+            .replace("&nbsp;", " ")
+            .replace("&amp;", "&");
     }
 
     /**
@@ -129,16 +282,4 @@ public class OfxBankStatementParser implements BankStatementParser {
             return null;
         }
     }
-
-    /**
-     * Récupère le texte d'un élément XML
-     */
-    private String getElementText(Element parent, String tagName) {
-        NodeList nodeList = parent.getElementsByTagName(tagName);
-        if (nodeList.getLength() > 0) {
-            String text = nodeList.item(0).getTextContent();
-            return text != null ? text.trim() : "";
-        }
-        return "";
-    }
 }
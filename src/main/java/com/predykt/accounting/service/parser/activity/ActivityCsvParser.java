@@ -6,6 +6,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.InputStream;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Interface commune pour tous les parsers d'activités CSV/Excel
@@ -31,6 +32,22 @@ public interface ActivityCsvParser {
      */
     List<ActivityImportDto> parse(InputStream inputStream, String fileName) throws Exception;
 
+    /**
+     * Parse un input stream en flux: chaque activité est transmise dès sa lecture
+     * Implémentation par défaut: parsing complet puis émission (à surcharger pour les gros fichiers)
+     *
+     * @param inputStream Stream à parser
+     * @param fileName Nom du fichier (pour détection)
+     * @param consumer Reçoit les activités dans l'ordre du fichier
+     * @return Nombre d'activités émises
+     * @throws Exception en cas d'erreur de parsing
+     */
+    default long parse(InputStream inputStream, String fileName, Consumer<ActivityImportDto> consumer) throws Exception {
+        List<ActivityImportDto> activities = parse(inputStream, fileName);
+        activities.forEach(consumer);
+        return activities.size();
+    }
+
     /**
      * Vérifie si ce parser supporte ce format
      *
@@ -33,8 +33,7 @@ public class ActivityParserFactory {
         // Si template fourni, utiliser CustomActivityCsvParser
         if (template != null) {
             log.info("Using custom template parser: {}", template.getTemplateName());
-            customParser.setTemplate(template);
-            return customParser;
+            return customParser.withTemplate(template);
         }
 
         // Si format non spécifié, détecter
@@ -1,11 +1,11 @@
 package com.predykt.accounting.service.parser.activity;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 import com.predykt.accounting.domain.entity.ActivityImportTemplate;
 import com.predykt.accounting.domain.enums.ActivityCsvFormat;
 import com.predykt.accounting.dto.ActivityImportDto;
 import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.util.CsvParser;
+import com.predykt.accounting.util.DateFormatDetector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -16,26 +16,39 @@ import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Parser basé sur un template personnalisé
- * Utilise la configuration du template pour parser le fichier
+ * Utilise la configuration du template pour parser le fichier (séparateur, encodage, colonnes, format de date)
+ *
+ * Le composant partagé n'est jamais modifié: withTemplate() retourne un parser lié au template,
+ * propre à l'import en cours (imports simultanés avec des templates différents).
  */
 @Slf4j
 @Component
 public class CustomActivityCsvParser implements ActivityCsvParser {
 
-    private ActivityImportTemplate template;
+    private static final String DEFAULT_DATE_FORMAT = "dd/MM/yyyy";
+
+    private final ActivityImportTemplate template;
+
+    public CustomActivityCsvParser() {
+        this(null);
+    }
+
+    private CustomActivityCsvParser(ActivityImportTemplate template) {
+        this.template = template;
+    }
 
     /**
-     * Configure le parser avec un template
+     * Parser configuré avec un template
      */
-    public void setTemplate(ActivityImportTemplate template) {
-        this.template = template;
+    public CustomActivityCsvParser withTemplate(ActivityImportTemplate template) {
+        return new CustomActivityCsvParser(template);
     }
 
     @Override
@@ -48,56 +61,63 @@ public class CustomActivityCsvParser implements ActivityCsvParser {
 
     @Override
     public List<ActivityImportDto> parse(InputStream inputStream, String fileName) throws Exception {
+        List<ActivityImportDto> activities = new ArrayList<>();
+        parse(inputStream, fileName, activities::add);
+        return activities;
+    }
+
+    @Override
+    public long parse(InputStream inputStream, String fileName, Consumer<ActivityImportDto> consumer) throws Exception {
         if (template == null) {
             throw new IllegalStateException("Template non configuré");
         }
 
         log.info("Parsing custom CSV with template: {}", template.getTemplateName());
 
-        List<ActivityImportDto> activities = new ArrayList<>();
+        long count = 0;
 
         Charset charset = Charset.forName(template.getEncoding());
-        char separator = template.getSeparator();
+        char separator = template.getSeparator() != null ? template.getSeparator() : ';';
 
-        try (CSVReader csvReader = new CSVReader(new InputStreamReader(inputStream, charset))) {
-            List<String[]> allRows = csvReader.readAll();
+        try (CsvParser csv = CsvParser.withSeparator(new InputStreamReader(inputStream, charset), separator)) {
+            boolean hasRow = csv.next();
 
-            if (allRows.isEmpty()) {
+            if (!hasRow) {
                 throw new ImportException("Fichier CSV vide");
             }
 
-            // Skip header si configuré
-            int startIndex = template.getHasHeader() ? 1 : 0;
+            // Colonnes résolues une fois pour tout le fichier (index ou nom dans l'en-tête)
+            String[] header = Boolean.TRUE.equals(template.getHasHeader()) ? csv.toArray() : null;
+            ColumnLayout layout = resolveLayout(template.getColumnMapping(), header);
 
-            // Skip rows additionnels si configuré
-            startIndex += template.getSkipRows();
+            // Skip header si configuré + rows additionnels si configuré
+            int skip = (header != null ? 1 : 0) + (template.getSkipRows() != null ? template.getSkipRows() : 0);
+            for (int i = 0; i < skip && hasRow; i++) {
+                hasRow = csv.next();
+            }
 
             int rowNumber = 0;
-            for (int i = startIndex; i < allRows.size(); i++) {
+            for (; hasRow; hasRow = csv.next()) {
                 rowNumber++;
-                String[] row = allRows.get(i);
 
                 // Ignorer lignes vides
-                if (row.length == 0) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
 
-                try {
-                    ActivityImportDto activity = parseRowWithTemplate(row, rowNumber);
-                    if (activity != null) {
-                        activities.add(activity);
-                    }
-                } catch (Exception e) {
-                    log.warn("Erreur parsing ligne {}: {}", rowNumber, e.getMessage());
+                ActivityImportDto activity = parseRowWithTemplate(csv, layout, rowNumber);
+                if (activity != null) {
+                    consumer.accept(activity);
+                    count++;
                 }
             }
 
-        } catch (IOException | CsvException e) {
+        } catch (IOException e) {
             throw new ImportException("Erreur lecture fichier CSV: " + e.getMessage());
         }
 
-        log.info("Custom CSV parsing completed: {} activities found", activities.size());
-        return activities;
+        log.info("Custom CSV parsing completed: {} activities found", count);
+        return count;
     }
 
     @Override
@@ -116,32 +136,30 @@ public class CustomActivityCsvParser implements ActivityCsvParser {
     }
 
     /**
-     * Parse une ligne selon le template
+     * Parse la ligne courante selon le template
      */
-    private ActivityImportDto parseRowWithTemplate(String[] row, int rowNumber) {
-        Map<String, Object> columnMapping = template.getColumnMapping();
-
+    private ActivityImportDto parseRowWithTemplate(CsvParser csv, ColumnLayout layout, int rowNumber) {
         try {
             // Extraire date
-            LocalDate date = extractDate(row, columnMapping);
+            LocalDate date = extractDate(csv, layout);
             if (date == null) {
                 return null;
             }
 
             // Extraire activité
-            String activity = extractString(row, columnMapping, "activity");
+            String activity = extractString(csv, layout.activity());
 
             // Extraire description (optionnel)
-            String description = extractString(row, columnMapping, "description");
+            String description = extractString(csv, layout.description());
             if (description == null || description.isEmpty()) {
                 description = activity;
             }
 
             // Extraire montant
-            BigDecimal amount = extractAmount(row, columnMapping);
+            BigDecimal amount = extractAmount(csv, layout.amount());
 
             // Extraire type (optionnel)
-            String type = extractString(row, columnMapping, "type");
+            String type = extractString(csv, layout.type());
 
             return ActivityImportDto.builder()
                 .rowNumber(rowNumber)
@@ -159,104 +177,109 @@ public class CustomActivityCsvParser implements ActivityCsvParser {
     }
 
     /**
-     * Extrait une date selon la configuration
+     * Extrait une date avec le format du template
      */
-    private LocalDate extractDate(String[] row, Map<String, Object> columnMapping) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> dateConfig = (Map<String, Object>) columnMapping.get("date");
-
-        if (dateConfig == null) {
+    private LocalDate extractDate(CsvParser csv, ColumnLayout layout) {
+        int columnIndex = layout.date();
+        if (columnIndex < 0 || columnIndex >= csv.size()) {
             return null;
         }
 
-        int columnIndex = getColumnIndex(dateConfig, row);
-        if (columnIndex >= row.length) {
-            return null;
-        }
-
-        String dateStr = row[columnIndex].trim();
-        String dateFormat = (String) dateConfig.getOrDefault("dateFormat", "dd/MM/yyyy");
-
-        try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern(dateFormat);
-            return LocalDate.parse(dateStr, formatter);
-        } catch (Exception e) {
-            log.warn("Erreur parsing date '{}' avec format '{}': {}", dateStr, dateFormat, e.getMessage());
-            return null;
+        LocalDate date = csv.getDate(columnIndex, layout.dateFormat());
+        if (date == null && !csv.isEmpty(columnIndex)) {
+            log.warn("Erreur parsing date '{}' avec format '{}'",
+                csv.get(columnIndex), layout.dateFormat().getDetectedPattern());
         }
+        return date;
     }
 
     /**
-     * Extrait un string selon la configuration
+     * Extrait un string (null si la colonne n'est pas configurée ou absente de la ligne)
      */
-    private String extractString(String[] row, Map<String, Object> columnMapping, String fieldName) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> fieldConfig = (Map<String, Object>) columnMapping.get(fieldName);
-
-        if (fieldConfig == null) {
+    private String extractString(CsvParser csv, int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= csv.size()) {
             return null;
         }
-
-        int columnIndex = getColumnIndex(fieldConfig, row);
-        if (columnIndex >= row.length) {
-            return null;
-        }
-
-        return row[columnIndex].trim();
+        return csv.get(columnIndex);
     }
 
     /**
-     * Extrait un montant selon la configuration
+     * Extrait un montant
      */
-    private BigDecimal extractAmount(String[] row, Map<String, Object> columnMapping) {
-        @SuppressWarnings("unchecked")
-        Map<String, Object> amountConfig = (Map<String, Object>) columnMapping.get("amount");
-
-        if (amountConfig == null) {
+    private BigDecimal extractAmount(CsvParser csv, int columnIndex) {
+        if (columnIndex < 0 || columnIndex >= csv.size()) {
             return BigDecimal.ZERO;
         }
 
-        int columnIndex = getColumnIndex(amountConfig, row);
-        if (columnIndex >= row.length) {
+        try {
+            return csv.getDecimal(columnIndex);
+        } catch (NumberFormatException e) {
+            log.warn("Format de montant invalide: {}", csv.get(columnIndex));
             return BigDecimal.ZERO;
         }
+    }
 
-        String amountStr = row[columnIndex].trim();
+    /**
+     * Résout les colonnes du template
+     */
+    private ColumnLayout resolveLayout(Map<String, Object> columnMapping, String[] header) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> dateConfig = (Map<String, Object>) columnMapping.get("date");
+        String dateFormat = dateConfig != null
+            ? (String) dateConfig.getOrDefault("dateFormat", DEFAULT_DATE_FORMAT)
+            : DEFAULT_DATE_FORMAT;
 
+        DateFormatDetector dateFormatDetector;
         try {
-            String cleaned = amountStr
-                .replaceAll("\\s", "")
-                .replace(",", ".");
-
-            if (cleaned.startsWith("(") && cleaned.endsWith(")")) {
-                cleaned = "-" + cleaned.substring(1, cleaned.length() - 1);
-            }
-
-            return new BigDecimal(cleaned);
-        } catch (NumberFormatException e) {
-            log.warn("Format de montant invalide: {}", amountStr);
-            return BigDecimal.ZERO;
+            dateFormatDetector = new DateFormatDetector(dateFormat);
+        } catch (IllegalArgumentException e) {
+            throw new ImportException("Format de date invalide dans le template: " + dateFormat);
         }
+
+        return new ColumnLayout(
+            getColumnIndex(columnMapping, "date", header),
+            getColumnIndex(columnMapping, "activity", header),
+            getColumnIndex(columnMapping, "description", header),
+            getColumnIndex(columnMapping, "amount", header),
+            getColumnIndex(columnMapping, "type", header),
+            dateFormatDetector
+        );
     }
 
     /**
-     * Récupère l'index de la colonne
+     * Récupère l'index de la colonne (-1 si le champ n'est pas configuré)
      */
-    private int getColumnIndex(Map<String, Object> fieldConfig, String[] row) {
+    private int getColumnIndex(Map<String, Object> columnMapping, String fieldName, String[] header) {
+        @SuppressWarnings("unchecked")
+        Map<String, Object> fieldConfig = (Map<String, Object>) columnMapping.get(fieldName);
+
+        if (fieldConfig == null) {
+            return -1;
+        }
+
         // Vérifier columnIndex
         if (fieldConfig.containsKey("columnIndex")) {
             return ((Number) fieldConfig.get("columnIndex")).intValue();
         }
 
-        // Vérifier columnName
-        if (fieldConfig.containsKey("columnName") && template.getHasHeader()) {
-            String columnName = (String) fieldConfig.get("columnName");
-            // Rechercher dans le header (row[0] si disponible)
-            // Pour simplifier, on retourne 0 ici
-            // TODO: Améliorer en cherchant dans le header réel
-            return 0;
+        // Vérifier columnName: rechercher dans l'en-tête réel
+        if (fieldConfig.containsKey("columnName") && header != null) {
+            String columnName = String.valueOf(fieldConfig.get("columnName")).trim();
+            for (int i = 0; i < header.length; i++) {
+                if (header[i].equalsIgnoreCase(columnName)) {
+                    return i;
+                }
+            }
+            log.warn("Colonne '{}' ({}) absente de l'en-tête du fichier", columnName, fieldName);
+            return -1;
         }
 
         return 0;
     }
+
+    /**
+     * Colonnes du fichier résolues pour le template
+     */
+    private record ColumnLayout(int date, int activity, int description, int amount, int type,
+                                DateFormatDetector dateFormat) {}
 }
@@ -1,10 +1,10 @@
 package com.predykt.accounting.service.parser.activity;
 
-import com.opencsv.CSVReader;
-import com.opencsv.exceptions.CsvException;
 import com.predykt.accounting.domain.enums.ActivityCsvFormat;
 import com.predykt.accounting.dto.ActivityImportDto;
 import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.util.CsvParser;
+import com.predykt.accounting.util.DateFormatDetector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
@@ -12,15 +12,12 @@ import org.springframework.web.multipart.MultipartFile;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.Reader;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Parser pour le format générique PREDYKT
@@ -30,11 +27,7 @@ import java.util.List;
 @Component
 public class GenericActivityCsvParser implements ActivityCsvParser {
 
-    private static final DateTimeFormatter[] DATE_FORMATTERS = {
-        DateTimeFormatter.ofPattern("dd/MM/yyyy"),
-        DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-        DateTimeFormatter.ofPattern("d/M/yyyy")
-    };
+    private static final String[] DATE_FORMATS = {"dd/MM/yyyy", "yyyy-MM-dd", "d/M/yyyy"};
 
     @Override
     public List<ActivityImportDto> parse(MultipartFile file) throws Exception {
@@ -43,62 +36,46 @@ public class GenericActivityCsvParser implements ActivityCsvParser {
 
     @Override
     public List<ActivityImportDto> parse(InputStream inputStream, String fileName) throws Exception {
-        log.info("Parsing generic CSV file: {}", fileName);
-
         List<ActivityImportDto> activities = new ArrayList<>();
+        parse(inputStream, fileName, activities::add);
+        return activities;
+    }
+
+    @Override
+    public long parse(InputStream inputStream, String fileName, Consumer<ActivityImportDto> consumer) throws Exception {
+        log.info("Parsing generic CSV file: {}", fileName);
 
-        try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-             CSVReader csvReader = new CSVReader(reader)) {
+        long count = 0;
 
-            List<String[]> allRows = csvReader.readAll();
+        try (CsvParser csv = CsvParser.detectingSeparator(
+                new InputStreamReader(inputStream, StandardCharsets.UTF_8), ',')) {
 
-            if (allRows.isEmpty()) {
+            if (!csv.next()) {
                 throw new ImportException("Fichier CSV vide");
             }
+            log.info("Séparateur détecté: '{}'", csv.getSeparator());
 
-            // Déterminer le séparateur
-            char separator = detectSeparator(allRows.get(0));
-            log.info("Séparateur détecté: '{}'", separator);
-
-            // Skip header
-            boolean isFirstRow = true;
-            int rowNumber = 0;
-
-            for (String[] row : allRows) {
-                rowNumber++;
-
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue;
-                }
+            DateFormatDetector dateFormat = new DateFormatDetector(DATE_FORMATS);
 
+            while (csv.next()) {
                 // Ignorer les lignes vides
-                if (row.length == 0 || (row.length == 1 && (row[0] == null || row[0].trim().isEmpty()))) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
 
-                // Re-split si le séparateur n'est pas le bon
-                String[] columns = row;
-                if (separator != ',' && row.length == 1) {
-                    columns = row[0].split(String.valueOf(separator));
-                }
-
-                try {
-                    ActivityImportDto activity = parseRow(columns, rowNumber);
-                    if (activity != null) {
-                        activities.add(activity);
-                    }
-                } catch (Exception e) {
-                    log.warn("Ligne {} ignorée: {} - {}", rowNumber, Arrays.toString(row), e.getMessage());
+                ActivityImportDto activity = parseRow(csv, dateFormat);
+                if (activity != null) {
+                    consumer.accept(activity);
+                    count++;
                 }
             }
 
-        } catch (IOException | CsvException e) {
+        } catch (IOException e) {
             throw new ImportException("Erreur lecture fichier CSV: " + e.getMessage());
         }
 
-        log.info("Generic CSV parsing completed: {} activities found", activities.size());
-        return activities;
+        log.info("Generic CSV parsing completed: {} activities found", count);
+        return count;
     }
 
     @Override
@@ -117,35 +94,37 @@ public class GenericActivityCsvParser implements ActivityCsvParser {
     }
 
     /**
-     * Parse une ligne CSV
+     * Parse la ligne courante
      * Format: date de saisie;Activitées;description;Montant Brut;Type;Années
      */
-    private ActivityImportDto parseRow(String[] columns, int rowNumber) {
-        if (columns.length < 5) {
+    private ActivityImportDto parseRow(CsvParser csv, DateFormatDetector dateFormat) {
+        if (csv.size() < 5) {
             return null; // Ligne incomplète
         }
 
+        int rowNumber = csv.getRecordNumber();
         try {
             // Colonne 0: Date
-            LocalDate date = parseDate(columns[0].trim());
+            LocalDate date = csv.getDate(0, dateFormat);
             if (date == null) {
+                log.warn("Format de date non reconnu: {}", csv.get(0));
                 return null;
             }
 
             // Colonne 1: Activité
-            String activity = columns[1].trim();
+            String activity = csv.get(1);
 
             // Colonne 2: Description
-            String description = columns.length > 2 ? columns[2].trim() : "";
-            if (description.isEmpty() || description.equalsIgnoreCase("Description manquante")) {
+            String description = csv.get(2);
+            if (description.isEmpty() || csv.equalsIgnoreCase(2, "Description manquante")) {
                 description = activity;
             }
 
             // Colonne 3: Montant
-            BigDecimal amount = parseAmount(columns[3].trim());
+            BigDecimal amount = parseAmount(csv, 3);
 
             // Colonne 4: Type
-            String type = columns[4].trim();
+            String type = csv.get(4);
 
             return ActivityImportDto.builder()
                 .rowNumber(rowNumber)
@@ -157,61 +136,19 @@ public class GenericActivityCsvParser implements ActivityCsvParser {
                 .build();
 
         } catch (Exception e) {
-            log.warn("Erreur parsing ligne {}: {} - {}", rowNumber, Arrays.toString(columns), e.getMessage());
+            log.warn("Erreur parsing ligne {}: {} - {}", rowNumber, csv.describeRecord(), e.getMessage());
             return null;
         }
     }
 
-    /**
-     * Détecte le séparateur
-     */
-    private char detectSeparator(String[] firstRow) {
-        if (firstRow.length == 1 && firstRow[0].contains(";")) {
-            return ';';
-        }
-        return ',';
-    }
-
-    /**
-     * Parse une date
-     */
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.trim().isEmpty()) {
-            return null;
-        }
-
-        for (DateTimeFormatter formatter : DATE_FORMATTERS) {
-            try {
-                return LocalDate.parse(dateStr, formatter);
-            } catch (DateTimeParseException ignored) {
-            }
-        }
-
-        log.warn("Format de date non reconnu: {}", dateStr);
-        return null;
-    }
-
     /**
      * Parse un montant
      */
-    private BigDecimal parseAmount(String amountStr) {
-        if (amountStr == null || amountStr.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
+    private BigDecimal parseAmount(CsvParser csv, int column) {
         try {
-            String cleaned = amountStr
-                .replaceAll("\\s", "")
-                .replace(",", ".");
-
-            if (cleaned.startsWith("(") && cleaned.endsWith(")")) {
-                cleaned = "-" + cleaned.substring(1, cleaned.length() - 1);
-            }
-
-            return new BigDecimal(cleaned);
-
+            return csv.getDecimal(column);
         } catch (NumberFormatException e) {
-            log.warn("Format de montant invalide: {}", amountStr);
+            log.warn("Format de montant invalide: {}", csv.get(column));
             return BigDecimal.ZERO;
         }
     }
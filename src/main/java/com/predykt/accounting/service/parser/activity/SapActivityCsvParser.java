@@ -3,18 +3,20 @@ package com.predykt.accounting.service.parser.activity;
 import com.predykt.accounting.domain.enums.ActivityCsvFormat;
 import com.predykt.accounting.dto.ActivityImportDto;
 import com.predykt.accounting.exception.ImportException;
+import com.predykt.accounting.util.CsvParser;
+import com.predykt.accounting.util.DateFormatDetector;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Parser pour export SAP
@@ -24,8 +26,8 @@ import java.util.List;
 @Component
 public class SapActivityCsvParser implements ActivityCsvParser {
 
-    private static final DateTimeFormatter SAP_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
-    private static final String SEPARATOR = "\\|";
+    private static final String SAP_DATE_FORMAT = "yyyyMMdd";
+    private static final char SEPARATOR = '|';
 
     @Override
     public List<ActivityImportDto> parse(MultipartFile file) throws Exception {
@@ -34,43 +36,41 @@ public class SapActivityCsvParser implements ActivityCsvParser {
 
     @Override
     public List<ActivityImportDto> parse(InputStream inputStream, String fileName) throws Exception {
-        log.info("Parsing SAP export file: {}", fileName);
-
         List<ActivityImportDto> activities = new ArrayList<>();
+        parse(inputStream, fileName, activities::add);
+        return activities;
+    }
+
+    @Override
+    public long parse(InputStream inputStream, String fileName, Consumer<ActivityImportDto> consumer) throws Exception {
+        log.info("Parsing SAP export file: {}", fileName);
 
-        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream))) {
-            String line;
-            boolean isFirstRow = true;
-            int rowNumber = 0;
+        long count = 0;
 
-            while ((line = reader.readLine()) != null) {
-                rowNumber++;
+        try (CsvParser csv = CsvParser.withSeparator(new InputStreamReader(inputStream), SEPARATOR)) {
+            // Skip header
+            csv.next();
 
-                if (isFirstRow) {
-                    isFirstRow = false;
-                    continue; // Skip header
-                }
+            DateFormatDetector dateFormat = new DateFormatDetector(SAP_DATE_FORMAT);
 
-                if (line.trim().isEmpty()) {
+            while (csv.next()) {
+                if (csv.isBlankRecord()) {
                     continue;
                 }
 
-                try {
-                    ActivityImportDto activity = parseSapRow(line, rowNumber);
-                    if (activity != null) {
-                        activities.add(activity);
-                    }
-                } catch (Exception e) {
-                    log.warn("Erreur parsing ligne SAP {}: {}", rowNumber, e.getMessage());
+                ActivityImportDto activity = parseSapRow(csv, dateFormat);
+                if (activity != null) {
+                    consumer.accept(activity);
+                    count++;
                 }
             }
 
-        } catch (Exception e) {
+        } catch (IOException e) {
             throw new ImportException("Erreur lecture fichier SAP: " + e.getMessage());
         }
 
-        log.info("SAP parsing completed: {} activities found", activities.size());
-        return activities;
+        log.info("SAP parsing completed: {} activities found", count);
+        return count;
     }
 
     @Override
@@ -89,35 +89,37 @@ public class SapActivityCsvParser implements ActivityCsvParser {
     }
 
     /**
-     * Parse une ligne SAP
+     * Parse la ligne SAP courante
      * Format: Posting Date|Document Type|GL Account|Amount|Description
      */
-    private ActivityImportDto parseSapRow(String line, int rowNumber) {
-        String[] columns = line.split(SEPARATOR);
-
-        if (columns.length < 4) {
-            log.warn("Ligne SAP incomplète: {}", line);
+    private ActivityImportDto parseSapRow(CsvParser csv, DateFormatDetector dateFormat) {
+        if (csv.size() < 4) {
+            log.warn("Ligne SAP incomplète: {}", csv.describeRecord());
             return null;
         }
 
         try {
             // Colonne 0: Posting Date (YYYYMMDD)
-            LocalDate date = LocalDate.parse(columns[0].trim(), SAP_DATE_FORMAT);
+            LocalDate date = csv.getDate(0, dateFormat);
+            if (date == null) {
+                log.warn("Erreur parsing ligne SAP {}: date invalide '{}'", csv.getRecordNumber(), csv.get(0));
+                return null;
+            }
 
             // Colonne 1: Document Type (SA, KR, etc.)
-            String documentType = columns[1].trim();
+            String documentType = csv.get(1);
 
             // Colonne 2: GL Account (compte)
-            String glAccount = columns[2].trim();
+            String glAccount = csv.get(2);
 
             // Colonne 3: Amount
-            BigDecimal amount = new BigDecimal(columns[3].trim());
+            BigDecimal amount = csv.getDecimal(3);
 
             // Colonne 4: Description
-            String description = columns.length > 4 ? columns[4].trim() : documentType;
+            String description = csv.size() > 4 ? csv.get(4) : documentType;
 
             return ActivityImportDto.builder()
-                .rowNumber(rowNumber)
+                .rowNumber(csv.getRecordNumber())
                 .date(date)
                 .activity(glAccount + " - " + documentType)
                 .description(description)
@@ -126,7 +128,7 @@ public class SapActivityCsvParser implements ActivityCsvParser {
                 .build();
 
         } catch (Exception e) {
-            log.warn("Erreur parsing ligne SAP: {}", e.getMessage());
+            log.warn("Erreur parsing ligne SAP {}: {}", csv.getRecordNumber(), e.getMessage());
             return null;
         }
     }
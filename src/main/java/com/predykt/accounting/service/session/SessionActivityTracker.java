@@ -0,0 +1,182 @@
+package com.predykt.accounting.service.session;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dernière activité des sessions utilisateurs, écrite en différé
+ *
+ * Chaque activité met à jour un horodatage en mémoire (aucune écriture en base sur le chemin de la requête).
+ * Les horodatages modifiés depuis le dernier report sont écrits périodiquement par un UPDATE JDBC en lot
+ * par tenant: plusieurs activités d'une même session entre deux reports ne coûtent qu'une ligne.
+ * Chaque lot s'exécute dans sa propre transaction, hors de celle de l'appelant (UserSessionService):
+ * la connexion est obtenue sur la base du tenant et un échec n'annule pas la transaction appelante.
+ * La vue en mémoire sert aux contrôles d'inactivité; les entrées inactives depuis plus longtemps
+ * que le délai de conservation sont oubliées après leur report.
+ *
+ * @author PREDYKT Team
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SessionActivityTracker {
+
+    private static final String UPDATE_SQL =
+        "UPDATE user_sessions SET last_activity_at = GREATEST(last_activity_at, ?) " +
+        "WHERE session_id = ? AND is_active = true";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    private final Map<String, Activity> activities = new ConcurrentHashMap<>();
+
+    @Value("${predykt.session.activity-retention-minutes:60}")
+    private long retentionMinutes;
+
+    /**
+     * Enregistre une activité de la session
+     */
+    public void record(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Activity activity = activities.computeIfAbsent(sessionId, key -> new Activity(currentTenant()));
+        activity.lastActivityAt = LocalDateTime.now();
+        activity.dirty = true;
+    }
+
+    /**
+     * Dernière activité connue en mémoire (null si aucune activité récente sur cette instance)
+     */
+    public LocalDateTime getLastActivity(String sessionId) {
+        Activity activity = sessionId != null ? activities.get(sessionId) : null;
+        return activity != null ? activity.lastActivityAt : null;
+    }
+
+    /**
+     * Oublie une session terminée (son activité en attente n'est plus reportée)
+     */
+    public void forget(String sessionId) {
+        if (sessionId != null) {
+            activities.remove(sessionId);
+        }
+    }
+
+    /**
+     * Reporte les activités en attente en base
+     *
+     * @return Nombre de sessions mises à jour
+     */
+    @Scheduled(fixedDelayString = "${predykt.session.activity-flush-interval-ms:5000}")
+    public int flush() {
+        Map<TenantContextHolder.TenantContext, List<String>> keysByTenant = new HashMap<>();
+        Map<TenantContextHolder.TenantContext, List<Object[]>> updatesByTenant = new HashMap<>();
+        LocalDateTime retentionThreshold = LocalDateTime.now().minusMinutes(retentionMinutes);
+
+        for (Map.Entry<String, Activity> entry : activities.entrySet()) {
+            Activity activity = entry.getValue();
+            if (!activity.dirty) {
+                if (activity.lastActivityAt.isBefore(retentionThreshold)
+                        && activities.remove(entry.getKey(), activity) && activity.dirty) {
+                    // Activité enregistrée pendant la suppression: conservée pour le prochain report
+                    activities.putIfAbsent(entry.getKey(), activity);
+                }
+                continue;
+            }
+            // Remis à false avant la lecture: une activité concurrente sera reportée au prochain passage
+            activity.dirty = false;
+            TenantContextHolder.TenantContext tenant = activity.tenant;
+            keysByTenant.computeIfAbsent(tenant, t -> new ArrayList<>()).add(entry.getKey());
+            updatesByTenant.computeIfAbsent(tenant, t -> new ArrayList<>())
+                .add(new Object[]{Timestamp.valueOf(activity.lastActivityAt), entry.getKey()});
+        }
+
+        int updated = 0;
+        for (Map.Entry<TenantContextHolder.TenantContext, List<Object[]>> entry : updatesByTenant.entrySet()) {
+            if (flushTenant(entry.getKey(), entry.getValue())) {
+                updated += entry.getValue().size();
+            } else {
+                // Échec: les activités seront reportées au prochain passage
+                keysByTenant.get(entry.getKey()).forEach(key -> {
+                    Activity activity = activities.get(key);
+                    if (activity != null) {
+                        activity.dirty = true;
+                    }
+                });
+            }
+        }
+
+        if (updated > 0) {
+            log.debug("Activité des sessions reportée: {} session(s)", updated);
+        }
+        return updated;
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * UPDATE en lot sur la base du tenant (contexte rétabli le temps de l'écriture), dans une nouvelle
+     * transaction: la connexion liée à une transaction appelante appartient à un autre tenant ou est en lecture seule
+     */
+    private boolean flushTenant(TenantContextHolder.TenantContext tenant, List<Object[]> updates) {
+        TenantContextHolder.TenantContext previous = currentTenant();
+        if (tenant != null) {
+            TenantContextHolder.setContext(tenant);
+        } else {
+            TenantContextHolder.clear();
+        }
+
+        try {
+            TransactionTemplate tenantTransaction = new TransactionTemplate(transactionManager);
+            tenantTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+            tenantTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, updates));
+            return true;
+        } catch (Exception e) {
+            log.warn("Échec du report de l'activité des sessions ({} session(s)): {}", updates.size(), e.getMessage());
+            return false;
+        } finally {
+            if (previous != null) {
+                TenantContextHolder.setContext(previous);
+            } else {
+                TenantContextHolder.clear();
+            }
+        }
+    }
+
+    private static TenantContextHolder.TenantContext currentTenant() {
+        return TenantContextHolder.hasContext() ? TenantContextHolder.getContext() : null;
+    }
+
+    /**
+     * Activité d'une session (identifiants de session uniques tous tenants confondus)
+     */
+    private static final class Activity {
+        private final TenantContextHolder.TenantContext tenant;
+        private volatile LocalDateTime lastActivityAt = LocalDateTime.now();
+        private volatile boolean dirty;
+
+        Activity(TenantContextHolder.TenantContext tenant) {
+            this.tenant = tenant;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.predykt.accounting.service.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Lecture séquentielle d'un envoi fractionné, éventuellement encore en cours
+ *
+ * - Bloque tant que l'octet suivant n'a pas été reçu (délai maximal configurable)
+ * - Calcule l'empreinte SHA-256 au fil de la lecture et la compare, en fin de fichier,
+ *   à l'empreinte annoncée: un contenu différent fait échouer (donc annuler) l'import
+ *
+ * @author PREDYKT Team
+ */
+public class StagedFileInputStream extends InputStream {
+
+    private final StagedUpload upload;
+    private final long waitTimeoutMillis;
+    private final String expectedSha256;
+    private final MessageDigest digest;
+    private long position;
+    private boolean verified;
+
+    public StagedFileInputStream(StagedUpload upload, long waitTimeoutMillis, String expectedSha256) {
+        this.upload = upload;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.expectedSha256 = expectedSha256;
+        this.digest = expectedSha256 != null ? sha256() : null;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        return read(buffer, offset, length, waitTimeoutMillis);
+    }
+
+    private int read(byte[] buffer, int offset, int length, long timeoutMillis) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
+        if (position >= upload.getTotalSize()) {
+            verifyDigest();
+            return -1;
+        }
+
+        long available;
+        try {
+            available = upload.awaitAvailable(position, timeoutMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Lecture de l'envoi interrompue");
+        }
+        if (upload.isAborted()) {
+            throw new IOException("Envoi annulé");
+        }
+        if (available <= 0) {
+            throw new IOException("Aucun fragment reçu depuis " + timeoutMillis / 1000 + " s");
+        }
+
+        int toRead = (int) Math.min(length, available);
+        int read = upload.read(ByteBuffer.wrap(buffer, offset, toRead), position);
+        if (read <= 0) {
+            throw new IOException("Lecture du fichier de préparation impossible");
+        }
+        if (digest != null) {
+            digest.update(buffer, offset, read);
+        }
+        position += read;
+        return read;
+    }
+
+    /**
+     * Avec une empreinte attendue, la fermeture lit la fin du fichier déjà reçue (si le parser s'est
+     * arrêté avant) pour vérifier l'empreinte, sans attendre de fragment: appelée dans la transaction
+     * d'import, une fin non reçue ou une empreinte différente l'annule
+     */
+    @Override
+    public void close() throws IOException {
+        if (digest == null || verified) {
+            return;
+        }
+        byte[] buffer = new byte[8192];
+        try {
+            while (read(buffer, 0, buffer.length, 0) >= 0) {
+                // Lecture jusqu'à la fin du fichier
+            }
+        } catch (IOException e) {
+            verified = true;
+            throw new IOException("Empreinte SHA-256 non vérifiée: " + e.getMessage(), e);
+        }
+    }
+
+    private void verifyDigest() throws IOException {
+        if (digest == null || verified) {
+            return;
+        }
+        verified = true;
+        String actual = HexFormat.of().formatHex(digest.digest());
+        if (!actual.equalsIgnoreCase(expectedSha256)) {
+            throw new IOException("Empreinte SHA-256 différente de celle annoncée");
+        }
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.predykt.accounting.service.upload;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Vue MultipartFile d'un envoi fractionné, pour réutiliser les services d'import existants
+ * Chaque appel à getInputStream() relit le fichier depuis le début (en attendant les fragments manquants).
+ *
+ * @author PREDYKT Team
+ */
+public class StagedMultipartFile implements MultipartFile {
+
+    private final StagedUpload upload;
+    private final long waitTimeoutMillis;
+    private final String expectedSha256;
+
+    public StagedMultipartFile(StagedUpload upload, long waitTimeoutMillis, String expectedSha256) {
+        this.upload = upload;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.expectedSha256 = expectedSha256;
+    }
+
+    @Override
+    public String getName() {
+        return "file";
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return upload.getRequest().getFileName();
+    }
+
+    @Override
+    public String getContentType() {
+        return upload.getRequest().getContentType();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return upload.getTotalSize() == 0;
+    }
+
+    @Override
+    public long getSize() {
+        return upload.getTotalSize();
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        try (InputStream inputStream = getInputStream()) {
+            return inputStream.readAllBytes();
+        }
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        return new StagedFileInputStream(upload, waitTimeoutMillis, expectedSha256);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        try (InputStream inputStream = getInputStream()) {
+            Files.copy(inputStream, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.predykt.accounting.service.upload;
+
+import com.predykt.accounting.config.TenantContextHolder;
+import com.predykt.accounting.dto.request.UploadStartRequest;
+import org.springframework.security.core.context.SecurityContext;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Future;
+
+/**
+ * Envoi fractionné en cours: fichier de préparation et plages d'octets reçues
+ *
+ * Les fragments peuvent arriver dans n'importe quel ordre et être renvoyés (réécriture à l'identique).
+ * Les plages reçues sont fusionnées; un lecteur peut attendre que le préfixe contigu
+ * atteigne une position (import démarré pendant l'envoi).
+ *
+ * @author PREDYKT Team
+ */
+public final class StagedUpload {
+
+    private final String id;
+    private final Long companyId;
+    private final UploadStartRequest request;
+    private final Path directory;
+    private final Path dataFile;
+    private final FileChannel channel;
+    private final TenantContextHolder.TenantContext tenantContext;
+    private final SecurityContext securityContext;
+
+    /**
+     * Plages reçues: début → fin (exclue), disjointes et non adjacentes
+     */
+    private final TreeMap<Long, Long> ranges = new TreeMap<>();
+
+    /**
+     * Verrou de finalisation (distinct du moniteur de l'envoi, utilisé par les lecteurs en attente)
+     */
+    private final Object completionLock = new Object();
+
+    private volatile Instant lastActivity = Instant.now();
+    private volatile boolean aborted;
+    private volatile String status = "RECEIVING";
+    private volatile String message;
+    private volatile Future<ImportOutcome> earlyImport;
+
+    public StagedUpload(String id, Long companyId, UploadStartRequest request, Path directory,
+                        TenantContextHolder.TenantContext tenantContext, SecurityContext securityContext)
+            throws IOException {
+        this.id = id;
+        this.companyId = companyId;
+        this.request = request;
+        this.directory = Files.createDirectories(directory);
+        this.dataFile = directory.resolve("data");
+        this.channel = FileChannel.open(dataFile,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.tenantContext = tenantContext;
+        this.securityContext = securityContext;
+    }
+
+    /**
+     * Écrit un bloc à la position donnée (sans le marquer comme reçu)
+     */
+    public void write(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        touch();
+    }
+
+    /**
+     * Lit à la position donnée (données déjà reçues)
+     */
+    public int read(ByteBuffer buffer, long position) throws IOException {
+        return channel.read(buffer, position);
+    }
+
+    /**
+     * Marque la plage [start, end[ comme reçue et réveille les lecteurs en attente
+     */
+    public synchronized void markReceived(long start, long end) {
+        if (end <= start) {
+            return;
+        }
+        Map.Entry<Long, Long> before = ranges.floorEntry(start);
+        if (before != null && before.getValue() >= start) {
+            start = before.getKey();
+            end = Math.max(end, before.getValue());
+            ranges.remove(before.getKey());
+        }
+        Map.Entry<Long, Long> next;
+        while ((next = ranges.ceilingEntry(start)) != null && next.getKey() <= end) {
+            end = Math.max(end, next.getValue());
+            ranges.remove(next.getKey());
+        }
+        ranges.put(start, end);
+        notifyAll();
+    }
+
+    /**
+     * Nombre d'octets disponibles sans trou depuis le début du fichier
+     */
+    public synchronized long contiguousPrefix() {
+        Map.Entry<Long, Long> first = ranges.firstEntry();
+        return first != null && first.getKey() == 0 ? first.getValue() : 0;
+    }
+
+    public synchronized long receivedBytes() {
+        long total = 0;
+        for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+            total += range.getValue() - range.getKey();
+        }
+        return total;
+    }
+
+    /**
+     * Plages manquantes [début, fin[ par rapport à la taille annoncée
+     */
+    public synchronized List<long[]> missingRanges() {
+        List<long[]> missing = new ArrayList<>();
+        long cursor = 0;
+        for (Map.Entry<Long, Long> range : ranges.entrySet()) {
+            if (range.getKey() > cursor) {
+                missing.add(new long[]{cursor, range.getKey()});
+            }
+            cursor = Math.max(cursor, range.getValue());
+        }
+        if (cursor < getTotalSize()) {
+            missing.add(new long[]{cursor, getTotalSize()});
+        }
+        return missing;
+    }
+
+    public boolean isComplete() {
+        return contiguousPrefix() >= getTotalSize();
+    }
+
+    /**
+     * Attend que les octets à partir de la position soient disponibles
+     *
+     * @return Octets disponibles à partir de la position (0 si délai dépassé)
+     */
+    public synchronized long awaitAvailable(long position, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        long available;
+        while ((available = contiguousPrefix() - position) <= 0 && !aborted) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return 0;
+            }
+            wait(remaining);
+        }
+        return Math.max(available, 0);
+    }
+
+    /**
+     * Abandon: réveille les lecteurs, ferme et supprime le fichier de préparation
+     */
+    public void abort() {
+        synchronized (this) {
+            aborted = true;
+            notifyAll();
+        }
+        Future<ImportOutcome> running = earlyImport;
+        if (running != null) {
+            running.cancel(true);
+        }
+        deleteFiles();
+    }
+
+    public void deleteFiles() {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+            // Fichier supprimé juste après
+        }
+        try {
+            Files.deleteIfExists(dataFile);
+            Files.deleteIfExists(directory);
+        } catch (IOException ignored) {
+            // Répertoire purgé au prochain nettoyage
+        }
+    }
+
+    public void touch() {
+        lastActivity = Instant.now();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getCompanyId() {
+        return companyId;
+    }
+
+    public UploadStartRequest getRequest() {
+        return request;
+    }
+
+    public long getTotalSize() {
+        return request.getTotalSize();
+    }
+
+    public TenantContextHolder.TenantContext getTenantContext() {
+        return tenantContext;
+    }
+
+    public SecurityContext getSecurityContext() {
+        return securityContext;
+    }
+
+    public Object getCompletionLock() {
+        return completionLock;
+    }
+
+    public Instant getLastActivity() {
+        return lastActivity;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public Future<ImportOutcome> getEarlyImport() {
+        return earlyImport;
+    }
+
+    public void setEarlyImport(Future<ImportOutcome> earlyImport) {
+        this.earlyImport = earlyImport;
+    }
+
+    /**
+     * Résultat d'un import: lignes importées et message
+     */
+    public record ImportOutcome(int importedCount, String message) {}
+}
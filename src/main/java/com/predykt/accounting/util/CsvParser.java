@@ -0,0 +1,485 @@
+// ============================================
+// CsvParser.java
+// ============================================
+package com.predykt.accounting.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Lecteur CSV en flux commun aux imports (relevés bancaires, activités)
+ *
+ * - Un seul tampon char[] réutilisé: une ligne n'est qu'une liste de bornes (début, fin) dans le tampon
+ * - Les champs ne sont convertis en String qu'à la demande; montants et dates sont lus
+ *   directement dans le tampon, sans String intermédiaire
+ * - Séparateur détecté sur la première ligne (; , tabulation |) hors guillemets, ou imposé
+ * - Guillemets RFC 4180 ("" échappé, séparateurs et retours à la ligne dans un champ entre guillemets)
+ * - BOM UTF-8 ignoré, fins de ligne \n, \r\n ou \r
+ *
+ * Les bornes d'une ligne restent valides jusqu'à l'appel suivant de next(). Non thread-safe.
+ */
+public class CsvParser implements Closeable {
+
+    private static final char QUOTE = '"';
+    private static final char[] CANDIDATE_SEPARATORS = {';', ',', '\t', '|'};
+    private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+    private static final int INITIAL_FIELDS = 16;
+
+    private final Reader reader;
+    private char separator;
+
+    private char[] buffer = new char[INITIAL_BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+
+    private int[] starts = new int[INITIAL_FIELDS];
+    private int[] ends = new int[INITIAL_FIELDS];
+    private boolean[] escaped = new boolean[INITIAL_FIELDS];
+    private String[] values = new String[INITIAL_FIELDS];
+    private int fieldCount;
+    private int recordNumber;
+
+    private char[] scratch = new char[64];
+    private final FieldView view = new FieldView();
+
+    private CsvParser(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Lecteur avec séparateur imposé
+     */
+    public static CsvParser withSeparator(Reader reader, char separator) {
+        return new CsvParser(reader, separator);
+    }
+
+    /**
+     * Lecteur avec séparateur détecté sur la première ligne
+     *
+     * @param defaultSeparator Séparateur retenu si la première ligne n'en contient aucun
+     */
+    public static CsvParser detectingSeparator(Reader reader, char defaultSeparator) throws IOException {
+        CsvParser parser = new CsvParser(reader, defaultSeparator);
+        parser.separator = parser.sniffSeparator(defaultSeparator);
+        return parser;
+    }
+
+    public char getSeparator() {
+        return separator;
+    }
+
+    /**
+     * Lit la ligne suivante
+     *
+     * @return false en fin de fichier
+     */
+    public boolean next() throws IOException {
+        clearValues();
+        while (true) {
+            if (position >= limit && endOfInput) {
+                fieldCount = 0;
+                return false;
+            }
+            int end = tokenize(position);
+            if (end >= 0) {
+                position = end;
+                recordNumber++;
+                return true;
+            }
+            if (!fill()) {
+                // Fin de fichier sans fin de ligne: la ligne courante est complète
+                endOfInput = true;
+            }
+        }
+    }
+
+    /**
+     * Numéro de la ligne courante (1 pour la première ligne du fichier)
+     */
+    public int getRecordNumber() {
+        return recordNumber;
+    }
+
+    public int size() {
+        return fieldCount;
+    }
+
+    /**
+     * Ligne sans contenu (vide ou uniquement des espaces)
+     */
+    public boolean isBlankRecord() {
+        for (int i = 0; i < fieldCount; i++) {
+            if (!isEmpty(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Champ vide après suppression des espaces (ou absent)
+     */
+    public boolean isEmpty(int index) {
+        if (index >= fieldCount) {
+            return true;
+        }
+        return trimmedStart(index) >= trimmedEnd(index);
+    }
+
+    /**
+     * Valeur du champ sans espaces de début et de fin ("" si absent), convertie une seule fois
+     */
+    public String get(int index) {
+        if (index >= fieldCount) {
+            return "";
+        }
+        String value = values[index];
+        if (value == null) {
+            int start = trimmedStart(index);
+            int end = trimmedEnd(index);
+            value = escaped[index] ? unescape(start, end) : new String(buffer, start, end - start);
+            values[index] = value;
+        }
+        return value;
+    }
+
+    /**
+     * Le champ (sans espaces) est-il égal à la valeur, casse ignorée (sans conversion en String)
+     */
+    public boolean equalsIgnoreCase(int index, String value) {
+        if (index >= fieldCount) {
+            return value.isEmpty();
+        }
+        if (escaped[index]) {
+            return get(index).equalsIgnoreCase(value);
+        }
+        int start = trimmedStart(index);
+        int length = trimmedEnd(index) - start;
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = buffer[start + i];
+            char b = value.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Montant lu dans le tampon: espaces ignorés, virgule décimale, (123) négatif
+     *
+     * @return 0 si le champ est vide
+     * @throws NumberFormatException si le champ n'est pas un montant
+     */
+    public BigDecimal getDecimal(int index) {
+        if (isEmpty(index)) {
+            return BigDecimal.ZERO;
+        }
+        int start = trimmedStart(index);
+        int end = trimmedEnd(index);
+        if (scratch.length < end - start + 1) {
+            scratch = new char[end - start + 1];
+        }
+
+        int length = 0;
+        boolean negative = buffer[start] == '(' && buffer[end - 1] == ')';
+        if (negative) {
+            scratch[length++] = '-';
+            start++;
+            end--;
+        }
+        for (int i = start; i < end; i++) {
+            char c = buffer[i];
+            if (c == ',') {
+                scratch[length++] = '.';
+            } else if (!isSpace(c) && c != QUOTE) {
+                scratch[length++] = c;
+            }
+        }
+        return new BigDecimal(scratch, 0, length);
+    }
+
+    /**
+     * Date lue dans le tampon avec le détecteur de format du fichier
+     *
+     * @return null si le champ est vide ou si aucun format ne convient
+     */
+    public LocalDate getDate(int index, DateFormatDetector detector) {
+        if (isEmpty(index)) {
+            return null;
+        }
+        if (escaped[index]) {
+            return detector.parse(get(index));
+        }
+        int start = trimmedStart(index);
+        return detector.parse(view.wrap(buffer, start, trimmedEnd(index) - start));
+    }
+
+    /**
+     * Ligne courante reconstituée (journalisation des lignes rejetées)
+     */
+    public String describeRecord() {
+        StringBuilder description = new StringBuilder();
+        for (int i = 0; i < fieldCount; i++) {
+            if (i > 0) {
+                description.append(separator);
+            }
+            description.append(get(i));
+        }
+        return description.toString();
+    }
+
+    /**
+     * Copie des champs de la ligne courante (en-tête, compatibilité avec les lectures par tableau)
+     */
+    public String[] toArray() {
+        String[] row = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            row[i] = get(i);
+        }
+        return row;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Découpe la ligne qui commence à la position donnée
+     *
+     * @return Position qui suit la fin de ligne, ou -1 s'il faut lire davantage
+     */
+    private int tokenize(int from) {
+        fieldCount = 0;
+        int i = from;
+
+        while (true) {
+            int start = i;
+            boolean quoted = false;
+            boolean hasEscapes = false;
+            int end;
+
+            if (i < limit && buffer[i] == QUOTE) {
+                quoted = true;
+                start = ++i;
+                while (true) {
+                    if (i >= limit) {
+                        if (!endOfInput) {
+                            return -1;
+                        }
+                        end = i;
+                        break;
+                    }
+                    if (buffer[i] == QUOTE) {
+                        if (i + 1 >= limit && !endOfInput) {
+                            return -1;
+                        }
+                        if (i + 1 < limit && buffer[i + 1] == QUOTE) {
+                            hasEscapes = true;
+                            i += 2;
+                            continue;
+                        }
+                        end = i++;
+                        break;
+                    }
+                    i++;
+                }
+                // Caractères parasites après le guillemet fermant: ignorés jusqu'au séparateur
+                while (i < limit && buffer[i] != separator && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+            } else {
+                while (i < limit && buffer[i] != separator && buffer[i] != '\n' && buffer[i] != '\r') {
+                    i++;
+                }
+                end = i;
+            }
+
+            if (i >= limit && !endOfInput) {
+                return -1;
+            }
+            addField(start, end, quoted && hasEscapes);
+
+            if (i >= limit) {
+                return i;
+            }
+            char c = buffer[i];
+            if (c == separator) {
+                i++;
+                continue;
+            }
+            if (c == '\r') {
+                if (i + 1 >= limit && !endOfInput) {
+                    return -1;
+                }
+                return i + 1 < limit && buffer[i + 1] == '\n' ? i + 2 : i + 1;
+            }
+            return i + 1;
+        }
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            int capacity = fieldCount * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            escaped = Arrays.copyOf(escaped, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    /**
+     * Complète le tampon: conserve la ligne en cours, l'agrandit si elle le remplit entièrement
+     *
+     * @return false en fin de flux
+     */
+    private boolean fill() throws IOException {
+        if (position > 0) {
+            System.arraycopy(buffer, position, buffer, 0, limit - position);
+            limit -= position;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        int read = reader.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            return false;
+        }
+        if (limit == 0 && read > 0 && recordNumber == 0 && buffer[0] == '\uFEFF') {
+            // BOM UTF-8
+            System.arraycopy(buffer, 1, buffer, 0, read - 1);
+            read--;
+        }
+        limit += read;
+        return true;
+    }
+
+    /**
+     * Compte les séparateurs candidats hors guillemets sur la première ligne
+     */
+    private char sniffSeparator(char defaultSeparator) throws IOException {
+        int[] counts = new int[CANDIDATE_SEPARATORS.length];
+        boolean inQuotes = false;
+        int i = 0;
+
+        while (true) {
+            if (i >= limit) {
+                if (endOfInput || !fill()) {
+                    endOfInput = true;
+                    break;
+                }
+                continue;
+            }
+            char c = buffer[i++];
+            if (c == QUOTE) {
+                inQuotes = !inQuotes;
+            } else if (!inQuotes && (c == '\n' || c == '\r')) {
+                break;
+            } else if (!inQuotes) {
+                for (int k = 0; k < CANDIDATE_SEPARATORS.length; k++) {
+                    if (c == CANDIDATE_SEPARATORS[k]) {
+                        counts[k]++;
+                    }
+                }
+            }
+        }
+
+        int best = -1;
+        for (int k = 0; k < counts.length; k++) {
+            if (counts[k] > 0 && (best < 0 || counts[k] > counts[best])) {
+                best = k;
+            }
+        }
+        return best >= 0 ? CANDIDATE_SEPARATORS[best] : defaultSeparator;
+    }
+
+    private int trimmedStart(int index) {
+        int start = starts[index];
+        int end = ends[index];
+        while (start < end && isSpace(buffer[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private int trimmedEnd(int index) {
+        int start = trimmedStart(index);
+        int end = ends[index];
+        while (end > start && isSpace(buffer[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            value.append(buffer[i]);
+            if (buffer[i] == QUOTE && i + 1 < end && buffer[i + 1] == QUOTE) {
+                i++;
+            }
+        }
+        return value.toString();
+    }
+
+    private void clearValues() {
+        for (int i = 0; i < fieldCount; i++) {
+            values[i] = null;
+        }
+    }
+
+    private static boolean isSpace(char c) {
+        return c <= ' ' || c == '\u00A0' || c == '\u202F';
+    }
+
+    /**
+     * Vue CharSequence réutilisable sur une portion du tampon (lecture des dates sans copie)
+     */
+    private static final class FieldView implements CharSequence {
+        private char[] chars;
+        private int offset;
+        private int length;
+
+        FieldView wrap(char[] chars, int offset, int length) {
+            this.chars = chars;
+            this.offset = offset;
+            this.length = length;
+            return this;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[offset + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars, offset, length);
+        }
+    }
+}
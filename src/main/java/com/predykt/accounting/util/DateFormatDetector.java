@@ -0,0 +1,193 @@
+// ============================================
+// DateFormatDetector.java
+// ============================================
+package com.predykt.accounting.util;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Détection du format de date d'un fichier importé
+ *
+ * Les formats candidats sont essayés dans l'ordre jusqu'au premier succès, puis le détecteur
+ * se fixe sur ce format: les lignes suivantes ne coûtent qu'un seul essai. Si le format retenu
+ * échoue sur une ligne, les autres sont réessayés et le détecteur se fixe sur celui qui convient.
+ * Un fichier dont la première date est 25/12/2024 reste ainsi cohérent (MM/dd exclu) sur toutes ses lignes.
+ *
+ * Les formats purement numériques (d, dd, M, MM, yyyy et séparateurs) sont lus sans DateTimeFormatter,
+ * sans exception sur échec. Une instance par fichier: non thread-safe.
+ */
+public class DateFormatDetector {
+
+    private final DatePattern[] patterns;
+    private int locked = -1;
+
+    public DateFormatDetector(String... patterns) {
+        List<DatePattern> compiled = new ArrayList<>(patterns.length);
+        for (String pattern : patterns) {
+            compiled.add(DatePattern.compile(pattern));
+        }
+        this.patterns = compiled.toArray(new DatePattern[0]);
+    }
+
+    /**
+     * @return Date lue, ou null si aucun format ne convient
+     */
+    public LocalDate parse(CharSequence text) {
+        if (text == null || text.length() == 0) {
+            return null;
+        }
+        if (locked >= 0) {
+            LocalDate date = patterns[locked].parse(text);
+            if (date != null) {
+                return date;
+            }
+        }
+        for (int i = 0; i < patterns.length; i++) {
+            if (i == locked) {
+                continue;
+            }
+            LocalDate date = patterns[i].parse(text);
+            if (date != null) {
+                locked = i;
+                return date;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Format retenu (null tant qu'aucune date n'a été lue)
+     */
+    public String getDetectedPattern() {
+        return locked >= 0 ? patterns[locked].pattern : null;
+    }
+
+    /**
+     * Format compilé: lecture directe des chiffres si le motif est numérique, DateTimeFormatter sinon
+     */
+    private static final class DatePattern {
+
+        private static final int DAY = 0;
+        private static final int MONTH = 1;
+        private static final int YEAR = 2;
+        private static final int LITERAL = 3;
+
+        private final String pattern;
+        private final DateTimeFormatter formatter;
+        private final int[] kinds;
+        private final int[] widths;
+        private final char[] literals;
+
+        private DatePattern(String pattern, DateTimeFormatter formatter, int[] kinds, int[] widths, char[] literals) {
+            this.pattern = pattern;
+            this.formatter = formatter;
+            this.kinds = kinds;
+            this.widths = widths;
+            this.literals = literals;
+        }
+
+        static DatePattern compile(String pattern) {
+            List<int[]> tokens = new ArrayList<>();
+            StringBuilder literals = new StringBuilder();
+            boolean numeric = true;
+
+            for (int i = 0; i < pattern.length() && numeric; ) {
+                char c = pattern.charAt(i);
+                int run = 1;
+                while (i + run < pattern.length() && pattern.charAt(i + run) == c) {
+                    run++;
+                }
+                if (c == 'd' && run <= 2) {
+                    tokens.add(new int[]{DAY, run});
+                } else if (c == 'M' && run <= 2) {
+                    tokens.add(new int[]{MONTH, run});
+                } else if ((c == 'y' || c == 'u') && run == 4) {
+                    tokens.add(new int[]{YEAR, 4});
+                } else if (!Character.isLetter(c) && c != '\'' && run == 1) {
+                    tokens.add(new int[]{LITERAL, literals.length()});
+                    literals.append(c);
+                } else {
+                    numeric = false;
+                }
+                i += run;
+            }
+
+            if (!numeric) {
+                return new DatePattern(pattern, DateTimeFormatter.ofPattern(pattern), null, null, null);
+            }
+            int[] kinds = new int[tokens.size()];
+            int[] widths = new int[tokens.size()];
+            for (int i = 0; i < tokens.size(); i++) {
+                kinds[i] = tokens.get(i)[0];
+                widths[i] = tokens.get(i)[1];
+            }
+            return new DatePattern(pattern, null, kinds, widths, literals.toString().toCharArray());
+        }
+
+        LocalDate parse(CharSequence text) {
+            if (formatter != null) {
+                try {
+                    return LocalDate.parse(text, formatter);
+                } catch (DateTimeParseException e) {
+                    return null;
+                }
+            }
+
+            int day = -1;
+            int month = -1;
+            int year = -1;
+            int position = 0;
+            int length = text.length();
+
+            for (int t = 0; t < kinds.length; t++) {
+                if (kinds[t] == LITERAL) {
+                    if (position >= length || text.charAt(position) != literals[widths[t]]) {
+                        return null;
+                    }
+                    position++;
+                    continue;
+                }
+
+                // Largeur 1 (d, M): un ou deux chiffres; sinon largeur exacte
+                int maxDigits = kinds[t] == YEAR ? 4 : 2;
+                int minDigits = widths[t] == 1 ? 1 : maxDigits;
+                int value = 0;
+                int digits = 0;
+                while (digits < maxDigits && position < length) {
+                    char c = text.charAt(position);
+                    if (c < '0' || c > '9') {
+                        break;
+                    }
+                    value = value * 10 + (c - '0');
+                    digits++;
+                    position++;
+                }
+                if (digits < minDigits) {
+                    return null;
+                }
+
+                switch (kinds[t]) {
+                    case DAY -> day = value;
+                    case MONTH -> month = value;
+                    default -> year = value;
+                }
+            }
+
+            if (position != length || day < 1 || day > 31 || month < 1 || month > 12 || year < 0) {
+                return null;
+            }
+            try {
+                // Résolution "smart" de DateTimeFormatter: 31/02 devient le dernier jour du mois
+                LocalDate firstOfMonth = LocalDate.of(year, month, 1);
+                return firstOfMonth.withDayOfMonth(Math.min(day, firstOfMonth.lengthOfMonth()));
+            } catch (DateTimeException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.predykt.accounting.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Invalidation des caches locaux cohérente avec la transaction en cours
+ *
+ * L'éviction est faite immédiatement puis rejouée à la fin de la transaction: une lecture concurrente
+ * qui a rechargé l'ancien état avant le commit n'est pas conservée.
+ */
+public final class TransactionalEviction {
+
+    private TransactionalEviction() {}
+
+    /**
+     * Éviction immédiate, rejouée à la fin de la transaction en cours
+     */
+    public static void evictNowAndAfterCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            afterCompletion(eviction);
+        }
+    }
+
+    /**
+     * Éviction immédiate, rejouée une seule fois par clé à la fin de la transaction en cours
+     * (entrée invalidée de nombreuses fois dans une même transaction, ex. import ligne à ligne)
+     *
+     * @param resourceKey Clé propre au cache et à l'entrée invalidée
+     */
+    public static void evictNowAndAfterCompletion(Object resourceKey, Runnable eviction) {
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()
+                && !TransactionSynchronizationManager.hasResource(resourceKey)) {
+            TransactionSynchronizationManager.bindResource(resourceKey, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(resourceKey);
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Exécute l'action à la fin de la transaction en cours, ou immédiatement hors transaction
+     */
+    public static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,67 @@
+-- ============================================
+-- V23__add_pooled_id_sequences.sql
+-- Séquences d'identifiants (pas de 50) pour les tables à fort volume
+--
+-- Les entités correspondantes passent de IDENTITY à SEQUENCE avec
+-- l'optimiseur pooled-lo: Hibernate réserve 50 identifiants par appel
+-- à nextval, ce qui permet le batching JDBC des INSERT.
+-- Chaque valeur v renvoyée par nextval réserve le bloc [v, v + 49].
+-- La valeur par défaut des colonnes id pointe sur la nouvelle séquence
+-- (les INSERT SQL sans id n'utilisent que v, sans collision).
+-- ============================================
+
+-- ============================================
+-- general_ledger
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS general_ledger_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('general_ledger_seq', COALESCE((SELECT MAX(id) FROM general_ledger), 0) + 1, false);
+ALTER SEQUENCE general_ledger_seq OWNED BY general_ledger.id;
+ALTER TABLE general_ledger ALTER COLUMN id SET DEFAULT nextval('general_ledger_seq');
+
+-- ============================================
+-- bank_transactions
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS bank_transactions_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('bank_transactions_seq', COALESCE((SELECT MAX(id) FROM bank_transactions), 0) + 1, false);
+ALTER SEQUENCE bank_transactions_seq OWNED BY bank_transactions.id;
+ALTER TABLE bank_transactions ALTER COLUMN id SET DEFAULT nextval('bank_transactions_seq');
+
+-- ============================================
+-- bank_reconciliation_suggestions
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS bank_reconciliation_suggestions_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('bank_reconciliation_suggestions_seq', COALESCE((SELECT MAX(id) FROM bank_reconciliation_suggestions), 0) + 1, false);
+ALTER SEQUENCE bank_reconciliation_suggestions_seq OWNED BY bank_reconciliation_suggestions.id;
+ALTER TABLE bank_reconciliation_suggestions ALTER COLUMN id SET DEFAULT nextval('bank_reconciliation_suggestions_seq');
+
+-- ============================================
+-- vat_transactions
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS vat_transactions_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('vat_transactions_seq', COALESCE((SELECT MAX(id) FROM vat_transactions), 0) + 1, false);
+ALTER SEQUENCE vat_transactions_seq OWNED BY vat_transactions.id;
+ALTER TABLE vat_transactions ALTER COLUMN id SET DEFAULT nextval('vat_transactions_seq');
+
+-- ============================================
+-- ml_predictions_log
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS ml_predictions_log_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('ml_predictions_log_seq', COALESCE((SELECT MAX(id) FROM ml_predictions_log), 0) + 1, false);
+ALTER SEQUENCE ml_predictions_log_seq OWNED BY ml_predictions_log.id;
+ALTER TABLE ml_predictions_log ALTER COLUMN id SET DEFAULT nextval('ml_predictions_log_seq');
+
+-- ============================================
+-- audit_logs
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS audit_logs_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('audit_logs_seq', COALESCE((SELECT MAX(id) FROM audit_logs), 0) + 1, false);
+ALTER SEQUENCE audit_logs_seq OWNED BY audit_logs.id;
+ALTER TABLE audit_logs ALTER COLUMN id SET DEFAULT nextval('audit_logs_seq');
+
+-- ============================================
+-- tax_calculations
+-- ============================================
+CREATE SEQUENCE IF NOT EXISTS tax_calculations_seq INCREMENT BY 50 START WITH 1;
+SELECT setval('tax_calculations_seq', COALESCE((SELECT MAX(id) FROM tax_calculations), 0) + 1, false);
+ALTER SEQUENCE tax_calculations_seq OWNED BY tax_calculations.id;
+ALTER TABLE tax_calculations ALTER COLUMN id SET DEFAULT nextval('tax_calculations_seq');
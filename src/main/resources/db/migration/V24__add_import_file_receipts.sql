@@ -0,0 +1,26 @@
+-- ============================================
+-- V24__add_import_file_receipts.sql
+-- Accusés de réception des fichiers importés (envoi fractionné)
+--
+-- L'empreinte SHA-256 du contenu rend l'import idempotent:
+-- un fichier identique renvoyé pour la même entreprise n'est pas réimporté.
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS import_file_receipts (
+    id BIGSERIAL PRIMARY KEY,
+    company_id BIGINT NOT NULL REFERENCES companies(id) ON DELETE CASCADE,
+    import_kind VARCHAR(30) NOT NULL,
+    content_hash VARCHAR(64) NOT NULL,
+    file_name VARCHAR(255),
+    file_size BIGINT,
+    imported_count INTEGER,
+    result_message VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    created_by VARCHAR(100),
+    updated_at TIMESTAMP,
+    updated_by VARCHAR(100),
+    version BIGINT DEFAULT 0,
+    CONSTRAINT uk_receipt_company_kind_hash UNIQUE (company_id, import_kind, content_hash)
+);
+
+CREATE INDEX IF NOT EXISTS idx_receipt_company ON import_file_receipts(company_id);
@@ -0,0 +1,163 @@
+package com.predykt.accounting.config;
+
+import com.predykt.accounting.config.AdmissionControlConfig.EndpointClass;
+import com.predykt.accounting.config.HeavyOperationScheduler.Outcome;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour HeavyOperationScheduler
+ * Vérifie l'ordre de service de la file équitable avec une seule place d'exécution
+ */
+@DisplayName("HeavyOperationScheduler - Admission des opérations coûteuses")
+class HeavyOperationSchedulerTest {
+
+    private static final String TENANT_A = "company-1";
+    private static final String TENANT_B = "company-2";
+    private static final String TENANT_HOLDER = "company-3";
+    private static final int WORKER_THREADS = 200;
+
+    private AdmissionControlConfig config;
+    private HeavyOperationScheduler scheduler;
+    private ExecutorService executor;
+
+    private final List<String> served = Collections.synchronizedList(new ArrayList<>());
+
+    @BeforeEach
+    void setUp() {
+        config = new AdmissionControlConfig();
+        config.setMaxConcurrent(1);
+        config.setMaxQueueDepth(40);
+        config.setQueueTimeoutMs(10_000);
+        scheduler = new HeavyOperationScheduler(config, new SimpleMeterRegistry(), WORKER_THREADS, false);
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // ============================================
+    // TESTS DE LA FILE ÉQUITABLE
+    // ============================================
+
+    @Test
+    @DisplayName("File équitable - Deux tenants en concurrence devraient être servis en alternance")
+    void testAdmit_ShouldAlternateTenantsUnderContention() throws Exception {
+        List<Future<Outcome>> waiters = queueBehindHolder(TENANT_A, TENANT_A, TENANT_A, TENANT_B, TENANT_B, TENANT_B);
+
+        scheduler.release(EndpointClass.DASHBOARD);
+
+        assertAllAdmitted(waiters);
+        assertThat(served).containsExactly(TENANT_A, TENANT_B, TENANT_A, TENANT_B, TENANT_A, TENANT_B);
+    }
+
+    @Test
+    @DisplayName("File équitable - Les requêtes servies sans attente ne devraient pas retarder le tenant ensuite")
+    void testAdmit_ShouldNotPenalizeTenantForUncontendedRuns() throws Exception {
+        // Le tenant A utilise seul la place libre
+        for (int i = 0; i < 20; i++) {
+            assertThat(scheduler.admit(TENANT_A, EndpointClass.DASHBOARD)).isEqualTo(Outcome.ADMITTED);
+            scheduler.release(EndpointClass.DASHBOARD);
+        }
+
+        List<Future<Outcome>> waiters = queueBehindHolder(TENANT_A, TENANT_A, TENANT_A, TENANT_B, TENANT_B, TENANT_B);
+
+        scheduler.release(EndpointClass.DASHBOARD);
+
+        // Sans avancer le temps virtuel, les 20 exécutions de A feraient passer tout B devant
+        assertAllAdmitted(waiters);
+        assertThat(served).containsExactly(TENANT_B, TENANT_A, TENANT_B, TENANT_A, TENANT_B, TENANT_A);
+    }
+
+    // ============================================
+    // TESTS DES REFUS
+    // ============================================
+
+    @Test
+    @DisplayName("Refus - Devrait limiter le débit d'un tenant au-delà de la rafale")
+    void testAdmit_ShouldRateLimitBeyondBucketCapacity() throws Exception {
+        int capacity = config.policyFor(EndpointClass.MATCHING).getBucketCapacity();
+        for (int i = 0; i < capacity; i++) {
+            assertThat(scheduler.admit(TENANT_A, EndpointClass.MATCHING)).isEqualTo(Outcome.ADMITTED);
+            scheduler.release(EndpointClass.MATCHING);
+        }
+
+        assertThat(scheduler.admit(TENANT_A, EndpointClass.MATCHING)).isEqualTo(Outcome.RATE_LIMITED);
+        assertThat(scheduler.admit(TENANT_B, EndpointClass.MATCHING)).isEqualTo(Outcome.ADMITTED);
+    }
+
+    @Test
+    @DisplayName("Refus - Devrait refuser quand la file est pleine")
+    void testAdmit_ShouldRejectWhenQueueIsFull() throws Exception {
+        config.setMaxQueueDepth(0);
+
+        assertThat(scheduler.admit(TENANT_A, EndpointClass.DASHBOARD)).isEqualTo(Outcome.ADMITTED);
+        assertThat(scheduler.admit(TENANT_B, EndpointClass.DASHBOARD)).isEqualTo(Outcome.QUEUE_FULL);
+    }
+
+    @Test
+    @DisplayName("Refus - La file ne devrait pas immobiliser plus du quart des threads de requête")
+    void testAdmit_ShouldCapQueueBelowWorkerThreads() throws Exception {
+        config.setMaxQueueDepth(500);
+        scheduler = new HeavyOperationScheduler(config, new SimpleMeterRegistry(), 8, false);
+
+        List<Future<Outcome>> waiters = queueBehindHolder(TENANT_A, TENANT_B);
+
+        assertThat(scheduler.admit(TENANT_B, EndpointClass.DASHBOARD)).isEqualTo(Outcome.QUEUE_FULL);
+
+        scheduler.release(EndpointClass.DASHBOARD);
+        assertAllAdmitted(waiters);
+    }
+
+    /**
+     * Occupe la seule place puis met en file une requête par tenant donné, dans l'ordre
+     * Chaque requête admise note son tenant puis rend sa place.
+     */
+    private List<Future<Outcome>> queueBehindHolder(String... tenants) throws Exception {
+        assertThat(scheduler.admit(TENANT_HOLDER, EndpointClass.DASHBOARD)).isEqualTo(Outcome.ADMITTED);
+
+        List<Future<Outcome>> waiters = new ArrayList<>();
+        for (String tenant : tenants) {
+            int expectedDepth = scheduler.getQueueDepth() + 1;
+            waiters.add(executor.submit(() -> {
+                Outcome outcome = scheduler.admit(tenant, EndpointClass.DASHBOARD);
+                if (outcome == Outcome.ADMITTED) {
+                    served.add(tenant);
+                    scheduler.release(EndpointClass.DASHBOARD);
+                }
+                return outcome;
+            }));
+            awaitQueueDepth(expectedDepth);
+        }
+        return waiters;
+    }
+
+    private void awaitQueueDepth(int expectedDepth) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (scheduler.getQueueDepth() < expectedDepth) {
+            assertThat(System.nanoTime()).as("file de %d requête(s)", expectedDepth).isLessThan(deadline);
+            Thread.sleep(1);
+        }
+    }
+
+    private static void assertAllAdmitted(List<Future<Outcome>> waiters) throws Exception {
+        for (Future<Outcome> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo(Outcome.ADMITTED);
+        }
+    }
+}
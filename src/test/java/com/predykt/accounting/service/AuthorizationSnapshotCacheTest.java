@@ -0,0 +1,264 @@
+package com.predykt.accounting.service;
+
+import com.predykt.accounting.domain.entity.Company;
+import com.predykt.accounting.domain.entity.Permission;
+import com.predykt.accounting.domain.entity.Role;
+import com.predykt.accounting.domain.entity.User;
+import com.predykt.accounting.domain.entity.UserCompanyAccess;
+import com.predykt.accounting.domain.enums.AccessLevel;
+import com.predykt.accounting.repository.CompanyRepository;
+import com.predykt.accounting.repository.PermissionRepository;
+import com.predykt.accounting.repository.RoleRepository;
+import com.predykt.accounting.repository.UserCompanyAccessRepository;
+import com.predykt.accounting.repository.UserRepository;
+import com.predykt.accounting.security.AuthenticatedPrincipalCache;
+import com.predykt.accounting.security.AuthorizationSnapshot;
+import com.predykt.accounting.security.AuthorizationSnapshotCache;
+import com.predykt.accounting.security.PermissionCodeIndex;
+import com.predykt.accounting.security.SecurityService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitaires pour AuthorizationSnapshotCache
+ *
+ * Couvre:
+ * - Accord des vérifications (@securityService) avec les requêtes d'accès aux dossiers
+ * - Invalidation de l'instantané et du principal en cache par PermissionService et UserCompanyAccessService
+ * - Construction concurrente d'une invalidation: instantané non conservé
+ * - Durée de vie des instantanés et invalidations reçues des autres instances
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuthorizationSnapshotCache - Tests unitaires")
+class AuthorizationSnapshotCacheTest {
+
+    private static final Long USER_ID = 1L;
+
+    @Mock
+    private UserCompanyAccessRepository accessRepository;
+
+    @Mock
+    private AuthenticatedPrincipalCache principalCache;
+
+    @Mock
+    private PermissionRepository permissionRepository;
+
+    @Mock
+    private RoleRepository roleRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CompanyRepository companyRepository;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private AuthorizationSnapshotCache snapshotCache;
+    private SecurityService securityService;
+
+    private User user;
+    private Role accountantRole;
+    private Permission writePermission;
+
+    @BeforeEach
+    void setUp() {
+        snapshotCache = new AuthorizationSnapshotCache(
+            accessRepository, new PermissionCodeIndex(), principalCache, redisTemplate);
+        ReflectionTestUtils.setField(snapshotCache, "ttlSeconds", 300L);
+        securityService = new SecurityService(snapshotCache);
+
+        Permission readPermission = Permission.builder().id(10L).permissionCode("ACCOUNTING_READ").build();
+        writePermission = Permission.builder().id(11L).permissionCode("ACCOUNTING_WRITE").build();
+
+        accountantRole = Role.builder().id(2).name("ACCOUNTANT").build();
+        accountantRole.addPermission(readPermission);
+
+        user = User.builder().id(USER_ID).email("comptable@predykt.cm").roles(Set.of(accountantRole)).build();
+
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken(user, null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    // ============================================
+    // TESTS DE L'INSTANTANÉ
+    // ============================================
+
+    @Test
+    @DisplayName("Instantané - Les vérifications devraient refléter les rôles et les requêtes d'accès")
+    void testSnapshot_ShouldAgreeWithRolesAndRepositoryQueries() {
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(30L, 10L, 20L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of(20L));
+
+        assertThat(securityService.hasPermission("ACCOUNTING_READ")).isTrue();
+        assertThat(securityService.hasPermission("ACCOUNTING_WRITE")).isFalse();
+        assertThat(securityService.hasPermission("CODE_INCONNU")).isFalse();
+
+        assertThat(securityService.canAccessCompany(10L)).isTrue();
+        assertThat(securityService.canAccessCompany(20L)).isTrue();
+        assertThat(securityService.canAccessCompany(30L)).isTrue();
+        assertThat(securityService.canAccessCompany(40L)).isFalse();
+        assertThat(securityService.canAccessCompany(null)).isFalse();
+
+        assertThat(securityService.canWriteCompany(20L)).isTrue();
+        assertThat(securityService.canWriteCompany(10L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Instantané - Devrait être construit une seule fois puis réutilisé")
+    void testSnapshot_ShouldBeBuiltOnce() {
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of());
+
+        AuthorizationSnapshot first = snapshotCache.snapshotFor(user);
+        AuthorizationSnapshot second = snapshotCache.snapshotFor(user);
+
+        assertThat(second).isSameAs(first);
+        verify(accessRepository, times(1)).findCompanyIdsByUserId(USER_ID);
+    }
+
+    // ============================================
+    // TESTS DES INVALIDATIONS
+    // ============================================
+
+    @Test
+    @DisplayName("Invalidation - L'ajout d'une permission à un rôle devrait invalider instantanés et principaux")
+    void testAssignPermissionToRole_ShouldInvalidateSnapshotAndPrincipals() {
+        PermissionService permissionService = new PermissionService(permissionRepository, roleRepository, snapshotCache);
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L));
+        when(permissionRepository.findById(11L)).thenReturn(Optional.of(writePermission));
+        when(roleRepository.findById(2)).thenReturn(Optional.of(accountantRole));
+
+        assertThat(securityService.hasPermission("ACCOUNTING_WRITE")).isFalse();
+
+        permissionService.assignPermissionToRole(11L, 2);
+
+        verify(roleRepository).save(accountantRole);
+        verify(principalCache).clear();
+        assertThat(securityService.hasPermission("ACCOUNTING_WRITE")).isTrue();
+        verify(accessRepository, times(2)).findCompanyIdsByUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Invalidation - L'octroi d'un accès devrait invalider l'instantané et les principaux de l'utilisateur")
+    void testGrantAccess_ShouldInvalidateSnapshotAndPrincipals() {
+        UserCompanyAccessService accessService = new UserCompanyAccessService(
+            accessRepository, userRepository, companyRepository, snapshotCache, securityService);
+        Company company = Company.builder().id(50L).name("Client SARL").build();
+
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L), List.of(10L, 50L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of(), List.of(50L));
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(companyRepository.findById(50L)).thenReturn(Optional.of(company));
+        when(accessRepository.findByUserIdAndCompanyId(USER_ID, 50L)).thenReturn(Optional.empty());
+        when(accessRepository.save(any(UserCompanyAccess.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThat(securityService.canAccessCompany(50L)).isFalse();
+
+        accessService.grantAccess(USER_ID, 50L, AccessLevel.READ_WRITE);
+
+        verify(principalCache).invalidateUser(USER_ID);
+        assertThat(securityService.canAccessCompany(50L)).isTrue();
+        assertThat(securityService.canWriteCompany(50L)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Invalidation - Une construction chevauchant une invalidation ne devrait pas être conservée")
+    void testSnapshotFor_ShouldNotCacheBuildOverlappingInvalidation() {
+        when(accessRepository.findCompanyIdsByUserId(USER_ID))
+            .thenAnswer(invocation -> {
+                // Accès modifié (et cache invalidé) pendant la construction
+                snapshotCache.invalidateUser(USER_ID);
+                return List.of(10L);
+            })
+            .thenReturn(List.of(10L, 50L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of());
+
+        AuthorizationSnapshot stale = snapshotCache.snapshotFor(user);
+        AuthorizationSnapshot rebuilt = snapshotCache.snapshotFor(user);
+        AuthorizationSnapshot cached = snapshotCache.snapshotFor(user);
+
+        assertThat(stale.hasAccessToCompany(50L)).isFalse();
+        assertThat(rebuilt).isNotSameAs(stale);
+        assertThat(rebuilt.hasAccessToCompany(50L)).isTrue();
+        assertThat(cached).isSameAs(rebuilt);
+        verify(accessRepository, times(2)).findCompanyIdsByUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Invalidation - invalidateUser ne devrait toucher que l'utilisateur concerné")
+    void testInvalidateUser_ShouldOnlyEvictThatUser() {
+        User otherUser = User.builder().id(2L).email("auditeur@predykt.cm").roles(Set.of(accountantRole)).build();
+        when(accessRepository.findCompanyIdsByUserId(any())).thenReturn(List.of(10L));
+        when(accessRepository.findWritableCompanyIdsByUserId(any())).thenReturn(List.of());
+
+        AuthorizationSnapshot userSnapshot = snapshotCache.snapshotFor(user);
+        AuthorizationSnapshot otherSnapshot = snapshotCache.snapshotFor(otherUser);
+
+        snapshotCache.invalidateUser(USER_ID);
+
+        verify(principalCache).invalidateUser(USER_ID);
+        verify(principalCache, never()).clear();
+        assertThat(snapshotCache.snapshotFor(otherUser)).isSameAs(otherSnapshot);
+        assertThat(snapshotCache.snapshotFor(user)).isNotSameAs(userSnapshot);
+    }
+
+    @Test
+    @DisplayName("Invalidation - Un instantané expiré devrait être reconstruit")
+    void testSnapshotFor_ShouldRebuildAfterTtl() {
+        ReflectionTestUtils.setField(snapshotCache, "ttlSeconds", 0L);
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L), List.of());
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of());
+
+        AuthorizationSnapshot first = snapshotCache.snapshotFor(user);
+        AuthorizationSnapshot second = snapshotCache.snapshotFor(user);
+
+        assertThat(first.hasAccessToCompany(10L)).isTrue();
+        assertThat(second.hasAccessToCompany(10L)).isFalse();
+        verify(accessRepository, times(2)).findCompanyIdsByUserId(USER_ID);
+    }
+
+    @Test
+    @DisplayName("Invalidation - Une invalidation reçue d'une autre instance devrait être appliquée sans être rediffusée")
+    void testOnRemoteInvalidation_ShouldEvictLocallyWithoutRepublishing() {
+        when(accessRepository.findCompanyIdsByUserId(USER_ID)).thenReturn(List.of(10L));
+        when(accessRepository.findWritableCompanyIdsByUserId(USER_ID)).thenReturn(List.of());
+
+        AuthorizationSnapshot userSnapshot = snapshotCache.snapshotFor(user);
+        snapshotCache.onRemoteInvalidation(String.valueOf(USER_ID));
+
+        verify(principalCache).invalidateUser(USER_ID);
+        assertThat(snapshotCache.snapshotFor(user)).isNotSameAs(userSnapshot);
+
+        snapshotCache.onRemoteInvalidation("*");
+        snapshotCache.onRemoteInvalidation("inconnu");
+
+        verify(principalCache).clear();
+        verifyNoInteractions(redisTemplate);
+    }
+}
@@ -0,0 +1,109 @@
+package com.predykt.accounting.service.parser;
+
+import com.predykt.accounting.dto.request.BankTransactionImportDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour Camt053BankStatementParser
+ * Fichier de référence: bank-statements/camt053-multi-account.xml (deux <Stmt>, compte IBAN
+ * puis Othr/Id, plusieurs TxDtls, dates en DtTm, écriture sans montant)
+ */
+@DisplayName("Camt053BankStatementParser - Relevés ISO 20022 CAMT.053")
+class Camt053BankStatementParserTest {
+
+    private static final String FIXTURE = "/bank-statements/camt053-multi-account.xml";
+
+    private Camt053BankStatementParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new Camt053BankStatementParser();
+    }
+
+    @Test
+    @DisplayName("Fichier - Devrait lire les écritures des deux relevés et ignorer les soldes")
+    void testParse_ShouldReadEntriesOfAllStatements() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        assertThat(transactions).hasSize(3);
+        assertThat(transactions.stream().map(BankTransactionImportDto::getBankReference).toList())
+            .containsExactly("BK240315002", "BK240315001", "BK240315900");
+    }
+
+    @Test
+    @DisplayName("Fichier - Chaque écriture devrait porter le compte de son relevé (IBAN puis Othr/Id)")
+    void testParse_ShouldAttachAccountOfOwnStatement() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        assertThat(transactions.get(0).getAccountNumber()).isEqualTo("CM2110001000012345678901234");
+        assertThat(transactions.get(1).getAccountNumber()).isEqualTo("CM2110001000012345678901234");
+        assertThat(transactions.get(2).getAccountNumber()).isEqualTo("0098765432101");
+        assertThat(transactions.get(2).getCurrency()).isEqualTo("EUR");
+    }
+
+    @Test
+    @DisplayName("Crédit - Devrait lire le débiteur et la remise non structurée")
+    void testParse_ShouldReadCreditEntry() throws Exception {
+        BankTransactionImportDto credit = parseFixture().get(0);
+
+        assertThat(credit.getAmount()).isEqualByComparingTo("1000000");
+        assertThat(credit.getCurrency()).isEqualTo("XAF");
+        assertThat(credit.getThirdPartyName()).isEqualTo("ALPHA SARL");
+        assertThat(credit.getDescription()).isEqualTo("Règlement facture FV-2024-031");
+        assertThat(credit.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(credit.getValueDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+    }
+
+    @Test
+    @DisplayName("Débit - Devrait lire le montant de l'écriture et le premier TxDtls seulement")
+    void testParse_ShouldReadDebitEntryFromFirstTransactionDetails() throws Exception {
+        BankTransactionImportDto debit = parseFixture().get(1);
+
+        // Montant de <Ntry>, pas celui des <TxAmt> de détail
+        assertThat(debit.getAmount()).isEqualByComparingTo("-250000.50");
+        assertThat(debit.getThirdPartyName()).isEqualTo("SOFACAM");
+        assertThat(debit.getDescription()).isEqualTo("Facture F-2024-118");
+        assertThat(debit.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(debit.getValueDate()).isEqualTo(LocalDate.of(2024, 3, 16));
+    }
+
+    @Test
+    @DisplayName("Débit - Devrait se rabattre sur AddtlNtryInf sans détail de transaction")
+    void testParse_ShouldFallBackToEntryInformation() throws Exception {
+        BankTransactionImportDto fee = parseFixture().get(2);
+
+        assertThat(fee.getAmount()).isEqualByComparingTo("-45.50");
+        assertThat(fee.getDescription()).isEqualTo("Commission tenue de compte");
+        assertThat(fee.getThirdPartyName()).isEmpty();
+        assertThat(fee.getValueDate()).isNull();
+    }
+
+    @Test
+    @DisplayName("Flux - Devrait émettre les mêmes écritures que la lecture en liste")
+    void testParseStreaming_ShouldEmitSameTransactions() throws Exception {
+        List<BankTransactionImportDto> streamed = new ArrayList<>();
+        long count;
+        try (InputStream input = getClass().getResourceAsStream(FIXTURE)) {
+            count = parser.parse(input, streamed::add);
+        }
+
+        assertThat(count).isEqualTo(3L);
+        assertThat(streamed).isEqualTo(parseFixture());
+    }
+
+    private List<BankTransactionImportDto> parseFixture() throws Exception {
+        try (InputStream input = getClass().getResourceAsStream(FIXTURE)) {
+            assertThat(input).as("fixture %s", FIXTURE).isNotNull();
+            return parser.parse(input, "camt053-multi-account.xml");
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.predykt.accounting.service.parser;
+
+import com.predykt.accounting.dto.request.BankTransactionImportDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour Mt940BankStatementParser
+ * Fichier de référence: bank-statements/mt940-multi-statement.sta (deux relevés SWIFT,
+ * :86: sur plusieurs lignes, extournes RC/RD, :61: sans :86:)
+ */
+@DisplayName("Mt940BankStatementParser - Relevés SWIFT MT940")
+class Mt940BankStatementParserTest {
+
+    private static final String FIXTURE = "/bank-statements/mt940-multi-statement.sta";
+
+    private Mt940BankStatementParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new Mt940BankStatementParser();
+    }
+
+    // ============================================
+    // TESTS SUR FICHIER DE RÉFÉRENCE
+    // ============================================
+
+    @Test
+    @DisplayName("Fichier - Devrait lire toutes les transactions des deux relevés")
+    void testParse_ShouldReadAllStatements() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        assertThat(transactions).hasSize(6);
+        assertThat(transactions.stream().map(BankTransactionImportDto::getBankReference).toList())
+            .containsExactly(
+                "NTRFNONREF//BK240315001",
+                "NTRFREF-CLIENT-42//BK240315002",
+                "NCHGNONREF//BK240316001",
+                "NTRFNONREF//BK240316002",
+                "NCHGNONREF//BK240315900",
+                "NMSCNONREF//BK240315901");
+    }
+
+    @Test
+    @DisplayName("Fichier - Chaque transaction devrait porter le compte et la devise de son relevé")
+    void testParse_ShouldAttachAccountAndCurrencyOfOwnStatement() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        for (BankTransactionImportDto transaction : transactions.subList(0, 4)) {
+            assertThat(transaction.getAccountNumber()).isEqualTo("CM2110001000012345678901234");
+            assertThat(transaction.getCurrency()).isEqualTo("XAF");
+        }
+        for (BankTransactionImportDto transaction : transactions.subList(4, 6)) {
+            assertThat(transaction.getAccountNumber()).isEqualTo("CM2110001000098765432109876");
+            assertThat(transaction.getCurrency()).isEqualTo("EUR");
+        }
+    }
+
+    @Test
+    @DisplayName("Fichier - Devrait concaténer un :86: écrit sur plusieurs lignes")
+    void testParse_ShouldJoinMultiLineInformation() throws Exception {
+        BankTransactionImportDto transaction = parseFixture().get(0);
+
+        assertThat(transaction.getDescription())
+            .isEqualTo("VIREMENT FOURNISSEUR SOFACAM FACTURE F-2024-118 REGLEMENT PARTIEL");
+        assertThat(transaction.getAmount()).isEqualByComparingTo("-250000.00");
+        assertThat(transaction.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(transaction.getAdditionalInfo()).isEqualTo("MT940 D");
+    }
+
+    @Test
+    @DisplayName("Fichier - Devrait signer les extournes: RD positif, RC négatif")
+    void testParse_ShouldSignReversalEntries() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        BankTransactionImportDto debitReversal = transactions.get(2);
+        assertThat(debitReversal.getAmount()).isEqualByComparingTo("15000.00");
+        assertThat(debitReversal.getAdditionalInfo()).isEqualTo("MT940 RD");
+        assertThat(debitReversal.getDescription()).isEqualTo("EXTOURNE FRAIS TENUE DE COMPTE");
+
+        BankTransactionImportDto creditReversal = transactions.get(3);
+        assertThat(creditReversal.getAmount()).isEqualByComparingTo("-500.00");
+        assertThat(creditReversal.getAdditionalInfo()).isEqualTo("MT940 RC");
+    }
+
+    @Test
+    @DisplayName("Fichier - Devrait accepter un montant sans décimales et un :61: sans :86:")
+    void testParse_ShouldHandleTrailingCommaAndMissingInformation() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture();
+
+        assertThat(transactions.get(1).getAmount()).isEqualByComparingTo("1000000");
+        assertThat(transactions.get(1).getDescription()).isEqualTo("VERSEMENT CLIENT ALPHA SARL");
+
+        BankTransactionImportDto withoutInformation = transactions.get(5);
+        assertThat(withoutInformation.getAmount()).isEqualByComparingTo("10.00");
+        assertThat(withoutInformation.getDescription()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Flux - Devrait émettre les mêmes transactions que la lecture en liste")
+    void testParseStreaming_ShouldEmitSameTransactions() throws Exception {
+        List<BankTransactionImportDto> streamed = new ArrayList<>();
+        long count;
+        try (InputStream input = getClass().getResourceAsStream(FIXTURE)) {
+            count = parser.parse(input, streamed::add);
+        }
+
+        assertThat(count).isEqualTo(6L);
+        assertThat(streamed).isEqualTo(parseFixture());
+    }
+
+    // ============================================
+    // TESTS DES LIGNES :61:
+    // ============================================
+
+    @Test
+    @DisplayName("Ligne :61: - Devrait lire la date d'écriture optionnelle et le code fonds")
+    void testParseTransactionLine_ShouldSkipEntryDateAndFundsCode() {
+        String line = ":61:2403150316CN1250,75NTRFNONREF";
+
+        Mt940BankStatementParser.Mt940Transaction transaction =
+            Mt940BankStatementParser.parseTransactionLine(line, Mt940BankStatementParser.tagEnd(line));
+
+        assertThat(transaction).isNotNull();
+        assertThat(transaction.date()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(transaction.amount()).isEqualByComparingTo("1250.75");
+        assertThat(transaction.debitCredit()).isEqualTo("C");
+        assertThat(transaction.reference()).isEqualTo("NTRFNONREF");
+    }
+
+    @Test
+    @DisplayName("Ligne :61: - Devrait rejeter une date ou une marque débit/crédit invalide")
+    void testParseTransactionLine_ShouldRejectInvalidLines() {
+        assertThat(Mt940BankStatementParser.parseTransactionLine(":61:241332C1,00NTRF", 4)).isNull();
+        assertThat(Mt940BankStatementParser.parseTransactionLine(":61:240315X1,00NTRF", 4)).isNull();
+        assertThat(Mt940BankStatementParser.parseTransactionLine(":61:240315CNTRF", 4)).isNull();
+        assertThat(Mt940BankStatementParser.parseTransactionLine(":61:2403", 4)).isNull();
+    }
+
+    @Test
+    @DisplayName("Balises - Devrait reconnaître les balises avec ou sans option lettre")
+    void testTagEnd_ShouldRecognizeTags() {
+        assertThat(Mt940BankStatementParser.tagEnd(":61:240315")).isEqualTo(4);
+        assertThat(Mt940BankStatementParser.tagEnd(":28C:00052/001")).isEqualTo(5);
+        assertThat(Mt940BankStatementParser.tagEnd("FACTURE :61:")).isEqualTo(-1);
+        assertThat(Mt940BankStatementParser.tagEnd(":1234:")).isEqualTo(-1);
+        assertThat(Mt940BankStatementParser.tagOf(":62F:C240316", 5)).isEqualTo(Mt940BankStatementParser.Tag.OTHER);
+    }
+
+    @Test
+    @DisplayName("Flux - Devrait accepter les fins de ligne CRLF")
+    void testParse_ShouldHandleCrlf() throws Exception {
+        String content = ":20:REF\r\n:25:CM21\r\n:60F:C240314XAF0,\r\n"
+            + ":61:240315D100,NTRF\r\n:86:LIGNE 1\r\nLIGNE 2\r\n:62F:C240315XAF100,\r\n";
+
+        List<BankTransactionImportDto> transactions = parser.parse(
+            new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), "releve.sta");
+
+        assertThat(transactions).hasSize(1);
+        assertThat(transactions.get(0).getDescription()).isEqualTo("LIGNE 1 LIGNE 2");
+        assertThat(transactions.get(0).getAmount()).isEqualByComparingTo("-100");
+    }
+
+    private List<BankTransactionImportDto> parseFixture() throws Exception {
+        try (InputStream input = getClass().getResourceAsStream(FIXTURE)) {
+            assertThat(input).as("fixture %s", FIXTURE).isNotNull();
+            return parser.parse(input, "mt940-multi-statement.sta");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.predykt.accounting.service.parser;
+
+import com.predykt.accounting.dto.request.BankTransactionImportDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour OfxBankStatementParser
+ * Fichiers de référence: bank-statements/ofx1-sgml-multi-account.ofx (OFX 1.x, balises feuilles
+ * non fermées, compte courant et carte) et bank-statements/ofx2-xml.ofx (OFX 2.x)
+ */
+@DisplayName("OfxBankStatementParser - Relevés OFX 1.x et 2.x")
+class OfxBankStatementParserTest {
+
+    private static final String SGML_FIXTURE = "/bank-statements/ofx1-sgml-multi-account.ofx";
+    private static final String XML_FIXTURE = "/bank-statements/ofx2-xml.ofx";
+
+    private OfxBankStatementParser parser;
+
+    @BeforeEach
+    void setUp() {
+        parser = new OfxBankStatementParser();
+    }
+
+    // ============================================
+    // TESTS OFX 1.x (SGML)
+    // ============================================
+
+    @Test
+    @DisplayName("SGML - Devrait lire les transactions des deux relevés et ignorer celle sans montant")
+    void testParseSgml_ShouldReadAllStatements() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture(SGML_FIXTURE);
+
+        assertThat(transactions).hasSize(3);
+        assertThat(transactions.stream().map(BankTransactionImportDto::getBankReference).toList())
+            .containsExactly("ECO240315002", "ECO240315001", "CC240316001");
+    }
+
+    @Test
+    @DisplayName("SGML - Chaque transaction devrait porter le compte et la devise de son relevé")
+    void testParseSgml_ShouldAttachAccountAndCurrencyOfOwnStatement() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture(SGML_FIXTURE);
+
+        assertThat(transactions.get(0).getAccountNumber()).isEqualTo("37100012345");
+        assertThat(transactions.get(0).getCurrency()).isEqualTo("XAF");
+        assertThat(transactions.get(2).getAccountNumber()).isEqualTo("4111XXXXXXXX1111");
+        assertThat(transactions.get(2).getCurrency()).isEqualTo("USD");
+    }
+
+    @Test
+    @DisplayName("SGML - Devrait lire montant à virgule, dates et libellé")
+    void testParseSgml_ShouldReadCreditTransaction() throws Exception {
+        BankTransactionImportDto credit = parseFixture(SGML_FIXTURE).get(0);
+
+        assertThat(credit.getAmount()).isEqualByComparingTo("1000000.00");
+        assertThat(credit.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(credit.getValueDate()).isEqualTo(LocalDate.of(2024, 3, 14));
+        assertThat(credit.getThirdPartyName()).isEqualTo("ALPHA SARL");
+        assertThat(credit.getDescription()).isEqualTo("ALPHA SARL - Reglement FV-2024-031");
+    }
+
+    @Test
+    @DisplayName("SGML - Devrait décoder les entités et retenir la devise de la transaction")
+    void testParseSgml_ShouldDecodeEntitiesAndUseTransactionCurrency() throws Exception {
+        BankTransactionImportDto debit = parseFixture(SGML_FIXTURE).get(1);
+
+        assertThat(debit.getAmount()).isEqualByComparingTo("-250000.50");
+        assertThat(debit.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(debit.getThirdPartyName()).isEqualTo("SOFACAM & FILS");
+        assertThat(debit.getAdditionalInfo()).isEqualTo("Facture <F-2024-118>");
+        assertThat(debit.getCurrency()).isEqualTo("EUR");
+    }
+
+    // ============================================
+    // TESTS OFX 2.x (XML)
+    // ============================================
+
+    @Test
+    @DisplayName("XML - Devrait lire un relevé OFX 2.x aux balises fermées")
+    void testParseXml_ShouldReadClosedTags() throws Exception {
+        List<BankTransactionImportDto> transactions = parseFixture(XML_FIXTURE);
+
+        assertThat(transactions).hasSize(1);
+        BankTransactionImportDto credit = transactions.get(0);
+        assertThat(credit.getAmount()).isEqualByComparingTo("75000");
+        assertThat(credit.getTransactionDate()).isEqualTo(LocalDate.of(2024, 3, 20));
+        assertThat(credit.getBankReference()).isEqualTo("UBA240320001");
+        assertThat(credit.getDescription()).isEqualTo("BETA SA - Acompte commande");
+        assertThat(credit.getAccountNumber()).isEqualTo("0123456789");
+        assertThat(credit.getCurrency()).isEqualTo("XAF");
+    }
+
+    // ============================================
+    // TESTS DU JEU DE CARACTÈRES
+    // ============================================
+
+    @Test
+    @DisplayName("Jeu de caractères - Devrait décoder un OFX 1.x en windows-1252 selon CHARSET:1252")
+    void testParseSgml_ShouldHonourCharset1252() throws Exception {
+        String ofx = "OFXHEADER:100\r\nDATA:OFXSGML\r\nVERSION:102\r\nENCODING:USASCII\r\nCHARSET:1252\r\n\r\n"
+            + sgmlStatement("Société Générale Cameroun");
+
+        List<BankTransactionImportDto> transactions =
+            parser.parse(new ByteArrayInputStream(ofx.getBytes(Charset.forName("windows-1252"))), "cp1252.ofx");
+
+        assertThat(transactions).hasSize(1);
+        assertThat(transactions.get(0).getThirdPartyName()).isEqualTo("Société Générale Cameroun");
+    }
+
+    @Test
+    @DisplayName("Jeu de caractères - Devrait décoder un OFX 1.x en UTF-8 selon ENCODING:UTF-8")
+    void testParseSgml_ShouldHonourUtf8Encoding() throws Exception {
+        String ofx = "OFXHEADER:100\nDATA:OFXSGML\nVERSION:103\nENCODING:UTF-8\nCHARSET:NONE\n\n"
+            + sgmlStatement("Crédit Agricole – Agence Akwa");
+
+        List<BankTransactionImportDto> transactions =
+            parser.parse(new ByteArrayInputStream(ofx.getBytes(StandardCharsets.UTF_8)), "utf8.ofx");
+
+        assertThat(transactions.get(0).getThirdPartyName()).isEqualTo("Crédit Agricole – Agence Akwa");
+    }
+
+    @Test
+    @DisplayName("Jeu de caractères - Devrait suivre l'encoding de la déclaration XML en OFX 2.x")
+    void testParseXml_ShouldHonourXmlDeclarationEncoding() throws Exception {
+        String ofx = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<?OFX OFXHEADER=\"200\" VERSION=\"211\"?>\n"
+            + sgmlStatement("Hôtel Akwa Palace");
+
+        List<BankTransactionImportDto> transactions =
+            parser.parse(new ByteArrayInputStream(ofx.getBytes(StandardCharsets.ISO_8859_1)), "latin1.ofx");
+
+        assertThat(transactions.get(0).getThirdPartyName()).isEqualTo("Hôtel Akwa Palace");
+    }
+
+    @Test
+    @DisplayName("Flux - Devrait émettre les mêmes transactions que la lecture en liste")
+    void testParseStreaming_ShouldEmitSameTransactions() throws Exception {
+        List<BankTransactionImportDto> streamed = new ArrayList<>();
+        long count;
+        try (InputStream input = getClass().getResourceAsStream(SGML_FIXTURE)) {
+            count = parser.parse(input, streamed::add);
+        }
+
+        assertThat(count).isEqualTo(3L);
+        assertThat(streamed).isEqualTo(parseFixture(SGML_FIXTURE));
+    }
+
+    /**
+     * Relevé minimal à une transaction (balises feuilles non fermées)
+     */
+    private static String sgmlStatement(String payee) {
+        return "<OFX><BANKMSGSRSV1><STMTTRNRS><STMTRS><CURDEF>XAF\n"
+            + "<BANKACCTFROM><ACCTID>37100012345\n</BANKACCTFROM>\n"
+            + "<BANKTRANLIST><STMTTRN><TRNTYPE>CREDIT\n<DTPOSTED>20240315\n<TRNAMT>5000\n"
+            + "<FITID>FIT001\n<NAME>" + payee + "\n</STMTTRN></BANKTRANLIST>"
+            + "</STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\n";
+    }
+
+    private List<BankTransactionImportDto> parseFixture(String fixture) throws Exception {
+        try (InputStream input = getClass().getResourceAsStream(fixture)) {
+            assertThat(input).as("fixture %s", fixture).isNotNull();
+            return parser.parse(input, fixture);
+        }
+    }
+}
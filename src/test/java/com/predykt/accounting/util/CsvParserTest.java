@@ -0,0 +1,251 @@
+package com.predykt.accounting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour CsvParser
+ * Vérifie le découpage RFC 4180, la détection du séparateur, le BOM, les fins de ligne
+ * et la reprise d'une ligne coupée entre deux lectures du flux
+ */
+@DisplayName("CsvParser - Lecteur CSV en flux")
+class CsvParserTest {
+
+    // ============================================
+    // TESTS DES GUILLEMETS
+    // ============================================
+
+    @Test
+    @DisplayName("Guillemets - Devrait conserver les séparateurs dans un champ entre guillemets")
+    void testNext_ShouldKeepSeparatorsInsideQuotes() throws IOException {
+        List<String[]> rows = readAll(CsvParser.withSeparator(
+            new StringReader("\"Achat; fournitures\";\"1 250,50\";FAC-001\n"), ';'));
+
+        assertThat(rows).hasSize(1);
+        assertThat(rows.get(0)).containsExactly("Achat; fournitures", "1 250,50", "FAC-001");
+    }
+
+    @Test
+    @DisplayName("Guillemets - Devrait conserver les retours à la ligne dans un champ entre guillemets")
+    void testNext_ShouldKeepNewlinesInsideQuotes() throws IOException {
+        CsvParser parser = CsvParser.withSeparator(
+            new StringReader("\"Ligne 1\nLigne 2\";10\r\n\"Ligne A\r\nLigne B\";20\r\nfin;30\r\n"), ';');
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).isEqualTo("Ligne 1\nLigne 2");
+        assertThat(parser.getDecimal(1)).isEqualByComparingTo("10");
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).isEqualTo("Ligne A\r\nLigne B");
+        assertThat(parser.getRecordNumber()).isEqualTo(2);
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.toArray()).containsExactly("fin", "30");
+        assertThat(parser.next()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Guillemets - Devrait déséchapper les guillemets doublés")
+    void testGet_ShouldUnescapeDoubledQuotes() throws IOException {
+        CsvParser parser = CsvParser.withSeparator(
+            new StringReader("\"Il a dit \"\"oui\"\"\",\"\"\"\"\n"), ',');
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).isEqualTo("Il a dit \"oui\"");
+        assertThat(parser.get(1)).isEqualTo("\"");
+        assertThat(parser.equalsIgnoreCase(0, "IL A DIT \"OUI\"")).isTrue();
+    }
+
+    // ============================================
+    // TESTS DES FINS DE LIGNE ET DU BOM
+    // ============================================
+
+    @Test
+    @DisplayName("Fins de ligne - Devrait accepter \\n, \\r\\n et \\r sans ligne vide parasite")
+    void testNext_ShouldHandleAllLineEndings() throws IOException {
+        List<String[]> rows = readAll(CsvParser.withSeparator(
+            new StringReader("a,b\r\nc,d\ne,f\rg,h"), ','));
+
+        assertThat(rows).hasSize(4);
+        assertThat(rows.get(0)).containsExactly("a", "b");
+        assertThat(rows.get(1)).containsExactly("c", "d");
+        assertThat(rows.get(2)).containsExactly("e", "f");
+        assertThat(rows.get(3)).containsExactly("g", "h");
+    }
+
+    @Test
+    @DisplayName("BOM - Devrait ignorer le BOM et détecter le point-virgule")
+    void testDetectingSeparator_ShouldSkipBomAndDetectSemicolon() throws IOException {
+        CsvParser parser = CsvParser.detectingSeparator(
+            new StringReader("\uFEFFDate;Libellé;Montant\r\n15/03/2024;Achat, bureau;1,5\r\n"), ',');
+
+        assertThat(parser.getSeparator()).isEqualTo(';');
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).isEqualTo("Date");
+        assertThat(parser.equalsIgnoreCase(0, "DATE")).isTrue();
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(1)).isEqualTo("Achat, bureau");
+        assertThat(parser.getDecimal(2)).isEqualByComparingTo("1.5");
+    }
+
+    @Test
+    @DisplayName("BOM - Devrait ignorer le BOM et détecter la virgule")
+    void testDetectingSeparator_ShouldSkipBomAndDetectComma() throws IOException {
+        CsvParser parser = CsvParser.detectingSeparator(
+            new StringReader("\uFEFFDate,Libelle,Montant\n15/03/2024,\"Achat; bureau\",12.5\n"), ';');
+
+        assertThat(parser.getSeparator()).isEqualTo(',');
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).isEqualTo("Date");
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(1)).isEqualTo("Achat; bureau");
+        assertThat(parser.getDecimal(2)).isEqualByComparingTo("12.5");
+    }
+
+    @Test
+    @DisplayName("Séparateur - Devrait ignorer les séparateurs entre guillemets de l'en-tête")
+    void testDetectingSeparator_ShouldIgnoreQuotedCandidates() throws IOException {
+        CsvParser parser = CsvParser.detectingSeparator(
+            new StringReader("\"a;b;c\",x,y\n"), ';');
+
+        assertThat(parser.getSeparator()).isEqualTo(',');
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.toArray()).containsExactly("a;b;c", "x", "y");
+    }
+
+    @Test
+    @DisplayName("Séparateur - Devrait retenir le séparateur par défaut sans candidat")
+    void testDetectingSeparator_ShouldFallBackToDefault() throws IOException {
+        CsvParser parser = CsvParser.detectingSeparator(new StringReader("montant\n12\n"), ';');
+
+        assertThat(parser.getSeparator()).isEqualTo(';');
+        assertThat(readAll(parser)).hasSize(2);
+    }
+
+    // ============================================
+    // TESTS DES LECTURES COUPÉES DANS LE FLUX
+    // ============================================
+
+    @Test
+    @DisplayName("Tampon - Devrait donner le même résultat quelle que soit la taille des lectures")
+    void testNext_ShouldNotDependOnReadBoundaries() throws IOException {
+        String csv = "\uFEFFDate;Libellé;Montant\r\n"
+            + "15/03/2024;\"Achat; \"\"fournitures\"\"\";\"1 250,50\"\r\n"
+            + "16/03/2024;\"Sur deux\r\nlignes\";(300)\r\n"
+            + "17/03/2024;Vente;42\r";
+
+        for (int chunkSize : new int[]{1, 2, 3, 5, 7, 64}) {
+            CsvParser parser = CsvParser.detectingSeparator(new ChunkedReader(csv, chunkSize), ',');
+            DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy");
+
+            assertThat(parser.getSeparator()).as("séparateur, lectures de %d", chunkSize).isEqualTo(';');
+            assertThat(parser.next()).isTrue();
+            assertThat(parser.toArray()).as("en-tête, lectures de %d", chunkSize)
+                .containsExactly("Date", "Libellé", "Montant");
+
+            assertThat(parser.next()).isTrue();
+            assertThat(parser.getDate(0, detector)).isEqualTo(LocalDate.of(2024, 3, 15));
+            assertThat(parser.get(1)).as("lectures de %d", chunkSize).isEqualTo("Achat; \"fournitures\"");
+            assertThat(parser.getDecimal(2)).isEqualByComparingTo("1250.50");
+
+            assertThat(parser.next()).isTrue();
+            assertThat(parser.get(1)).as("lectures de %d", chunkSize).isEqualTo("Sur deux\r\nlignes");
+            assertThat(parser.getDecimal(2)).isEqualByComparingTo("-300");
+
+            assertThat(parser.next()).isTrue();
+            assertThat(parser.toArray()).as("lectures de %d", chunkSize)
+                .containsExactly("17/03/2024", "Vente", "42");
+            assertThat(parser.getRecordNumber()).isEqualTo(4);
+            assertThat(parser.next()).as("lectures de %d", chunkSize).isFalse();
+        }
+    }
+
+    @Test
+    @DisplayName("Tampon - Devrait agrandir le tampon pour une ligne plus longue que celui-ci")
+    void testNext_ShouldGrowBufferForLongRecord() throws IOException {
+        String longLabel = "x".repeat(200_000);
+        String csv = "a;b\n" + "\"" + longLabel + "\";1\n" + "c;2\n";
+
+        CsvParser parser = CsvParser.withSeparator(new ChunkedReader(csv, 4096), ';');
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.get(0)).hasSize(longLabel.length());
+        assertThat(parser.getDecimal(1)).isEqualByComparingTo(BigDecimal.ONE);
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.toArray()).containsExactly("c", "2");
+        assertThat(parser.next()).isFalse();
+    }
+
+    // ============================================
+    // TESTS DES CHAMPS
+    // ============================================
+
+    @Test
+    @DisplayName("Champs - Devrait signaler les lignes vides et les champs absents")
+    void testFields_ShouldReportBlankRecordsAndMissingFields() throws IOException {
+        CsvParser parser = CsvParser.withSeparator(new StringReader("a;b\n ; \nseul\n"), ';');
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.isBlankRecord()).isFalse();
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.isBlankRecord()).isTrue();
+
+        assertThat(parser.next()).isTrue();
+        assertThat(parser.size()).isEqualTo(1);
+        assertThat(parser.get(3)).isEmpty();
+        assertThat(parser.isEmpty(3)).isTrue();
+        assertThat(parser.getDecimal(3)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(parser.getDate(3, new DateFormatDetector("dd/MM/yyyy"))).isNull();
+    }
+
+    private static List<String[]> readAll(CsvParser parser) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        while (parser.next()) {
+            rows.add(parser.toArray());
+        }
+        return rows;
+    }
+
+    /**
+     * Flux qui ne rend que quelques caractères par lecture (coupures arbitraires des lignes)
+     */
+    private static final class ChunkedReader extends Reader {
+        private final String content;
+        private final int chunkSize;
+        private int position;
+
+        ChunkedReader(String content, int chunkSize) {
+            this.content = content;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position >= content.length()) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, chunkSize), content.length() - position);
+            content.getChars(position, position + count, buffer, offset);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.predykt.accounting.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests unitaires pour DateFormatDetector
+ * Vérifie le verrouillage sur le premier format qui convient et le re-verrouillage
+ * quand une date ambiguë (dd/MM ou MM/dd) n'est plus compatible avec le format retenu
+ */
+@DisplayName("DateFormatDetector - Détection du format de date")
+class DateFormatDetectorTest {
+
+    // ============================================
+    // TESTS DU VERROUILLAGE
+    // ============================================
+
+    @Test
+    @DisplayName("Verrouillage - Devrait retenir le premier format qui convient")
+    void testParse_ShouldLockOnFirstMatchingPattern() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy", "MM/dd/yyyy");
+
+        assertThat(detector.getDetectedPattern()).isNull();
+        assertThat(detector.parse("05/03/2024")).isEqualTo(LocalDate.of(2024, 3, 5));
+        assertThat(detector.getDetectedPattern()).isEqualTo("dd/MM/yyyy");
+    }
+
+    @Test
+    @DisplayName("Verrouillage - Une date sans ambiguïté devrait fixer le format des dates ambiguës suivantes")
+    void testParse_ShouldKeepUnambiguousLockForAmbiguousDates() {
+        DateFormatDetector detector = new DateFormatDetector("MM/dd/yyyy", "dd/MM/yyyy");
+
+        assertThat(detector.parse("25/12/2024")).isEqualTo(LocalDate.of(2024, 12, 25));
+        assertThat(detector.getDetectedPattern()).isEqualTo("dd/MM/yyyy");
+
+        // MM/dd serait essayé en premier sans verrouillage: 3 mai au lieu du 5 mars
+        assertThat(detector.parse("05/03/2024")).isEqualTo(LocalDate.of(2024, 3, 5));
+        assertThat(detector.getDetectedPattern()).isEqualTo("dd/MM/yyyy");
+    }
+
+    @Test
+    @DisplayName("Re-verrouillage - Devrait changer de format quand le format retenu échoue")
+    void testParse_ShouldRelockWhenLockedPatternFails() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy", "MM/dd/yyyy");
+
+        assertThat(detector.parse("05/03/2024")).isEqualTo(LocalDate.of(2024, 3, 5));
+        assertThat(detector.getDetectedPattern()).isEqualTo("dd/MM/yyyy");
+
+        // Mois 25 impossible en dd/MM: le fichier est en MM/dd
+        assertThat(detector.parse("12/25/2024")).isEqualTo(LocalDate.of(2024, 12, 25));
+        assertThat(detector.getDetectedPattern()).isEqualTo("MM/dd/yyyy");
+
+        // La même date ambiguë se lit désormais en MM/dd
+        assertThat(detector.parse("05/03/2024")).isEqualTo(LocalDate.of(2024, 5, 3));
+        assertThat(detector.getDetectedPattern()).isEqualTo("MM/dd/yyyy");
+    }
+
+    @Test
+    @DisplayName("Re-verrouillage - Devrait conserver le format retenu si aucun autre ne convient")
+    void testParse_ShouldKeepLockWhenNoPatternMatches() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy", "MM/dd/yyyy");
+
+        detector.parse("25/12/2024");
+        assertThat(detector.parse("pas une date")).isNull();
+        assertThat(detector.parse("32/13/2024")).isNull();
+        assertThat(detector.getDetectedPattern()).isEqualTo("dd/MM/yyyy");
+    }
+
+    // ============================================
+    // TESTS DES FORMATS
+    // ============================================
+
+    @Test
+    @DisplayName("Formats - Devrait lire un ou deux chiffres pour d et M")
+    void testParse_ShouldAcceptSingleDigitDayAndMonth() {
+        DateFormatDetector detector = new DateFormatDetector("d/M/yyyy");
+
+        assertThat(detector.parse("5/3/2024")).isEqualTo(LocalDate.of(2024, 3, 5));
+        assertThat(detector.parse("15/11/2024")).isEqualTo(LocalDate.of(2024, 11, 15));
+        assertThat(detector.parse("5/3/24")).isNull();
+    }
+
+    @Test
+    @DisplayName("Formats - Devrait exiger la largeur exacte pour dd et MM")
+    void testParse_ShouldRequireExactWidthForDoubleLetters() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy");
+
+        assertThat(detector.parse("5/3/2024")).isNull();
+        assertThat(detector.parse("05/03/2024 ")).isNull();
+    }
+
+    @Test
+    @DisplayName("Formats - Devrait lire les formats sans séparateur et ISO")
+    void testParse_ShouldReadCompactAndIsoPatterns() {
+        assertThat(new DateFormatDetector("yyyyMMdd").parse("20240315")).isEqualTo(LocalDate.of(2024, 3, 15));
+        assertThat(new DateFormatDetector("yyyy-MM-dd").parse("2024-03-15")).isEqualTo(LocalDate.of(2024, 3, 15));
+    }
+
+    @Test
+    @DisplayName("Formats - Devrait ramener un jour hors mois au dernier jour du mois")
+    void testParse_ShouldResolveDayPastEndOfMonth() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy");
+
+        assertThat(detector.parse("31/02/2024")).isEqualTo(LocalDate.of(2024, 2, 29));
+        assertThat(detector.parse("31/04/2023")).isEqualTo(LocalDate.of(2023, 4, 30));
+    }
+
+    @Test
+    @DisplayName("Formats - Devrait rendre null pour un texte vide")
+    void testParse_ShouldReturnNullForEmptyText() {
+        DateFormatDetector detector = new DateFormatDetector("dd/MM/yyyy");
+
+        assertThat(detector.parse(null)).isNull();
+        assertThat(detector.parse("")).isNull();
+        assertThat(detector.getDetectedPattern()).isNull();
+    }
+}